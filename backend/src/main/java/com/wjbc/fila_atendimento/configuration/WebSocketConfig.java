@@ -1,6 +1,7 @@
 package com.wjbc.fila_atendimento.configuration;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -16,9 +17,44 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private WebSocketAuthInterceptor webSocketAuthInterceptor;
 
+    // "simples": broker em memória (apenas uma instância); "relay": broker STOMP externo (várias instâncias)
+    @Value("${websocket.broker.modo:simples}")
+    private String modoBroker;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.porta:61613}")
+    private int relayPorta;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.senha:guest}")
+    private String relaySenha;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic"); // Tópicos para broadcast
+        if ("relay".equalsIgnoreCase(modoBroker)) {
+            // Cada instância publica no broker externo, que entrega aos clientes conectados em qualquer réplica
+            var relay = config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPorta)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relaySenha)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relaySenha);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else if ("simples".equalsIgnoreCase(modoBroker)) {
+            config.enableSimpleBroker("/topic"); // Tópicos para broadcast
+        } else {
+            throw new IllegalStateException("websocket.broker.modo inválido: " + modoBroker + " (use 'simples' ou 'relay')");
+        }
         config.setApplicationDestinationPrefixes("/app"); // Prefixo para envio do cliente
     }
 
@@ -2,6 +2,7 @@ package com.wjbc.fila_atendimento.controller;
 
 import com.wjbc.fila_atendimento.controller.util.PaginationUtil;
 import com.wjbc.fila_atendimento.domain.dto.ApiResponse;
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteUpdateDTO;
@@ -24,10 +25,13 @@ public class ClienteController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> listarTodos(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<ClienteResponseDTO> clientes = clienteService.listarTodos();
-        return PaginationUtil.build(clientes, page, size, "Clientes listados com sucesso");
+        return PaginationUtil.listar(page, size, after, ClienteResponseDTO::id, "Clientes listados com sucesso",
+                clienteService::listarTodos,
+                clienteService::listarTodos,
+                clienteService::listarTodos);
     }
 
     @GetMapping("/{id}")
@@ -46,10 +50,33 @@ public class ClienteController {
     public ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> buscarPorNomeSemelhante(
             @PathVariable String nome,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<ClienteResponseDTO> clientes = clienteService.buscarPorNomeSemelhante(nome);
-        return PaginationUtil.build(clientes, page, size, "Clientes encontrados por nome");
+        return PaginationUtil.listar(page, size, after, ClienteResponseDTO::id, "Clientes encontrados por nome",
+                () -> clienteService.buscarPorNomeSemelhante(nome),
+                pageable -> clienteService.buscarPorNomeSemelhante(nome, pageable),
+                (apos, tamanho) -> clienteService.buscarPorNomeSemelhante(nome, apos, tamanho));
+    }
+
+    // Os mais semelhantes primeiro, limitados no banco (busca da recepção a cada tecla)
+    @GetMapping("/nome/{nome}/semelhantes")
+    public ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> buscarMaisSemelhantesPorNome(
+            @PathVariable String nome,
+            @RequestParam(required = false) Integer limite
+    ) {
+        List<ClienteResponseDTO> clientes = clienteService.buscarMaisSemelhantesPorNome(nome, limite);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Clientes semelhantes encontrados por nome", clientes));
+    }
+
+    // Caixa de busca da recepção: nome, CPF ou telefone, respondida pelo índice em memória a cada tecla
+    @GetMapping("/busca")
+    public ResponseEntity<ApiResponse<List<ClienteBuscaDTO>>> buscarPorTermo(
+            @RequestParam("q") String termo,
+            @RequestParam(required = false) Integer limite
+    ) {
+        List<ClienteBuscaDTO> clientes = clienteService.buscarPorTermo(termo, limite);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Clientes encontrados", clientes));
     }
 
     @PostMapping
@@ -80,19 +107,25 @@ public class ClienteController {
     public ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> buscarPorEmail(
             @PathVariable String email,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<ClienteResponseDTO> clientes = clienteService.buscarPorEmail(email, page, size);
-        return PaginationUtil.build(clientes, page, size, "Clientes encontrados por email");
+        return PaginationUtil.listar(page, size, after, ClienteResponseDTO::id, "Clientes encontrados por email",
+                () -> clienteService.buscarPorEmail(email, page, size),
+                pageable -> clienteService.buscarPorEmail(email, pageable),
+                (apos, tamanho) -> clienteService.buscarPorEmail(email, apos, tamanho));
     }
 
     @GetMapping("/telefone/{telefone}")
     public ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> buscarPorTelefone(
             @PathVariable String telefone,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<ClienteResponseDTO> clientes = clienteService.buscarPorTelefone(telefone, page, size);
-        return PaginationUtil.build(clientes, page, size, "Clientes encontrados por telefone");
+        return PaginationUtil.listar(page, size, after, ClienteResponseDTO::id, "Clientes encontrados por telefone",
+                () -> clienteService.buscarPorTelefone(telefone, page, size),
+                pageable -> clienteService.buscarPorTelefone(telefone, pageable),
+                (apos, tamanho) -> clienteService.buscarPorTelefone(telefone, apos, tamanho));
     }
 }
@@ -0,0 +1,26 @@
+package com.wjbc.fila_atendimento.controller;
+
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardAoVivoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.UUID;
+
+/**
+ * Estado inicial do dashboard ao vivo: ao se inscrever em {@code /app/dashboard/{unidadeId}} o
+ * cliente recebe a situação atual, sem esperar o próximo envio em {@code /topic/dashboard/{unidadeId}}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class DashboardAoVivoWebSocketController {
+
+    private final DashboardAoVivoService dashboardAoVivoService;
+
+    @SubscribeMapping("/dashboard/{unidadeId}")
+    public DashboardAoVivoDTO estadoAtual(@DestinationVariable UUID unidadeId) {
+        return dashboardAoVivoService.obter(unidadeId);
+    }
+}
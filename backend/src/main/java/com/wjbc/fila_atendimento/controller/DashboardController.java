@@ -55,4 +55,31 @@ public class DashboardController {
         List<FluxoPacientesDTO> lista = dashboardService.analisarFluxoPacientes(unidadeId, inicio, fim);
         return ResponseEntity.ok(new ApiResponse<>(true, "Fluxo de pacientes analisado com sucesso", lista));
     }
+
+    @GetMapping("/percentis-espera")
+    public ResponseEntity<ApiResponse<List<PercentisEsperaDTO>>> percentisEspera(
+            @RequestParam UUID unidadeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        List<PercentisEsperaDTO> lista = dashboardService.calcularPercentisEspera(unidadeId, inicio, fim);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Percentis de espera calculados com sucesso", lista));
+    }
+
+    @GetMapping("/percentis-atendimento")
+    public ResponseEntity<ApiResponse<List<PercentisAtendimentoDTO>>> percentisAtendimento(
+            @RequestParam UUID unidadeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        List<PercentisAtendimentoDTO> lista = dashboardService.calcularPercentisAtendimento(unidadeId, inicio, fim);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Percentis de atendimento calculados com sucesso", lista));
+    }
+
+    @GetMapping("/resumo")
+    public ResponseEntity<ApiResponse<DashboardResumoDTO>> resumo(
+            @RequestParam UUID unidadeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        DashboardResumoDTO resumo = dashboardService.gerarResumo(unidadeId, inicio, fim);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Resumo do dashboard gerado com sucesso", resumo));
+    }
 }
@@ -4,21 +4,35 @@ import com.wjbc.fila_atendimento.domain.dto.ApiResponse;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCancelamentoDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.FormatoExportacao;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaExportacaoService;
 import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
 import com.wjbc.fila_atendimento.controller.util.PaginationUtil;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/entrada-fila")
 public class EntradaFilaController {
     private final EntradaFilaService entradaFilaService;
+    private final EntradaFilaExportacaoService entradaFilaExportacaoService;
 
-    public EntradaFilaController(EntradaFilaService entradaFilaService) {
+    public EntradaFilaController(EntradaFilaService entradaFilaService,
+                                 EntradaFilaExportacaoService entradaFilaExportacaoService) {
         this.entradaFilaService = entradaFilaService;
+        this.entradaFilaExportacaoService = entradaFilaExportacaoService;
     }
 
     @PostMapping
@@ -58,9 +72,40 @@ public class EntradaFilaController {
     public ResponseEntity<ApiResponse<List<EntradaFilaResponseDTO>>> listarAguardandoPorFila(
             @PathVariable UUID filaId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<EntradaFilaResponseDTO> lista = entradaFilaService.listarAguardandoPorFila(filaId);
-        return PaginationUtil.build(lista, page, size, "Clientes aguardando listados com sucesso");
+        return PaginationUtil.listar(page, size, after, EntradaFilaResponseDTO::id, "Clientes aguardando listados com sucesso",
+                () -> entradaFilaService.listarAguardandoPorFila(filaId),
+                pageable -> entradaFilaService.listarAguardandoPorFila(filaId, pageable),
+                (apos, tamanho) -> entradaFilaService.listarAguardandoPorFila(filaId, apos, tamanho));
+    }
+
+    @GetMapping("/setor/{setorId}/snapshot")
+    public ResponseEntity<ApiResponse<FilaSnapshotDTO>> snapshotPainelProfissional(@PathVariable UUID setorId) {
+        FilaSnapshotDTO snapshot = entradaFilaService.getSnapshotPainelProfissional(setorId);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Snapshot da fila do setor obtido com sucesso", snapshot));
+    }
+
+    // Escrita direto na resposta, linha a linha; os cabeçalhos só são definidos depois de validados os parâmetros
+    @GetMapping("/exportacao")
+    public void exportarHistorico(
+            @RequestParam UUID unidadeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(defaultValue = "CSV") FormatoExportacao formato,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        DateTimeFormatter data = DateTimeFormatter.BASIC_ISO_DATE;
+        String arquivo = "entrada-fila_" + unidadeId + "_" + inicio.format(data) + "-" + fim.format(data)
+                + (formato == FormatoExportacao.COLUNAR ? ".fcol" : ".csv") + (gzip ? ".gz" : "");
+        entradaFilaExportacaoService.exportar(unidadeId, inicio, fim, formato, () -> {
+            response.setContentType(gzip ? "application/gzip"
+                    : formato == FormatoExportacao.COLUNAR ? "application/octet-stream" : "text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(arquivo).build().toString());
+            return gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        });
     }
 }
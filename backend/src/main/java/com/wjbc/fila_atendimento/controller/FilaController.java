@@ -23,20 +23,26 @@ public class FilaController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<FilaResponseDTO>>> listarTodas(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<FilaResponseDTO> filas = filaService.listarTodas();
-        return PaginationUtil.build(filas, page, size, "Filas listadas com sucesso");
+        return PaginationUtil.listar(page, size, after, FilaResponseDTO::id, "Filas listadas com sucesso",
+                filaService::listarTodas,
+                filaService::listarTodas,
+                filaService::listarTodas);
     }
 
     @GetMapping("/unidade/{unidadeId}")
     public ResponseEntity<ApiResponse<List<FilaResponseDTO>>> listarPorUnidade(
             @PathVariable UUID unidadeId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<FilaResponseDTO> filas = filaService.listarPorUnidade(unidadeId);
-        return PaginationUtil.build(filas, page, size, "Filas listadas por unidade");
+        return PaginationUtil.listar(page, size, after, FilaResponseDTO::id, "Filas listadas por unidade",
+                () -> filaService.listarPorUnidade(unidadeId),
+                pageable -> filaService.listarPorUnidade(unidadeId, pageable),
+                (apos, tamanho) -> filaService.listarPorUnidade(unidadeId, apos, tamanho));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,27 @@
+package com.wjbc.fila_atendimento.controller;
+
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.UUID;
+
+/**
+ * Snapshot-on-subscribe do painel profissional: ao se inscrever em
+ * {@code /app/fila/{setorId}/snapshot} o cliente recebe a lista atual com sua sequência
+ * e passa a aplicar os deltas de {@code /topic/fila/{setorId}/delta}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class FilaSnapshotWebSocketController {
+
+    private final EntradaFilaService entradaFilaService;
+
+    @SubscribeMapping("/fila/{setorId}/snapshot")
+    public FilaSnapshotDTO snapshot(@DestinationVariable UUID setorId) {
+        return entradaFilaService.getSnapshotPainelProfissional(setorId);
+    }
+}
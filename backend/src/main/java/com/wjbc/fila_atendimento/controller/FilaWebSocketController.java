@@ -19,4 +19,12 @@ public class FilaWebSocketController {
     public void sendFilaProfissionalUpdate(UUID setorId, Object payload) {
         messagingTemplate.convertAndSend("/topic/fila/" + setorId, payload);
     }
+
+    public void sendFilaProfissionalDelta(UUID setorId, Object payload) {
+        messagingTemplate.convertAndSend("/topic/fila/" + setorId + "/delta", payload);
+    }
+
+    public void sendDashboardAoVivo(UUID unidadeId, Object payload) {
+        messagingTemplate.convertAndSend("/topic/dashboard/" + unidadeId, payload);
+    }
 }
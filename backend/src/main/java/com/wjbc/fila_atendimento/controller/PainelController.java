@@ -1,9 +1,12 @@
 package com.wjbc.fila_atendimento.controller;
 
 import com.wjbc.fila_atendimento.domain.dto.ApiResponse;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelUpdateDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelResponseDTO;
+import com.wjbc.fila_atendimento.domain.service.ChamadaPainelService;
 import com.wjbc.fila_atendimento.domain.service.PainelService;
 import com.wjbc.fila_atendimento.controller.util.PaginationUtil;
 import jakarta.validation.Valid;
@@ -21,6 +24,7 @@ import java.util.UUID;
 public class PainelController {
 
     private final PainelService painelService;
+    private final ChamadaPainelService chamadaPainelService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<PainelResponseDTO>> criar(@Valid @RequestBody PainelCreateDTO dto) {
@@ -44,20 +48,26 @@ public class PainelController {
     public ResponseEntity<ApiResponse<List<PainelResponseDTO>>> listarTodos(
             @RequestParam UUID unidadeAtendimentoId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<PainelResponseDTO> lista = painelService.listarTodos(unidadeAtendimentoId);
-        return PaginationUtil.build(lista, page, size, "Painéis listados com sucesso");
+        return PaginationUtil.listar(page, size, after, PainelResponseDTO::id, "Painéis listados com sucesso",
+                () -> painelService.listarTodos(unidadeAtendimentoId),
+                pageable -> painelService.listarTodos(unidadeAtendimentoId, pageable),
+                (apos, tamanho) -> painelService.listarTodos(unidadeAtendimentoId, apos, tamanho));
     }
 
     @GetMapping("/unidade/{unidadeId}")
     public ResponseEntity<ApiResponse<List<PainelResponseDTO>>> listarPorUnidade(
             @PathVariable UUID unidadeId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<PainelResponseDTO> lista = painelService.listarPorUnidade(unidadeId);
-        return PaginationUtil.build(lista, page, size, "Painéis encontrados por unidade");
+        return PaginationUtil.listar(page, size, after, PainelResponseDTO::id, "Painéis encontrados por unidade",
+                () -> painelService.listarPorUnidade(unidadeId),
+                pageable -> painelService.listarPorUnidade(unidadeId, pageable),
+                (apos, tamanho) -> painelService.listarPorUnidade(unidadeId, apos, tamanho));
     }
 
     @DeleteMapping("/{id}")
@@ -87,4 +97,19 @@ public class PainelController {
         PainelResponseDTO response = painelService.buscarPublico(id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Painel público encontrado", response));
     }
+
+    @GetMapping("/publico/{id}/chamadas")
+    public ResponseEntity<ApiResponse<List<PainelPublicoDTO>>> buscarChamadasPublico(@PathVariable UUID id) {
+        List<PainelPublicoDTO> response = painelService.buscarChamadasPublico(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Chamadas do painel público", response));
+    }
+
+    // Replay das últimas chamadas exibidas no painel, lido do histórico (chamada_painel)
+    @GetMapping("/{id}/chamadas/historico")
+    public ResponseEntity<ApiResponse<List<ChamadaPainelDTO>>> listarHistoricoChamadas(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "20") int limite) {
+        List<ChamadaPainelDTO> response = chamadaPainelService.listarUltimasDoPainel(id, limite);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Histórico de chamadas do painel", response));
+    }
 }
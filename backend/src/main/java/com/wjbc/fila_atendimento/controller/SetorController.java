@@ -26,10 +26,13 @@ public class SetorController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<SetorResponseDTO>>> listarTodos(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<SetorResponseDTO> setores = setorService.listarTodos();
-        return PaginationUtil.build(setores, page, size, "Setores listados com sucesso");
+        return PaginationUtil.listar(page, size, after, SetorResponseDTO::id, "Setores listados com sucesso",
+                setorService::listarTodos,
+                setorService::listarTodos,
+                setorService::listarTodos);
     }
 
     @GetMapping("/{id}")
@@ -42,10 +45,13 @@ public class SetorController {
     public ResponseEntity<ApiResponse<List<SetorResponseDTO>>> buscarPorNomeContendo(
             @PathVariable String nome,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<SetorResponseDTO> setores = setorService.buscarPorNomeContendo(nome);
-        return PaginationUtil.build(setores, page, size, "Setores encontrados por nome");
+        return PaginationUtil.listar(page, size, after, SetorResponseDTO::id, "Setores encontrados por nome",
+                () -> setorService.buscarPorNomeContendo(nome),
+                pageable -> setorService.buscarPorNomeContendo(nome, pageable),
+                (apos, tamanho) -> setorService.buscarPorNomeContendo(nome, apos, tamanho));
     }
 
     @PostMapping
@@ -24,10 +24,13 @@ public class UnidadeAtendimentoController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<UnidadeAtendimentoResponseDTO>>> listarTodas(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<UnidadeAtendimentoResponseDTO> unidades = unidadeAtendimentoService.listarTodas();
-        return PaginationUtil.build(unidades, page, size, "Unidades de atendimento listadas com sucesso");
+        return PaginationUtil.listar(page, size, after, UnidadeAtendimentoResponseDTO::id, "Unidades de atendimento listadas com sucesso",
+                unidadeAtendimentoService::listarTodas,
+                unidadeAtendimentoService::listarTodas,
+                unidadeAtendimentoService::listarTodas);
     }
 
     @GetMapping("/{id}")
@@ -40,10 +43,13 @@ public class UnidadeAtendimentoController {
     public ResponseEntity<ApiResponse<List<UnidadeAtendimentoResponseDTO>>> buscarPorNomeContendo(
             @PathVariable String nome,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<UnidadeAtendimentoResponseDTO> unidades = unidadeAtendimentoService.buscarPorNomeContendo(nome);
-        return PaginationUtil.build(unidades, page, size, "Unidades encontradas por nome");
+        return PaginationUtil.listar(page, size, after, UnidadeAtendimentoResponseDTO::id, "Unidades encontradas por nome",
+                () -> unidadeAtendimentoService.buscarPorNomeContendo(nome),
+                pageable -> unidadeAtendimentoService.buscarPorNomeContendo(nome, pageable),
+                (apos, tamanho) -> unidadeAtendimentoService.buscarPorNomeContendo(nome, apos, tamanho));
     }
 
     @PostMapping
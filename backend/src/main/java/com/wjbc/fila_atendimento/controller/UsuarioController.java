@@ -23,10 +23,13 @@ public class UsuarioController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<UsuarioResponseDTO>>> listarTodos(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) UUID after
     ) {
-        List<UsuarioResponseDTO> usuarios = usuarioService.listarTodos();
-        return PaginationUtil.build(usuarios, page, size, "Usuários listados com sucesso");
+        return PaginationUtil.listar(page, size, after, UsuarioResponseDTO::id, "Usuários listados com sucesso",
+                usuarioService::listarTodos,
+                usuarioService::listarTodos,
+                usuarioService::listarTodos);
     }
 
     @GetMapping("/{id}")
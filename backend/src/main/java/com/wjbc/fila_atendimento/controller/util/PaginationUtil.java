@@ -4,13 +4,47 @@ import com.wjbc.fila_atendimento.domain.dto.ApiResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class PaginationUtil {
     private PaginationUtil() {}
 
+    /**
+     * Escolhe a forma de listagem pelos parâmetros, sempre paginando no banco quando pedido:
+     * - {@code after}: por cursor (keyset), os {@code size} itens seguintes ao id informado, com o
+     *   cursor da próxima página em {@code X-Next-Cursor};
+     * - {@code page} e {@code size}: por página, com os headers de sempre (e {@code X-Next-Cursor},
+     *   para continuar por cursor a partir dela);
+     * - nenhum: lista completa, sem headers.
+     */
+    public static <T> ResponseEntity<ApiResponse<List<T>>> listar(Integer page, Integer size, UUID after,
+                                                                 Function<T, UUID> cursor, String message,
+                                                                 Supplier<List<T>> completa,
+                                                                 Function<Pageable, Page<T>> porPagina,
+                                                                 BiFunction<UUID, Integer, Window<T>> aposCursor) {
+        if (after != null) {
+            int tamanho = tamanho(size);
+            return build(aposCursor.apply(after, tamanho), tamanho, cursor, message);
+        }
+        if (page != null && size != null) {
+            return build(porPagina.apply(PageRequest.of(Math.max(page, 0), tamanho(size))), cursor, message);
+        }
+        return build(completa.get(), page, size, message);
+    }
+
+    private static int tamanho(Integer size) {
+        return size != null && size > 0 ? size : 10;
+    }
+
     public static <T> ResponseEntity<ApiResponse<List<T>>> build(List<T> fullList, Integer page, Integer size, String message) {
         if (page == null || size == null) {
             // Sem paginação: mantém comportamento atual
@@ -38,6 +72,10 @@ public final class PaginationUtil {
     }
 
     public static <T> ResponseEntity<ApiResponse<List<T>>> build(Page<T> page, String message) {
+        return build(page, null, message);
+    }
+
+    public static <T> ResponseEntity<ApiResponse<List<T>>> build(Page<T> page, Function<T, UUID> cursor, String message) {
         List<T> content = page.getContent();
         HttpHeaders headers = new HttpHeaders();
         headers.add("X-Total-Count", String.valueOf(page.getTotalElements()));
@@ -49,6 +87,20 @@ public final class PaginationUtil {
                 page.getNumber() * page.getSize() + Math.max(0, content.size() - 1),
                 page.getTotalElements());
         headers.add("Content-Range", contentRange);
+        if (cursor != null && page.hasNext() && !content.isEmpty()) {
+            headers.add("X-Next-Cursor", String.valueOf(cursor.apply(content.get(content.size() - 1))));
+        }
+        return ResponseEntity.ok().headers(headers).body(new ApiResponse<>(true, message, content));
+    }
+
+    // Por cursor não há contagem nem número de página: o custo não depende da profundidade
+    public static <T> ResponseEntity<ApiResponse<List<T>>> build(Window<T> janela, int size, Function<T, UUID> cursor, String message) {
+        List<T> content = janela.getContent();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Page-Size", String.valueOf(size));
+        if (janela.hasNext() && !content.isEmpty()) {
+            headers.add("X-Next-Cursor", String.valueOf(cursor.apply(content.get(content.size() - 1))));
+        }
         return ResponseEntity.ok().headers(headers).body(new ApiResponse<>(true, message, content));
     }
 }
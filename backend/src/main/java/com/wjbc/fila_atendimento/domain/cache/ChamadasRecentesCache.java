@@ -0,0 +1,120 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.ChamadaDTO;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Últimas chamadas de cada fila, em um buffer circular de tamanho fixo e sem bloqueio.
+ * Atende o painel público (broadcast e estado inicial da TV) sem consultar o banco.
+ *
+ * Carregado na inicialização e alimentado pelo {@code chamarProximo} após o commit. Uma fila
+ * invalidada (alteração vinda de outra instância) é recarregada do banco na próxima leitura.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChamadasRecentesCache {
+
+    private final EntradaFilaRepository entradaFilaRepository;
+    private final FilaRepository filaRepository;
+
+    private final Map<UUID, Anel> filas = new ConcurrentHashMap<>();
+
+    @Value("${painel.publico.ultimas-chamadas:3}")
+    private int capacidade = 3;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        List<Fila> todas = filaRepository.findAll();
+        todas.forEach(fila -> carregar(fila.getId()));
+        log.info("Últimas chamadas carregadas para {} filas", todas.size());
+    }
+
+    /** Últimas chamadas da fila (mais recente primeiro), buscando no banco se a fila ainda não estiver carregada. */
+    public List<ChamadaDTO> ultimas(UUID filaId) {
+        Anel anel = filas.get(filaId);
+        return (anel != null ? anel : carregar(filaId)).listar();
+    }
+
+    /** Registra a chamada após o commit (ou imediatamente, sem transação). */
+    public void registrar(UUID filaId, ChamadaDTO chamada) {
+        Runnable acao = () -> {
+            // Fila ainda não carregada: a chamada virá do banco junto com as demais
+            Anel anel = filas.get(filaId);
+            if (anel != null) {
+                anel.adicionar(chamada);
+            }
+        };
+        AposCommit.executar(acao);
+    }
+
+    /** Descarta a fila da memória; a próxima leitura a recarrega do banco. */
+    public void invalidar(UUID filaId) {
+        filas.remove(filaId);
+    }
+
+    private Anel carregar(UUID filaId) {
+        List<ChamadaDTO> doBanco = entradaFilaRepository.findUltimasChamadas(filaId, PageRequest.of(0, capacidade));
+        Anel anel = new Anel(capacidade);
+        for (int i = doBanco.size() - 1; i >= 0; i--) {
+            anel.adicionar(doBanco.get(i));
+        }
+        Anel existente = filas.putIfAbsent(filaId, anel);
+        return existente != null ? existente : anel;
+    }
+
+    /**
+     * Buffer circular: cada escrita reserva uma sequência e grava na posição {@code sequencia % capacidade}.
+     * A leitura só aceita a posição se ela ainda guardar a sequência esperada, então nunca
+     * devolve uma chamada sobrescrita no meio da leitura.
+     */
+    private static final class Anel {
+        private final AtomicReferenceArray<Posicao> posicoes;
+        private final AtomicLong proxima = new AtomicLong();
+
+        Anel(int capacidade) {
+            this.posicoes = new AtomicReferenceArray<>(Math.max(1, capacidade));
+        }
+
+        void adicionar(ChamadaDTO chamada) {
+            long sequencia = proxima.getAndIncrement();
+            Posicao nova = new Posicao(sequencia, chamada);
+            // Uma escrita atrasada não sobrescreve uma sequência mais nova na mesma posição
+            posicoes.updateAndGet((int) (sequencia % posicoes.length()),
+                    atual -> atual == null || atual.sequencia() < sequencia ? nova : atual);
+        }
+
+        List<ChamadaDTO> listar() {
+            long fim = proxima.get();
+            long inicio = Math.max(0, fim - posicoes.length());
+            List<ChamadaDTO> chamadas = new ArrayList<>((int) (fim - inicio));
+            for (long sequencia = fim - 1; sequencia >= inicio; sequencia--) {
+                Posicao posicao = posicoes.get((int) (sequencia % posicoes.length()));
+                if (posicao != null && posicao.sequencia() == sequencia) {
+                    chamadas.add(posicao.chamada());
+                }
+            }
+            return chamadas;
+        }
+    }
+
+    private record Posicao(long sequencia, ChamadaDTO chamada) {}
+}
@@ -0,0 +1,340 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
+import com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO;
+import com.wjbc.fila_atendimento.domain.mapper.ClienteMapper;
+import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.ClienteSpecification;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória dos clientes ativos para a busca da recepção, que digita nome, CPF ou telefone
+ * na mesma caixa: responde a cada tecla sem consultar o banco.
+ *
+ * Cada cliente entra com o nome e as palavras do nome (minúsculas, sem acentos), os dígitos do CPF
+ * e os de cada telefone (DDD + número e só o número) em mapas ordenados, onde um termo é o início de
+ * um intervalo percorrido em ordem até o limite. Primeiro vêm os nomes que começam pelo termo; depois,
+ * em ordem alfabética, os primeiros clientes encontrados em que cada palavra do termo começa alguma
+ * palavra do cliente.
+ *
+ * Carregado na inicialização, mantido pelo {@code ClienteServiceImpl} após o commit e recarregado a
+ * cada {@code cliente.busca-memoria.recarga-ms}, o que inclui as alterações feitas em outras
+ * instâncias. A memória é limitada por {@code cliente.busca-memoria.maximo-clientes} (cerca de 1 KB
+ * por cliente): acima disso o índice fica inativo e a busca volta ao banco.
+ */
+@Slf4j
+@Component
+public class ClienteBuscaIndex {
+
+    // Segunda etapa de uma busca: candidatos ordenados por nome, por resultado pedido, e entradas do
+    // índice de palavras examinadas, no máximo, para encontrá-los
+    static final int CANDIDATOS_POR_RESULTADO = 5;
+    static final int MAXIMO_EXAMINADOS = 2_000;
+    // Termos mais curtos casam com boa parte da base e não ajudam a encontrar o cliente
+    public static final int TAMANHO_MINIMO_TERMO = 2;
+    // DDD dos telefones brasileiros: os dígitos seguintes são o número
+    private static final int DIGITOS_DDD = 2;
+    private static final UUID MENOR_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Pattern LETRA = Pattern.compile("[a-z]");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NAO_DIGITOS = Pattern.compile("\\D");
+
+    private final ClienteRepository clienteRepository;
+    private final boolean habilitado;
+    private final int maximoClientes;
+
+    // Nulo: índice inativo (desabilitado, ainda não carregado ou acima do máximo de clientes)
+    private volatile Indice indice;
+    // Alterações registradas enquanto uma recarga consulta o banco, reaplicadas sobre o índice recarregado
+    private List<Alteracao> alteracoesDuranteRecarga;
+
+    public ClienteBuscaIndex(ClienteRepository clienteRepository,
+                             @Value("${cliente.busca-memoria.habilitado:true}") boolean habilitado,
+                             @Value("${cliente.busca-memoria.maximo-clientes:300000}") int maximoClientes) {
+        this.clienteRepository = clienteRepository;
+        this.habilitado = habilitado;
+        this.maximoClientes = maximoClientes;
+    }
+
+    public boolean isAtivo() {
+        return indice != null;
+    }
+
+    public int tamanho() {
+        Indice atual = indice;
+        return atual != null ? atual.porId.size() : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (habilitado) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Refaz o índice a partir dos clientes ativos do banco. A consulta e a montagem acontecem fora do
+     * lock; as alterações registradas nesse meio tempo são reaplicadas antes da troca.
+     */
+    @Scheduled(fixedDelayString = "${cliente.busca-memoria.recarga-ms:600000}",
+            initialDelayString = "${cliente.busca-memoria.recarga-ms:600000}")
+    public void recarregar() {
+        if (!habilitado) {
+            return;
+        }
+        synchronized (this) {
+            alteracoesDuranteRecarga = new ArrayList<>();
+        }
+        List<ClienteBuscaDTO> clientes;
+        try {
+            clientes = carregar();
+        } catch (RuntimeException e) {
+            // O índice atual continua valendo até a próxima recarga
+            synchronized (this) {
+                alteracoesDuranteRecarga = null;
+            }
+            throw e;
+        }
+        Indice novo = null;
+        if (clientes != null) {
+            novo = new Indice();
+            clientes.forEach(novo::adicionar);
+        }
+        synchronized (this) {
+            List<Alteracao> alteracoes = alteracoesDuranteRecarga;
+            alteracoesDuranteRecarga = null;
+            if (novo != null) {
+                alteracoes.forEach(novo::aplicar);
+            }
+            indice = novo != null && novo.porId.size() <= maximoClientes ? novo : null;
+        }
+        if (indice == null) {
+            log.warn("Índice de busca de clientes inativo: mais de {} clientes ativos; a busca consulta o banco", maximoClientes);
+        } else {
+            log.info("Índice de busca de clientes carregado com {} clientes", novo.porId.size());
+        }
+    }
+
+    // Nulo quando a base passa do máximo (sem carregar os telefones)
+    private List<ClienteBuscaDTO> carregar() {
+        List<ClienteBuscaDTO> clientes = clienteRepository.findResumosParaBusca();
+        if (clientes.size() > maximoClientes) {
+            return null;
+        }
+        Map<UUID, List<String>> telefones = new HashMap<>();
+        for (ClienteTelefoneDTO telefone : clienteRepository.findTelefonesParaBusca()) {
+            telefones.computeIfAbsent(telefone.clienteId(), id -> new ArrayList<>(2))
+                    .add(ClienteMapper.digitosTelefone(telefone.ddd(), telefone.numero()));
+        }
+        return clientes.stream()
+                .map(c -> new ClienteBuscaDTO(c.id(), c.nome(), c.cpf(), telefones.getOrDefault(c.id(), List.of())))
+                .toList();
+    }
+
+    /** Inclui ou substitui o cliente após o commit da transação corrente (ou imediatamente, se não houver). */
+    public void atualizar(ClienteBuscaDTO cliente) {
+        if (habilitado && cliente != null) {
+            AposCommit.executar(() -> registrar(new Alteracao(cliente.id(), cliente)));
+        }
+    }
+
+    /** Retira o cliente (desativado) após o commit da transação corrente. */
+    public void remover(UUID clienteId) {
+        if (habilitado) {
+            AposCommit.executar(() -> registrar(new Alteracao(clienteId, null)));
+        }
+    }
+
+    private synchronized void registrar(Alteracao alteracao) {
+        if (alteracoesDuranteRecarga != null) {
+            alteracoesDuranteRecarga.add(alteracao);
+        }
+        Indice atual = indice;
+        if (atual == null) {
+            return;
+        }
+        atual.aplicar(alteracao);
+        if (atual.porId.size() > maximoClientes) {
+            indice = null;
+            log.warn("Índice de busca de clientes inativo: mais de {} clientes ativos; a busca consulta o banco", maximoClientes);
+        }
+    }
+
+    /**
+     * Até {@code limite} clientes para o termo digitado, ou vazio quando o índice está inativo (a busca
+     * deve ir ao banco). Termos sem letras são tratados como dígitos de CPF ou telefone, ignorando a
+     * pontuação.
+     */
+    public Optional<List<ClienteBuscaDTO>> buscar(String termo, int limite) {
+        Indice atual = indice;
+        if (atual == null) {
+            return Optional.empty();
+        }
+        String digitos = digitosDaBusca(termo);
+        String inicioDoNome = digitos == null ? ClienteSpecification.normalizarNome(termo) : null;
+        List<String> palavras = digitos != null ? List.of(digitos) : palavrasDe(inicioDoNome);
+        if (String.join("", palavras).length() < TAMANHO_MINIMO_TERMO) {
+            return Optional.of(List.of());
+        }
+        return Optional.of(atual.buscar(palavras, inicioDoNome, limite));
+    }
+
+    /** Dígitos do termo quando ele não tem letras (CPF ou telefone, com ou sem pontuação); nulo caso contrário. */
+    public static String digitosDaBusca(String termo) {
+        String normalizado = ClienteSpecification.normalizarNome(termo);
+        return LETRA.matcher(normalizado).find() ? null : NAO_DIGITOS.matcher(normalizado).replaceAll("");
+    }
+
+    private static List<String> palavrasDe(String textoNormalizado) {
+        Set<String> palavras = new LinkedHashSet<>();
+        for (String palavra : SEPARADORES.split(textoNormalizado)) {
+            if (!palavra.isEmpty()) {
+                palavras.add(palavra);
+            }
+        }
+        return new ArrayList<>(palavras);
+    }
+
+    // Cliente nulo: remoção
+    private record Alteracao(UUID clienteId, ClienteBuscaDTO cliente) {}
+
+    private record Chave(String texto, UUID id) implements Comparable<Chave> {
+        private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::texto).thenComparing(Chave::id);
+
+        @Override
+        public int compareTo(Chave outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+
+    private record Registro(ClienteBuscaDTO cliente, String nome, List<String> palavras) {
+
+        static Registro de(ClienteBuscaDTO cliente) {
+            String nome = cliente.nome() != null ? ClienteSpecification.normalizarNome(cliente.nome()) : "";
+            Set<String> palavras = new LinkedHashSet<>(palavrasDe(nome));
+            if (cliente.cpf() != null) {
+                String cpf = NAO_DIGITOS.matcher(cliente.cpf()).replaceAll("");
+                if (!cpf.isEmpty()) {
+                    palavras.add(cpf);
+                }
+            }
+            for (String telefone : cliente.telefones()) {
+                palavras.add(telefone);
+                if (telefone.length() > DIGITOS_DDD) {
+                    palavras.add(telefone.substring(DIGITOS_DDD));
+                }
+            }
+            return new Registro(cliente, nome, List.copyOf(palavras));
+        }
+
+        UUID id() {
+            return cliente.id();
+        }
+
+        boolean comecaPalavrasCom(List<String> inicios) {
+            for (String inicio : inicios) {
+                if (!comecaPalavraCom(inicio)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean comecaPalavraCom(String inicio) {
+            for (String palavra : palavras) {
+                if (palavra.startsWith(inicio)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Indice {
+        private final Map<UUID, Registro> porId = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<Chave, Registro> porNome = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Chave, Registro> porPalavra = new ConcurrentSkipListMap<>();
+
+        void aplicar(Alteracao alteracao) {
+            if (alteracao.cliente() != null) {
+                adicionar(alteracao.cliente());
+            } else {
+                remover(alteracao.clienteId());
+            }
+        }
+
+        void adicionar(ClienteBuscaDTO cliente) {
+            remover(cliente.id());
+            Registro registro = Registro.de(cliente);
+            porId.put(registro.id(), registro);
+            porNome.put(new Chave(registro.nome(), registro.id()), registro);
+            registro.palavras().forEach(palavra -> porPalavra.put(new Chave(palavra, registro.id()), registro));
+        }
+
+        void remover(UUID id) {
+            Registro registro = porId.remove(id);
+            if (registro != null) {
+                porNome.remove(new Chave(registro.nome(), id));
+                registro.palavras().forEach(palavra -> porPalavra.remove(new Chave(palavra, id)));
+            }
+        }
+
+        List<ClienteBuscaDTO> buscar(List<String> palavras, String inicioDoNome, int limite) {
+            List<ClienteBuscaDTO> encontrados = new ArrayList<>(limite);
+            Set<UUID> ids = new HashSet<>();
+            // 1. Nomes que começam pelo termo, já em ordem alfabética
+            if (inicioDoNome != null) {
+                for (Registro registro : porNome.tailMap(new Chave(inicioDoNome, MENOR_ID)).values()) {
+                    if (encontrados.size() == limite || !registro.nome().startsWith(inicioDoNome)) {
+                        break;
+                    }
+                    encontrados.add(registro.cliente());
+                    ids.add(registro.id());
+                }
+            }
+            if (encontrados.size() == limite) {
+                return encontrados;
+            }
+            // 2. Palavras do cliente começando por cada palavra do termo: a mais longa percorre o índice, as outras filtram
+            String guia = palavras.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+            int maximoCandidatos = (limite - encontrados.size()) * CANDIDATOS_POR_RESULTADO;
+            List<Registro> candidatos = new ArrayList<>();
+            int examinados = 0;
+            for (Map.Entry<Chave, Registro> entrada : porPalavra.tailMap(new Chave(guia, MENOR_ID)).entrySet()) {
+                if (candidatos.size() == maximoCandidatos || ++examinados > MAXIMO_EXAMINADOS
+                        || !entrada.getKey().texto().startsWith(guia)) {
+                    break;
+                }
+                Registro registro = entrada.getValue();
+                if (registro.comecaPalavrasCom(palavras) && ids.add(registro.id())) {
+                    candidatos.add(registro);
+                }
+            }
+            candidatos.stream()
+                    .sorted(Comparator.comparing(Registro::nome).thenComparing(Registro::id))
+                    .limit(limite - encontrados.size())
+                    .forEach(registro -> encontrados.add(registro.cliente()));
+            return encontrados;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteradaEvent;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Resultados dos relatórios do dashboard por (relatório, unidade, período), com TTL e limite de
+ * tamanho (os menos usados saem primeiro).
+ *
+ * Períodos encerrados há mais de {@code dashboard.cache.limite-historico-horas} são históricos:
+ * ficam em cache pelo TTL longo e não são invalidados. Os demais podem mudar a cada
+ * entrada, chamada ou finalização: valem pelo TTL curto e são descartados por qualquer alteração
+ * de fila da unidade (desta ou de outra instância). Em períodos que terminam no futuro ("até
+ * agora") o fim não entra na chave e o início é arredondado para baixo pela granularidade, para que
+ * janelas deslizantes ("últimas 24h") pedidas em instantes próximos compartilhem o resultado.
+ */
+@Slf4j
+@Component
+public class DashboardResultadoCache {
+
+    private record Chave(String relatorio, UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {}
+
+    private record Entrada(Object valor, boolean historico, long versao, long expiraEmNanos) {}
+
+    private final FilaRepository filaRepository;
+    private final boolean habilitado;
+    private final long ttlAbertoNanos;
+    private final long ttlHistoricoNanos;
+    private final Duration limiteHistorico;
+    private final long granularidadeSegundos;
+
+    private final Map<Chave, Entrada> entradas;
+    // Versão por unidade, incrementada a cada alteração de fila; a geral invalida todas as unidades
+    private final Map<UUID, AtomicLong> versoes = new ConcurrentHashMap<>();
+    private final AtomicLong versaoGeral = new AtomicLong();
+    private final Map<UUID, UUID> unidadePorFila = new ConcurrentHashMap<>();
+
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter invalidacoes;
+    private final Counter remocoes;
+
+    public DashboardResultadoCache(FilaRepository filaRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${dashboard.cache.habilitado:true}") boolean habilitado,
+                                   @Value("${dashboard.cache.tamanho-maximo:500}") int tamanhoMaximo,
+                                   @Value("${dashboard.cache.ttl-aberto-segundos:60}") long ttlAbertoSegundos,
+                                   @Value("${dashboard.cache.ttl-historico-segundos:86400}") long ttlHistoricoSegundos,
+                                   @Value("${dashboard.cache.limite-historico-horas:24}") long limiteHistoricoHoras,
+                                   @Value("${dashboard.cache.granularidade-segundos:60}") long granularidadeSegundos) {
+        this.filaRepository = filaRepository;
+        this.habilitado = habilitado;
+        this.ttlAbertoNanos = Duration.ofSeconds(ttlAbertoSegundos).toNanos();
+        this.ttlHistoricoNanos = Duration.ofSeconds(ttlHistoricoSegundos).toNanos();
+        this.limiteHistorico = Duration.ofHours(limiteHistoricoHoras);
+        this.granularidadeSegundos = Math.max(granularidadeSegundos, 1);
+        this.acertos = contador(meterRegistry, "dashboard.cache", "acerto");
+        this.faltas = contador(meterRegistry, "dashboard.cache", "falta");
+        this.invalidacoes = Counter.builder("dashboard.cache.invalidacoes").register(meterRegistry);
+        this.remocoes = Counter.builder("dashboard.cache.remocoes").register(meterRegistry);
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, Entrada> maisAntiga) {
+                if (size() > tamanhoMaximo) {
+                    remocoes.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("dashboard.cache.tamanho", this, DashboardResultadoCache::tamanho).register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry registry, String nome, String resultado) {
+        return Counter.builder(nome)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Resultado do relatório no período, do cache ou da consulta. A consulta recebe o período
+     * normalizado, que é o efetivamente calculado, e deve devolver um valor imutável: o mesmo
+     * objeto é entregue a todos os que lerem do cache.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(String relatorio, UUID unidadeId, LocalDateTime inicio, LocalDateTime fim,
+                       BiFunction<LocalDateTime, LocalDateTime, T> consulta) {
+        if (!habilitado) {
+            return consulta.apply(inicio, fim);
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        boolean aberto = !fim.isBefore(agora);
+        boolean historico = fim.isBefore(agora.minus(limiteHistorico));
+        LocalDateTime inicioNormalizado = aberto ? arredondarParaBaixo(inicio) : inicio;
+        Chave chave = new Chave(relatorio, unidadeId, inicioNormalizado, aberto ? null : fim);
+
+        long versao = versao(unidadeId);
+        Entrada entrada;
+        synchronized (entradas) {
+            entrada = entradas.get(chave);
+        }
+        if (entrada != null && valida(entrada, versao)) {
+            acertos.increment();
+            return (T) entrada.valor();
+        }
+        faltas.increment();
+        // Versão lida antes da consulta: uma alteração durante o cálculo descarta o resultado na próxima leitura
+        T resultado = consulta.apply(inicioNormalizado, fim);
+        long ttl = historico ? ttlHistoricoNanos : ttlAbertoNanos;
+        synchronized (entradas) {
+            entradas.put(chave, new Entrada(resultado, historico, versao, System.nanoTime() + ttl));
+        }
+        return resultado;
+    }
+
+    private boolean valida(Entrada entrada, long versaoAtual) {
+        if (System.nanoTime() - entrada.expiraEmNanos() >= 0) {
+            return false;
+        }
+        return entrada.historico() || entrada.versao() == versaoAtual;
+    }
+
+    private LocalDateTime arredondarParaBaixo(LocalDateTime dataHora) {
+        LocalDateTime segundos = dataHora.truncatedTo(ChronoUnit.SECONDS);
+        long excedente = segundos.toLocalTime().toSecondOfDay() % granularidadeSegundos;
+        return segundos.minusSeconds(excedente);
+    }
+
+    // Soma de contadores que só crescem: muda sempre que a unidade ou o geral são invalidados
+    private long versao(UUID unidadeId) {
+        AtomicLong daUnidade = versoes.get(unidadeId);
+        return versaoGeral.get() + (daUnidade != null ? daUnidade.get() : 0);
+    }
+
+    /** Descarta os resultados não históricos da unidade. */
+    public void invalidarUnidade(UUID unidadeId) {
+        versoes.computeIfAbsent(unidadeId, id -> new AtomicLong()).incrementAndGet();
+        invalidacoes.increment();
+    }
+
+    // Após o commit; fallbackExecution: alterações repassadas de outra instância chegam sem transação
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarFila(FilaAlteradaEvent evento) {
+        invalidarPorFila(evento.filaId());
+    }
+
+    // Alterações de outra instância (repassadas como FilaAlteradaEvent apenas com o broker simples)
+    @EventListener
+    public void aoAlterarFilaEmOutraInstancia(FilaAlteracaoEvento evento) {
+        invalidarPorFila(evento.filaId());
+    }
+
+    private void invalidarPorFila(UUID filaId) {
+        if (!habilitado) {
+            return;
+        }
+        Optional<UUID> unidadeId = unidadeDaFila(filaId);
+        if (unidadeId.isPresent()) {
+            invalidarUnidade(unidadeId.get());
+            return;
+        }
+        log.debug("Unidade da fila {} não encontrada: invalidando o cache do dashboard de todas as unidades", filaId);
+        versaoGeral.incrementAndGet();
+        invalidacoes.increment();
+    }
+
+    private Optional<UUID> unidadeDaFila(UUID filaId) {
+        UUID unidadeId = unidadePorFila.get(filaId);
+        if (unidadeId != null) {
+            return Optional.of(unidadeId);
+        }
+        Optional<UUID> encontrada = filaRepository.findUnidadeAtendimentoIdById(filaId);
+        encontrada.ifPresent(id -> unidadePorFila.put(filaId, id));
+        return encontrada;
+    }
+
+    public int tamanho() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public double getAcertos() {
+        return acertos.count();
+    }
+
+    public double getFaltas() {
+        return faltas.count();
+    }
+}
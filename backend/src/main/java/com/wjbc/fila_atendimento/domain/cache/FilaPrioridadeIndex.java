@@ -0,0 +1,268 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice em memória das entradas AGUARDANDO de cada fila, na mesma ordem usada pelo
+ * banco (prioridade DESC, data/hora de entrada ASC), separado por retorno.
+ * Escolher o próximo cliente vira um {@code pollFirst()} O(log n) em vez de uma consulta.
+ *
+ * O índice é reconstruído na inicialização, mantido pelo {@code EntradaFilaServiceImpl}
+ * e periodicamente reconciliado com o banco. Pode ser desligado com
+ * {@code fila.indice-memoria.habilitado=false}, voltando ao caminho por consulta.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilaPrioridadeIndex {
+
+    // Mesma ordenação de reservarProximoAguardando (id apenas desempata)
+    private static final Comparator<Chave> ORDEM_ATENDIMENTO = Comparator
+            .comparing(Chave::prioridade, Comparator.reverseOrder())
+            .thenComparing(Chave::dataHoraEntrada)
+            .thenComparing(Chave::id);
+
+    private final EntradaFilaRepository entradaFilaRepository;
+
+    private final Map<UUID, FilaIndexada> filas = new ConcurrentHashMap<>();
+    private final AtomicLong divergenciasCorrigidas = new AtomicLong();
+    private volatile boolean carregado = false;
+
+    @Value("${fila.indice-memoria.habilitado:true}")
+    private boolean habilitado;
+
+    // Entradas mais novas que essa margem não são removidas na reconciliação (podem estar em commit)
+    @Value("${fila.indice-memoria.margem-reconciliacao-segundos:60}")
+    private long margemReconciliacaoSegundos;
+
+    public boolean isAtivo() {
+        return habilitado && carregado;
+    }
+
+    public long getDivergenciasCorrigidas() {
+        return divergenciasCorrigidas.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (habilitado) {
+            reconstruir();
+        }
+    }
+
+    public synchronized void reconstruir() {
+        List<EntradaFilaPrioridadeDTO> aguardando = entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO);
+        filas.clear();
+        aguardando.forEach(this::adicionar);
+        carregado = true;
+        log.info("Índice de prioridade carregado com {} entradas aguardando em {} filas", aguardando.size(), filas.size());
+    }
+
+    public void adicionar(EntradaFila entrada) {
+        adicionar(new EntradaFilaPrioridadeDTO(
+                entrada.getId(),
+                entrada.getFila().getId(),
+                entrada.getPrioridade(),
+                entrada.isRetorno(),
+                entrada.getDataHoraEntrada()
+        ));
+    }
+
+    public void adicionar(EntradaFilaPrioridadeDTO entrada) {
+        filas.computeIfAbsent(entrada.filaId(), id -> new FilaIndexada()).adicionar(entrada);
+    }
+
+    public void remover(EntradaFila entrada) {
+        if (entrada.getFila() == null) {
+            return;
+        }
+        remover(entrada.getFila().getId(), entrada.getId());
+    }
+
+    public void remover(UUID filaId, UUID entradaFilaId) {
+        FilaIndexada fila = filas.get(filaId);
+        if (fila != null) {
+            fila.remover(entradaFilaId);
+        }
+    }
+
+    /**
+     * Retira (atomicamente) o próximo da fila. Quando {@code retornoPrimeiro} é verdadeiro,
+     * os retornos são atendidos antes; caso contrário apenas entradas sem retorno são consideradas,
+     * espelhando a regra de {@code encontrarProximoCliente}.
+     */
+    public Optional<UUID> retirarProximo(UUID filaId, boolean retornoPrimeiro) {
+        FilaIndexada fila = filas.get(filaId);
+        if (fila == null) {
+            return Optional.empty();
+        }
+        if (retornoPrimeiro) {
+            Optional<UUID> retorno = fila.retirarPrimeiro(true);
+            if (retorno.isPresent()) {
+                return retorno;
+            }
+        }
+        return fila.retirarPrimeiro(false);
+    }
+
+    public int tamanho(UUID filaId) {
+        FilaIndexada fila = filas.get(filaId);
+        return fila != null ? fila.tamanho() : 0;
+    }
+
+    public int tamanho(UUID filaId, boolean retorno) {
+        FilaIndexada fila = filas.get(filaId);
+        return fila != null ? fila.tamanho(retorno) : 0;
+    }
+
+    /** Entradas (retorno ou não, conforme a própria entrada) que estão à frente dela na ordem de atendimento. */
+    public int quantidadeAFrente(UUID filaId, UUID entradaFilaId, boolean prioridade, LocalDateTime dataHoraEntrada, boolean retorno) {
+        FilaIndexada fila = filas.get(filaId);
+        return fila != null ? fila.aFrente(new Chave(entradaFilaId, prioridade, dataHoraEntrada, retorno)) : 0;
+    }
+
+    // Devolve a entrada ao índice caso a transação que a retirou seja revertida
+    public void restaurarEmCasoDeRollback(EntradaFila entrada) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        EntradaFilaPrioridadeDTO copia = new EntradaFilaPrioridadeDTO(
+                entrada.getId(), entrada.getFila().getId(), entrada.getPrioridade(), entrada.isRetorno(), entrada.getDataHoraEntrada());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    adicionar(copia);
+                }
+            }
+        });
+    }
+
+    /**
+     * Compara o índice com o banco e corrige divergências: entradas ausentes na memória são
+     * incluídas e entradas que não estão mais AGUARDANDO são removidas.
+     */
+    @Scheduled(
+            fixedDelayString = "${fila.indice-memoria.reconciliacao-ms:60000}",
+            initialDelayString = "${fila.indice-memoria.reconciliacao-ms:60000}"
+    )
+    public void reconciliar() {
+        if (!isAtivo()) {
+            return;
+        }
+        LocalDateTime limiteRemocao = LocalDateTime.now().minusSeconds(margemReconciliacaoSegundos);
+        List<EntradaFilaPrioridadeDTO> aguardando = entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO);
+
+        Map<UUID, Set<UUID>> idsNoBanco = new HashMap<>();
+        int divergencias = 0;
+        for (EntradaFilaPrioridadeDTO entrada : aguardando) {
+            idsNoBanco.computeIfAbsent(entrada.filaId(), id -> new HashSet<>()).add(entrada.id());
+            FilaIndexada fila = filas.computeIfAbsent(entrada.filaId(), id -> new FilaIndexada());
+            if (!fila.contem(entrada.id())) {
+                fila.adicionar(entrada);
+                divergencias++;
+            }
+        }
+        for (Map.Entry<UUID, FilaIndexada> fila : filas.entrySet()) {
+            Set<UUID> ids = idsNoBanco.getOrDefault(fila.getKey(), Set.of());
+            for (Chave chave : fila.getValue().chaves()) {
+                if (!ids.contains(chave.id()) && chave.dataHoraEntrada().isBefore(limiteRemocao)) {
+                    fila.getValue().remover(chave.id());
+                    divergencias++;
+                }
+            }
+        }
+        if (divergencias > 0) {
+            divergenciasCorrigidas.addAndGet(divergencias);
+            log.warn("Reconciliação do índice de prioridade corrigiu {} divergência(s) em relação ao banco", divergencias);
+        }
+    }
+
+    private record Chave(UUID id, boolean prioridade, LocalDateTime dataHoraEntrada, boolean retorno) {}
+
+    private static final class FilaIndexada {
+        private final NavigableSet<Chave> retornos = new ConcurrentSkipListSet<>(ORDEM_ATENDIMENTO);
+        private final NavigableSet<Chave> normais = new ConcurrentSkipListSet<>(ORDEM_ATENDIMENTO);
+        private final Map<UUID, Chave> porId = new ConcurrentHashMap<>();
+
+        void adicionar(EntradaFilaPrioridadeDTO entrada) {
+            Chave chave = new Chave(
+                    entrada.id(),
+                    Boolean.TRUE.equals(entrada.prioridade()),
+                    entrada.dataHoraEntrada(),
+                    Boolean.TRUE.equals(entrada.isRetorno())
+            );
+            if (porId.putIfAbsent(chave.id(), chave) == null) {
+                conjunto(chave.retorno()).add(chave);
+            }
+        }
+
+        void remover(UUID id) {
+            Chave chave = porId.remove(id);
+            if (chave != null) {
+                conjunto(chave.retorno()).remove(chave);
+            }
+        }
+
+        Optional<UUID> retirarPrimeiro(boolean retorno) {
+            Chave chave = conjunto(retorno).pollFirst();
+            if (chave == null) {
+                return Optional.empty();
+            }
+            porId.remove(chave.id());
+            return Optional.of(chave.id());
+        }
+
+        boolean contem(UUID id) {
+            return porId.containsKey(id);
+        }
+
+        int tamanho() {
+            return porId.size();
+        }
+
+        int tamanho(boolean retorno) {
+            return conjunto(retorno).size();
+        }
+
+        // O(n) no tamanho da fila (headSet de skip list não guarda contagem), que é pequeno
+        int aFrente(Chave chave) {
+            return conjunto(chave.retorno()).headSet(chave, false).size();
+        }
+
+        List<Chave> chaves() {
+            return new ArrayList<>(porId.values());
+        }
+
+        private NavigableSet<Chave> conjunto(boolean retorno) {
+            return retorno ? retornos : normais;
+        }
+    }
+}
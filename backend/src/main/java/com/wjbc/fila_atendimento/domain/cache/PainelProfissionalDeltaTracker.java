@@ -0,0 +1,271 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaAlteracaoDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaDeltaDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaEstimativasDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoAlteracaoFila;
+import com.wjbc.fila_atendimento.domain.model.PainelProfissionalEstado;
+import com.wjbc.fila_atendimento.domain.repository.PainelProfissionalEstadoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Guarda, por setor, a última lista de aguardando publicada e sua sequência. Cada nova lista
+ * é comparada com a anterior para gerar o delta (ADICIONADA / ATUALIZADA / REMOVIDA); o snapshot
+ * devolvido na inscrição ou no resync é sempre o estado base dos deltas seguintes.
+ *
+ * Com o broker simples ({@code websocket.broker.modo=simples}) cada instância publica só para os
+ * próprios inscritos e guarda o estado em memória. Com o broker externo ({@code relay}) todas as
+ * réplicas publicam no mesmo tópico: o estado fica no banco ({@code painel_profissional_estado}), e a
+ * linha do setor, bloqueada enquanto o delta é gerado e enviado, garante uma única sequência e um
+ * único estado base para todas elas. Nos dois modos o delta é enviado antes que o seguinte do mesmo
+ * setor seja gerado, e um envio que falha não avança a sequência.
+ *
+ * Posição e espera estimada ficam fora da comparação das entradas: uma chamada muda a posição de
+ * toda a fila, e o delta levaria a fila inteira como ATUALIZADA. Elas seguem à parte, por fila
+ * ({@link FilaEstimativasDTO}), só quando a ordem ou as estimativas da fila mudam.
+ */
+@Slf4j
+@Component
+public class PainelProfissionalDeltaTracker {
+
+    private static final TypeReference<List<EntradaFilaResponseDTO>> ENTRADAS = new TypeReference<>() {};
+    private static final TypeReference<List<FilaEstimativasDTO>> ESTIMATIVAS = new TypeReference<>() {};
+
+    private final PainelProfissionalEstadoRepository estadoRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transacao;
+    private final boolean compartilhado;
+
+    // Broker simples: estado desta instância
+    private final Map<UUID, EstadoSetor> estados = new ConcurrentHashMap<>();
+
+    public PainelProfissionalDeltaTracker(PainelProfissionalEstadoRepository estadoRepository,
+                                          PlatformTransactionManager transactionManager,
+                                          ObjectMapper objectMapper,
+                                          @Value("${websocket.broker.modo:simples}") String modoBroker) {
+        this.estadoRepository = estadoRepository;
+        this.objectMapper = objectMapper;
+        // Transação própria: quem chama pode estar numa transação somente leitura
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.compartilhado = "relay".equalsIgnoreCase(modoBroker);
+    }
+
+    /**
+     * Registra a lista atual do setor e, se algo mudou em relação à anterior, passa o delta a
+     * {@code enviar} ainda na vez do setor. Devolve o delta (vazio se nada mudou).
+     */
+    public Optional<FilaDeltaDTO> registrar(UUID setorId, List<EntradaFilaResponseDTO> filaAtual,
+                                            Consumer<FilaDeltaDTO> enviar) {
+        Map<UUID, EntradaFilaResponseDTO> novas = indexar(filaAtual);
+        Map<UUID, FilaEstimativasDTO> novasEstimativas = estimativasPorFila(filaAtual);
+        if (!compartilhado) {
+            EstadoSetor estado = estados.computeIfAbsent(setorId, id -> new EstadoSetor(Map.of(), Map.of()));
+            synchronized (estado) {
+                Optional<FilaDeltaDTO> delta = comparar(setorId, estado.sequencia, estado.entradas,
+                        estado.estimativas, novas, novasEstimativas);
+                delta.ifPresent(d -> {
+                    enviar.accept(d);
+                    estado.sequencia = d.sequencia();
+                    estado.entradas = novas;
+                    estado.estimativas = novasEstimativas;
+                });
+                return delta;
+            }
+        }
+        criarSeAusente(setorId, List.of());
+        return transacao.execute(status -> {
+            // A linha fica bloqueada até o commit, depois do envio
+            PainelProfissionalEstado estado = estadoRepository.bloquearPorSetor(setorId).orElseThrow();
+            Map<UUID, FilaEstimativasDTO> estimativasAnteriores = new HashMap<>();
+            ler(estado.getEstimativas(), ESTIMATIVAS).forEach(fila -> estimativasAnteriores.put(fila.filaId(), fila));
+            Optional<FilaDeltaDTO> delta = comparar(setorId, estado.getSequencia(),
+                    indexar(ler(estado.getEntradas(), ENTRADAS)), estimativasAnteriores, novas, novasEstimativas);
+            delta.ifPresent(d -> {
+                estado.setSequencia(d.sequencia());
+                estado.setEntradas(escrever(novas.values()));
+                estado.setEstimativas(escrever(novasEstimativas.values()));
+                estado.setAtualizadoEm(LocalDateTime.now());
+                estadoRepository.saveAndFlush(estado);
+                enviar.accept(d);
+            });
+            return delta;
+        });
+    }
+
+    /** Snapshot do último estado publicado, se o setor já tiver sido acompanhado. */
+    public Optional<FilaSnapshotDTO> snapshot(UUID setorId) {
+        if (!compartilhado) {
+            EstadoSetor estado = estados.get(setorId);
+            if (estado == null) {
+                return Optional.empty();
+            }
+            synchronized (estado) {
+                return Optional.of(paraSnapshot(setorId, estado.sequencia, estado.entradas, estado.estimativas.values()));
+            }
+        }
+        return estadoRepository.findById(setorId).map(estado -> paraSnapshot(estado.getSetorId(), estado.getSequencia(),
+                indexar(ler(estado.getEntradas(), ENTRADAS)), ler(estado.getEstimativas(), ESTIMATIVAS)));
+    }
+
+    /**
+     * Define o estado base de um setor ainda não acompanhado. Se outro envio (desta ou, com o broker
+     * externo, de outra instância) já o tiver inicializado, o estado existente prevalece (é nele que
+     * os próximos deltas se baseiam).
+     */
+    public FilaSnapshotDTO inicializar(UUID setorId, List<EntradaFilaResponseDTO> filaAtual) {
+        if (!compartilhado) {
+            estados.computeIfAbsent(setorId, id -> new EstadoSetor(indexar(filaAtual), estimativasPorFila(filaAtual)));
+        } else {
+            criarSeAusente(setorId, filaAtual);
+        }
+        return snapshot(setorId).orElseThrow();
+    }
+
+    // Delta da lista nova em relação ao estado base (vazio se nada mudou)
+    private static Optional<FilaDeltaDTO> comparar(UUID setorId, long sequencia,
+                                                   Map<UUID, EntradaFilaResponseDTO> anteriores,
+                                                   Map<UUID, FilaEstimativasDTO> estimativasAnteriores,
+                                                   Map<UUID, EntradaFilaResponseDTO> novas,
+                                                   Map<UUID, FilaEstimativasDTO> novasEstimativas) {
+        List<FilaAlteracaoDTO> alteracoes = new ArrayList<>();
+        for (EntradaFilaResponseDTO entrada : novas.values()) {
+            EntradaFilaResponseDTO anterior = anteriores.get(entrada.id());
+            if (anterior == null) {
+                alteracoes.add(new FilaAlteracaoDTO(TipoAlteracaoFila.ADICIONADA, entrada.id(), entrada));
+            } else if (!anterior.equals(entrada)) {
+                alteracoes.add(new FilaAlteracaoDTO(TipoAlteracaoFila.ATUALIZADA, entrada.id(), entrada));
+            }
+        }
+        for (UUID id : anteriores.keySet()) {
+            if (!novas.containsKey(id)) {
+                alteracoes.add(new FilaAlteracaoDTO(TipoAlteracaoFila.REMOVIDA, id, null));
+            }
+        }
+
+        List<FilaEstimativasDTO> estimativas = new ArrayList<>();
+        for (FilaEstimativasDTO fila : novasEstimativas.values()) {
+            if (!fila.equals(estimativasAnteriores.get(fila.filaId()))) {
+                estimativas.add(fila);
+            }
+        }
+        for (UUID filaId : estimativasAnteriores.keySet()) {
+            if (!novasEstimativas.containsKey(filaId)) {
+                estimativas.add(new FilaEstimativasDTO(filaId, List.of(), List.of()));
+            }
+        }
+
+        if (alteracoes.isEmpty() && estimativas.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new FilaDeltaDTO(setorId, sequencia, sequencia + 1, alteracoes, estimativas));
+    }
+
+    private void criarSeAusente(UUID setorId, List<EntradaFilaResponseDTO> filaAtual) {
+        if (estadoRepository.existsById(setorId)) {
+            return;
+        }
+        try {
+            transacao.executeWithoutResult(status -> estadoRepository.inserirEstadoBase(setorId,
+                    escrever(indexar(filaAtual).values()), escrever(estimativasPorFila(filaAtual).values())));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Estado do painel profissional do setor {} criado por outra instância", setorId);
+        }
+    }
+
+    // O snapshot leva as entradas completas, com posição e espera
+    private static FilaSnapshotDTO paraSnapshot(UUID setorId, long sequencia, Map<UUID, EntradaFilaResponseDTO> base,
+                                                Collection<FilaEstimativasDTO> estimativas) {
+        Map<UUID, EntradaFilaResponseDTO> entradas = new LinkedHashMap<>(base);
+        for (FilaEstimativasDTO fila : estimativas) {
+            for (int i = 0; i < fila.ordem().size(); i++) {
+                EntradaFilaResponseDTO entrada = entradas.get(fila.ordem().get(i));
+                if (entrada != null) {
+                    entradas.put(entrada.id(), entrada.comEstimativa(i + 1, fila.esperaEstimadaSegundos().get(i)));
+                }
+            }
+        }
+        return new FilaSnapshotDTO(setorId, sequencia, List.copyOf(entradas.values()));
+    }
+
+    // Entradas sem posição e espera, que vão em estimativasPorFila
+    private static Map<UUID, EntradaFilaResponseDTO> indexar(List<EntradaFilaResponseDTO> filaAtual) {
+        Map<UUID, EntradaFilaResponseDTO> porId = new LinkedHashMap<>();
+        filaAtual.forEach(e -> porId.put(e.id(), e.comEstimativa(null, null)));
+        return porId;
+    }
+
+    // Entradas com posição de cada fila, em ordem de chamada
+    private static Map<UUID, FilaEstimativasDTO> estimativasPorFila(List<EntradaFilaResponseDTO> filaAtual) {
+        Map<UUID, List<EntradaFilaResponseDTO>> porFila = new LinkedHashMap<>();
+        for (EntradaFilaResponseDTO entrada : filaAtual) {
+            if (entrada.fila() != null && entrada.posicaoNaFila() != null) {
+                porFila.computeIfAbsent(entrada.fila().id(), id -> new ArrayList<>()).add(entrada);
+            }
+        }
+        Map<UUID, FilaEstimativasDTO> estimativas = new LinkedHashMap<>();
+        porFila.forEach((filaId, entradas) -> {
+            entradas.sort(Comparator.comparing(EntradaFilaResponseDTO::posicaoNaFila));
+            List<UUID> ordem = new ArrayList<>(entradas.size());
+            List<Long> esperas = new ArrayList<>(entradas.size());
+            for (EntradaFilaResponseDTO entrada : entradas) {
+                ordem.add(entrada.id());
+                esperas.add(entrada.esperaEstimadaSegundos());
+            }
+            estimativas.put(filaId, new FilaEstimativasDTO(filaId, List.copyOf(ordem), Collections.unmodifiableList(esperas)));
+        });
+        return estimativas;
+    }
+
+    private static final class EstadoSetor {
+        private long sequencia;
+        private Map<UUID, EntradaFilaResponseDTO> entradas;
+        private Map<UUID, FilaEstimativasDTO> estimativas;
+
+        EstadoSetor(Map<UUID, EntradaFilaResponseDTO> entradas, Map<UUID, FilaEstimativasDTO> estimativas) {
+            this.entradas = entradas;
+            this.estimativas = estimativas;
+        }
+    }
+
+    private <T> List<T> ler(String json, TypeReference<List<T>> tipo) {
+        try {
+            return objectMapper.readValue(json, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Estado do painel profissional ilegível", e);
+        }
+    }
+
+    private String escrever(Collection<?> valores) {
+        try {
+            return objectMapper.writeValueAsString(valores);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o estado do painel profissional", e);
+        }
+    }
+}
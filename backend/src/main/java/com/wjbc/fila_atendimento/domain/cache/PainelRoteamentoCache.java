@@ -0,0 +1,111 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.PainelFilaVinculoDTO;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tabela de roteamento em memória fila → painéis que a exibem, usada para o envio ao painel
+ * público a cada chamada sem consultar o banco.
+ *
+ * É carregada na inicialização, mantida pelo {@code PainelServiceImpl} (após o commit) e
+ * recarregada periodicamente, o que cobre alterações feitas por outras instâncias.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PainelRoteamentoCache {
+
+    private final PainelRepository painelRepository;
+
+    // Mapas imutáveis substituídos por inteiro: leituras sem bloqueio e sempre consistentes
+    private volatile Map<UUID, Set<UUID>> paineisPorFila = Map.of();
+    private volatile Map<UUID, Set<UUID>> filasPorPainel = Map.of();
+    private volatile boolean carregado = false;
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        recarregar();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${painel.roteamento.recarga-ms:300000}",
+            initialDelayString = "${painel.roteamento.recarga-ms:300000}"
+    )
+    public void recarregar() {
+        List<PainelFilaVinculoDTO> vinculos = painelRepository.findVinculosPainelFila();
+        Map<UUID, Set<UUID>> porPainel = new HashMap<>();
+        vinculos.forEach(v -> porPainel.computeIfAbsent(v.painelId(), id -> new HashSet<>()).add(v.filaId()));
+        synchronized (this) {
+            publicar(porPainel);
+            carregado = true;
+        }
+        log.debug("Roteamento dos painéis carregado com {} vínculo(s) painel/fila", vinculos.size());
+    }
+
+    /** Painéis que exibem a fila; vazio se o roteamento ainda não foi carregado. */
+    public Optional<Set<UUID>> paineisDaFila(UUID filaId) {
+        if (!carregado) {
+            return Optional.empty();
+        }
+        return Optional.of(paineisPorFila.getOrDefault(filaId, Set.of()));
+    }
+
+    /** Filas exibidas pelo painel; vazio se não carregado ou se o painel não tiver filas em memória. */
+    public Optional<Set<UUID>> filasDoPainel(UUID painelId) {
+        if (!carregado) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(filasPorPainel.get(painelId));
+    }
+
+    /** Substitui, após o commit, as filas exibidas pelo painel. */
+    public void definirFilas(UUID painelId, Collection<UUID> filasIds) {
+        Set<UUID> filas = Set.copyOf(filasIds);
+        AposCommit.executar(() -> alterar(painelId, filas));
+    }
+
+    /** Retira o painel do roteamento após o commit. */
+    public void removerPainel(UUID painelId) {
+        AposCommit.executar(() -> alterar(painelId, Set.of()));
+    }
+
+    private synchronized void alterar(UUID painelId, Set<UUID> filas) {
+        Map<UUID, Set<UUID>> porPainel = new HashMap<>(filasPorPainel);
+        if (filas.isEmpty()) {
+            porPainel.remove(painelId);
+        } else {
+            porPainel.put(painelId, filas);
+        }
+        publicar(porPainel);
+    }
+
+    private void publicar(Map<UUID, Set<UUID>> porPainel) {
+        Map<UUID, Set<UUID>> porFila = new HashMap<>();
+        porPainel.forEach((painelId, filas) ->
+                filas.forEach(filaId -> porFila.computeIfAbsent(filaId, id -> new HashSet<>()).add(painelId)));
+        Map<UUID, Set<UUID>> imutavel = new HashMap<>();
+        porFila.forEach((filaId, paineis) -> imutavel.put(filaId, Set.copyOf(paineis)));
+        filasPorPainel = Map.copyOf(porPainel);
+        paineisPorFila = Map.copyOf(imutavel);
+    }
+}
@@ -0,0 +1,191 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ritmo de atendimento recente de cada fila (chamadas, guichês em uso e duração dos atendimentos
+ * da janela de {@code fila.estimativa.janela-minutos}), para estimar a espera de quem aguarda sem
+ * consultar o banco a cada listagem.
+ *
+ * Com a duração média {@code d} dos atendimentos e {@code g} guichês que chamaram na janela, a
+ * entrada na posição {@code p} é atendida na rodada {@code ceil(p / g)}; como os atendimentos em
+ * curso já estão, em média, na metade, a estimativa é {@code (ceil(p / g) - 0,5) * d}. Sem
+ * atendimentos finalizados na janela, usa o intervalo médio entre chamadas: {@code p * intervalo}.
+ *
+ * Alimentado pelo {@code EntradaFilaServiceImpl} após o commit; recarregado do banco na
+ * inicialização e a cada {@code fila.estimativa.recarga-ms}, o que inclui os atendimentos feitos
+ * em outras instâncias (cujo evento não traz guichê nem duração).
+ */
+@Slf4j
+@Component
+public class RitmoAtendimentoTracker {
+
+    // Na recarga, só chamadas de entradas feitas até este tempo antes da janela (partições recentes)
+    private static final Duration ESPERA_MAXIMA_RECARGA = Duration.ofDays(1);
+
+    private final EntradaFilaRepository entradaFilaRepository;
+    private final boolean habilitado;
+    private final Duration janela;
+
+    private final Map<UUID, Ritmo> filas = new ConcurrentHashMap<>();
+
+    public RitmoAtendimentoTracker(EntradaFilaRepository entradaFilaRepository,
+                                   @Value("${fila.estimativa.habilitado:true}") boolean habilitado,
+                                   @Value("${fila.estimativa.janela-minutos:60}") long janelaMinutos) {
+        this.entradaFilaRepository = entradaFilaRepository;
+        this.habilitado = habilitado;
+        this.janela = Duration.ofMinutes(Math.max(janelaMinutos, 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (habilitado) {
+            recarregar();
+        }
+    }
+
+    /**
+     * Refaz o ritmo de todas as filas a partir das chamadas da janela. Alterações registradas
+     * durante a consulta podem se perder até a próxima recarga, que as encontra no banco.
+     */
+    @Scheduled(fixedDelayString = "${fila.estimativa.recarga-ms:300000}",
+            initialDelayString = "${fila.estimativa.recarga-ms:300000}")
+    public void recarregar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime inicioJanela = LocalDateTime.now().minus(janela);
+        List<EntradaFilaChamadaDTO> chamadas = entradaFilaRepository.findChamadasDesde(
+                inicioJanela, inicioJanela.minus(ESPERA_MAXIMA_RECARGA));
+        Map<UUID, Ritmo> recarregadas = new HashMap<>();
+        for (EntradaFilaChamadaDTO chamada : chamadas) {
+            Ritmo ritmo = recarregadas.computeIfAbsent(chamada.filaId(), id -> new Ritmo());
+            ritmo.chamou(chamada.guicheOuSalaAtendimento(), chamada.dataHoraChamada());
+            ritmo.finalizou(chamada.dataHoraChamada(), chamada.dataHoraSaida());
+        }
+        filas.keySet().retainAll(recarregadas.keySet());
+        filas.putAll(recarregadas);
+        log.debug("Ritmo de atendimento recarregado com {} chamadas em {} filas", chamadas.size(), recarregadas.size());
+    }
+
+    public void registrarChamada(EntradaFila entrada) {
+        if (!habilitado || entrada.getFila() == null) {
+            return;
+        }
+        UUID filaId = entrada.getFila().getId();
+        String guiche = entrada.getGuicheOuSalaAtendimento();
+        LocalDateTime chamada = entrada.getDataHoraChamada();
+        AposCommit.executar(() -> ritmo(filaId).chamou(guiche, chamada));
+    }
+
+    public void registrarFinalizacao(EntradaFila entrada) {
+        if (!habilitado || entrada.getFila() == null) {
+            return;
+        }
+        UUID filaId = entrada.getFila().getId();
+        LocalDateTime chamada = entrada.getDataHoraChamada();
+        LocalDateTime saida = entrada.getDataHoraSaida();
+        AposCommit.executar(() -> ritmo(filaId).finalizou(chamada, saida));
+    }
+
+    // Chamada de outra instância: conta para o intervalo entre chamadas; guichê e duração vêm na próxima recarga
+    @EventListener
+    public void aoAlterarFilaEmOutraInstancia(FilaAlteracaoEvento evento) {
+        if (habilitado && evento.tipo() == TipoEventoFila.CHAMADA) {
+            ritmo(evento.filaId()).chamou(null, LocalDateTime.now());
+        }
+    }
+
+    /** Espera estimada (segundos) de quem está na posição informada (1 = próximo), ou nula sem ritmo conhecido. */
+    public Long estimarEsperaSegundos(UUID filaId, int posicao) {
+        Ritmo ritmo = filas.get(filaId);
+        if (!habilitado || ritmo == null || posicao < 1) {
+            return null;
+        }
+        return ritmo.estimar(posicao, LocalDateTime.now().minus(janela));
+    }
+
+    private Ritmo ritmo(UUID filaId) {
+        return filas.computeIfAbsent(filaId, id -> new Ritmo());
+    }
+
+    private record Chamada(LocalDateTime dataHora, String guiche) {}
+
+    private record Atendimento(LocalDateTime dataHoraSaida, long segundos) {}
+
+    /** Chamadas e atendimentos em ordem de ocorrência; a soma das durações acompanha as inclusões e descartes. */
+    private static final class Ritmo {
+        private final Deque<Chamada> chamadas = new ArrayDeque<>();
+        private final Deque<Atendimento> atendimentos = new ArrayDeque<>();
+        private long somaSegundos;
+
+        synchronized void chamou(String guiche, LocalDateTime dataHora) {
+            if (dataHora != null) {
+                chamadas.addLast(new Chamada(dataHora, guiche));
+            }
+        }
+
+        synchronized void finalizou(LocalDateTime chamada, LocalDateTime saida) {
+            if (chamada == null || saida == null) {
+                return;
+            }
+            long segundos = Math.max(Duration.between(chamada, saida).toSeconds(), 0);
+            atendimentos.addLast(new Atendimento(saida, segundos));
+            somaSegundos += segundos;
+        }
+
+        synchronized Long estimar(int posicao, LocalDateTime inicioJanela) {
+            descartarAntesDe(inicioJanela);
+            Set<String> guiches = new HashSet<>();
+            for (Chamada chamada : chamadas) {
+                if (chamada.guiche() != null) {
+                    guiches.add(chamada.guiche());
+                }
+            }
+            int emUso = Math.max(guiches.size(), chamadas.isEmpty() ? 0 : 1);
+            if (!atendimentos.isEmpty() && emUso > 0) {
+                double duracaoMedia = (double) somaSegundos / atendimentos.size();
+                long rodadas = (posicao + emUso - 1) / emUso;
+                return Math.round((rodadas - 0.5) * duracaoMedia);
+            }
+            if (chamadas.size() >= 2) {
+                double intervalo = (double) Duration.between(chamadas.getFirst().dataHora(), chamadas.getLast().dataHora()).toSeconds()
+                        / (chamadas.size() - 1);
+                return Math.round(posicao * intervalo);
+            }
+            return null;
+        }
+
+        private void descartarAntesDe(LocalDateTime inicioJanela) {
+            while (!chamadas.isEmpty() && chamadas.getFirst().dataHora().isBefore(inicioJanela)) {
+                chamadas.removeFirst();
+            }
+            while (!atendimentos.isEmpty() && atendimentos.getFirst().dataHoraSaida().isBefore(inicioJanela)) {
+                somaSegundos -= atendimentos.removeFirst().segundos();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.wjbc.fila_atendimento.domain.dashboard.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record DashboardAoVivoDTO(
+    UUID unidadeId,
+    LocalDateTime geradoEm,
+    Integer janelaMinutos,
+    List<FilaAoVivoDTO> filas
+) {}
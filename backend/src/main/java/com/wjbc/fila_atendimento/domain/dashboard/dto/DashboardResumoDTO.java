@@ -0,0 +1,10 @@
+package com.wjbc.fila_atendimento.domain.dashboard.dto;
+
+import java.util.List;
+
+public record DashboardResumoDTO(
+    List<TempoEsperaDTO> tempoMedioEspera,
+    List<ProdutividadeDTO> produtividade,
+    List<HorarioPicoDTO> horariosPico,
+    List<FluxoPacientesDTO> fluxoPacientes
+) {}
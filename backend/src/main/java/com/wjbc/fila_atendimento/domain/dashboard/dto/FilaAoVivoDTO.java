@@ -0,0 +1,13 @@
+package com.wjbc.fila_atendimento.domain.dashboard.dto;
+
+import java.util.UUID;
+
+public record FilaAoVivoDTO(
+    UUID filaId,
+    String filaNome,
+    UUID setorId,
+    Integer aguardando,
+    Long esperaMaisAntigaSegundos,
+    Double chamadasPorMinuto,
+    Double esperaMediaMovelMinutos
+) {}
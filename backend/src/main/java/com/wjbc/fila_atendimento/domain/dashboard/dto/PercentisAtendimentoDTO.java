@@ -0,0 +1,11 @@
+package com.wjbc.fila_atendimento.domain.dashboard.dto;
+
+public record PercentisAtendimentoDTO(
+    String profissionalNome,
+    String setorNome,
+    String unidadeNome,
+    Long amostras,
+    Double p50AtendimentoMinutos,
+    Double p90AtendimentoMinutos,
+    Double p99AtendimentoMinutos
+) {}
@@ -0,0 +1,11 @@
+package com.wjbc.fila_atendimento.domain.dashboard.dto;
+
+public record PercentisEsperaDTO(
+    String filaNome,
+    String setorNome,
+    String unidadeNome,
+    Long amostras,
+    Double p50EsperaMinutos,
+    Double p90EsperaMinutos,
+    Double p99EsperaMinutos
+) {}
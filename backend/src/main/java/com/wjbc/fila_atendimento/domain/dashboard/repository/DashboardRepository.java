@@ -10,5 +10,8 @@ public interface DashboardRepository {
     List<ProdutividadeDTO> buscarProdutividadePorProfissional(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
     List<HorarioPicoDTO> buscarHorariosPico(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
     List<FluxoPacientesDTO> buscarFluxoPacientes(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    List<PercentisEsperaDTO> buscarPercentisEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    List<PercentisAtendimentoDTO> buscarPercentisAtendimento(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    DashboardResumoDTO buscarResumo(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
 }
 
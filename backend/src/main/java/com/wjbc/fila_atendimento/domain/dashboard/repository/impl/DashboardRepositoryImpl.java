@@ -8,7 +8,10 @@ import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,25 +23,19 @@ public class DashboardRepositoryImpl implements DashboardRepository {
 
     @Override
     public List<TempoEsperaDTO> buscarTempoMedioEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        Query query = entityManager.createNativeQuery(DashboardQueries.TEMPO_ESPERA);
-        query.setParameter("unidadeId", unidadeId);
-        query.setParameter("inicio", inicio);
-        query.setParameter("fim", fim);
+        Query query = consulta(DashboardQueries.TEMPO_ESPERA, unidadeId, inicio, fim);
         List<Object[]> result = query.getResultList();
         return result.stream().map(row -> new TempoEsperaDTO(
                 (String) row[0], (String) row[1], (String) row[2],
                 row[3] != null ? ((Number) row[3]).doubleValue() : null,
-                (row[4] instanceof java.sql.Timestamp ? ((java.sql.Timestamp) row[4]).toLocalDateTime() : null),
-                (row[5] instanceof java.sql.Timestamp ? ((java.sql.Timestamp) row[5]).toLocalDateTime() : null)
+                dataHora(row[4]),
+                dataHora(row[5])
         )).toList();
     }
 
     @Override
     public List<ProdutividadeDTO> buscarProdutividadePorProfissional(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        Query query = entityManager.createNativeQuery(DashboardQueries.PRODUTIVIDADE);
-        query.setParameter("unidadeId", unidadeId);
-        query.setParameter("inicio", inicio);
-        query.setParameter("fim", fim);
+        Query query = consulta(DashboardQueries.PRODUTIVIDADE, unidadeId, inicio, fim);
         List<Object[]> result = query.getResultList();
         return result.stream().map(row -> new ProdutividadeDTO(
                 (String) row[0], (String) row[1], (String) row[2],
@@ -49,27 +46,120 @@ public class DashboardRepositoryImpl implements DashboardRepository {
 
     @Override
     public List<HorarioPicoDTO> buscarHorariosPico(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        Query query = entityManager.createNativeQuery(DashboardQueries.HORARIO_PICO);
-        query.setParameter("unidadeId", unidadeId);
-        query.setParameter("inicio", inicio);
-        query.setParameter("fim", fim);
+        Query query = consulta(DashboardQueries.HORARIO_PICO, unidadeId, inicio, fim);
         List<Object[]> result = query.getResultList();
         return result.stream().map(row -> new HorarioPicoDTO(
                 (String) row[0], (String) row[1],
-                (row[2] instanceof java.sql.Timestamp ? ((java.sql.Timestamp) row[2]).toLocalDateTime() : null),
+                dataHora(row[2]),
                 ((Number) row[3]).longValue()
         )).toList();
     }
 
     @Override
     public List<FluxoPacientesDTO> buscarFluxoPacientes(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        Query query = entityManager.createNativeQuery(DashboardQueries.FLUXO_PACIENTES);
-        query.setParameter("unidadeId", unidadeId);
-        query.setParameter("inicio", inicio);
-        query.setParameter("fim", fim);
+        Query query = consulta(DashboardQueries.FLUXO_PACIENTES, unidadeId, inicio, fim);
         List<Object[]> result = query.getResultList();
         return result.stream().map(row -> new FluxoPacientesDTO(
                 (String) row[0], (String) row[1], null, ((Number) row[2]).longValue()
         )).toList();
     }
+
+    @Override
+    public List<PercentisEsperaDTO> buscarPercentisEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        Query query = consulta(DashboardQueries.PERCENTIS_ESPERA, unidadeId, inicio, fim);
+        List<Object[]> result = query.getResultList();
+        return result.stream().map(row -> new PercentisEsperaDTO(
+                (String) row[0], (String) row[1], (String) row[2],
+                ((Number) row[3]).longValue(),
+                minutos(row[4]), minutos(row[5]), minutos(row[6])
+        )).toList();
+    }
+
+    @Override
+    public List<PercentisAtendimentoDTO> buscarPercentisAtendimento(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        Query query = consulta(DashboardQueries.PERCENTIS_ATENDIMENTO, unidadeId, inicio, fim);
+        List<Object[]> result = query.getResultList();
+        return result.stream().map(row -> new PercentisAtendimentoDTO(
+                (String) row[0], (String) row[1], (String) row[2],
+                ((Number) row[3]).longValue(),
+                minutos(row[4]), minutos(row[5]), minutos(row[6])
+        )).toList();
+    }
+
+    @Override
+    public DashboardResumoDTO buscarResumo(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        Query query = consulta(DashboardQueries.RESUMO, unidadeId, inicio, fim);
+        List<Object[]> result = query.getResultList();
+        List<TempoEsperaDTO> tempoEspera = new ArrayList<>();
+        List<ProdutividadeDTO> produtividade = new ArrayList<>();
+        List<HorarioPicoDTO> horariosPico = new ArrayList<>();
+        List<FluxoPacientesDTO> fluxo = new ArrayList<>();
+        // Colunas: relatório, fila/profissional, setor, unidade, hora, quantidade, média, primeira e última entrada
+        for (Object[] row : result) {
+            switch ((String) row[0]) {
+                case "TEMPO_ESPERA" -> tempoEspera.add(new TempoEsperaDTO(
+                        (String) row[1], (String) row[2], (String) row[3],
+                        row[6] != null ? ((Number) row[6]).doubleValue() : null,
+                        dataHora(row[7]), dataHora(row[8])));
+                case "PRODUTIVIDADE" -> produtividade.add(new ProdutividadeDTO(
+                        (String) row[1], (String) row[2], (String) row[3],
+                        ((Number) row[5]).longValue(),
+                        row[6] != null ? ((Number) row[6]).doubleValue() : null));
+                case "HORARIO_PICO" -> horariosPico.add(new HorarioPicoDTO(
+                        (String) row[3], (String) row[2], dataHora(row[4]), ((Number) row[5]).longValue()));
+                default -> fluxo.add(new FluxoPacientesDTO(
+                        (String) row[3], (String) row[2], null, ((Number) row[5]).longValue()));
+            }
+        }
+        return new DashboardResumoDTO(List.copyOf(tempoEspera), List.copyOf(produtividade),
+                List.copyOf(horariosPico), List.copyOf(fluxo));
+    }
+
+    // Horas inteiras do período até a marca da consolidação vêm dos rollups; o restante, de entrada_fila
+    private Query consulta(String sql, UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        LocalDateTime[] rollup = horasConsolidadas(inicio, fim, marcaRollup());
+        Query query = entityManager.createNativeQuery(sql);
+        query.setParameter("unidadeId", unidadeId);
+        query.setParameter("inicio", inicio);
+        query.setParameter("fim", fim);
+        query.setParameter("rollupInicio", rollup[0]);
+        query.setParameter("rollupFim", rollup[1]);
+        return query;
+    }
+
+    /**
+     * Intervalo [início, fim) de horas inteiras lidas dos rollups: da primeira hora cheia do período
+     * até a última que termina antes de {@code fim} e já consolidada pela marca. Sem horas inteiras,
+     * o intervalo é vazio e o período todo vem das linhas brutas.
+     */
+    static LocalDateTime[] horasConsolidadas(LocalDateTime inicio, LocalDateTime fim, LocalDateTime marca) {
+        LocalDateTime primeira = inicio.truncatedTo(ChronoUnit.HOURS);
+        if (primeira.isBefore(inicio)) {
+            primeira = primeira.plusHours(1);
+        }
+        LocalDateTime ultima = fim.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime consolidada = marca.truncatedTo(ChronoUnit.HOURS);
+        if (consolidada.isBefore(ultima)) {
+            ultima = consolidada;
+        }
+        if (!ultima.isAfter(primeira)) {
+            return new LocalDateTime[]{inicio, inicio};
+        }
+        return new LocalDateTime[]{primeira, ultima};
+    }
+
+    private LocalDateTime marcaRollup() {
+        return dataHora(entityManager.createNativeQuery(DashboardQueries.MARCA_ROLLUP).getSingleResult());
+    }
+
+    private static Double minutos(Object valor) {
+        return valor != null ? ((Number) valor).doubleValue() : null;
+    }
+
+    private static LocalDateTime dataHora(Object valor) {
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return valor instanceof LocalDateTime dataHora ? dataHora : null;
+    }
 }
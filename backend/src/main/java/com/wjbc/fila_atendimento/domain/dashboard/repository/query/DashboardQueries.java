@@ -1,37 +1,241 @@
 package com.wjbc.fila_atendimento.domain.dashboard.repository.query;
 
+/**
+ * Consultas do dashboard sobre a consolidação horária (V023). As horas inteiras entre
+ * {@code :rollupInicio} e {@code :rollupFim} vêm das tabelas de rollup; as pontas do período
+ * ({@code :inicio} até {@code :rollupInicio} e {@code :rollupFim} até {@code :fim}, inclusive),
+ * que incluem a hora ainda não consolidada, vêm de entrada_fila. As duas partes são somadas antes
+ * de calcular as médias. Os percentis somam os histogramas de tempo (V024) das horas consolidadas
+ * com os das linhas brutas das pontas.
+ */
 public class DashboardQueries {
-    public static final String TEMPO_ESPERA = "SELECT f.nome, s.nome, u.nome, AVG(EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada))/60) as tempo_medio, MIN(ef.data_hora_entrada), MAX(ef.data_hora_entrada) " +
+
+    private static final String FILAS_DA_UNIDADE =
+            "filas AS (SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidadeId)";
+
+    // Entradas por fila e hora de entrada
+    private static final String ENTRADAS = "WITH " + FILAS_DA_UNIDADE + ", " +
+            "entradas AS (" +
+            "SELECT r.fila_id, r.hora, r.entradas, r.espera_soma_segundos, r.espera_qtd, r.primeira_entrada, r.ultima_entrada " +
+            "FROM fila_atendimento.dashboard_entrada_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT ef.fila_id, date_trunc('hour', ef.data_hora_entrada), 1, " +
+            "EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada)), " +
+            "CASE WHEN ef.data_hora_chamada IS NULL THEN 0 ELSE 1 END, ef.data_hora_entrada, ef.data_hora_entrada " +
+            "FROM fila_atendimento.entrada_fila ef " +
+            "WHERE ef.fila_id IN (SELECT id FROM filas) " +
+            "AND ((ef.data_hora_entrada >= :inicio AND ef.data_hora_entrada < :rollupInicio) " +
+            "OR (ef.data_hora_entrada >= :rollupFim AND ef.data_hora_entrada <= :fim))) ";
+
+    // Atendimentos por fila, profissional e hora de chamada
+    private static final String ATENDIMENTOS = "WITH " + FILAS_DA_UNIDADE + ", " +
+            "atendimentos AS (" +
+            "SELECT r.fila_id, r.usuario_id, r.atendimentos, r.atendimento_soma_segundos, r.atendimento_qtd " +
+            "FROM fila_atendimento.dashboard_atendimento_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT ef.fila_id, ef.usuario_responsavel_id, 1, " +
+            "EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada)), " +
+            "CASE WHEN ef.data_hora_saida IS NULL THEN 0 ELSE 1 END " +
             "FROM fila_atendimento.entrada_fila ef " +
-            "JOIN fila_atendimento.fila f ON ef.fila_id = f.id " +
+            "WHERE ef.fila_id IN (SELECT id FROM filas) AND ef.usuario_responsavel_id IS NOT NULL " +
+            "AND ((ef.data_hora_chamada >= :inicio AND ef.data_hora_chamada < :rollupInicio) " +
+            "OR (ef.data_hora_chamada >= :rollupFim AND ef.data_hora_chamada <= :fim))) ";
+
+    public static final String TEMPO_ESPERA = ENTRADAS +
+            "SELECT f.nome, s.nome, u.nome, SUM(e.espera_soma_segundos) / NULLIF(SUM(e.espera_qtd), 0) / 60 as tempo_medio, " +
+            "MIN(e.primeira_entrada), MAX(e.ultima_entrada) " +
+            "FROM entradas e " +
+            "JOIN fila_atendimento.fila f ON e.fila_id = f.id " +
             "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
             "JOIN fila_atendimento.unidade_atendimento u ON f.unidade_atendimento_id = u.id " +
-            "WHERE u.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim " +
             "GROUP BY f.nome, s.nome, u.nome";
 
-    public static final String PRODUTIVIDADE = "SELECT u.nome_usuario, s.nome, ua.nome, COUNT(ef.id), AVG(EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada))/60) " +
-            "FROM fila_atendimento.entrada_fila ef " +
-            "JOIN fila_atendimento.usuario u ON ef.usuario_responsavel_id = u.id " +
-            "JOIN fila_atendimento.fila f ON ef.fila_id = f.id " +
+    public static final String PRODUTIVIDADE = ATENDIMENTOS +
+            "SELECT u.nome_usuario, s.nome, ua.nome, SUM(a.atendimentos), " +
+            "SUM(a.atendimento_soma_segundos) / NULLIF(SUM(a.atendimento_qtd), 0) / 60 " +
+            "FROM atendimentos a " +
+            "JOIN fila_atendimento.usuario u ON a.usuario_id = u.id " +
+            "JOIN fila_atendimento.fila f ON a.fila_id = f.id " +
             "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
             "JOIN fila_atendimento.unidade_atendimento ua ON f.unidade_atendimento_id = ua.id " +
-            "WHERE ua.id = :unidadeId AND ef.data_hora_chamada BETWEEN :inicio AND :fim " +
             "GROUP BY u.nome_usuario, s.nome, ua.nome";
 
-    public static final String HORARIO_PICO = "SELECT ua.nome, s.nome, date_trunc('hour', ef.data_hora_entrada) as horario, COUNT(ef.id) " +
-            "FROM fila_atendimento.entrada_fila ef " +
-            "JOIN fila_atendimento.fila f ON ef.fila_id = f.id " +
+    public static final String HORARIO_PICO = ENTRADAS +
+            "SELECT ua.nome, s.nome, e.hora as horario, SUM(e.entradas) " +
+            "FROM entradas e " +
+            "JOIN fila_atendimento.fila f ON e.fila_id = f.id " +
             "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
             "JOIN fila_atendimento.unidade_atendimento ua ON f.unidade_atendimento_id = ua.id " +
-            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim " +
             "GROUP BY ua.nome, s.nome, horario ORDER BY horario";
 
-    public static final String FLUXO_PACIENTES = "SELECT ua.nome, s1.nome, COUNT(ef.id) " +
-            "FROM fila_atendimento.entrada_fila ef " +
-            "JOIN fila_atendimento.fila f1 ON ef.fila_id = f1.id " +
+    public static final String FLUXO_PACIENTES = ENTRADAS +
+            "SELECT ua.nome, s1.nome, SUM(e.entradas) " +
+            "FROM entradas e " +
+            "JOIN fila_atendimento.fila f1 ON e.fila_id = f1.id " +
             "JOIN fila_atendimento.setor s1 ON f1.setor_id = s1.id " +
             "JOIN fila_atendimento.unidade_atendimento ua ON f1.unidade_atendimento_id = ua.id " +
-            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim " +
             "GROUP BY ua.nome, s1.nome";
-}
 
+    // Resumo: os quatro relatórios numa só consulta. As linhas brutas das pontas (pela entrada ou pela
+    // chamada) são lidas uma única vez; tempo de espera, horários de pico e fluxo saem de um único
+    // agrupamento (GROUPING SETS) sobre as entradas, identificados pela coluna "relatorio".
+    public static final String RESUMO = "WITH " + FILAS_DA_UNIDADE + ", " +
+            "brutas AS MATERIALIZED (" +
+            "SELECT ef.fila_id, ef.usuario_responsavel_id, ef.data_hora_entrada, ef.data_hora_chamada, ef.data_hora_saida, " +
+            "((ef.data_hora_entrada >= :inicio AND ef.data_hora_entrada < :rollupInicio) " +
+            "OR (ef.data_hora_entrada >= :rollupFim AND ef.data_hora_entrada <= :fim)) AS pela_entrada, " +
+            "(ef.usuario_responsavel_id IS NOT NULL " +
+            "AND ((ef.data_hora_chamada >= :inicio AND ef.data_hora_chamada < :rollupInicio) " +
+            "OR (ef.data_hora_chamada >= :rollupFim AND ef.data_hora_chamada <= :fim))) AS pela_chamada " +
+            "FROM fila_atendimento.entrada_fila ef " +
+            "WHERE ef.fila_id IN (SELECT id FROM filas) " +
+            "AND ((ef.data_hora_entrada >= :inicio AND ef.data_hora_entrada < :rollupInicio) " +
+            "OR (ef.data_hora_entrada >= :rollupFim AND ef.data_hora_entrada <= :fim) " +
+            "OR (ef.data_hora_chamada >= :inicio AND ef.data_hora_chamada < :rollupInicio) " +
+            "OR (ef.data_hora_chamada >= :rollupFim AND ef.data_hora_chamada <= :fim))), " +
+            "entradas AS (" +
+            "SELECT r.fila_id, r.hora, r.entradas, r.espera_soma_segundos, r.espera_qtd, r.primeira_entrada, r.ultima_entrada " +
+            "FROM fila_atendimento.dashboard_entrada_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT b.fila_id, date_trunc('hour', b.data_hora_entrada), 1, " +
+            "EXTRACT(EPOCH FROM (b.data_hora_chamada - b.data_hora_entrada)), " +
+            "CASE WHEN b.data_hora_chamada IS NULL THEN 0 ELSE 1 END, b.data_hora_entrada, b.data_hora_entrada " +
+            "FROM brutas b WHERE b.pela_entrada), " +
+            "atendimentos AS (" +
+            "SELECT r.fila_id, r.usuario_id, r.atendimentos, r.atendimento_soma_segundos, r.atendimento_qtd " +
+            "FROM fila_atendimento.dashboard_atendimento_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT b.fila_id, b.usuario_responsavel_id, 1, " +
+            "EXTRACT(EPOCH FROM (b.data_hora_saida - b.data_hora_chamada)), " +
+            "CASE WHEN b.data_hora_saida IS NULL THEN 0 ELSE 1 END " +
+            "FROM brutas b WHERE b.pela_chamada), " +
+            "por_entrada AS (" +
+            "SELECT GROUPING(f.nome, e.hora) AS conjunto, f.nome AS fila, s.nome AS setor, u.nome AS unidade, e.hora, " +
+            "SUM(e.entradas) AS quantidade, SUM(e.espera_soma_segundos) / NULLIF(SUM(e.espera_qtd), 0) / 60 AS media, " +
+            "MIN(e.primeira_entrada) AS primeira, MAX(e.ultima_entrada) AS ultima " +
+            "FROM entradas e " +
+            "JOIN fila_atendimento.fila f ON e.fila_id = f.id " +
+            "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "JOIN fila_atendimento.unidade_atendimento u ON f.unidade_atendimento_id = u.id " +
+            "GROUP BY GROUPING SETS ((f.nome, s.nome, u.nome), (u.nome, s.nome, e.hora), (u.nome, s.nome))) " +
+            "SELECT CASE p.conjunto WHEN 1 THEN 'TEMPO_ESPERA' WHEN 2 THEN 'HORARIO_PICO' ELSE 'FLUXO_PACIENTES' END AS relatorio, " +
+            "p.fila, p.setor, p.unidade, p.hora, p.quantidade, p.media, p.primeira, p.ultima " +
+            "FROM por_entrada p " +
+            "UNION ALL " +
+            "SELECT 'PRODUTIVIDADE', u.nome_usuario, s.nome, ua.nome, NULL, SUM(a.atendimentos), " +
+            "SUM(a.atendimento_soma_segundos) / NULLIF(SUM(a.atendimento_qtd), 0) / 60, NULL, NULL " +
+            "FROM atendimentos a " +
+            "JOIN fila_atendimento.usuario u ON a.usuario_id = u.id " +
+            "JOIN fila_atendimento.fila f ON a.fila_id = f.id " +
+            "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "JOIN fila_atendimento.unidade_atendimento ua ON f.unidade_atendimento_id = ua.id " +
+            "GROUP BY u.nome_usuario, s.nome, ua.nome " +
+            "ORDER BY 1, 5";
+
+    // Histogramas de espera por fila: horas consolidadas mais as linhas brutas das pontas
+    private static final String HISTOGRAMAS_ESPERA = "WITH " + FILAS_DA_UNIDADE + ", " +
+            "histogramas AS (" +
+            "SELECT r.fila_id, r.espera_histograma AS histograma " +
+            "FROM fila_atendimento.dashboard_entrada_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT ef.fila_id, fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada))) " +
+            "FROM fila_atendimento.entrada_fila ef " +
+            "WHERE ef.fila_id IN (SELECT id FROM filas) " +
+            "AND ((ef.data_hora_entrada >= :inicio AND ef.data_hora_entrada < :rollupInicio) " +
+            "OR (ef.data_hora_entrada >= :rollupFim AND ef.data_hora_entrada <= :fim)) " +
+            "GROUP BY ef.fila_id) ";
+
+    // Histogramas de atendimento por fila e profissional
+    private static final String HISTOGRAMAS_ATENDIMENTO = "WITH " + FILAS_DA_UNIDADE + ", " +
+            "histogramas AS (" +
+            "SELECT r.fila_id, r.usuario_id, r.atendimento_histograma AS histograma " +
+            "FROM fila_atendimento.dashboard_atendimento_hora r " +
+            "WHERE r.fila_id IN (SELECT id FROM filas) AND r.hora >= :rollupInicio AND r.hora < :rollupFim " +
+            "UNION ALL " +
+            "SELECT ef.fila_id, ef.usuario_responsavel_id, " +
+            "fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada))) " +
+            "FROM fila_atendimento.entrada_fila ef " +
+            "WHERE ef.fila_id IN (SELECT id FROM filas) AND ef.usuario_responsavel_id IS NOT NULL " +
+            "AND ((ef.data_hora_chamada >= :inicio AND ef.data_hora_chamada < :rollupInicio) " +
+            "OR (ef.data_hora_chamada >= :rollupFim AND ef.data_hora_chamada <= :fim)) " +
+            "GROUP BY ef.fila_id, ef.usuario_responsavel_id) ";
+
+    // Amostras e p50/p90/p99 (minutos) do histograma somado do grupo
+    private static final String PERCENTIS = "(SELECT SUM(q) FROM unnest(t.histograma) q), " +
+            "fila_atendimento.histograma_percentil(t.histograma, 0.5) / 60, " +
+            "fila_atendimento.histograma_percentil(t.histograma, 0.9) / 60, " +
+            "fila_atendimento.histograma_percentil(t.histograma, 0.99) / 60 ";
+
+    public static final String PERCENTIS_ESPERA = HISTOGRAMAS_ESPERA +
+            "SELECT t.fila, t.setor, t.unidade, " + PERCENTIS +
+            "FROM (SELECT f.nome AS fila, s.nome AS setor, u.nome AS unidade, " +
+            "fila_atendimento.histograma_somar(h.histograma) AS histograma " +
+            "FROM histogramas h " +
+            "JOIN fila_atendimento.fila f ON h.fila_id = f.id " +
+            "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "JOIN fila_atendimento.unidade_atendimento u ON f.unidade_atendimento_id = u.id " +
+            "GROUP BY f.nome, s.nome, u.nome) t " +
+            "WHERE t.histograma IS NOT NULL";
+
+    public static final String PERCENTIS_ATENDIMENTO = HISTOGRAMAS_ATENDIMENTO +
+            "SELECT t.profissional, t.setor, t.unidade, " + PERCENTIS +
+            "FROM (SELECT u.nome_usuario AS profissional, s.nome AS setor, ua.nome AS unidade, " +
+            "fila_atendimento.histograma_somar(h.histograma) AS histograma " +
+            "FROM histogramas h " +
+            "JOIN fila_atendimento.usuario u ON h.usuario_id = u.id " +
+            "JOIN fila_atendimento.fila f ON h.fila_id = f.id " +
+            "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "JOIN fila_atendimento.unidade_atendimento ua ON f.unidade_atendimento_id = ua.id " +
+            "GROUP BY u.nome_usuario, s.nome, ua.nome) t " +
+            "WHERE t.histograma IS NOT NULL";
+
+    public static final String MARCA_ROLLUP = "SELECT marca FROM fila_atendimento.dashboard_rollup_controle WHERE id = 1";
+
+    // Consolidação: recalcula por inteiro as horas (de entrada / de chamada) das linhas alteradas
+    // entre :de e :ate. Toda transição de status grava o próprio horário, então é por eles que as
+    // alterações são encontradas.
+    public static final String CONSOLIDAR_ENTRADAS = "WITH afetadas AS (" +
+            "SELECT DISTINCT fila_id, date_trunc('hour', data_hora_entrada) AS hora " +
+            "FROM fila_atendimento.entrada_fila " +
+            "WHERE (data_hora_entrada >= :de AND data_hora_entrada < :ate) " +
+            "OR (data_hora_chamada >= :de AND data_hora_chamada < :ate)) " +
+            "INSERT INTO fila_atendimento.dashboard_entrada_hora " +
+            "(fila_id, hora, entradas, espera_soma_segundos, espera_qtd, primeira_entrada, ultima_entrada, espera_histograma) " +
+            "SELECT a.fila_id, a.hora, COUNT(*), " +
+            "COALESCE(SUM(EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada))), 0), " +
+            "COUNT(ef.data_hora_chamada), MIN(ef.data_hora_entrada), MAX(ef.data_hora_entrada), " +
+            "fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada))) " +
+            "FROM afetadas a " +
+            "JOIN fila_atendimento.entrada_fila ef ON ef.fila_id = a.fila_id " +
+            "AND ef.data_hora_entrada >= a.hora AND ef.data_hora_entrada < a.hora + INTERVAL '1 hour' " +
+            "GROUP BY a.fila_id, a.hora " +
+            "ON CONFLICT (fila_id, hora) DO UPDATE SET entradas = EXCLUDED.entradas, " +
+            "espera_soma_segundos = EXCLUDED.espera_soma_segundos, espera_qtd = EXCLUDED.espera_qtd, " +
+            "primeira_entrada = EXCLUDED.primeira_entrada, ultima_entrada = EXCLUDED.ultima_entrada, " +
+            "espera_histograma = EXCLUDED.espera_histograma";
+
+    public static final String CONSOLIDAR_ATENDIMENTOS = "WITH afetadas AS (" +
+            "SELECT DISTINCT fila_id, date_trunc('hour', data_hora_chamada) AS hora " +
+            "FROM fila_atendimento.entrada_fila " +
+            "WHERE usuario_responsavel_id IS NOT NULL " +
+            "AND ((data_hora_chamada >= :de AND data_hora_chamada < :ate) " +
+            "OR (data_hora_saida >= :de AND data_hora_saida < :ate))) " +
+            "INSERT INTO fila_atendimento.dashboard_atendimento_hora " +
+            "(fila_id, hora, usuario_id, atendimentos, atendimento_soma_segundos, atendimento_qtd, atendimento_histograma) " +
+            "SELECT a.fila_id, a.hora, ef.usuario_responsavel_id, COUNT(*), " +
+            "COALESCE(SUM(EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada))), 0), " +
+            "COUNT(ef.data_hora_saida), " +
+            "fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada))) " +
+            "FROM afetadas a " +
+            "JOIN fila_atendimento.entrada_fila ef ON ef.fila_id = a.fila_id AND ef.usuario_responsavel_id IS NOT NULL " +
+            "AND ef.data_hora_chamada >= a.hora AND ef.data_hora_chamada < a.hora + INTERVAL '1 hour' " +
+            "GROUP BY a.fila_id, a.hora, ef.usuario_responsavel_id " +
+            "ON CONFLICT (fila_id, hora, usuario_id) DO UPDATE SET atendimentos = EXCLUDED.atendimentos, " +
+            "atendimento_soma_segundos = EXCLUDED.atendimento_soma_segundos, atendimento_qtd = EXCLUDED.atendimento_qtd, " +
+            "atendimento_histograma = EXCLUDED.atendimento_histograma";
+}
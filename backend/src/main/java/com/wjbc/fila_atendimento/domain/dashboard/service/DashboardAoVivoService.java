@@ -0,0 +1,19 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service;
+
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+
+import java.util.UUID;
+
+/**
+ * Situação atual das filas de cada unidade (aguardando, espera mais antiga, chamadas por minuto e
+ * espera média recente), mantida em memória a partir das operações da fila e enviada em
+ * {@code /topic/dashboard/{unidadeId}} a intervalo fixo.
+ */
+public interface DashboardAoVivoService {
+    /** As alterações só são aplicadas após o commit da transação corrente (ou imediatamente, sem transação). */
+    void registrarEntrada(EntradaFila entrada);
+    void registrarChamada(EntradaFila entrada);
+    void registrarCancelamento(EntradaFila entrada);
+    DashboardAoVivoDTO obter(UUID unidadeId);
+}
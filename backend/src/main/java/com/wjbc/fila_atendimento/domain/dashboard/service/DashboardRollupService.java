@@ -0,0 +1,5 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service;
+
+public interface DashboardRollupService {
+    void consolidar();
+}
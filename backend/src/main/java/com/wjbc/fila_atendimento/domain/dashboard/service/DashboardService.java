@@ -10,5 +10,8 @@ public interface DashboardService {
     List<ProdutividadeDTO> calcularProdutividadePorProfissional(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
     List<HorarioPicoDTO> identificarHorariosPico(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
     List<FluxoPacientesDTO> analisarFluxoPacientes(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    List<PercentisEsperaDTO> calcularPercentisEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    List<PercentisAtendimentoDTO> calcularPercentisAtendimento(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
+    DashboardResumoDTO gerarResumo(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim);
 }
 
@@ -0,0 +1,358 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service.impl;
+
+import com.wjbc.fila_atendimento.controller.FilaWebSocketController;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.FilaAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardAoVivoService;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métricas ao vivo por fila, sem consultar o banco a cada envio: as entradas aguardando (com a
+ * hora de entrada) e as chamadas da janela móvel de {@code dashboard.ao-vivo.janela-minutos}.
+ * Alimentadas pelo {@code EntradaFilaServiceImpl} após o commit e pelas alterações vindas de outras
+ * instâncias; recarregadas na inicialização e reconciliadas periodicamente com o banco.
+ *
+ * A cada {@code dashboard.ao-vivo.intervalo-ms} cada unidade com filas em andamento recebe o
+ * estado completo em {@code /topic/dashboard/{unidadeId}}; a que deixa de ter recebe um último
+ * envio sem filas.
+ */
+@Slf4j
+@Service
+public class DashboardAoVivoServiceImpl implements DashboardAoVivoService {
+
+    // Chamadas recompostas na inicialização: só entradas feitas até este tempo antes da janela
+    private static final Duration ESPERA_MAXIMA_RECOMPOSICAO = Duration.ofDays(1);
+
+    private final EntradaFilaRepository entradaFilaRepository;
+    private final FilaRepository filaRepository;
+    private final FilaWebSocketController filaWebSocketController;
+    private final boolean habilitado;
+    private final Duration janela;
+    private final Duration margemReconciliacao;
+
+    private final Map<UUID, FilaAoVivo> filas = new ConcurrentHashMap<>();
+    // Unidades enviadas no último ciclo: a que ficar sem filas recebe um último envio vazio
+    private final Set<UUID> unidadesPublicadas = ConcurrentHashMap.newKeySet();
+    // Entradas que saíram de aguardando (System.nanoTime da saída), mantidas só até a próxima
+    // reconciliação: fora das filas porque a fila vazia é descartada antes dela
+    private final Map<UUID, Long> removidas = new ConcurrentHashMap<>();
+
+    public DashboardAoVivoServiceImpl(EntradaFilaRepository entradaFilaRepository,
+                                      FilaRepository filaRepository,
+                                      FilaWebSocketController filaWebSocketController,
+                                      @Value("${dashboard.ao-vivo.habilitado:true}") boolean habilitado,
+                                      @Value("${dashboard.ao-vivo.janela-minutos:15}") long janelaMinutos,
+                                      @Value("${dashboard.ao-vivo.margem-reconciliacao-segundos:60}") long margemReconciliacaoSegundos) {
+        this.entradaFilaRepository = entradaFilaRepository;
+        this.filaRepository = filaRepository;
+        this.filaWebSocketController = filaWebSocketController;
+        this.habilitado = habilitado;
+        this.janela = Duration.ofMinutes(Math.max(janelaMinutos, 1));
+        this.margemReconciliacao = Duration.ofSeconds(margemReconciliacaoSegundos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (!habilitado) {
+            return;
+        }
+        List<EntradaFilaPrioridadeDTO> aguardando = entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO);
+        aguardando.forEach(entrada -> fila(entrada.filaId()).entrou(entrada.id(), entrada.dataHoraEntrada()));
+        LocalDateTime inicioJanela = LocalDateTime.now().minus(janela);
+        List<EntradaFilaChamadaDTO> chamadas = entradaFilaRepository.findChamadasDesde(
+                inicioJanela, inicioJanela.minus(ESPERA_MAXIMA_RECOMPOSICAO));
+        chamadas.forEach(chamada -> fila(chamada.filaId())
+                .chamado(chamada.id(), chamada.dataHoraEntrada(), chamada.dataHoraChamada()));
+        log.info("Dashboard ao vivo carregado com {} entradas aguardando e {} chamadas recentes em {} filas",
+                aguardando.size(), chamadas.size(), filas.size());
+    }
+
+    @Override
+    public void registrarEntrada(EntradaFila entrada) {
+        aplicar(entrada, (fila, e) -> fila.entrou(e.getId(), e.getDataHoraEntrada()));
+    }
+
+    @Override
+    public void registrarChamada(EntradaFila entrada) {
+        aplicar(entrada, (fila, e) -> fila.chamado(e.getId(), e.getDataHoraEntrada(), e.getDataHoraChamada()));
+    }
+
+    @Override
+    public void registrarCancelamento(EntradaFila entrada) {
+        aplicar(entrada, (fila, e) -> fila.saiu(e.getId()));
+    }
+
+    private interface Alteracao {
+        void aplicar(FilaAoVivo fila, EntradaFila entrada);
+    }
+
+    private void aplicar(EntradaFila entrada, Alteracao alteracao) {
+        if (!habilitado || entrada.getFila() == null) {
+            return;
+        }
+        // Identificação lida ainda na transação, com a fila carregada
+        Identificacao identificacao = identificacao(entrada.getFila());
+        AposCommit.executar(() -> {
+            FilaAoVivo fila = fila(entrada.getFila().getId());
+            if (identificacao != null) {
+                fila.identificacao = identificacao;
+            }
+            alteracao.aplicar(fila, entrada);
+        });
+    }
+
+    // Alterações de outra instância; a hora da chamada não vem no evento e é a do recebimento
+    @EventListener
+    public void aoAlterarFilaEmOutraInstancia(FilaAlteracaoEvento evento) {
+        if (!habilitado) {
+            return;
+        }
+        FilaAoVivo fila = fila(evento.filaId());
+        switch (evento.tipo()) {
+            case ENTRADA -> fila.entrou(evento.entradaFilaId(), evento.dataHoraEntrada());
+            case CHAMADA -> fila.chamado(evento.entradaFilaId(), evento.dataHoraEntrada(), LocalDateTime.now());
+            case CANCELAMENTO -> fila.saiu(evento.entradaFilaId());
+            case FINALIZACAO -> { }
+        }
+    }
+
+    @Override
+    public DashboardAoVivoDTO obter(UUID unidadeId) {
+        identificarPendentes();
+        return montar(unidadeId, LocalDateTime.now());
+    }
+
+    /** Envia o estado de cada unidade com filas em andamento (e um último envio às que deixaram de ter). */
+    @Scheduled(fixedRateString = "${dashboard.ao-vivo.intervalo-ms:5000}",
+            initialDelayString = "${dashboard.ao-vivo.intervalo-ms:5000}")
+    public void publicar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime inicioJanela = agora.minus(janela);
+        filas.values().removeIf(fila -> fila.descartarChamadasAntesDe(inicioJanela));
+        identificarPendentes();
+
+        Set<UUID> unidades = new HashSet<>();
+        for (FilaAoVivo fila : filas.values()) {
+            if (fila.identificacao != null) {
+                unidades.add(fila.identificacao.unidadeId());
+            }
+        }
+        Set<UUID> destinos = new HashSet<>(unidades);
+        destinos.addAll(unidadesPublicadas);
+        for (UUID unidadeId : destinos) {
+            try {
+                filaWebSocketController.sendDashboardAoVivo(unidadeId, montar(unidadeId, agora));
+            } catch (RuntimeException e) {
+                log.error("Falha ao enviar o dashboard ao vivo da unidade {}", unidadeId, e);
+            }
+        }
+        unidadesPublicadas.retainAll(unidades);
+        unidadesPublicadas.addAll(unidades);
+    }
+
+    /**
+     * Corrige as entradas aguardando com base no banco (alterações perdidas, como exclusões diretas
+     * ou eventos de outra instância que não chegaram) e atualiza nome, setor e unidade das filas.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.ao-vivo.reconciliacao-ms:60000}",
+            initialDelayString = "${dashboard.ao-vivo.reconciliacao-ms:60000}")
+    public void reconciliar() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime limiteRemocao = LocalDateTime.now().minus(margemReconciliacao);
+        long inicioConsulta = System.nanoTime();
+        Map<UUID, Map<UUID, LocalDateTime>> doBanco = new HashMap<>();
+        for (EntradaFilaPrioridadeDTO entrada : entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)) {
+            doBanco.computeIfAbsent(entrada.filaId(), id -> new HashMap<>()).put(entrada.id(), entrada.dataHoraEntrada());
+        }
+        doBanco.keySet().forEach(this::fila);
+        int divergencias = 0;
+        for (FilaAoVivo fila : filas.values()) {
+            divergencias += fila.reconciliar(doBanco.getOrDefault(fila.filaId, Map.of()), limiteRemocao, inicioConsulta);
+            fila.identificacao = null;
+        }
+        // Saídas anteriores à consulta já estão refletidas nela
+        removidas.values().removeIf(saida -> saida - inicioConsulta < 0);
+        if (divergencias > 0) {
+            log.warn("Reconciliação do dashboard ao vivo corrigiu {} entrada(s) aguardando", divergencias);
+        }
+    }
+
+    private DashboardAoVivoDTO montar(UUID unidadeId, LocalDateTime agora) {
+        LocalDateTime inicioJanela = agora.minus(janela);
+        List<FilaAoVivoDTO> daUnidade = new ArrayList<>();
+        for (FilaAoVivo fila : filas.values()) {
+            Identificacao identificacao = fila.identificacao;
+            if (identificacao != null && identificacao.unidadeId().equals(unidadeId)) {
+                daUnidade.add(fila.resumo(identificacao, agora, inicioJanela, janela.toMinutes()));
+            }
+        }
+        daUnidade.sort(Comparator.comparing(FilaAoVivoDTO::filaNome, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new DashboardAoVivoDTO(unidadeId, agora, (int) janela.toMinutes(), daUnidade);
+    }
+
+    // Uma consulta para todas as filas ainda sem nome/unidade; as que não existem mais (ou inativas) saem
+    private void identificarPendentes() {
+        List<UUID> pendentes = filas.values().stream()
+                .filter(fila -> fila.identificacao == null)
+                .map(fila -> fila.filaId)
+                .toList();
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        Map<UUID, Identificacao> encontradas = new HashMap<>();
+        for (Fila fila : filaRepository.findAllById(pendentes)) {
+            Identificacao identificacao = identificacao(fila);
+            if (identificacao != null) {
+                encontradas.put(fila.getId(), identificacao);
+            }
+        }
+        for (UUID filaId : pendentes) {
+            Identificacao identificacao = encontradas.get(filaId);
+            if (identificacao != null) {
+                filas.get(filaId).identificacao = identificacao;
+            } else {
+                filas.remove(filaId);
+            }
+        }
+    }
+
+    private FilaAoVivo fila(UUID filaId) {
+        return filas.computeIfAbsent(filaId, id -> new FilaAoVivo(id, removidas));
+    }
+
+    private static Identificacao identificacao(Fila fila) {
+        if (fila.getUnidadeAtendimento() == null) {
+            return null;
+        }
+        return new Identificacao(fila.getNome(), fila.getSetor() != null ? fila.getSetor().getId() : null,
+                fila.getUnidadeAtendimento().getId());
+    }
+
+    private record Identificacao(String filaNome, UUID setorId, UUID unidadeId) {}
+
+    private record Chamada(UUID entradaFilaId, LocalDateTime dataHoraChamada, long esperaSegundos) {}
+
+    private static final class FilaAoVivo {
+        private final UUID filaId;
+        private volatile Identificacao identificacao;
+        private final Map<UUID, LocalDateTime> aguardando = new HashMap<>();
+        private final List<Chamada> chamadas = new ArrayList<>();
+        private final Map<UUID, Long> removidas;
+
+        FilaAoVivo(UUID filaId, Map<UUID, Long> removidas) {
+            this.filaId = filaId;
+            this.removidas = removidas;
+        }
+
+        synchronized void entrou(UUID entradaFilaId, LocalDateTime dataHoraEntrada) {
+            if (dataHoraEntrada != null) {
+                aguardando.put(entradaFilaId, dataHoraEntrada);
+            }
+        }
+
+        synchronized void saiu(UUID entradaFilaId) {
+            aguardando.remove(entradaFilaId);
+            removidas.put(entradaFilaId, System.nanoTime());
+        }
+
+        synchronized void chamado(UUID entradaFilaId, LocalDateTime dataHoraEntrada, LocalDateTime dataHoraChamada) {
+            aguardando.remove(entradaFilaId);
+            removidas.put(entradaFilaId, System.nanoTime());
+            if (dataHoraEntrada == null || dataHoraChamada == null
+                    || chamadas.stream().anyMatch(c -> c.entradaFilaId().equals(entradaFilaId))) {
+                return;
+            }
+            long espera = Math.max(Duration.between(dataHoraEntrada, dataHoraChamada).toSeconds(), 0);
+            chamadas.add(new Chamada(entradaFilaId, dataHoraChamada, espera));
+        }
+
+        // Verdadeiro quando a fila fica sem entradas aguardando e sem chamadas na janela
+        synchronized boolean descartarChamadasAntesDe(LocalDateTime inicioJanela) {
+            chamadas.removeIf(chamada -> chamada.dataHoraChamada().isBefore(inicioJanela));
+            return aguardando.isEmpty() && chamadas.isEmpty();
+        }
+
+        synchronized int reconciliar(Map<UUID, LocalDateTime> doBanco, LocalDateTime limiteRemocao, long inicioConsulta) {
+            int divergencias = 0;
+            for (Map.Entry<UUID, LocalDateTime> entrada : doBanco.entrySet()) {
+                // Chamada ou cancelada depois do início da consulta: o banco ainda a viu aguardando
+                Long saida = removidas.get(entrada.getKey());
+                if (saida != null && saida - inicioConsulta >= 0) {
+                    continue;
+                }
+                if (aguardando.putIfAbsent(entrada.getKey(), entrada.getValue()) == null) {
+                    divergencias++;
+                }
+            }
+            var iterador = aguardando.entrySet().iterator();
+            while (iterador.hasNext()) {
+                var entrada = iterador.next();
+                // Entradas recentes podem ainda não estar visíveis para a consulta
+                if (!doBanco.containsKey(entrada.getKey()) && entrada.getValue().isBefore(limiteRemocao)) {
+                    iterador.remove();
+                    divergencias++;
+                }
+            }
+            return divergencias;
+        }
+
+        synchronized FilaAoVivoDTO resumo(Identificacao identificacao, LocalDateTime agora,
+                                          LocalDateTime inicioJanela, long minutosJanela) {
+            Long esperaMaisAntiga = aguardando.values().stream()
+                    .min(Comparator.naturalOrder())
+                    .map(entrada -> Math.max(Duration.between(entrada, agora).toSeconds(), 0))
+                    .orElse(null);
+            long quantidade = 0;
+            long somaEsperas = 0;
+            for (Chamada chamada : chamadas) {
+                if (!chamada.dataHoraChamada().isBefore(inicioJanela)) {
+                    quantidade++;
+                    somaEsperas += chamada.esperaSegundos();
+                }
+            }
+            return new FilaAoVivoDTO(
+                    filaId,
+                    identificacao.filaNome(),
+                    identificacao.setorId(),
+                    aguardando.size(),
+                    esperaMaisAntiga,
+                    arredondar((double) quantidade / minutosJanela),
+                    quantidade > 0 ? arredondar(somaEsperas / 60.0 / quantidade) : null);
+        }
+
+        private static double arredondar(double valor) {
+            return Math.round(valor * 100) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service.impl;
+
+import com.wjbc.fila_atendimento.domain.dashboard.repository.query.DashboardQueries;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mantém a consolidação horária do dashboard (V023) a partir de uma marca d'água: a cada execução,
+ * as horas que tiveram entradas, chamadas ou saídas desde a marca são recalculadas por inteiro a
+ * partir de entrada_fila e a marca avança. A marca fica um pouco atrás do relógio para não perder
+ * transações que gravaram o horário antes e confirmaram depois da execução. O lock na linha da
+ * marca serializa execuções de várias instâncias.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "dashboard.rollup.habilitado", havingValue = "true", matchIfMissing = true)
+public class DashboardRollupServiceImpl implements DashboardRollupService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${dashboard.rollup.atraso-seguranca-segundos:120}")
+    private long atrasoSegurancaSegundos = 120;
+
+    public DashboardRollupServiceImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${dashboard.rollup.intervalo-ms:60000}")
+    public void consolidar() {
+        LocalDateTime de = jdbcTemplate.getJdbcTemplate().queryForObject(
+                DashboardQueries.MARCA_ROLLUP + " FOR UPDATE", LocalDateTime.class);
+        LocalDateTime ate = LocalDateTime.now().minusSeconds(atrasoSegurancaSegundos);
+        if (de == null || !ate.isAfter(de)) {
+            return;
+        }
+        MapSqlParameterSource periodo = new MapSqlParameterSource("de", de).addValue("ate", ate);
+        int entradas = jdbcTemplate.update(DashboardQueries.CONSOLIDAR_ENTRADAS, periodo);
+        int atendimentos = jdbcTemplate.update(DashboardQueries.CONSOLIDAR_ATENDIMENTOS, periodo);
+        jdbcTemplate.update("UPDATE fila_atendimento.dashboard_rollup_controle SET marca = :ate WHERE id = 1", periodo);
+        log.debug("Dashboard consolidado até {}: {} hora(s) de entrada e {} de atendimento recalculadas",
+                ate, entradas, atendimentos);
+    }
+}
@@ -1,44 +1,128 @@
 package com.wjbc.fila_atendimento.domain.dashboard.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.DashboardResultadoCache;
 import com.wjbc.fila_atendimento.domain.dashboard.dto.*;
 import com.wjbc.fila_atendimento.domain.dashboard.repository.DashboardRepository;
 import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
     private final DashboardRepository dashboardRepository;
+    private final DashboardResultadoCache dashboardResultadoCache;
+    private final Duration periodoParalelo;
+    private final ThreadPoolExecutor executor;
 
-    public DashboardServiceImpl(DashboardRepository dashboardRepository) {
+    public DashboardServiceImpl(DashboardRepository dashboardRepository,
+                                DashboardResultadoCache dashboardResultadoCache,
+                                @Value("${dashboard.resumo.paralelo.a-partir-de-dias:90}") long diasParalelo,
+                                @Value("${dashboard.resumo.paralelo.threads:4}") int threads) {
         this.dashboardRepository = dashboardRepository;
+        this.dashboardResultadoCache = dashboardResultadoCache;
+        this.periodoParalelo = diasParalelo > 0 ? Duration.ofDays(diasParalelo) : null;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-resumo-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
     }
 
     @Override
     public List<TempoEsperaDTO> calcularTempoMedioEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        List<TempoEsperaDTO> result = dashboardRepository.buscarTempoMedioEspera(unidadeId, inicio, fim);
+        List<TempoEsperaDTO> result = dashboardResultadoCache.obter("tempo-medio-espera", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarTempoMedioEspera(unidadeId, i, f));
         return result;
     }
 
     @Override
     public List<ProdutividadeDTO> calcularProdutividadePorProfissional(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        List<ProdutividadeDTO> result = dashboardRepository.buscarProdutividadePorProfissional(unidadeId, inicio, fim);
+        List<ProdutividadeDTO> result = dashboardResultadoCache.obter("produtividade", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarProdutividadePorProfissional(unidadeId, i, f));
         return result;
     }
 
     @Override
     public List<HorarioPicoDTO> identificarHorariosPico(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        List<HorarioPicoDTO> result = dashboardRepository.buscarHorariosPico(unidadeId, inicio, fim);
+        List<HorarioPicoDTO> result = dashboardResultadoCache.obter("horarios-pico", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarHorariosPico(unidadeId, i, f));
         return result;
     }
 
     @Override
     public List<FluxoPacientesDTO> analisarFluxoPacientes(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
-        List<FluxoPacientesDTO> result = dashboardRepository.buscarFluxoPacientes(unidadeId, inicio, fim);
+        List<FluxoPacientesDTO> result = dashboardResultadoCache.obter("fluxo-pacientes", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarFluxoPacientes(unidadeId, i, f));
         return result;
     }
+
+    @Override
+    public List<PercentisEsperaDTO> calcularPercentisEspera(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        List<PercentisEsperaDTO> result = dashboardResultadoCache.obter("percentis-espera", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarPercentisEspera(unidadeId, i, f));
+        return result;
+    }
+
+    @Override
+    public List<PercentisAtendimentoDTO> calcularPercentisAtendimento(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        List<PercentisAtendimentoDTO> result = dashboardResultadoCache.obter("percentis-atendimento", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarPercentisAtendimento(unidadeId, i, f));
+        return result;
+    }
+
+    /**
+     * Os quatro relatórios do período. Em regra vêm de uma única consulta, que lê as linhas brutas
+     * uma só vez; a partir de {@code dashboard.resumo.paralelo.a-partir-de-dias} os relatórios são
+     * calculados em paralelo, cada um na sua conexão (e no seu cache).
+     */
+    @Override
+    public DashboardResumoDTO gerarResumo(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        if (periodoParalelo != null && Duration.between(inicio, fim).compareTo(periodoParalelo) >= 0) {
+            return gerarResumoEmParalelo(unidadeId, inicio, fim);
+        }
+        DashboardResumoDTO result = dashboardResultadoCache.obter("resumo", unidadeId, inicio, fim,
+                (i, f) -> dashboardRepository.buscarResumo(unidadeId, i, f));
+        return result;
+    }
+
+    private DashboardResumoDTO gerarResumoEmParalelo(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        CompletableFuture<List<TempoEsperaDTO>> tempoEspera = emParalelo(() -> calcularTempoMedioEspera(unidadeId, inicio, fim));
+        CompletableFuture<List<ProdutividadeDTO>> produtividade = emParalelo(() -> calcularProdutividadePorProfissional(unidadeId, inicio, fim));
+        CompletableFuture<List<HorarioPicoDTO>> horariosPico = emParalelo(() -> identificarHorariosPico(unidadeId, inicio, fim));
+        CompletableFuture<List<FluxoPacientesDTO>> fluxo = emParalelo(() -> analisarFluxoPacientes(unidadeId, inicio, fim));
+        try {
+            return new DashboardResumoDTO(tempoEspera.join(), produtividade.join(), horariosPico.join(), fluxo.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> emParalelo(Supplier<T> relatorio) {
+        return CompletableFuture.supplyAsync(relatorio, executor);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
 }
@@ -0,0 +1,11 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ChamadaPainelDTO(
+        UUID filaId,
+        String nomePaciente,
+        String guicheOuSala,
+        LocalDateTime dataHoraChamada
+) {}
@@ -0,0 +1,15 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Chamada aguardando gravação no histórico; é replicada para cada painel da fila na gravação
+public record ChamadaPainelRegistroDTO(
+        UUID entradaFilaId,
+        UUID filaId,
+        UUID setorId,
+        UUID unidadeId,
+        String nomePaciente,
+        String guicheOuSala,
+        LocalDateTime dataHoraChamada
+) {}
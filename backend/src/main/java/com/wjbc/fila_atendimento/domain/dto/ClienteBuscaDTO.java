@@ -0,0 +1,17 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+// Resultado enxuto da busca da recepção (índice de busca de clientes em memória); telefones com DDD, só dígitos
+public record ClienteBuscaDTO(
+        UUID id,
+        String nome,
+        String cpf,
+        List<String> telefones
+) {
+    // Projeção da carga do índice: os telefones vêm numa consulta à parte
+    public ClienteBuscaDTO(UUID id, String nome, String cpf) {
+        this(id, nome, cpf, List.of());
+    }
+}
@@ -0,0 +1,10 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.UUID;
+
+// Projeção enxuta dos telefones dos clientes, para a carga do índice de busca em memória
+public record ClienteTelefoneDTO(
+        UUID clienteId,
+        int ddd,
+        Long numero
+) {}
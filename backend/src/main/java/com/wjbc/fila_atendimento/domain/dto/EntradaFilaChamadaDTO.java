@@ -0,0 +1,14 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projeção enxuta das chamadas recentes (usada para recompor o dashboard ao vivo e o ritmo de atendimento das filas)
+public record EntradaFilaChamadaDTO(
+        UUID id,
+        UUID filaId,
+        LocalDateTime dataHoraEntrada,
+        LocalDateTime dataHoraChamada,
+        LocalDateTime dataHoraSaida,
+        String guicheOuSalaAtendimento
+) {}
@@ -0,0 +1,13 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Projeção enxuta usada para (re)construir o índice de prioridade em memória
+public record EntradaFilaPrioridadeDTO(
+        UUID id,
+        UUID filaId,
+        Boolean prioridade,
+        Boolean isRetorno,
+        LocalDateTime dataHoraEntrada
+) {}
@@ -5,6 +5,10 @@ import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * {@code posicaoNaFila} (1 = próximo a ser chamado) e {@code esperaEstimadaSegundos} só vêm
+ * preenchidos em entradas AGUARDANDO; a estimativa é nula enquanto a fila não tem chamadas recentes.
+ */
 public record EntradaFilaResponseDTO(
         UUID id,
         StatusFila status,
@@ -16,5 +20,20 @@ public record EntradaFilaResponseDTO(
         String guicheOuSalaAtendimento,
         ClienteResponseDTO cliente,
         FilaResponseDTO fila,
-        UUID usuarioResponsavelId
-) {}
+        UUID usuarioResponsavelId,
+        Integer posicaoNaFila,
+        Long esperaEstimadaSegundos
+) {
+    public EntradaFilaResponseDTO(UUID id, StatusFila status, boolean prioridade, boolean isRetorno,
+                                  LocalDateTime dataHoraEntrada, LocalDateTime dataHoraChamada, LocalDateTime dataHoraSaida,
+                                  String guicheOuSalaAtendimento, ClienteResponseDTO cliente, FilaResponseDTO fila,
+                                  UUID usuarioResponsavelId) {
+        this(id, status, prioridade, isRetorno, dataHoraEntrada, dataHoraChamada, dataHoraSaida,
+                guicheOuSalaAtendimento, cliente, fila, usuarioResponsavelId, null, null);
+    }
+
+    public EntradaFilaResponseDTO comEstimativa(Integer posicaoNaFila, Long esperaEstimadaSegundos) {
+        return new EntradaFilaResponseDTO(id, status, prioridade, isRetorno, dataHoraEntrada, dataHoraChamada, dataHoraSaida,
+                guicheOuSalaAtendimento, cliente, fila, usuarioResponsavelId, posicaoNaFila, esperaEstimadaSegundos);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoAlteracaoFila;
+
+import java.util.UUID;
+
+// Em REMOVIDA apenas o id é enviado
+public record FilaAlteracaoDTO(TipoAlteracaoFila tipo, UUID entradaFilaId, EntradaFilaResponseDTO entrada) {}
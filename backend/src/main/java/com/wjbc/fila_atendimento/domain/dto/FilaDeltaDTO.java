@@ -0,0 +1,15 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Alterações na lista de aguardando de um setor. Se {@code sequenciaAnterior} não for a última
+ * sequência aplicada pelo cliente, houve perda de mensagem e ele deve buscar um novo snapshot.
+ * A sequência do setor é uma só para todas as instâncias do backend (fica no banco), então deltas
+ * publicados por réplicas diferentes no mesmo tópico se encadeiam.
+ * As entradas das alterações vêm sem posição e espera estimada: a ordem de chamada segue em
+ * {@code estimativas}, só para as filas em que ela ou as estimativas mudaram.
+ */
+public record FilaDeltaDTO(UUID setorId, long sequenciaAnterior, long sequencia,
+                           List<FilaAlteracaoDTO> alteracoes, List<FilaEstimativasDTO> estimativas) {}
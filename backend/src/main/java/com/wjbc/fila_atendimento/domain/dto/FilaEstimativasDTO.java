@@ -0,0 +1,11 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ordem de chamada de uma fila no delta do painel profissional: a posição de cada entrada é o seu
+ * índice em {@code ordem} + 1, e {@code esperaEstimadaSegundos} traz a espera de cada uma na mesma ordem
+ * (nula enquanto a fila não tem chamadas recentes). Uma fila sem aguardando vem com as listas vazias.
+ */
+public record FilaEstimativasDTO(UUID filaId, List<UUID> ordem, List<Long> esperaEstimadaSegundos) {}
@@ -0,0 +1,6 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record FilaSnapshotDTO(UUID setorId, long sequencia, List<EntradaFilaResponseDTO> filaAtual) {}
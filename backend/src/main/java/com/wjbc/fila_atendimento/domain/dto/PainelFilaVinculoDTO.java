@@ -0,0 +1,9 @@
+package com.wjbc.fila_atendimento.domain.dto;
+
+import java.util.UUID;
+
+// Projeção dos vínculos painel ↔ fila usada para carregar a tabela de roteamento dos painéis
+public record PainelFilaVinculoDTO(
+        UUID painelId,
+        UUID filaId
+) {}
@@ -0,0 +1,6 @@
+package com.wjbc.fila_atendimento.domain.enumeration;
+
+public enum FormatoExportacao {
+    CSV,
+    COLUNAR
+}
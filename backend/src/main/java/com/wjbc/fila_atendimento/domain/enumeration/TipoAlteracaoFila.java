@@ -0,0 +1,8 @@
+package com.wjbc.fila_atendimento.domain.enumeration;
+
+/** Tipos de alteração enviados no delta do painel profissional. */
+public enum TipoAlteracaoFila {
+    ADICIONADA,
+    ATUALIZADA,
+    REMOVIDA
+}
@@ -0,0 +1,8 @@
+package com.wjbc.fila_atendimento.domain.enumeration;
+
+public enum TipoEventoFila {
+    ENTRADA,
+    CHAMADA,
+    FINALIZACAO,
+    CANCELAMENTO
+}
@@ -0,0 +1,52 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Alteração em uma fila trocada entre instâncias do backend. Leva apenas o necessário para
+ * manter o índice de prioridade e saber quais painéis atualizar; o payload cabe com folga
+ * no limite de 8000 bytes do NOTIFY.
+ */
+public record FilaAlteracaoEvento(
+        String origem,
+        TipoEventoFila tipo,
+        UUID setorId,
+        UUID filaId,
+        UUID entradaFilaId,
+        boolean prioridade,
+        boolean retorno,
+        LocalDateTime dataHoraEntrada
+) {
+    private static final String SEPARADOR = "|";
+
+    public String paraPayload() {
+        return String.join(SEPARADOR,
+                origem,
+                tipo.name(),
+                setorId != null ? setorId.toString() : "",
+                filaId.toString(),
+                entradaFilaId.toString(),
+                prioridade ? "1" : "0",
+                retorno ? "1" : "0",
+                dataHoraEntrada != null ? dataHoraEntrada.toString() : "");
+    }
+
+    public static FilaAlteracaoEvento dePayload(String payload) {
+        String[] partes = payload.split("\\|", -1);
+        if (partes.length != 8) {
+            throw new IllegalArgumentException("Payload de alteração de fila inválido: " + payload);
+        }
+        return new FilaAlteracaoEvento(
+                partes[0],
+                TipoEventoFila.valueOf(partes[1]),
+                partes[2].isEmpty() ? null : UUID.fromString(partes[2]),
+                UUID.fromString(partes[3]),
+                UUID.fromString(partes[4]),
+                "1".equals(partes[5]),
+                "1".equals(partes[6]),
+                partes[7].isEmpty() ? null : LocalDateTime.parse(partes[7]));
+    }
+}
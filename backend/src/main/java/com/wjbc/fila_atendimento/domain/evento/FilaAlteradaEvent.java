@@ -0,0 +1,8 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+
+import java.util.UUID;
+
+/** Alteração em uma fila desta instância (ou repassada de outra), a ser refletida nos painéis após o commit. */
+public record FilaAlteradaEvent(UUID filaId, UUID setorId, TipoEventoFila tipo) {}
@@ -0,0 +1,152 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.Painel;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.domain.service.FilaBroadcastService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reflete as alterações de fila nos painéis somente após o commit e fora da thread da requisição.
+ *
+ * O painel profissional é apenas marcado para o próximo envio coalescido. O painel público
+ * (nas chamadas) é montado uma única vez por fila, em um executor dedicado e limitado, e enviado
+ * aos painéis indicados pelo {@link PainelRoteamentoCache}. Se já houver envio pendente
+ * para a fila, o novo é mesclado a ele (que lerá o estado mais recente); com a fila do
+ * executor cheia, o envio é descartado e contabilizado, em vez de segurar a requisição.
+ */
+@Slf4j
+@Component
+public class FilaAlteradaListener {
+
+    private final EntradaFilaService entradaFilaService;
+    private final PainelRepository painelRepository;
+    private final PainelRoteamentoCache painelRoteamentoCache;
+    private final FilaBroadcastService filaBroadcastService;
+    private final ThreadPoolExecutor executor;
+    private final Set<UUID> filasPendentes = ConcurrentHashMap.newKeySet();
+    private final Counter enviados;
+    private final Counter mesclados;
+    private final Counter descartados;
+
+    public FilaAlteradaListener(EntradaFilaService entradaFilaService,
+                                PainelRepository painelRepository,
+                                PainelRoteamentoCache painelRoteamentoCache,
+                                FilaBroadcastService filaBroadcastService,
+                                MeterRegistry meterRegistry,
+                                @Value("${painel.broadcast.threads:2}") int threads,
+                                @Value("${painel.broadcast.capacidade-fila:500}") int capacidade) {
+        this.entradaFilaService = entradaFilaService;
+        this.painelRepository = painelRepository;
+        this.painelRoteamentoCache = painelRoteamentoCache;
+        this.filaBroadcastService = filaBroadcastService;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidade),
+                r -> {
+                    Thread t = new Thread(r, "painel-broadcast-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.enviados = contador(meterRegistry, "enviado");
+        this.mesclados = contador(meterRegistry, "mesclado");
+        this.descartados = contador(meterRegistry, "descartado");
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("painel.publico.broadcast")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    // fallbackExecution: alterações repassadas de outra instância chegam sem transação
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarFila(FilaAlteradaEvent evento) {
+        if (evento.setorId() != null) {
+            UUID setorId = evento.setorId();
+            filaBroadcastService.agendarFilaProfissionalUpdate(setorId, () -> entradaFilaService.getPainelProfissional(setorId));
+        }
+        if (evento.tipo() == TipoEventoFila.CHAMADA) {
+            agendarPainelPublico(evento.filaId());
+        }
+    }
+
+    private void agendarPainelPublico(UUID filaId) {
+        if (!filasPendentes.add(filaId)) {
+            mesclados.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> enviarPainelPublico(filaId));
+        } catch (RejectedExecutionException e) {
+            filasPendentes.remove(filaId);
+            descartados.increment();
+            log.warn("Envio ao painel público da fila {} descartado: executor de broadcast saturado", filaId);
+        }
+    }
+
+    private void enviarPainelPublico(UUID filaId) {
+        // Liberado antes de ler: uma chamada a partir daqui gera um novo envio
+        filasPendentes.remove(filaId);
+        try {
+            Collection<UUID> paineis = paineisDaFila(filaId);
+            if (paineis.isEmpty()) {
+                return;
+            }
+            PainelPublicoDTO payload = entradaFilaService.getPainelPublico(filaId);
+            for (UUID painelId : paineis) {
+                filaBroadcastService.broadcastPainelPublicoUpdate(painelId, payload);
+            }
+            enviados.increment();
+        } catch (RuntimeException e) {
+            log.error("Falha ao enviar atualização do painel público da fila {}", filaId, e);
+        }
+    }
+
+    // Consulta o banco apenas enquanto o roteamento em memória não estiver carregado
+    private Collection<UUID> paineisDaFila(UUID filaId) {
+        Optional<Set<UUID>> roteados = painelRoteamentoCache.paineisDaFila(filaId);
+        if (roteados.isPresent()) {
+            return roteados.get();
+        }
+        return painelRepository.findPaineisByFilaId(filaId).stream().map(Painel::getId).toList();
+    }
+
+    public double getEnviados() {
+        return enviados.count();
+    }
+
+    public double getMesclados() {
+        return mesclados.count();
+    }
+
+    public double getDescartados() {
+        return descartados.count();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+}
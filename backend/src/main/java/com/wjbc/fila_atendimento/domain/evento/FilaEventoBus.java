@@ -0,0 +1,14 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+
+/**
+ * Propaga alterações de fila para as demais instâncias do backend. As alterações recebidas
+ * de outra instância são republicadas localmente como {@link FilaAlteracaoEvento}.
+ */
+public interface FilaEventoBus {
+
+    /** Publica a alteração; só é entregue às outras instâncias se a transação corrente confirmar. */
+    void publicar(TipoEventoFila tipo, EntradaFila entrada);
+}
@@ -0,0 +1,17 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Instância única: não há para quem propagar
+@Component
+@ConditionalOnProperty(name = "fila.eventos.postgres.habilitado", havingValue = "false", matchIfMissing = true)
+public class FilaEventoBusLocal implements FilaEventoBus {
+
+    @Override
+    public void publicar(TipoEventoFila tipo, EntradaFila entrada) {
+        // nada a fazer
+    }
+}
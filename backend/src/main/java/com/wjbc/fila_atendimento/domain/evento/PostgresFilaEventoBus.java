@@ -0,0 +1,141 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Barramento de alterações de fila sobre LISTEN/NOTIFY do Postgres, para rodar várias
+ * instâncias sem infraestrutura adicional. O NOTIFY é emitido dentro da transação da
+ * alteração, então o Postgres só o entrega após o commit (e descarta em rollback).
+ * Cada instância escuta em uma conexão própria, fora do pool.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fila.eventos.postgres.habilitado", havingValue = "true")
+public class PostgresFilaEventoBus implements FilaEventoBus {
+
+    static final String CANAL = "fila_alterada";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String origem = UUID.randomUUID().toString();
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String usuario;
+
+    @Value("${spring.datasource.password:}")
+    private String senha;
+
+    @Value("${fila.eventos.postgres.intervalo-escuta-ms:500}")
+    private int intervaloEscutaMs;
+
+    @Value("${fila.eventos.postgres.espera-reconexao-ms:5000}")
+    private long esperaReconexaoMs;
+
+    private volatile boolean ativo;
+    private Thread escuta;
+
+    public PostgresFilaEventoBus(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    @Override
+    public void publicar(TipoEventoFila tipo, EntradaFila entrada) {
+        FilaAlteracaoEvento evento = new FilaAlteracaoEvento(
+                origem,
+                tipo,
+                entrada.getFila().getSetor() != null ? entrada.getFila().getSetor().getId() : null,
+                entrada.getFila().getId(),
+                entrada.getId(),
+                Boolean.TRUE.equals(entrada.getPrioridade()),
+                entrada.isRetorno(),
+                entrada.getDataHoraEntrada());
+        // Participa da transação corrente (mesma conexão do JPA)
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CANAL, evento.paraPayload());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarEscuta() {
+        ativo = true;
+        escuta = new Thread(this::escutar, "fila-eventos-listen");
+        escuta.setDaemon(true);
+        escuta.start();
+    }
+
+    @PreDestroy
+    public void encerrarEscuta() {
+        ativo = false;
+        if (escuta != null) {
+            escuta.interrupt();
+        }
+    }
+
+    private void escutar() {
+        while (ativo) {
+            try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+                try (Statement st = conexao.createStatement()) {
+                    st.execute("LISTEN " + CANAL);
+                }
+                log.info("Escutando alterações de fila de outras instâncias (canal {})", CANAL);
+                PGConnection pg = conexao.unwrap(PGConnection.class);
+                while (ativo) {
+                    PGNotification[] notificacoes = pg.getNotifications(intervaloEscutaMs);
+                    if (notificacoes == null) {
+                        continue;
+                    }
+                    for (PGNotification notificacao : notificacoes) {
+                        tratar(notificacao.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!ativo) {
+                    return;
+                }
+                log.warn("Conexão de escuta das alterações de fila perdida; nova tentativa em {} ms", esperaReconexaoMs, e);
+                try {
+                    Thread.sleep(esperaReconexaoMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void tratar(String payload) {
+        try {
+            FilaAlteracaoEvento evento = FilaAlteracaoEvento.dePayload(payload);
+            if (origem.equals(evento.origem())) {
+                return; // a própria instância já tratou a alteração
+            }
+            eventPublisher.publishEvent(evento);
+        } catch (RuntimeException e) {
+            log.error("Falha ao tratar alteração de fila recebida: {}", payload, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+/** Coluna de uma exportação; o código do tipo é o gravado no cabeçalho do formato colunar. */
+public record ColunaExportacao(String nome, Tipo tipo) {
+
+    public enum Tipo {
+        UUID(1),
+        TEXTO(2),
+        DATA_HORA(3),
+        BOOLEANO(4);
+
+        private final int codigo;
+
+        Tipo(int codigo) {
+            this.codigo = codigo;
+        }
+
+        public int getCodigo() {
+            return codigo;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Formato binário colunar, em grupos de linhas (como os row groups do Parquet), para exportações
+ * grandes. A memória usada é a de um grupo, qualquer que seja o total de linhas.
+ *
+ * <pre>
+ * arquivo   = "FCOL" versão(1 byte = 1) nºColunas(varint) {nome(texto) tipo(1 byte)}... grupo... 0(varint)
+ * grupo     = nºLinhas(varint &gt; 0) bloco... (um por coluna, na ordem do cabeçalho)
+ * bloco     = presença(ceil(nºLinhas / 8) bytes, bit i = linha i não nula) valores das linhas não nulas
+ * UUID      = 16 bytes (big-endian)
+ * DATA_HORA = microssegundos desde 1970-01-01T00:00 (sem fuso) como diferença para o valor anterior
+ *             do bloco (o primeiro, para 0), em varint zigzag
+ * TEXTO     = dicionário do bloco (nºTextos(varint) texto...) e, por valor, o índice no dicionário (varint)
+ * BOOLEANO  = bitmap dos valores, como a presença
+ * texto     = tamanho em bytes (varint) e UTF-8; varint = inteiro sem sinal em grupos de 7 bits (LEB128)
+ * </pre>
+ */
+public class ColunarExportacaoWriter implements ExportacaoWriter {
+
+    static final byte[] ASSINATURA = "FCOL".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSAO = 1;
+
+    private final List<ColunaExportacao> colunas;
+    private final OutputStream saida;
+    private final Object[][] grupo;
+    private int linhas;
+    private final ByteArrayOutputStream bloco = new ByteArrayOutputStream();
+
+    public ColunarExportacaoWriter(List<ColunaExportacao> colunas, OutputStream saida, int linhasPorGrupo) throws IOException {
+        this.colunas = List.copyOf(colunas);
+        this.saida = saida;
+        this.grupo = new Object[linhasPorGrupo][];
+        saida.write(ASSINATURA);
+        saida.write(VERSAO);
+        varint(saida, colunas.size());
+        for (ColunaExportacao coluna : colunas) {
+            texto(saida, coluna.nome());
+            saida.write(coluna.tipo().getCodigo());
+        }
+    }
+
+    @Override
+    public void escrever(Object[] linha) throws IOException {
+        grupo[linhas++] = linha;
+        if (linhas == grupo.length) {
+            gravarGrupo();
+        }
+    }
+
+    @Override
+    public void concluir() throws IOException {
+        if (linhas > 0) {
+            gravarGrupo();
+        }
+        varint(saida, 0);
+        saida.flush();
+    }
+
+    private void gravarGrupo() throws IOException {
+        varint(saida, linhas);
+        for (int c = 0; c < colunas.size(); c++) {
+            bloco.reset();
+            gravarBloco(c, colunas.get(c).tipo());
+            bloco.writeTo(saida);
+        }
+        Arrays.fill(grupo, 0, linhas, null);
+        linhas = 0;
+    }
+
+    private void gravarBloco(int coluna, ColunaExportacao.Tipo tipo) throws IOException {
+        bitmap(i -> grupo[i][coluna] != null);
+        switch (tipo) {
+            case UUID -> {
+                for (int i = 0; i < linhas; i++) {
+                    if (grupo[i][coluna] instanceof UUID uuid) {
+                        longo(uuid.getMostSignificantBits());
+                        longo(uuid.getLeastSignificantBits());
+                    }
+                }
+            }
+            case DATA_HORA -> {
+                long anterior = 0;
+                for (int i = 0; i < linhas; i++) {
+                    if (grupo[i][coluna] instanceof LocalDateTime dataHora) {
+                        long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), dataHora);
+                        long diferenca = micros - anterior;
+                        varint(bloco, (diferenca << 1) ^ (diferenca >> 63));
+                        anterior = micros;
+                    }
+                }
+            }
+            case TEXTO -> {
+                Map<String, Integer> dicionario = new HashMap<>();
+                for (int i = 0; i < linhas; i++) {
+                    if (grupo[i][coluna] != null) {
+                        dicionario.putIfAbsent(grupo[i][coluna].toString(), dicionario.size());
+                    }
+                }
+                String[] textos = new String[dicionario.size()];
+                dicionario.forEach((texto, indice) -> textos[indice] = texto);
+                varint(bloco, textos.length);
+                for (String texto : textos) {
+                    texto(bloco, texto);
+                }
+                for (int i = 0; i < linhas; i++) {
+                    if (grupo[i][coluna] != null) {
+                        varint(bloco, dicionario.get(grupo[i][coluna].toString()));
+                    }
+                }
+            }
+            case BOOLEANO -> bitmap(i -> Boolean.TRUE.equals(grupo[i][coluna]));
+        }
+    }
+
+    private interface Bit {
+        boolean ligado(int linha);
+    }
+
+    private void bitmap(Bit bit) {
+        for (int inicio = 0; inicio < linhas; inicio += 8) {
+            int octeto = 0;
+            for (int i = inicio; i < Math.min(inicio + 8, linhas); i++) {
+                if (bit.ligado(i)) {
+                    octeto |= 1 << (i - inicio);
+                }
+            }
+            bloco.write(octeto);
+        }
+    }
+
+    private void longo(long valor) {
+        for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+            bloco.write((int) (valor >>> deslocamento));
+        }
+    }
+
+    private static void texto(OutputStream saida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        varint(saida, bytes.length);
+        saida.write(bytes);
+    }
+
+    private static void varint(OutputStream saida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+}
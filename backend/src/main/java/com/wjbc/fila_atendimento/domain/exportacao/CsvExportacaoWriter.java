@@ -0,0 +1,57 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * CSV (RFC 4180) em UTF-8 com cabeçalho: separador vírgula, linhas terminadas em CRLF e aspas só
+ * nos valores que contêm vírgula, aspas ou quebra de linha. Datas em ISO-8601 sem fuso; nulos
+ * viram campo vazio.
+ */
+public class CsvExportacaoWriter implements ExportacaoWriter {
+
+    private final Writer saida;
+
+    public CsvExportacaoWriter(List<ColunaExportacao> colunas, OutputStream saida) throws IOException {
+        this.saida = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+        escrever(colunas.stream().map(ColunaExportacao::nome).toArray());
+    }
+
+    @Override
+    public void escrever(Object[] linha) throws IOException {
+        for (int i = 0; i < linha.length; i++) {
+            if (i > 0) {
+                saida.write(',');
+            }
+            campo(linha[i]);
+        }
+        saida.write("\r\n");
+    }
+
+    private void campo(Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor instanceof LocalDateTime dataHora
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dataHora)
+                : valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            saida.write(texto);
+            return;
+        }
+        saida.write('"');
+        saida.write(texto.replace("\"", "\"\""));
+        saida.write('"');
+    }
+
+    @Override
+    public void concluir() throws IOException {
+        saida.flush();
+    }
+}
@@ -0,0 +1,16 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+import java.io.IOException;
+
+/**
+ * Grava linhas de uma exportação à medida que são lidas. Os valores seguem a ordem e o tipo das
+ * colunas informadas na criação: {@link java.util.UUID}, {@link String}, {@link java.time.LocalDateTime}
+ * ou {@link Boolean}, ou {@code null}.
+ */
+public interface ExportacaoWriter {
+
+    void escrever(Object[] linha) throws IOException;
+
+    /** Grava o que estiver pendente e o encerramento do formato; não fecha a saída. */
+    void concluir() throws IOException;
+}
@@ -1,11 +1,15 @@
 package com.wjbc.fila_atendimento.domain.mapper;
 
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
+import com.wjbc.fila_atendimento.domain.model.Telefone;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class ClienteMapper {
 
@@ -25,11 +29,27 @@ public class ClienteMapper {
                 cliente.getCpf(),
                 cliente.getNome(),
                 cliente.getEmail(),
-                cliente.getTelefones(),
+                // Copiados aqui, dentro da transação: a resposta não leva a coleção preguiçosa para ser lida depois
+                cliente.getTelefones() == null ? null : List.copyOf(cliente.getTelefones()),
                 cliente.getEndereco()
         );
     }
 
+    public ClienteBuscaDTO toBuscaDTO(Cliente cliente) {
+        List<String> telefones = cliente.getTelefones() == null ? List.of()
+                : cliente.getTelefones().stream().map(ClienteMapper::digitosTelefone).toList();
+        return new ClienteBuscaDTO(cliente.getId(), cliente.getNome(), cliente.getCpf(), telefones);
+    }
+
+    // DDD seguido do número, como a recepção digita
+    public static String digitosTelefone(int ddd, Long numero) {
+        return numero == null ? String.valueOf(ddd) : String.valueOf(ddd) + numero;
+    }
+
+    private static String digitosTelefone(Telefone telefone) {
+        return digitosTelefone(telefone.getDdd(), telefone.getNumero());
+    }
+
     public void applyPatchToEntity(ClienteUpdateDTO dto, Cliente cliente) {
         if (dto.cpf() != null) {
             cliente.setCpf(dto.cpf());
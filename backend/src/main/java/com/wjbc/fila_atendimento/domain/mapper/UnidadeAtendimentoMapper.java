@@ -6,6 +6,8 @@ import com.wjbc.fila_atendimento.domain.dto.UnidadeAtendimentoUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class UnidadeAtendimentoMapper {
 
@@ -22,7 +24,8 @@ public class UnidadeAtendimentoMapper {
                 unidade.getId(),
                 unidade.getNome(),
                 unidade.getEndereco(),
-                unidade.getTelefones()
+                // Copiados aqui, dentro da transação: a resposta não leva a coleção preguiçosa para ser lida depois
+                unidade.getTelefones() == null ? null : List.copyOf(unidade.getTelefones())
         );
     }
 
@@ -0,0 +1,47 @@
+package com.wjbc.fila_atendimento.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Histórico somente de inserção: gravado em lote via JDBC (ChamadaPainelServiceImpl), sem relacionamentos
+@Data
+@EqualsAndHashCode(of = "id")
+@Entity
+@Table(name = "chamada_painel", schema = "fila_atendimento")
+public class ChamadaPainel {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "data_hora_chamada", nullable = false)
+    private LocalDateTime dataHoraChamada;
+
+    @Column(name = "codigo_paciente", length = 20)
+    private String codigoPaciente;
+
+    @Column(name = "nome_paciente")
+    private String nomePaciente;
+
+    @Column(name = "guiche_ou_sala", length = 100)
+    private String guicheOuSala;
+
+    @Column(name = "entrada_fila_id")
+    private UUID entradaFilaId;
+
+    @Column(name = "fila_id", nullable = false)
+    private UUID filaId;
+
+    @Column(name = "painel_id")
+    private UUID painelId;
+
+    @Column(name = "setor_id", nullable = false)
+    private UUID setorId;
+
+    @Column(name = "unidade_id", nullable = false)
+    private UUID unidadeId;
+}
@@ -3,6 +3,7 @@ package com.wjbc.fila_atendimento.domain.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
@@ -16,6 +17,8 @@ import java.util.UUID;
 @Table(name = "cliente", schema = "fila_atendimento")
 @SQLDelete(sql = "UPDATE fila_atendimento.cliente SET ativo = false WHERE id = ?")
 @Where(clause = "ativo = true")
+// Clientes referenciados por várias entradas de fila (página por cursor) inicializados juntos, e não um por consulta
+@BatchSize(size = 100)
 public class Cliente {
 
     @Id
@@ -29,10 +32,16 @@ public class Cliente {
     @Column(name = "nome")
     private String nome;
 
+    // Nome sem acento e em minúsculas, calculado pelo banco (V025) para a busca por nome
+    @Column(name = "nome_busca", insertable = false, updatable = false)
+    private String nomeBusca;
+
     @Column(unique = true)
     private String email;
 
+    // Telefones dos clientes de uma página carregados juntos, e não numa consulta por cliente
     @ElementCollection
+    @BatchSize(size = 100)
     private List<Telefone> telefones;
 
     @Embedded
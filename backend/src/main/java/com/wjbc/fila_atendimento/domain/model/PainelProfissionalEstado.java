@@ -0,0 +1,32 @@
+package com.wjbc.fila_atendimento.domain.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Estado base dos deltas do painel profissional de um setor com o broker externo (PainelProfissionalDeltaTracker); listas em JSON
+@Data
+@EqualsAndHashCode(of = "setorId")
+@Entity
+@Table(name = "painel_profissional_estado", schema = "fila_atendimento")
+public class PainelProfissionalEstado {
+
+    @Id
+    @Column(name = "setor_id", updatable = false, nullable = false)
+    private UUID setorId;
+
+    @Column(name = "sequencia", nullable = false)
+    private long sequencia;
+
+    @Column(name = "entradas", nullable = false, columnDefinition = "TEXT")
+    private String entradas;
+
+    @Column(name = "estimativas", nullable = false, columnDefinition = "TEXT")
+    private String estimativas;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+}
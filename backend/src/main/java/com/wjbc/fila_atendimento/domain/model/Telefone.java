@@ -1,11 +1,14 @@
 package com.wjbc.fila_atendimento.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.wjbc.fila_atendimento.domain.enumeration.TipoTelefone;
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 @Data
 @Embeddable
@@ -20,4 +23,10 @@ public class Telefone {
 
     @NotNull
     private Long numero;
+
+    // DDD + número como texto, calculado pelo banco (V027) para a busca por telefone
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Column(name = "digitos", insertable = false, updatable = false)
+    private String digitos;
 }
@@ -0,0 +1,23 @@
+package com.wjbc.fila_atendimento.domain.repository;
+
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO;
+import com.wjbc.fila_atendimento.domain.model.ChamadaPainel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChamadaPainelRepository extends JpaRepository<ChamadaPainel, UUID> {
+
+    // Últimas chamadas exibidas no painel (mais recente primeiro)
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO(" +
+           "c.filaId, c.nomePaciente, c.guicheOuSala, c.dataHoraChamada) " +
+           "FROM ChamadaPainel c WHERE c.painelId = :painelId " +
+           "ORDER BY c.dataHoraChamada DESC")
+    List<ChamadaPainelDTO> findUltimasByPainelId(@Param("painelId") UUID painelId, Pageable pageable);
+}
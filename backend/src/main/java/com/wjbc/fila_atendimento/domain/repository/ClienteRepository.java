@@ -1,11 +1,14 @@
 package com.wjbc.fila_atendimento.domain.repository;
 
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
+import com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -25,10 +28,80 @@ public interface ClienteRepository extends JpaRepository<Cliente, UUID>, JpaSpec
     // Versões alinhadas ao padrão listarTodos: retornam List e deixam o Controller paginar opcionalmente
     List<Cliente> findByEmailContainingIgnoreCase(String email);
 
-    @Query("SELECT DISTINCT c FROM Cliente c JOIN c.telefones t " +
-           "WHERE str(t.numero) LIKE CONCAT('%', :telefone, '%') " +
-           "   OR str(t.ddd) LIKE CONCAT('%', :telefone, '%') " +
-           "   OR CONCAT(str(t.ddd), str(t.numero)) LIKE CONCAT('%', :telefone, '%')")
-    List<Cliente> searchByTelefoneContaining(@Param("telefone") String telefone);
+    // Mesmo critério de ClienteSpecification.porTelefone, só PostgreSQL (reverse): algum telefone com os dígitos
+    // (digitos, V027) começando pelo termo, no intervalo [inicio, fim), ou terminando por ele, com os dígitos
+    // invertidos em [inicioInvertido, fimInvertido). Os intervalos percorrem os índices da V028. Como parâmetros
+    // (ao contrário da Specification) porque nenhuma das consultas abaixo para no meio de uma ordem dada por índice:
+    // uma não tem LIMIT e a outra ordena por nome; o plano genérico continua partindo dos telefones.
+    String COM_TELEFONE = "EXISTS (SELECT 1 FROM c.telefones t " +
+            "WHERE (t.digitos >= :inicio AND t.digitos < :fim) " +
+            "   OR (function('reverse', t.digitos) >= :inicioInvertido AND function('reverse', t.digitos) < :fimInvertido))";
 
-}
\ No newline at end of file
+    // Telefones carregados na mesma consulta, para montar a resposta sem uma consulta por cliente
+    @Query("SELECT c FROM Cliente c LEFT JOIN FETCH c.telefones WHERE " + COM_TELEFONE + " ORDER BY c.id")
+    List<Cliente> findComTelefone(@Param("inicio") String inicio, @Param("fim") String fim,
+                                  @Param("inicioInvertido") String inicioInvertido, @Param("fimInvertido") String fimInvertido);
+
+    // Projeção da busca da recepção (ClienteServiceImpl.buscarPorTermo com o índice em memória inativo)
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO(c.id, c.nome, c.cpf) FROM Cliente c " +
+           "WHERE " + COM_TELEFONE + " ORDER BY c.nome, c.id LIMIT :limite")
+    List<ClienteBuscaDTO> findResumosComTelefone(@Param("inicio") String inicio, @Param("fim") String fim,
+                                                 @Param("inicioInvertido") String inicioInvertido,
+                                                 @Param("fimInvertido") String fimInvertido, @Param("limite") int limite);
+
+    // Projeções enxutas dos clientes ativos (o @Where da entidade vale também aqui), para o índice de busca em memória
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO(c.id, c.nome, c.cpf) FROM Cliente c")
+    List<ClienteBuscaDTO> findResumosParaBusca();
+
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO(c.id, t.ddd, t.numero) " +
+           "FROM Cliente c JOIN c.telefones t")
+    List<ClienteTelefoneDTO> findTelefonesParaBusca();
+
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO(c.id, t.ddd, t.numero) " +
+           "FROM Cliente c JOIN c.telefones t WHERE c.id IN :ids")
+    List<ClienteTelefoneDTO> findTelefonesParaBusca(@Param("ids") Collection<UUID> ids);
+
+    // Busca ranqueada por nome (ClienteServiceImpl.buscarMaisSemelhantesPorNome), só PostgreSQL: os parâmetros já
+    // vêm normalizados como nome_busca (ClienteSpecification.normalizarNome). Os nomes que começam pelo termo são o
+    // intervalo [inicio, fim): ao contrário de LIKE :prefixo, o intervalo continua usando o índice no plano
+    // genérico que o PostgreSQL adota para a consulta preparada depois de algumas execuções.
+
+    // Nome começando pelo termo, em ordem alfabética: percorre idx_cliente_nome_busca e para no limite
+    @Query(value = """
+            SELECT c.* FROM fila_atendimento.cliente c
+            WHERE c.ativo = true AND c.nome_busca >= :inicio AND c.nome_busca < :fim
+            ORDER BY c.nome_busca, c.id
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<Cliente> findPorInicioDoNome(@Param("inicio") String inicio, @Param("fim") String fim, @Param("limite") int limite);
+
+    // Palavras do termo em sequência em outra posição do nome (idx_cliente_nome_busca_trgm). Termos curtos
+    // casam com boa parte da base: só os primeiros candidatos são ordenados por semelhança.
+    @Query(value = """
+            SELECT c.* FROM (
+                SELECT c.* FROM fila_atendimento.cliente c
+                WHERE c.ativo = true AND c.nome_busca LIKE :padrao
+                  AND NOT (c.nome_busca >= :inicio AND c.nome_busca < :fim)
+                LIMIT :candidatos
+            ) c
+            ORDER BY word_similarity(:termo, c.nome_busca) DESC, c.nome_busca, c.id
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<Cliente> findComPalavrasNoNome(@Param("termo") String termo, @Param("padrao") String padrao,
+                                       @Param("inicio") String inicio, @Param("fim") String fim,
+                                       @Param("candidatos") int candidatos, @Param("limite") int limite);
+
+    // Nome com uma palavra parecida com o termo (word similarity do pg_trgm acima de
+    // pg_trgm.word_similarity_threshold), para erros de digitação; exclui os que contêm o termo
+    @Query(value = """
+            SELECT c.* FROM (
+                SELECT c.* FROM fila_atendimento.cliente c
+                WHERE c.ativo = true AND :termo <% c.nome_busca AND NOT c.nome_busca LIKE :padrao
+                LIMIT :candidatos
+            ) c
+            ORDER BY word_similarity(:termo, c.nome_busca) DESC, c.nome_busca, c.id
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<Cliente> findComNomeParecido(@Param("termo") String termo, @Param("padrao") String padrao,
+                                     @Param("candidatos") int candidatos, @Param("limite") int limite);
+}
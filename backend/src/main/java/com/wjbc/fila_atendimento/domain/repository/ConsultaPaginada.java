@@ -0,0 +1,67 @@
+package com.wjbc.fila_atendimento.domain.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Paginação das listagens feita no banco, em duas formas com a mesma ordem:
+ * <ul>
+ *   <li>por página ({@code LIMIT/OFFSET} e uma contagem), que fica mais cara quanto mais funda a página;</li>
+ *   <li>por cursor (keyset: {@code WHERE (chaves) > (chaves do cursor) ORDER BY chaves LIMIT n}), de custo
+ *       constante em qualquer profundidade, continuando a partir do último item recebido.</li>
+ * </ul>
+ * A ordem sempre termina no {@code id}, para ser total e o cursor não pular nem repetir itens.
+ */
+public final class ConsultaPaginada {
+
+    public static final Sort POR_ID = Sort.by("id");
+
+    private ConsultaPaginada() {}
+
+    public static <T> Page<T> pagina(JpaSpecificationExecutor<T> repositorio, Specification<T> spec, Pageable pageable) {
+        return pagina(repositorio, spec, pageable, POR_ID);
+    }
+
+    public static <T> Page<T> pagina(JpaSpecificationExecutor<T> repositorio, Specification<T> spec, Pageable pageable, Sort ordem) {
+        return repositorio.findAll(spec, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordem));
+    }
+
+    /**
+     * Como {@link #pagina(JpaSpecificationExecutor, Specification, Pageable, Sort)}, carregando as associações informadas
+     * na mesma consulta. Só por página: o scroll do Spring Data ignora as associações pedidas na consulta por cursor.
+     */
+    public static <T> Page<T> pagina(JpaSpecificationExecutor<T> repositorio, Specification<T> spec, Pageable pageable, Sort ordem,
+                                     String... carregar) {
+        return repositorio.findBy(spec, consulta -> consulta.sortBy(ordem).project(carregar)
+                .page(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())));
+    }
+
+    /** Itens depois do {@code id} informado (nulo: do início), na ordem de {@link #POR_ID}. */
+    public static <T> Window<T> aposId(JpaSpecificationExecutor<T> repositorio, Specification<T> spec, UUID apos, int tamanho) {
+        return apos(repositorio, spec, POR_ID, apos != null ? Map.of("id", apos) : null, tamanho);
+    }
+
+    /**
+     * Itens depois do cursor na ordem informada. O cursor traz o valor de cada propriedade da ordem
+     * no último item recebido; nulo começa do início.
+     */
+    public static <T> Window<T> apos(JpaSpecificationExecutor<T> repositorio, Specification<T> spec, Sort ordem,
+                                     Map<String, ?> cursor, int tamanho) {
+        ScrollPosition posicao = cursor != null ? ScrollPosition.forward(cursor) : ScrollPosition.keyset();
+        return repositorio.findBy(spec, consulta -> consulta.sortBy(ordem).limit(tamanho).scroll(posicao));
+    }
+
+    /** Sem restrição: todos os registros visíveis da entidade (os filtros de {@code @Where} continuam valendo). */
+    public static <T> Specification<T> todos() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+    }
+}
@@ -1,36 +1,90 @@
 package com.wjbc.fila_atendimento.domain.repository;
 
+import com.wjbc.fila_atendimento.domain.dto.ChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
 import com.wjbc.fila_atendimento.domain.model.EntradaFila;
 import com.wjbc.fila_atendimento.domain.model.Fila;
 import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface EntradaFilaRepository extends JpaRepository<EntradaFila, UUID> {
+public interface EntradaFilaRepository extends JpaRepository<EntradaFila, UUID>, JpaSpecificationExecutor<EntradaFila> {
 
     // Verifica se um cliente já está AGUARDANDO numa fila específica
     boolean existsByClienteAndFilaAndStatus(Cliente cliente, Fila fila, StatusFila status);
 
-    // Busca a lista de espera de uma fila, ordenada corretamente
-    List<EntradaFila> findByFilaAndStatusOrderByPrioridadeDescDataHoraEntradaAsc(Fila fila, StatusFila status);
+    // Busca a lista de espera de uma fila, ordenada corretamente, já com o que a resposta mostra (cliente e seus
+    // telefones, fila, setor e unidade): uma consulta para a lista inteira, em vez de uma por entrada e associação
+    @EntityGraph(attributePaths = {"cliente", "cliente.telefones", "fila", "fila.setor", "fila.unidadeAtendimento"})
+    @Query("SELECT e FROM EntradaFila e WHERE e.fila.id = :filaId AND e.status = :status " +
+           "ORDER BY e.prioridade DESC, e.dataHoraEntrada ASC, e.id ASC")
+    List<EntradaFila> findComDetalhesByFilaIdAndStatus(@Param("filaId") UUID filaId, @Param("status") StatusFila status);
 
-    // Busca o PRÓXIMO cliente a ser chamado numa fila (com ou sem a condição de retorno)
-    Optional<EntradaFila> findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(
-            Fila fila, StatusFila status, boolean isRetorno
-    );
+    // Todas as entradas AGUARDANDO das filas ativas de um setor numa única consulta, com os mesmos detalhes,
+    // agrupadas por fila (nome, id) e cada fila na ordem de espera. O status vai literal na consulta para
+    // o PostgreSQL poder usar o índice parcial de aguardando também no plano genérico
+    @EntityGraph(attributePaths = {"cliente", "cliente.telefones", "fila", "fila.setor", "fila.unidadeAtendimento"})
+    @Query("SELECT e FROM EntradaFila e WHERE e.fila.setor.id = :setorId AND e.fila.ativa = true " +
+           "AND e.status = com.wjbc.fila_atendimento.domain.enumeration.StatusFila.AGUARDANDO " +
+           "ORDER BY e.fila.nome, e.fila.id, e.prioridade DESC, e.dataHoraEntrada ASC, e.id ASC")
+    List<EntradaFila> findAguardandoComDetalhesBySetorId(@Param("setorId") UUID setorId);
+
+    // Reserva o PRÓXIMO cliente a ser chamado numa fila (com ou sem a condição de retorno).
+    // FOR UPDATE SKIP LOCKED: chamadas concorrentes na mesma fila recebem linhas distintas,
+    // sem esperar umas pelas outras; o lock vale até o fim da transação que chama.
+    @Query(value = "SELECT * FROM fila_atendimento.entrada_fila " +
+                   "WHERE fila_id = :filaId AND status = 'AGUARDANDO' AND retorno = :retorno " +
+                   "ORDER BY prioridade DESC, data_hora_entrada ASC " +
+                   "LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<EntradaFila> reservarProximoAguardando(@Param("filaId") UUID filaId, @Param("retorno") boolean retorno);
+
+    // Reserva uma entrada específica, desde que ainda esteja AGUARDANDO e não reservada por outra transação
+    @Query(value = "SELECT * FROM fila_atendimento.entrada_fila " +
+                   "WHERE id = :id AND status = 'AGUARDANDO' " +
+                   "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<EntradaFila> reservarSeAguardando(@Param("id") UUID id);
 
     // Metodo da validação de desativação
     boolean existsByFilaAndStatus(Fila fila, StatusFila status);
 
-    // Busca o chamado mais recente (atual) por fila e status
-    Optional<EntradaFila> findFirstByFilaAndStatusOrderByDataHoraChamadaDesc(Fila fila, StatusFila status);
+    // Últimas chamadas da fila (mais recente primeiro), já com o nome do cliente
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.ChamadaDTO(" +
+           "c.nome, e.guicheOuSalaAtendimento, e.dataHoraChamada) " +
+           "FROM EntradaFila e JOIN e.cliente c " +
+           "WHERE e.fila.id = :filaId AND e.dataHoraChamada IS NOT NULL " +
+           "ORDER BY e.dataHoraChamada DESC")
+    List<ChamadaDTO> findUltimasChamadas(@Param("filaId") UUID filaId, Pageable pageable);
+
+    // Projeção enxuta das entradas por status (usada pelo índice de prioridade em memória)
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO(" +
+           "e.id, e.fila.id, e.prioridade, e.isRetorno, e.dataHoraEntrada) " +
+           "FROM EntradaFila e WHERE e.status = :status")
+    List<EntradaFilaPrioridadeDTO> findPrioridadesByStatus(@Param("status") StatusFila status);
+
+    // Mesma projeção para uma entrada (sem bloqueio: enxerga a linha mesmo reservada por outra transação)
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO(" +
+           "e.id, e.fila.id, e.prioridade, e.isRetorno, e.dataHoraEntrada) " +
+           "FROM EntradaFila e WHERE e.id = :id AND e.status = :status")
+    Optional<EntradaFilaPrioridadeDTO> findPrioridadeByIdAndStatus(@Param("id") UUID id, @Param("status") StatusFila status);
 
-    // Busca os 3 chamados mais recentes por fila e status
-    List<EntradaFila> findTop3ByFilaAndStatusOrderByDataHoraChamadaDesc(Fila fila, StatusFila status);
-}
\ No newline at end of file
+    // Chamadas feitas a partir de "desde"; o limite de entrada restringe a busca às partições recentes
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO(" +
+           "e.id, e.fila.id, e.dataHoraEntrada, e.dataHoraChamada, e.dataHoraSaida, e.guicheOuSalaAtendimento) " +
+           "FROM EntradaFila e WHERE e.dataHoraEntrada >= :entradaDesde AND e.dataHoraChamada >= :desde " +
+           "ORDER BY e.dataHoraChamada")
+    List<EntradaFilaChamadaDTO> findChamadasDesde(@Param("desde") LocalDateTime desde,
+                                                 @Param("entradaDesde") LocalDateTime entradaDesde);
+}
@@ -4,6 +4,9 @@ import com.wjbc.fila_atendimento.domain.model.Fila;
 import com.wjbc.fila_atendimento.domain.model.Setor;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +14,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface FilaRepository extends JpaRepository<Fila, UUID> {
+public interface FilaRepository extends JpaRepository<Fila, UUID>, JpaSpecificationExecutor<Fila> {
 
     Optional<Fila> findByNomeAndUnidadeAtendimento(String nome, UnidadeAtendimento unidadeAtendimento);
 
@@ -22,4 +25,8 @@ public interface FilaRepository extends JpaRepository<Fila, UUID> {
     boolean existsByUnidadeAtendimentoAndAtivaIsTrue(UnidadeAtendimento unidadeAtendimento);
 
     List<Fila> findBySetor(Setor setor);
-}
\ No newline at end of file
+
+    // Unidade da fila, sem carregar a entidade (invalidação do cache do dashboard)
+    @Query("SELECT f.unidadeAtendimento.id FROM Fila f WHERE f.id = :filaId")
+    Optional<UUID> findUnidadeAtendimentoIdById(@Param("filaId") UUID filaId);
+}
@@ -0,0 +1,29 @@
+package com.wjbc.fila_atendimento.domain.repository;
+
+import com.wjbc.fila_atendimento.domain.model.PainelProfissionalEstado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PainelProfissionalEstadoRepository extends JpaRepository<PainelProfissionalEstado, UUID> {
+
+    // A linha fica bloqueada até o commit: as instâncias geram os deltas do setor uma de cada vez
+    @Query(value = "SELECT * FROM fila_atendimento.painel_profissional_estado " +
+                   "WHERE setor_id = :setorId FOR UPDATE", nativeQuery = true)
+    Optional<PainelProfissionalEstado> bloquearPorSetor(@Param("setorId") UUID setorId);
+
+    // Insere sem consultar antes (save faria merge): se outra instância criou primeiro, viola a chave primária
+    @Modifying
+    @Query(value = "INSERT INTO fila_atendimento.painel_profissional_estado " +
+                   "(setor_id, sequencia, entradas, estimativas, atualizado_em) " +
+                   "VALUES (:setorId, 0, :entradas, :estimativas, LOCALTIMESTAMP)", nativeQuery = true)
+    void inserirEstadoBase(@Param("setorId") UUID setorId,
+                           @Param("entradas") String entradas,
+                           @Param("estimativas") String estimativas);
+}
@@ -1,7 +1,9 @@
 package com.wjbc.fila_atendimento.domain.repository;
 
+import com.wjbc.fila_atendimento.domain.dto.PainelFilaVinculoDTO;
 import com.wjbc.fila_atendimento.domain.model.Painel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,11 +13,17 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PainelRepository extends JpaRepository<Painel, UUID> {
+public interface PainelRepository extends JpaRepository<Painel, UUID>, JpaSpecificationExecutor<Painel> {
     Optional<Painel> findById(UUID id);
     List<Painel> findByUnidadeAtendimentoId(UUID unidadeAtendimentoId);
 
     @Query("SELECT p FROM Painel p JOIN p.filas f WHERE f.id = :filaId")
     List<Painel> findPaineisByFilaId(@Param("filaId") UUID filaId);
+
+    @Query("SELECT new com.wjbc.fila_atendimento.domain.dto.PainelFilaVinculoDTO(p.id, f.id) FROM Painel p JOIN p.filas f")
+    List<PainelFilaVinculoDTO> findVinculosPainelFila();
+
+    @Query("SELECT f.id FROM Painel p JOIN p.filas f WHERE p.id = :painelId")
+    List<UUID> findFilaIdsByPainelId(@Param("painelId") UUID painelId);
 }
 
@@ -2,6 +2,7 @@ package com.wjbc.fila_atendimento.domain.repository;
 
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +10,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UnidadeAtendimentoRepository extends JpaRepository<UnidadeAtendimento, UUID> {
+public interface UnidadeAtendimentoRepository extends JpaRepository<UnidadeAtendimento, UUID>, JpaSpecificationExecutor<UnidadeAtendimento> {
 
     Optional<UnidadeAtendimento> findByNome(String nome);
 
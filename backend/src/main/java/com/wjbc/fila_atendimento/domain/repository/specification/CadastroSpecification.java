@@ -0,0 +1,32 @@
+package com.wjbc.fila_atendimento.domain.repository.specification;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.UUID;
+
+/** Filtros comuns às listagens paginadas dos cadastros (clientes, setores, unidades, filas, painéis). */
+public final class CadastroSpecification {
+
+    private static final char ESCAPE = '\\';
+
+    private CadastroSpecification() {}
+
+    public static <T> Specification<T> nomeContendo(String nome) {
+        return atributoContendo("nome", nome);
+    }
+
+    // Mesmo critério do ...ContainingIgnoreCase dos repositórios: % e _ do termo são literais
+    static <T> Specification<T> atributoContendo(String atributo, String valor) {
+        String termo = valor.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.like(criteriaBuilder.lower(root.get(atributo)), "%" + termo + "%", ESCAPE);
+    }
+
+    public static <T> Specification<T> daUnidade(UUID unidadeAtendimentoId) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("unidadeAtendimento").get("id"), unidadeAtendimentoId);
+    }
+}
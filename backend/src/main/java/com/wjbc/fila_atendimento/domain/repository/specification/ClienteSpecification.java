@@ -1,7 +1,12 @@
 package com.wjbc.fila_atendimento.domain.repository.specification;
 
 import com.wjbc.fila_atendimento.domain.model.Cliente;
+import com.wjbc.fila_atendimento.domain.model.Telefone;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
@@ -24,12 +29,12 @@ public class ClienteSpecification {
             for (String palavra : palavras) {
                 // Para cada palavra, cria uma cláusula LIKE.
                 // A mágica acontece aqui:
-                // 1. criteriaBuilder.function('unaccent', ...): Chama a função unaccent do PostgreSQL.
-                // 2. criteriaBuilder.lower(...): Converte tanto o nome no banco quanto a palavra de busca para minúsculas.
-                // 3. criteriaBuilder.like(..., "%palavra%"): Cria o `LIKE '%palavra%'`.
+                // 1. root.get("nomeBusca"): O nome já sem acentos e em minúsculas, calculado pelo banco (V025).
+                // 2. removerAcentos(palavra.toLowerCase()): Normaliza a palavra de busca do mesmo jeito.
+                // 3. criteriaBuilder.like(..., "%palavra%"): Cria o `LIKE '%palavra%'`, atendido pelo índice de trigramas.
                 predicates.add(
                         criteriaBuilder.like(
-                                criteriaBuilder.function("unaccent", String.class, criteriaBuilder.lower(root.get("nome"))),
+                                root.get("nomeBusca"),
                                 "%" + removerAcentos(palavra.toLowerCase()) + "%"
                         )
                 );
@@ -41,6 +46,76 @@ public class ClienteSpecification {
         };
     }
 
+    // Mesmo critério do findByEmailContainingIgnoreCase, para a listagem paginada no banco
+    public static Specification<Cliente> porEmailContendo(String email) {
+        return CadastroSpecification.<Cliente>atributoContendo("email", email);
+    }
+
+    // Mesmo critério do ClienteRepository.COM_TELEFONE: algum telefone começando pelos dígitos do termo
+    // (DDD + início do número) ou terminando por eles (número sem DDD, últimos dígitos). EXISTS em vez de
+    // JOIN + DISTINCT: cada cliente aparece uma vez, sem multiplicar as linhas pelos telefones.
+    public static Specification<Cliente> porTelefone(String telefone) {
+        return (root, query, criteriaBuilder) -> {
+            String digitos = digitosTelefone(telefone);
+            if (digitos.isEmpty()) {
+                return criteriaBuilder.disjunction();
+            }
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Join<Cliente, Telefone> telefones = subquery.correlate(root).join("telefones");
+            Expression<String> digitosTelefone = telefones.get("digitos");
+            Expression<String> invertidos = criteriaBuilder.function("reverse", String.class, digitosTelefone);
+            subquery.select(criteriaBuilder.literal(1)).where(criteriaBuilder.or(
+                    comecaCom(criteriaBuilder, digitosTelefone, digitos),
+                    comecaCom(criteriaBuilder, invertidos, inverter(digitos))));
+            return criteriaBuilder.exists(subquery);
+        };
+    }
+
+    // Intervalo [inicio, fimDoPrefixo(inicio)) com os dígitos escritos na consulta (só dígitos, sem risco de injeção):
+    // a listagem ordena por id com LIMIT e, com parâmetros, o plano genérico do PostgreSQL percorre os clientes em
+    // ordem de id testando os telefones de cada um, em vez de partir dos poucos telefones encontrados pelos índices
+    private static Predicate comecaCom(CriteriaBuilder criteriaBuilder, Expression<String> valor, String inicio) {
+        return criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(valor, criteriaBuilder.literal(inicio)),
+                criteriaBuilder.lessThan(valor, criteriaBuilder.literal(fimDoPrefixo(inicio))));
+    }
+
+    /** Termo de busca por telefone como a coluna digitos: só os dígitos, sem pontuação nem espaços. */
+    public static String digitosTelefone(String telefone) {
+        return telefone == null ? "" : telefone.replaceAll("\\D", "");
+    }
+
+    /** Dígitos de trás para frente, para buscar o fim do telefone pelo índice de reverse(digitos). */
+    public static String inverter(String digitos) {
+        return new StringBuilder(digitos).reverse().toString();
+    }
+
+    /** Termo de busca por nome como a coluna nome_busca: minúsculas, sem acentos e com um espaço entre as palavras. */
+    public static String normalizarNome(String nome) {
+        return removerAcentos(nome.toLowerCase()).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Fim (exclusivo) do intervalo dos nomes que começam pelo termo normalizado (nome_busca usa a collation "C"):
+     * o termo com o último caractere trocado pelo seguinte.
+     */
+    public static String fimDoPrefixo(String termoNormalizado) {
+        int ultimo = termoNormalizado.length() - 1;
+        return termoNormalizado.substring(0, ultimo) + (char) (termoNormalizado.charAt(ultimo) + 1);
+    }
+
+    /** Padrão LIKE de nomes que contêm as palavras do termo normalizado, em sequência. */
+    public static String padraoPalavrasEmSequencia(String termoNormalizado) {
+        return "%" + escaparLike(termoNormalizado).replace(' ', '%') + "%";
+    }
+
+    // % e _ do termo são literais (escape padrão do LIKE no PostgreSQL: \)
+    private static String escaparLike(String termo) {
+        return termo.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
     // Função utilitária para remover acentos no lado da aplicação, garantindo consistência.
     private static String removerAcentos(String str) {
         return java.text.Normalizer.normalize(str, java.text.Normalizer.Form.NFD)
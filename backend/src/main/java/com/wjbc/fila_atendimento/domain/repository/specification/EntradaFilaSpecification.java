@@ -0,0 +1,27 @@
+package com.wjbc.fila_atendimento.domain.repository.specification;
+
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class EntradaFilaSpecification {
+
+    /** Ordem da lista de espera (a mesma de EntradaFilaRepository.findComDetalhesByFilaIdAndStatus), desempatada pelo id. */
+    public static final Sort ORDEM_DE_ESPERA = Sort.by(Sort.Order.desc("prioridade"), Sort.Order.asc("dataHoraEntrada"), Sort.Order.asc("id"));
+
+    /**
+     * Associações que a resposta mostra, carregadas na consulta de cada página. Sem os telefones do cliente:
+     * coleção na mesma consulta faria o Hibernate paginar em memória (eles vêm em lote, ver Cliente.telefones).
+     */
+    public static final String[] DETALHES_DA_RESPOSTA = {"cliente", "fila", "fila.setor", "fila.unidadeAtendimento"};
+
+    private EntradaFilaSpecification() {}
+
+    public static Specification<EntradaFila> aguardandoNaFila(Fila fila) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.equal(root.get("fila"), fila),
+                criteriaBuilder.equal(root.get("status"), StatusFila.AGUARDANDO));
+    }
+}
@@ -0,0 +1,13 @@
+package com.wjbc.fila_atendimento.domain.service;
+
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ChamadaPainelService {
+    void registrar(ChamadaPainelRegistroDTO chamada);
+    void gravarPendentes();
+    List<ChamadaPainelDTO> listarUltimasDoPainel(UUID painelId, int limite);
+}
@@ -1,9 +1,13 @@
 package com.wjbc.fila_atendimento.domain.service;
 
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -16,8 +20,18 @@ public interface ClienteService {
     ClienteResponseDTO buscarPorCpf(String cpf);
     List<ClienteResponseDTO> listarTodos();
     List<ClienteResponseDTO> buscarPorNomeSemelhante(String nome);
+    List<ClienteResponseDTO> buscarMaisSemelhantesPorNome(String nome, Integer limite);
+    List<ClienteBuscaDTO> buscarPorTermo(String termo, Integer limite);
     void desativar(UUID id);
     Cliente findClienteById(UUID id);
     List<ClienteResponseDTO> buscarPorEmail(String email, Integer page, Integer size);
     List<ClienteResponseDTO> buscarPorTelefone(String telefone, Integer page, Integer size);
+    Page<ClienteResponseDTO> listarTodos(Pageable pageable);
+    Window<ClienteResponseDTO> listarTodos(UUID apos, int tamanho);
+    Page<ClienteResponseDTO> buscarPorNomeSemelhante(String nome, Pageable pageable);
+    Window<ClienteResponseDTO> buscarPorNomeSemelhante(String nome, UUID apos, int tamanho);
+    Page<ClienteResponseDTO> buscarPorEmail(String email, Pageable pageable);
+    Window<ClienteResponseDTO> buscarPorEmail(String email, UUID apos, int tamanho);
+    Page<ClienteResponseDTO> buscarPorTelefone(String telefone, Pageable pageable);
+    Window<ClienteResponseDTO> buscarPorTelefone(String telefone, UUID apos, int tamanho);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.wjbc.fila_atendimento.domain.service;
+
+import com.wjbc.fila_atendimento.domain.enumeration.FormatoExportacao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface EntradaFilaExportacaoService {
+
+    /**
+     * Grava no destino o histórico de entradas das filas da unidade com entrada no período. O destino
+     * só é aberto depois de validados os parâmetros, para que um erro ainda possa virar resposta JSON.
+     *
+     * @return quantidade de linhas exportadas
+     */
+    long exportar(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim, FormatoExportacao formato,
+                  DestinoExportacao destino) throws IOException;
+
+    @FunctionalInterface
+    interface DestinoExportacao {
+        OutputStream abrir() throws IOException;
+    }
+}
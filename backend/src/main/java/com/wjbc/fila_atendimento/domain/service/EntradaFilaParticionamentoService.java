@@ -0,0 +1,10 @@
+package com.wjbc.fila_atendimento.domain.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface EntradaFilaParticionamentoService {
+    void manterParticoes();
+    List<String> criarParticoes(YearMonth de, YearMonth ate);
+    List<String> arquivarParticoes(YearMonth anteriorA);
+}
@@ -3,6 +3,12 @@ package com.wjbc.fila_atendimento.domain.service;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCancelamentoDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,4 +22,10 @@ public interface EntradaFilaService {
     }
     EntradaFilaResponseDTO encaminharParaFila(UUID entradaFilaIdOrigem, EntradaFilaCreateDTO dtoDestino);
     List<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId);
+    Page<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId, Pageable pageable);
+    /** Aguardando depois da entrada {@code apos} (nula: do início), na mesma ordem da listagem completa. */
+    Window<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId, UUID apos, int tamanho);
+    FilaSnapshotDTO getSnapshotPainelProfissional(UUID setorId);
+    PainelPublicoDTO getPainelPublico(UUID filaId);
+    PainelProfissionalDTO getPainelProfissional(UUID setorId);
 }
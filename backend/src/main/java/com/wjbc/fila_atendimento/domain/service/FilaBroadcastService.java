@@ -1,9 +1,20 @@
 package com.wjbc.fila_atendimento.domain.service;
 
+import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
+
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public interface FilaBroadcastService {
 
     void broadcastPainelPublicoUpdate(UUID painelId, Object payload);
     void broadcastFilaProfissionalUpdate(UUID setorId, Object payload);
+
+    /**
+     * Marca o painel profissional do setor como desatualizado. O payload só é montado e enviado
+     * no próximo ciclo de envio, uma única vez por setor, não importa quantas alterações ocorreram
+     * na janela de coalescência. Além do snapshot completo (quando habilitado), publica em
+     * {@code /topic/fila/{setorId}/delta} apenas as entradas que mudaram desde o último envio.
+     */
+    void agendarFilaProfissionalUpdate(UUID setorId, Supplier<PainelProfissionalDTO> payload);
 }
@@ -4,6 +4,9 @@ import com.wjbc.fila_atendimento.domain.dto.FilaCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.FilaResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.FilaUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Fila;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,8 +16,12 @@ public interface FilaService {
     FilaResponseDTO atualizarParcialmente(UUID id, FilaUpdateDTO filaDTO);
     FilaResponseDTO buscarPorId(UUID id);
     List<FilaResponseDTO> listarPorUnidade(UUID unidadeId);
+    Page<FilaResponseDTO> listarPorUnidade(UUID unidadeId, Pageable pageable);
+    Window<FilaResponseDTO> listarPorUnidade(UUID unidadeId, UUID apos, int tamanho);
     void desativar(UUID id);
     Fila findFilaById(UUID id);
     List<Fila> findBySetorId(UUID setorId);
     List<FilaResponseDTO> listarTodas();
+    Page<FilaResponseDTO> listarTodas(Pageable pageable);
+    Window<FilaResponseDTO> listarTodas(UUID apos, int tamanho);
 }
@@ -1,8 +1,12 @@
 package com.wjbc.fila_atendimento.domain.service;
 
 import com.wjbc.fila_atendimento.domain.dto.PainelCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelUpdateDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelResponseDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,8 +17,13 @@ public interface PainelService {
     PainelResponseDTO buscarPorId(UUID id, UUID unidadeAtendimentoId);
     List<PainelResponseDTO> listarTodos(UUID unidadeAtendimentoId);
     List<PainelResponseDTO> listarPorUnidade(UUID unidadeAtendimentoId);
+    Page<PainelResponseDTO> listarTodos(UUID unidadeAtendimentoId, Pageable pageable);
+    Window<PainelResponseDTO> listarTodos(UUID unidadeAtendimentoId, UUID apos, int tamanho);
+    Page<PainelResponseDTO> listarPorUnidade(UUID unidadeAtendimentoId, Pageable pageable);
+    Window<PainelResponseDTO> listarPorUnidade(UUID unidadeAtendimentoId, UUID apos, int tamanho);
     void desativar(UUID id);
     PainelResponseDTO adicionarFilaAoPainel(UUID painelId, UUID filaId);
     PainelResponseDTO removerFilaDoPainel(UUID painelId, UUID filaId);
     PainelResponseDTO buscarPublico(UUID id);
+    List<PainelPublicoDTO> buscarChamadasPublico(UUID id);
 }
@@ -4,6 +4,9 @@ import com.wjbc.fila_atendimento.domain.dto.SetorCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.SetorResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.SetorUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Setor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,6 +18,10 @@ public interface SetorService {
     SetorResponseDTO buscarPorId(UUID id);
     List<SetorResponseDTO> listarTodos();
     List<SetorResponseDTO> buscarPorNomeContendo(String nome);
+    Page<SetorResponseDTO> listarTodos(Pageable pageable);
+    Window<SetorResponseDTO> listarTodos(UUID apos, int tamanho);
+    Page<SetorResponseDTO> buscarPorNomeContendo(String nome, Pageable pageable);
+    Window<SetorResponseDTO> buscarPorNomeContendo(String nome, UUID apos, int tamanho);
     void desativar(UUID id);
     Setor findSetorById(UUID id);
 }
\ No newline at end of file
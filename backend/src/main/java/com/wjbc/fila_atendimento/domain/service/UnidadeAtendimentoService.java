@@ -5,6 +5,9 @@ import com.wjbc.fila_atendimento.domain.dto.UnidadeAtendimentoResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.UnidadeAtendimentoUpdateDTO;
 import com.wjbc.fila_atendimento.domain.dto.UnidadeAtendimentoPublicDTO;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -16,6 +19,10 @@ public interface UnidadeAtendimentoService {
     UnidadeAtendimentoResponseDTO buscarPorId(UUID id);
     List<UnidadeAtendimentoResponseDTO> listarTodas();
     List<UnidadeAtendimentoResponseDTO> buscarPorNomeContendo(String nome);
+    Page<UnidadeAtendimentoResponseDTO> listarTodas(Pageable pageable);
+    Window<UnidadeAtendimentoResponseDTO> listarTodas(UUID apos, int tamanho);
+    Page<UnidadeAtendimentoResponseDTO> buscarPorNomeContendo(String nome, Pageable pageable);
+    Window<UnidadeAtendimentoResponseDTO> buscarPorNomeContendo(String nome, UUID apos, int tamanho);
     void desativar(UUID id);
     UnidadeAtendimento findUnidadeById(UUID id);
 
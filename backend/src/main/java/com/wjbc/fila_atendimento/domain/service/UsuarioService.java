@@ -4,6 +4,9 @@ import com.wjbc.fila_atendimento.domain.dto.UsuarioCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.UsuarioResponseDTO;
 import com.wjbc.fila_atendimento.domain.dto.UsuarioUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Usuario;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.UUID;
@@ -14,6 +17,8 @@ public interface UsuarioService {
     UsuarioResponseDTO substituir(UUID id, UsuarioCreateDTO usuarioDTO);
     UsuarioResponseDTO buscarPorId(UUID id);
     List<UsuarioResponseDTO> listarTodos();
+    Page<UsuarioResponseDTO> listarTodos(Pageable pageable);
+    Window<UsuarioResponseDTO> listarTodos(UUID apos, int tamanho);
     void desativar(UUID id);
     Usuario findUsuarioById(UUID id);
     UsuarioResponseDTO buscarPorEmail(String email);
@@ -0,0 +1,191 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
+import com.wjbc.fila_atendimento.domain.exception.BusinessException;
+import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.model.Painel;
+import com.wjbc.fila_atendimento.domain.repository.ChamadaPainelRepository;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.service.ChamadaPainelService;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Grava o histórico de chamadas por painel em {@code chamada_painel} fora da requisição.
+ * As chamadas confirmadas entram em uma fila limitada e são gravadas periodicamente com
+ * inserts em lote via JDBC, uma linha por painel que exibe a fila. O histórico é acessório:
+ * com a fila cheia ou falha de gravação, as chamadas são descartadas e contabilizadas. Um lote
+ * recusado (por exemplo, painel removido entre o envio e a gravação) é refeito linha a linha,
+ * e só as linhas recusadas são descartadas.
+ */
+@Slf4j
+@Service
+public class ChamadaPainelServiceImpl implements ChamadaPainelService {
+
+    private static final String INSERT = "INSERT INTO fila_atendimento.chamada_painel " +
+            "(id, data_hora_chamada, nome_paciente, guiche_ou_sala, entrada_fila_id, fila_id, painel_id, setor_id, unidade_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacaoDoLote;
+    private final ChamadaPainelRepository chamadaPainelRepository;
+    private final PainelRepository painelRepository;
+    private final PainelRoteamentoCache painelRoteamentoCache;
+    private final BlockingQueue<ChamadaPainelRegistroDTO> pendentes;
+    private final Counter gravadas;
+    private final Counter descartadas;
+    private final Counter falhas;
+
+    @Value("${chamada-painel.gravacao.tamanho-lote:500}")
+    private int tamanhoLote = 500;
+
+    @Value("${chamada-painel.historico.limite-maximo:200}")
+    private int limiteMaximo = 200;
+
+    public ChamadaPainelServiceImpl(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ChamadaPainelRepository chamadaPainelRepository,
+                                    PainelRepository painelRepository,
+                                    PainelRoteamentoCache painelRoteamentoCache,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${chamada-painel.gravacao.capacidade:10000}") int capacidade) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacaoDoLote = new TransactionTemplate(transactionManager);
+        this.chamadaPainelRepository = chamadaPainelRepository;
+        this.painelRepository = painelRepository;
+        this.painelRoteamentoCache = painelRoteamentoCache;
+        this.pendentes = new ArrayBlockingQueue<>(capacidade);
+        this.gravadas = contador(meterRegistry, "gravada");
+        this.descartadas = contador(meterRegistry, "descartada");
+        this.falhas = contador(meterRegistry, "falha");
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("chamada.painel.gravacao")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    // Enfileirada somente após o commit: chamada revertida não entra no histórico
+    @Override
+    public void registrar(ChamadaPainelRegistroDTO chamada) {
+        if (chamada.setorId() == null || chamada.unidadeId() == null) {
+            return; // colunas obrigatórias no histórico
+        }
+        AposCommit.executar(() -> enfileirar(chamada));
+    }
+
+    private void enfileirar(ChamadaPainelRegistroDTO chamada) {
+        if (!pendentes.offer(chamada)) {
+            descartadas.increment();
+            log.warn("Histórico de chamadas saturado: chamada da fila {} descartada", chamada.filaId());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${chamada-painel.gravacao.intervalo-ms:1000}")
+    public void gravarPendentes() {
+        List<ChamadaPainelRegistroDTO> lote = new ArrayList<>(Math.min(tamanhoLote, pendentes.size()));
+        while (pendentes.drainTo(lote, tamanhoLote) > 0) {
+            gravar(lote);
+            lote.clear();
+        }
+    }
+
+    private void gravar(List<ChamadaPainelRegistroDTO> lote) {
+        List<Object[]> linhas = new ArrayList<>(lote.size());
+        for (ChamadaPainelRegistroDTO chamada : lote) {
+            Timestamp dataHora = Timestamp.valueOf(chamada.dataHoraChamada());
+            for (UUID painelId : paineisDaFila(chamada.filaId())) {
+                linhas.add(new Object[]{
+                        UUID.randomUUID(), dataHora, chamada.nomePaciente(), chamada.guicheOuSala(),
+                        chamada.entradaFilaId(), chamada.filaId(), painelId, chamada.setorId(), chamada.unidadeId()
+                });
+            }
+        }
+        if (linhas.isEmpty()) {
+            return;
+        }
+        try {
+            // Numa transação: recusado, o lote não deixa linhas gravadas pela metade
+            transacaoDoLote.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, linhas));
+            gravadas.increment(linhas.size());
+        } catch (DataAccessException e) {
+            log.warn("Lote de {} chamada(s) recusado no histórico dos painéis; gravando linha a linha", linhas.size(), e);
+            gravarLinhaALinha(linhas);
+        }
+    }
+
+    // Descarta só as linhas recusadas; com o banco indisponível, desiste do restante do lote
+    private void gravarLinhaALinha(List<Object[]> linhas) {
+        for (int i = 0; i < linhas.size(); i++) {
+            Object[] linha = linhas.get(i);
+            try {
+                jdbcTemplate.update(INSERT, linha);
+                gravadas.increment();
+            } catch (DataIntegrityViolationException e) {
+                falhas.increment();
+                log.warn("Chamada da fila {} para o painel {} descartada do histórico: {}", linha[5], linha[6], e.getMessage());
+            } catch (DataAccessException e) {
+                falhas.increment(linhas.size() - i);
+                log.error("Falha ao gravar {} chamada(s) no histórico dos painéis", linhas.size() - i, e);
+                return;
+            }
+        }
+    }
+
+    private Collection<UUID> paineisDaFila(UUID filaId) {
+        Optional<Set<UUID>> roteados = painelRoteamentoCache.paineisDaFila(filaId);
+        if (roteados.isPresent()) {
+            return roteados.get();
+        }
+        return painelRepository.findPaineisByFilaId(filaId).stream().map(Painel::getId).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChamadaPainelDTO> listarUltimasDoPainel(UUID painelId, int limite) {
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new BusinessException("O limite deve estar entre 1 e " + limiteMaximo + ".");
+        }
+        if (!painelRepository.existsById(painelId)) {
+            throw new ResourceNotFoundException("Painel não encontrado com o ID: " + painelId);
+        }
+        return chamadaPainelRepository.findUltimasByPainelId(painelId, PageRequest.of(0, limite));
+    }
+
+    public int getPendentes() {
+        return pendentes.size();
+    }
+
+    // Grava o que restou antes de encerrar a aplicação
+    @PreDestroy
+    public void encerrar() {
+        gravarPendentes();
+    }
+}
@@ -1,24 +1,31 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.ClienteBuscaIndex;
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteUpdateDTO;
 import com.wjbc.fila_atendimento.domain.exception.BusinessException;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.ClienteMapper;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
 import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.specification.ClienteSpecification;
 import com.wjbc.fila_atendimento.domain.service.ClienteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,8 +33,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ClienteServiceImpl implements ClienteService {
 
+    // Busca ranqueada por nome: com menos de 3 caracteres o termo não tem trigramas para o índice
+    static final int TAMANHO_MINIMO_BUSCA_SEMELHANTE = 3;
+    static final int LIMITE_PADRAO_BUSCA_SEMELHANTE = 20;
+    static final int LIMITE_MAXIMO_BUSCA_SEMELHANTE = 100;
+    // Candidatos ordenados por semelhança nas buscas por trigramas, por resultado pedido
+    static final int CANDIDATOS_POR_RESULTADO = 10;
+    // Busca da recepção (nome, CPF ou telefone na mesma caixa)
+    static final int LIMITE_PADRAO_BUSCA_TERMO = 10;
+    static final int LIMITE_MAXIMO_BUSCA_TERMO = 50;
+
     private final ClienteRepository clienteRepository;
     private final ClienteMapper clienteMapper;
+    private final ClienteBuscaIndex clienteBuscaIndex;
 
     @Override
     @Transactional
@@ -38,6 +56,7 @@ public class ClienteServiceImpl implements ClienteService {
         cliente.setAtivo(true);
 
         Cliente clienteSalvo = clienteRepository.save(cliente);
+        clienteBuscaIndex.atualizar(clienteMapper.toBuscaDTO(clienteSalvo));
         return clienteMapper.toResponseDTO(clienteSalvo);
     }
 
@@ -54,6 +73,7 @@ public class ClienteServiceImpl implements ClienteService {
         clienteExistente.setEndereco(clienteDTO.endereco());
 
         Cliente clienteAtualizado = clienteRepository.save(clienteExistente);
+        clienteBuscaIndex.atualizar(clienteMapper.toBuscaDTO(clienteAtualizado));
         return clienteMapper.toResponseDTO(clienteAtualizado);
     }
 
@@ -64,6 +84,7 @@ public class ClienteServiceImpl implements ClienteService {
         clienteMapper.applyPatchToEntity(clienteDTO, clienteExistente);
         validarCpf(clienteExistente.getCpf(), id);
         Cliente clienteAtualizado = clienteRepository.save(clienteExistente);
+        clienteBuscaIndex.atualizar(clienteMapper.toBuscaDTO(clienteAtualizado));
         return clienteMapper.toResponseDTO(clienteAtualizado);
     }
 
@@ -102,6 +123,78 @@ public class ClienteServiceImpl implements ClienteService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ClienteResponseDTO> buscarMaisSemelhantesPorNome(String nome, Integer limite) {
+        String termo = nome == null ? "" : ClienteSpecification.normalizarNome(nome);
+        if (termo.length() < TAMANHO_MINIMO_BUSCA_SEMELHANTE) {
+            throw new BusinessException("Informe ao menos " + TAMANHO_MINIMO_BUSCA_SEMELHANTE + " caracteres para buscar por nome.");
+        }
+        int quantidade = limite == null ? LIMITE_PADRAO_BUSCA_SEMELHANTE
+                : Math.min(Math.max(limite, 1), LIMITE_MAXIMO_BUSCA_SEMELHANTE);
+        return maisSemelhantesPorNome(termo, quantidade).stream()
+                .map(clienteMapper::toResponseDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Do mais barato ao mais caro, cada etapa só completa o que faltou: nomes que começam pelo termo
+    // (a recepção digita o nome do início), depois que o contêm em outra posição e, por fim, parecidos
+    private List<Cliente> maisSemelhantesPorNome(String termo, int quantidade) {
+        int candidatos = quantidade * CANDIDATOS_POR_RESULTADO;
+        String fim = ClienteSpecification.fimDoPrefixo(termo);
+        String padrao = ClienteSpecification.padraoPalavrasEmSequencia(termo);
+
+        List<Cliente> clientes = new ArrayList<>(clienteRepository.findPorInicioDoNome(termo, fim, quantidade));
+        if (clientes.size() < quantidade) {
+            clientes.addAll(clienteRepository.findComPalavrasNoNome(termo, padrao, termo, fim, candidatos, quantidade - clientes.size()));
+        }
+        if (clientes.size() < quantidade) {
+            clientes.addAll(clienteRepository.findComNomeParecido(termo, padrao, candidatos, quantidade - clientes.size()));
+        }
+        return clientes;
+    }
+
+    // Sem transação: pelo índice em memória a busca não toca o banco
+    @Override
+    public List<ClienteBuscaDTO> buscarPorTermo(String termo, Integer limite) {
+        String texto = termo == null ? "" : termo;
+        int quantidade = limite == null ? LIMITE_PADRAO_BUSCA_TERMO
+                : Math.min(Math.max(limite, 1), LIMITE_MAXIMO_BUSCA_TERMO);
+        return clienteBuscaIndex.buscar(texto, quantidade)
+                .orElseGet(() -> buscarPorTermoNoBanco(texto, quantidade));
+    }
+
+    // Índice em memória inativo: nome pela busca ranqueada; dígitos pelo CPF exato e pelo início ou fim do telefone
+    private List<ClienteBuscaDTO> buscarPorTermoNoBanco(String termo, int quantidade) {
+        String digitos = ClienteBuscaIndex.digitosDaBusca(termo);
+        List<ClienteBuscaDTO> resumos = new ArrayList<>();
+        if (digitos == null) {
+            String nome = ClienteSpecification.normalizarNome(termo);
+            if (nome.length() >= TAMANHO_MINIMO_BUSCA_SEMELHANTE) {
+                maisSemelhantesPorNome(nome, quantidade).forEach(c -> resumos.add(new ClienteBuscaDTO(c.getId(), c.getNome(), c.getCpf())));
+            }
+        } else if (digitos.length() >= ClienteBuscaIndex.TAMANHO_MINIMO_TERMO) {
+            clienteRepository.findByCpf(digitos).ifPresent(c -> resumos.add(new ClienteBuscaDTO(c.getId(), c.getNome(), c.getCpf())));
+            String invertidos = ClienteSpecification.inverter(digitos);
+            clienteRepository.findResumosComTelefone(digitos, ClienteSpecification.fimDoPrefixo(digitos),
+                            invertidos, ClienteSpecification.fimDoPrefixo(invertidos), quantidade).stream()
+                    .filter(resumo -> resumos.stream().noneMatch(r -> r.id().equals(resumo.id())))
+                    .limit(quantidade - resumos.size())
+                    .forEach(resumos::add);
+        }
+        if (resumos.isEmpty()) {
+            return List.of();
+        }
+        // Telefones numa consulta só, sem carregar a coleção de cada cliente fora de transação
+        Map<UUID, List<String>> telefones = clienteRepository.findTelefonesParaBusca(resumos.stream().map(ClienteBuscaDTO::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(ClienteTelefoneDTO::clienteId,
+                        Collectors.mapping(t -> ClienteMapper.digitosTelefone(t.ddd(), t.numero()), Collectors.toList())));
+        return resumos.stream()
+                .map(r -> new ClienteBuscaDTO(r.id(), r.nome(), r.cpf(), telefones.getOrDefault(r.id(), List.of())))
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ClienteResponseDTO> listarTodos() {
@@ -110,11 +203,60 @@ public class ClienteServiceImpl implements ClienteService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteResponseDTO> listarTodos(Pageable pageable) {
+        return ConsultaPaginada.pagina(clienteRepository, ConsultaPaginada.todos(), pageable).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ClienteResponseDTO> listarTodos(UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(clienteRepository, ConsultaPaginada.todos(), apos, tamanho).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteResponseDTO> buscarPorNomeSemelhante(String nome, Pageable pageable) {
+        return ConsultaPaginada.pagina(clienteRepository, ClienteSpecification.porNomeSemelhante(nome), pageable).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ClienteResponseDTO> buscarPorNomeSemelhante(String nome, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(clienteRepository, ClienteSpecification.porNomeSemelhante(nome), apos, tamanho).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteResponseDTO> buscarPorEmail(String email, Pageable pageable) {
+        return ConsultaPaginada.pagina(clienteRepository, ClienteSpecification.porEmailContendo(email), pageable).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ClienteResponseDTO> buscarPorEmail(String email, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(clienteRepository, ClienteSpecification.porEmailContendo(email), apos, tamanho).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ClienteResponseDTO> buscarPorTelefone(String telefone, Pageable pageable) {
+        return ConsultaPaginada.pagina(clienteRepository, ClienteSpecification.porTelefone(telefone), pageable).map(clienteMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<ClienteResponseDTO> buscarPorTelefone(String telefone, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(clienteRepository, ClienteSpecification.porTelefone(telefone), apos, tamanho).map(clienteMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional
     public void desativar(UUID id) {
         Cliente cliente = findClienteById(id);
         clienteRepository.delete(cliente);
+        clienteBuscaIndex.remover(id);
     }
 
     @Override
@@ -127,7 +269,13 @@ public class ClienteServiceImpl implements ClienteService {
 
     @Override
     public List<ClienteResponseDTO> buscarPorTelefone(String telefone, Integer page, Integer size) {
-        return clienteRepository.searchByTelefoneContaining(telefone)
+        String digitos = ClienteSpecification.digitosTelefone(telefone);
+        if (digitos.isEmpty()) {
+            return List.of();
+        }
+        String invertidos = ClienteSpecification.inverter(digitos);
+        return clienteRepository.findComTelefone(digitos, ClienteSpecification.fimDoPrefixo(digitos),
+                        invertidos, ClienteSpecification.fimDoPrefixo(invertidos))
                 .stream()
                 .map(clienteMapper::toResponseDTO)
                 .toList();
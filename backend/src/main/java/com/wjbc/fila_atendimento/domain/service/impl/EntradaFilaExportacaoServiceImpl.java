@@ -0,0 +1,196 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.enumeration.FormatoExportacao;
+import com.wjbc.fila_atendimento.domain.exception.BusinessException;
+import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.exportacao.ColunaExportacao;
+import com.wjbc.fila_atendimento.domain.exportacao.ColunaExportacao.Tipo;
+import com.wjbc.fila_atendimento.domain.exportacao.ColunarExportacaoWriter;
+import com.wjbc.fila_atendimento.domain.exportacao.CsvExportacaoWriter;
+import com.wjbc.fila_atendimento.domain.exportacao.ExportacaoWriter;
+import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaExportacaoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Exporta o histórico de {@code entrada_fila} sem montar a lista em memória: a consulta é lida por
+ * cursor no servidor (somente para frente, {@code entrada-fila.exportacao.fetch-size} linhas por
+ * vez, dentro de uma transação somente leitura, que o driver do PostgreSQL exige para usar o
+ * cursor) e cada linha vai direto para o writer do formato. Meses do período já arquivados
+ * ({@code fila_atendimento_arquivo}) entram na mesma consulta; o lock compartilhado da manutenção
+ * das partições impede que um mês seja arquivado entre a listagem e a leitura. Entradas arquivadas
+ * de filas já removidas não têm mais unidade e ficam de fora.
+ */
+@Slf4j
+@Service
+public class EntradaFilaExportacaoServiceImpl implements EntradaFilaExportacaoService {
+
+    static final List<ColunaExportacao> COLUNAS = List.of(
+            new ColunaExportacao("id", Tipo.UUID),
+            new ColunaExportacao("fila_id", Tipo.UUID),
+            new ColunaExportacao("fila_nome", Tipo.TEXTO),
+            new ColunaExportacao("setor_nome", Tipo.TEXTO),
+            new ColunaExportacao("cliente_id", Tipo.UUID),
+            new ColunaExportacao("status", Tipo.TEXTO),
+            new ColunaExportacao("prioridade", Tipo.BOOLEANO),
+            new ColunaExportacao("retorno", Tipo.BOOLEANO),
+            new ColunaExportacao("data_hora_entrada", Tipo.DATA_HORA),
+            new ColunaExportacao("data_hora_chamada", Tipo.DATA_HORA),
+            new ColunaExportacao("data_hora_saida", Tipo.DATA_HORA),
+            new ColunaExportacao("usuario_responsavel_id", Tipo.UUID),
+            new ColunaExportacao("guiche_ou_sala_atendimento", Tipo.TEXTO),
+            new ColunaExportacao("motivo_cancelamento", Tipo.TEXTO));
+
+    private static final String TABELA = EntradaFilaParticionamentoServiceImpl.TABELA;
+    private static final Pattern NOME_ARQUIVADA = Pattern.compile("entrada_fila_(\\d{4})_(\\d{2})");
+    private static final String COLUNAS_ENTRADA = "id, fila_id, cliente_id, status, prioridade, retorno, " +
+            "data_hora_entrada, data_hora_chamada, data_hora_saida, usuario_responsavel_id, " +
+            "guiche_ou_sala_atendimento, motivo_cancelamento";
+
+    // Em ordem de entrada, que é a chave das partições: o plano percorre o índice partição a partição, sem ordenar
+    private static final String SQL = "SELECT ef.id, ef.fila_id, f.nome, s.nome, ef.cliente_id, ef.status, " +
+            "ef.prioridade, ef.retorno, ef.data_hora_entrada, ef.data_hora_chamada, ef.data_hora_saida, " +
+            "ef.usuario_responsavel_id, ef.guiche_ou_sala_atendimento, ef.motivo_cancelamento " +
+            "FROM %s ef " +
+            "JOIN fila_atendimento.fila f ON ef.fila_id = f.id " +
+            "LEFT JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "WHERE f.unidade_atendimento_id = ? AND ef.data_hora_entrada >= ? AND ef.data_hora_entrada <= ? " +
+            "ORDER BY ef.data_hora_entrada, ef.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+
+    @Value("${entrada-fila.exportacao.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${entrada-fila.exportacao.linhas-por-grupo:8192}")
+    private int linhasPorGrupo = 8192;
+
+    public EntradaFilaExportacaoServiceImpl(JdbcTemplate jdbcTemplate,
+                                            PlatformTransactionManager transactionManager,
+                                            UnidadeAtendimentoRepository unidadeAtendimentoRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.unidadeAtendimentoRepository = unidadeAtendimentoRepository;
+    }
+
+    @Override
+    public long exportar(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim, FormatoExportacao formato,
+                         DestinoExportacao destino) throws IOException {
+        if (inicio.isAfter(fim)) {
+            throw new BusinessException("O início do período deve ser anterior ao fim.");
+        }
+        if (!unidadeAtendimentoRepository.existsById(unidadeId)) {
+            throw new ResourceNotFoundException("Unidade de atendimento não encontrada com o ID: " + unidadeId);
+        }
+        long inicioNanos = System.nanoTime();
+        try (OutputStream saida = new BufferedOutputStream(destino.abrir(), 64 * 1024)) {
+            ExportacaoWriter writer = formato == FormatoExportacao.COLUNAR
+                    ? new ColunarExportacaoWriter(COLUNAS, saida, linhasPorGrupo)
+                    : new CsvExportacaoWriter(COLUNAS, saida);
+            long linhas = gravarLinhas(unidadeId, inicio, fim, writer);
+            writer.concluir();
+            log.info("Exportação {} da unidade {} ({} – {}): {} linha(s) em {} ms", formato, unidadeId, inicio, fim,
+                    linhas, (System.nanoTime() - inicioNanos) / 1_000_000);
+            return linhas;
+        }
+    }
+
+    private long gravarLinhas(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim, ExportacaoWriter writer) throws IOException {
+        long[] linhas = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(consulta(inicio, fim), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, unidadeId);
+                ps.setTimestamp(2, Timestamp.valueOf(inicio));
+                ps.setTimestamp(3, Timestamp.valueOf(fim));
+                return ps;
+            }, rs -> {
+                try {
+                    writer.escrever(linha(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                linhas[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Cliente desconectado ou falha de escrita: interrompe a leitura e libera a conexão
+            throw e.getCause();
+        }
+        return linhas[0];
+    }
+
+    // Tabela viva mais os meses arquivados que cruzam o período, na transação da leitura
+    private String consulta(LocalDateTime inicio, LocalDateTime fim) {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock_shared(?)", Object.class,
+                EntradaFilaParticionamentoServiceImpl.CHAVE_LOCK);
+        List<String> arquivadas = jdbcTemplate.queryForList("SELECT c.relname FROM pg_class c " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = ? AND c.relkind = 'r' ORDER BY c.relname", String.class,
+                EntradaFilaParticionamentoServiceImpl.SCHEMA_ARQUIVO);
+        YearMonth de = YearMonth.from(inicio);
+        YearMonth ate = YearMonth.from(fim);
+        StringBuilder origem = new StringBuilder();
+        for (String nome : arquivadas) {
+            Matcher m = NOME_ARQUIVADA.matcher(nome);
+            if (!m.matches()) {
+                continue;
+            }
+            YearMonth mes = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (!mes.isBefore(de) && !mes.isAfter(ate)) {
+                origem.append(" UNION ALL SELECT ").append(COLUNAS_ENTRADA).append(" FROM ")
+                        .append(EntradaFilaParticionamentoServiceImpl.SCHEMA_ARQUIVO).append('.').append(nome);
+            }
+        }
+        if (origem.isEmpty()) {
+            return SQL.formatted(TABELA);
+        }
+        return SQL.formatted("(SELECT " + COLUNAS_ENTRADA + " FROM " + TABELA + origem + ")");
+    }
+
+    private static Object[] linha(ResultSet rs) throws SQLException {
+        return new Object[]{
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, UUID.class),
+                rs.getString(6),
+                rs.getBoolean(7),
+                rs.getBoolean(8),
+                dataHora(rs.getTimestamp(9)),
+                dataHora(rs.getTimestamp(10)),
+                dataHora(rs.getTimestamp(11)),
+                rs.getObject(12, UUID.class),
+                rs.getString(13),
+                rs.getString(14)
+        };
+    }
+
+    private static LocalDateTime dataHora(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
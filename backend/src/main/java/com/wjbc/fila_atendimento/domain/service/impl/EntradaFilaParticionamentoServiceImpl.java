@@ -0,0 +1,201 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaParticionamentoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantém as partições mensais de {@code entrada_fila} (V022). Os meses seguintes são criados com
+ * antecedência; linhas que já tenham caído na partição padrão são movidas para o mês criado.
+ * Meses além da retenção são arquivados: desanexados da tabela, desligados das chaves estrangeiras
+ * e movidos para o schema {@code fila_atendimento_arquivo} (e, se configurado, para outro tablespace),
+ * saindo das consultas da fila e do dashboard. Um mês com entradas ainda em andamento não é arquivado.
+ * Sem o particionamento (H2 nos testes) o bean não é criado.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "entrada-fila.particionamento.habilitado", havingValue = "true", matchIfMissing = true)
+public class EntradaFilaParticionamentoServiceImpl implements EntradaFilaParticionamentoService {
+
+    static final String TABELA = "fila_atendimento.entrada_fila";
+    static final String PARTICAO_PADRAO = "fila_atendimento.entrada_fila_padrao";
+    static final String SCHEMA_ARQUIVO = "fila_atendimento_arquivo";
+
+    private static final DateTimeFormatter SUFIXO = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern NOME_PARTICAO = Pattern.compile("entrada_fila_(\\d{4})_(\\d{2})");
+    private static final Pattern IDENTIFICADOR = Pattern.compile("[a-z_][a-z0-9_]*");
+    // Serializa a manutenção entre instâncias (e, compartilhado, com a exportação do histórico)
+    static final long CHAVE_LOCK = 0x656e7472616461L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${entrada-fila.particionamento.meses-a-frente:3}")
+    private int mesesAFrente = 3;
+
+    // ATTACH/DETACH bloqueiam a tabela: desiste (e tenta na próxima execução) em vez de enfileirar as operações da fila
+    @Value("${entrada-fila.particionamento.lock-timeout-ms:5000}")
+    private long lockTimeoutMs = 5000;
+
+    @Value("${entrada-fila.arquivamento.habilitado:true}")
+    private boolean arquivamentoHabilitado = true;
+
+    @Value("${entrada-fila.arquivamento.retencao-meses:24}")
+    private int retencaoMeses = 24;
+
+    @Value("${entrada-fila.arquivamento.tablespace:}")
+    private String tablespaceArquivo = "";
+
+    public EntradaFilaParticionamentoServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${entrada-fila.particionamento.cron:0 30 2 * * *}")
+    public void manterParticoes() {
+        YearMonth atual = YearMonth.now();
+        criarParticoes(atual, atual.plusMonths(mesesAFrente));
+        if (arquivamentoHabilitado) {
+            arquivarParticoes(atual.minusMonths(retencaoMeses));
+        }
+    }
+
+    @Override
+    public List<String> criarParticoes(YearMonth de, YearMonth ate) {
+        NavigableSet<YearMonth> existentes = particoes();
+        List<String> criadas = new ArrayList<>();
+        for (YearMonth mes = de; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            if (existentes.contains(mes)) {
+                continue;
+            }
+            YearMonth alvo = mes;
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> criar(alvo)))) {
+                    criadas.add(nome(alvo));
+                }
+            } catch (DataAccessException e) {
+                log.error("Falha ao criar a partição {} de entrada_fila", nome(alvo), e);
+            }
+        }
+        return criadas;
+    }
+
+    private boolean criar(YearMonth mes) {
+        bloquear();
+        String particao = "fila_atendimento." + nome(mes);
+        if (existe(particao)) {
+            return false; // criada por outra instância
+        }
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.plusMonths(1).atDay(1);
+        // Criada fora da tabela para receber antes as linhas do mês que estejam na partição padrão:
+        // o ATTACH recusa o intervalo enquanto a padrão tiver linhas dele
+        jdbcTemplate.execute("CREATE TABLE " + particao + " (LIKE " + TABELA + " INCLUDING DEFAULTS)");
+        int movidas = jdbcTemplate.update("WITH movidas AS (DELETE FROM " + PARTICAO_PADRAO +
+                " WHERE data_hora_entrada >= ? AND data_hora_entrada < ? RETURNING *) " +
+                "INSERT INTO " + particao + " SELECT * FROM movidas", inicio.atStartOfDay(), fim.atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ATTACH PARTITION " + particao +
+                " FOR VALUES FROM ('" + inicio + "') TO ('" + fim + "')");
+        log.info("Partição {} de entrada_fila criada ({} linha(s) movidas da partição padrão)", particao, movidas);
+        return true;
+    }
+
+    @Override
+    public List<String> arquivarParticoes(YearMonth anteriorA) {
+        List<String> arquivadas = new ArrayList<>();
+        for (YearMonth mes : particoes().headSet(anteriorA, false)) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> arquivar(mes)))) {
+                    arquivadas.add(nome(mes));
+                }
+            } catch (DataAccessException e) {
+                log.error("Falha ao arquivar a partição {} de entrada_fila", nome(mes), e);
+            }
+        }
+        return arquivadas;
+    }
+
+    private boolean arquivar(YearMonth mes) {
+        bloquear();
+        String particao = "fila_atendimento." + nome(mes);
+        if (!existe(particao)) {
+            return false;
+        }
+        Boolean emAndamento = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + particao +
+                " WHERE status IN ('AGUARDANDO', 'CHAMADO'))", Boolean.class);
+        if (Boolean.TRUE.equals(emAndamento)) {
+            log.warn("Partição {} de entrada_fila não arquivada: há entradas aguardando ou chamadas", particao);
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + particao);
+        // Histórico arquivado não impede remover filas, clientes ou usuários
+        List<String> chaves = jdbcTemplate.queryForList("SELECT conname FROM pg_constraint " +
+                "WHERE conrelid = CAST(? AS regclass) AND contype = 'f'", String.class, particao);
+        for (String chave : chaves) {
+            jdbcTemplate.execute("ALTER TABLE " + particao + " DROP CONSTRAINT " + chave);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + particao + " SET SCHEMA " + SCHEMA_ARQUIVO);
+        if (!tablespaceArquivo.isBlank()) {
+            jdbcTemplate.execute("ALTER TABLE " + SCHEMA_ARQUIVO + "." + nome(mes) +
+                    " SET TABLESPACE " + identificador(tablespaceArquivo));
+        }
+        log.info("Partição {} de entrada_fila arquivada em {}", particao, SCHEMA_ARQUIVO);
+        return true;
+    }
+
+    // Meses com partição anexada à tabela (a partição padrão não entra)
+    private NavigableSet<YearMonth> particoes() {
+        NavigableSet<YearMonth> particoes = new TreeSet<>();
+        List<String> nomes = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = CAST(? AS regclass)", String.class, TABELA);
+        for (String nome : nomes) {
+            Matcher m = NOME_PARTICAO.matcher(nome);
+            if (m.matches()) {
+                particoes.add(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+            }
+        }
+        return particoes;
+    }
+
+    private void bloquear() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, CHAVE_LOCK);
+    }
+
+    private boolean existe(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, tabela);
+    }
+
+    private String nome(YearMonth mes) {
+        return "entrada_fila_" + mes.format(SUFIXO);
+    }
+
+    private static String identificador(String nome) {
+        if (!IDENTIFICADOR.matcher(nome).matches()) {
+            throw new IllegalStateException("Tablespace de arquivamento inválido: " + nome);
+        }
+        return nome;
+    }
+}
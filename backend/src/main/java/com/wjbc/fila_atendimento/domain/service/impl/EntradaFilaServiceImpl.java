@@ -1,25 +1,48 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.ChamadasRecentesCache;
+import com.wjbc.fila_atendimento.domain.cache.FilaPrioridadeIndex;
+import com.wjbc.fila_atendimento.domain.cache.PainelProfissionalDeltaTracker;
+import com.wjbc.fila_atendimento.domain.cache.RitmoAtendimentoTracker;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardAoVivoService;
 import com.wjbc.fila_atendimento.domain.dto.ChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
 import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteradaEvent;
+import com.wjbc.fila_atendimento.domain.evento.FilaEventoBus;
 import com.wjbc.fila_atendimento.domain.exception.BusinessException;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.EntradaFilaMapper;
 import com.wjbc.fila_atendimento.domain.model.*;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
-import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.EntradaFilaSpecification;
 import com.wjbc.fila_atendimento.domain.service.*;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -29,12 +52,19 @@ import java.util.stream.Collectors;
 public class EntradaFilaServiceImpl implements EntradaFilaService {
 
     private final EntradaFilaRepository entradaFilaRepository;
-    private final PainelRepository painelRepository;
     private final EntradaFilaMapper entradaFilaMapper;
     private final ClienteService clienteService;
     private final FilaService filaService;
+    private final SetorService setorService;
     private final UsuarioService usuarioService;
-    private final FilaBroadcastService filaBroadcastService;
+    private final FilaPrioridadeIndex filaPrioridadeIndex;
+    private final PainelProfissionalDeltaTracker painelProfissionalDeltaTracker;
+    private final ChamadasRecentesCache chamadasRecentes;
+    private final ChamadaPainelService chamadaPainelService;
+    private final FilaEventoBus filaEventoBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardAoVivoService dashboardAoVivo;
+    private final RitmoAtendimentoTracker ritmoAtendimento;
 
     @Value("${painel.publico.tempo-exibicao-segundos:15}")
     private int painelTempoExibicaoSegundos;
@@ -45,25 +75,22 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
     @Value("${painel.publico.intervalo-repeticao-segundos:5}")
     private int painelIntervaloSegundos;
 
-    private ChamadaDTO getChamadaAtual(Fila fila) {
-        return entradaFilaRepository.findFirstByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO)
-            .map(e -> new ChamadaDTO(e.getCliente().getNome(), e.getGuicheOuSalaAtendimento(), e.getDataHoraChamada()))
-            .orElse(null);
-    }
-
-    private List<ChamadaDTO> getUltimasChamadas(Fila fila) {
-        return entradaFilaRepository.findTop3ByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO)
-            .stream()
-            .map(e -> new ChamadaDTO(e.getCliente().getNome(), e.getGuicheOuSalaAtendimento(), e.getDataHoraChamada()))
-            .collect(Collectors.toList());
-    }
+    @Value("${websocket.broker.modo:simples}")
+    private String modoBroker;
 
+    // Lista de espera do setor inteiro numa consulta; as estimativas são calculadas fila a fila, na ordem que ela traz
     private List<EntradaFilaResponseDTO> getFilaAtual(UUID setorId) {
-        List<Fila> filas = filaService.findBySetorId(setorId);
-        return filas.stream()
-            .flatMap(fila -> entradaFilaRepository.findByFilaAndStatusOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO).stream())
-            .map(entradaFilaMapper::toResponseDTO)
-            .collect(Collectors.toList());
+        List<EntradaFila> aguardando = entradaFilaRepository.findAguardandoComDetalhesBySetorId(setorId);
+        if (aguardando.isEmpty()) {
+            // Sem ninguém aguardando, o setor inexistente ainda responde como antes
+            setorService.findSetorById(setorId);
+            return new ArrayList<>();
+        }
+        Map<Fila, List<EntradaFila>> porFila = aguardando.stream()
+                .collect(Collectors.groupingBy(EntradaFila::getFila, LinkedHashMap::new, Collectors.toList()));
+        List<EntradaFilaResponseDTO> filaAtual = new ArrayList<>(aguardando.size());
+        porFila.forEach((fila, entradas) -> filaAtual.addAll(comEstimativas(fila, entradas)));
+        return filaAtual;
     }
 
     @Override
@@ -85,11 +112,15 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
         novaEntrada.setDataHoraEntrada(LocalDateTime.now());
 
         EntradaFila entradaSalva = entradaFilaRepository.save(novaEntrada);
+        // Só entra no índice após o commit, para não ser chamada antes de visível no banco
+        AposCommit.executar(() -> filaPrioridadeIndex.adicionar(entradaSalva));
+        filaEventoBus.publicar(TipoEventoFila.ENTRADA, entradaSalva);
+        dashboardAoVivo.registrarEntrada(entradaSalva);
 
-        // Notifica SOMENTE o painel profissional sobre a atualização na fila
-        notificarSomentePainelProfissional(fila);
+        // Atualiza SOMENTE o painel profissional (após o commit)
+        publicarAlteracao(fila, TipoEventoFila.ENTRADA);
 
-        return entradaFilaMapper.toResponseDTO(findEntradaFilaById(entradaSalva.getId()));
+        return comEstimativaPeloIndice(fila, findEntradaFilaById(entradaSalva.getId()));
     }
 
     @Override
@@ -98,7 +129,9 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
         Fila fila = filaService.findFilaById(filaId);
         Usuario usuario = usuarioService.findUsuarioById(usuarioId);
 
-        Optional<EntradaFila> proximo = encontrarProximoCliente(fila);
+        Optional<EntradaFila> proximo = filaPrioridadeIndex.isAtivo()
+                ? encontrarProximoClienteIndexado(fila)
+                : encontrarProximoCliente(fila);
 
         EntradaFila entradaASerChamada = proximo.orElseThrow(() -> new ResourceNotFoundException("Nenhum cliente aguardando nesta fila."));
 
@@ -108,9 +141,13 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
         entradaASerChamada.setGuicheOuSalaAtendimento(guiche);
 
         EntradaFila entradaSalva = entradaFilaRepository.save(entradaASerChamada);
+        registrarChamada(fila, entradaASerChamada);
+        filaEventoBus.publicar(TipoEventoFila.CHAMADA, entradaSalva);
+        dashboardAoVivo.registrarChamada(entradaSalva);
+        ritmoAtendimento.registrarChamada(entradaSalva);
 
-        // Notifica painéis sobre a nova chamada (painel público e profissional)
-        notificarPaineis(fila, true);
+        // Painel público e profissional são atualizados após o commit, fora desta requisição
+        publicarAlteracao(fila, TipoEventoFila.CHAMADA);
 
         return entradaFilaMapper.toResponseDTO(entradaSalva);
     }
@@ -126,9 +163,11 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
         entrada.setDataHoraSaida(LocalDateTime.now());
 
         EntradaFila entradaSalva = entradaFilaRepository.save(entrada);
+        filaEventoBus.publicar(TipoEventoFila.FINALIZACAO, entradaSalva);
+        ritmoAtendimento.registrarFinalizacao(entradaSalva);
 
-        // Notifica SOMENTE o painel profissional que a fila foi atualizada
-        notificarSomentePainelProfissional(entrada.getFila());
+        // Atualiza SOMENTE o painel profissional (após o commit)
+        publicarAlteracao(entrada.getFila(), TipoEventoFila.FINALIZACAO);
 
         return entradaFilaMapper.toResponseDTO(entradaSalva);
     }
@@ -150,8 +189,11 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
             entrada.setMotivoCancelamento(cancelamentoDTO.motivoCancelamento());
         }
         EntradaFila entradaCancelada = entradaFilaRepository.save(entrada);
-        // Notifica SOMENTE o painel profissional para remover o item cancelado da visualização
-        notificarSomentePainelProfissional(entrada.getFila());
+        AposCommit.executar(() -> filaPrioridadeIndex.remover(entradaCancelada));
+        filaEventoBus.publicar(TipoEventoFila.CANCELAMENTO, entradaCancelada);
+        dashboardAoVivo.registrarCancelamento(entradaCancelada);
+        // Atualiza SOMENTE o painel profissional para remover o item cancelado da visualização
+        publicarAlteracao(entrada.getFila(), TipoEventoFila.CANCELAMENTO);
         return entradaFilaMapper.toResponseDTO(entradaCancelada);
     }
 
@@ -172,10 +214,92 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
     @Transactional(readOnly = true)
     public List<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId) {
         Fila fila = filaService.findFilaById(filaId);
-        return entradaFilaRepository.findByFilaAndStatusOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO)
-                .stream()
-                .map(entradaFilaMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        return comEstimativas(fila, entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId, Pageable pageable) {
+        Fila fila = filaService.findFilaById(filaId);
+        return ConsultaPaginada.pagina(entradaFilaRepository, EntradaFilaSpecification.aguardandoNaFila(fila), pageable,
+                        EntradaFilaSpecification.ORDEM_DE_ESPERA, EntradaFilaSpecification.DETALHES_DA_RESPOSTA)
+                .map(entrada -> comEstimativaPeloIndice(fila, entrada));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<EntradaFilaResponseDTO> listarAguardandoPorFila(UUID filaId, UUID apos, int tamanho) {
+        Fila fila = filaService.findFilaById(filaId);
+        Map<String, Object> cursor = null;
+        if (apos != null) {
+            // Chaves da ordem de espera na última entrada recebida, mesmo que ela já tenha sido chamada
+            EntradaFila ultima = findEntradaFilaById(apos);
+            cursor = Map.of("prioridade", ultima.getPrioridade(), "dataHoraEntrada", ultima.getDataHoraEntrada(), "id", ultima.getId());
+        }
+        return ConsultaPaginada.apos(entradaFilaRepository, EntradaFilaSpecification.aguardandoNaFila(fila),
+                        EntradaFilaSpecification.ORDEM_DE_ESPERA, cursor, tamanho)
+                .map(entrada -> comEstimativaPeloIndice(fila, entrada));
+    }
+
+    /**
+     * Alteração feita por outra instância: mantém o índice de prioridade local em dia e, quando
+     * o broker é o simples (em memória), repassa a atualização aos clientes conectados aqui.
+     * Com o relay, a instância de origem já publicou no broker compartilhado.
+     */
+    @EventListener
+    public void aoAlterarFilaEmOutraInstancia(FilaAlteracaoEvento evento) {
+        if (evento.tipo() == TipoEventoFila.ENTRADA) {
+            filaPrioridadeIndex.adicionar(new EntradaFilaPrioridadeDTO(
+                    evento.entradaFilaId(), evento.filaId(), evento.prioridade(), evento.retorno(), evento.dataHoraEntrada()));
+        } else {
+            filaPrioridadeIndex.remover(evento.filaId(), evento.entradaFilaId());
+        }
+        if (evento.tipo() == TipoEventoFila.CHAMADA) {
+            // Os dados da chamada não vêm no evento: a fila é recarregada na próxima leitura
+            chamadasRecentes.invalidar(evento.filaId());
+        }
+        if ("simples".equalsIgnoreCase(modoBroker)) {
+            eventPublisher.publishEvent(new FilaAlteradaEvent(evento.filaId(), evento.setorId(), evento.tipo()));
+        }
+    }
+
+    // Lido das últimas chamadas em memória: sem transação, não ocupa conexão com o banco
+    @Override
+    public PainelPublicoDTO getPainelPublico(UUID filaId) {
+        List<ChamadaDTO> ultimasChamadas = chamadasRecentes.ultimas(filaId);
+        ChamadaDTO chamadaAtual = ultimasChamadas.isEmpty() ? null : ultimasChamadas.get(0);
+
+        String mensagemVocalizacao = "";
+        if (chamadaAtual != null && chamadaAtual.nomePaciente() != null && !chamadaAtual.nomePaciente().isBlank()
+                && chamadaAtual.guicheOuSala() != null && !chamadaAtual.guicheOuSala().isBlank()) {
+            mensagemVocalizacao = chamadaAtual.nomePaciente() + ", compareça a " + chamadaAtual.guicheOuSala() + "!";
+        }
+        boolean habilitarSom = !mensagemVocalizacao.isBlank();
+
+        return new PainelPublicoDTO(
+                filaId,
+                chamadaAtual,
+                ultimasChamadas,
+                mensagemVocalizacao,
+                painelTempoExibicaoSegundos,
+                painelRepeticoes,
+                painelIntervaloSegundos,
+                habilitarSom
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PainelProfissionalDTO getPainelProfissional(UUID setorId) {
+        return new PainelProfissionalDTO(setorId, getFilaAtual(setorId));
+    }
+
+    // O snapshot vem do mesmo estado base dos deltas, para que o cliente possa aplicá-los em seguida
+    @Override
+    @Transactional(readOnly = true)
+    public FilaSnapshotDTO getSnapshotPainelProfissional(UUID setorId) {
+        return painelProfissionalDeltaTracker.snapshot(setorId)
+                .orElseGet(() -> painelProfissionalDeltaTracker.inicializar(setorId, getFilaAtual(setorId)));
     }
 
     // ===================================================================
@@ -187,70 +311,111 @@ public class EntradaFilaServiceImpl implements EntradaFilaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Entrada na fila não encontrada com o ID: " + id));
     }
 
+    private boolean atendeRetornoPrimeiro(Fila fila) {
+        return "Atendimento Médico".equalsIgnoreCase(fila.getNome());
+    }
+
+    // A linha retornada fica bloqueada até o commit: outro guichê chamando ao mesmo tempo recebe o seguinte
     private Optional<EntradaFila> encontrarProximoCliente(Fila fila) {
-        if ("Atendimento Médico".equalsIgnoreCase(fila.getNome())) {
-            Optional<EntradaFila> retorno = entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(
-                    fila, StatusFila.AGUARDANDO, true);
+        if (atendeRetornoPrimeiro(fila)) {
+            Optional<EntradaFila> retorno = entradaFilaRepository.reservarProximoAguardando(fila.getId(), true);
             if (retorno.isPresent()) {
                 return retorno;
             }
         }
-        return entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(
-                fila, StatusFila.AGUARDANDO, false);
+        return entradaFilaRepository.reservarProximoAguardando(fila.getId(), false);
     }
 
-    private void notificarPaineis(Fila fila, boolean isNovaChamada) {
-        if (fila == null) {
-            return;
-        }
-        // 1. Notificar os painéis públicos associados a esta fila APENAS quando houver nova chamada
-        if (isNovaChamada) {
-            List<Painel> paineisAfetados = painelRepository.findPaineisByFilaId(fila.getId());
-
-            for (Painel painel : paineisAfetados) {
-                ChamadaDTO chamadaAtual = getChamadaAtual(fila);
-                List<ChamadaDTO> ultimasChamadas = getUltimasChamadas(fila);
-
-                String mensagemVocalizacao = "";
-                if (chamadaAtual != null && chamadaAtual.nomePaciente() != null && !chamadaAtual.nomePaciente().isBlank()
-                        && chamadaAtual.guicheOuSala() != null && !chamadaAtual.guicheOuSala().isBlank()) {
-                    mensagemVocalizacao = chamadaAtual.nomePaciente() + ", compareça a " + chamadaAtual.guicheOuSala() + "!";
-                }
-                boolean habilitarSom = !mensagemVocalizacao.isBlank();
-
-                PainelPublicoDTO painelPublicoPayload = new PainelPublicoDTO(
-                        fila.getId(),
-                        chamadaAtual,
-                        ultimasChamadas,
-                        mensagemVocalizacao,
-                        painelTempoExibicaoSegundos,
-                        painelRepeticoes,
-                        painelIntervaloSegundos,
-                        habilitarSom
-                );
-
-                filaBroadcastService.broadcastPainelPublicoUpdate(painel.getId(), painelPublicoPayload);
+    // Mesma regra de encontrarProximoCliente, mas escolhendo pelo índice em memória. Entradas que já não estão
+    // AGUARDANDO no banco são descartadas; as que outra transação reservou voltam ao índice (a reserva pode ser
+    // revertida). Sem candidato no índice, o banco decide: o índice pode estar atrás de uma entrada recém-criada.
+    private Optional<EntradaFila> encontrarProximoClienteIndexado(Fila fila) {
+        boolean retornoPrimeiro = atendeRetornoPrimeiro(fila);
+        List<EntradaFilaPrioridadeDTO> reservadasPorOutros = new ArrayList<>();
+        Optional<EntradaFila> escolhida = Optional.empty();
+        Optional<UUID> proximoId;
+        while (escolhida.isEmpty() && (proximoId = filaPrioridadeIndex.retirarProximo(fila.getId(), retornoPrimeiro)).isPresent()) {
+            escolhida = entradaFilaRepository.reservarSeAguardando(proximoId.get());
+            if (escolhida.isEmpty()) {
+                entradaFilaRepository.findPrioridadeByIdAndStatus(proximoId.get(), StatusFila.AGUARDANDO)
+                        .ifPresent(reservadasPorOutros::add);
             }
         }
+        reservadasPorOutros.forEach(filaPrioridadeIndex::adicionar);
+
+        if (escolhida.isEmpty()) {
+            escolhida = encontrarProximoCliente(fila);
+            escolhida.ifPresent(filaPrioridadeIndex::remover);
+        }
+        escolhida.ifPresent(filaPrioridadeIndex::restaurarEmCasoDeRollback);
+        return escolhida;
+    }
 
-        // 2. Notificar SEMPRE o painel profissional (lista de aguardando), se setor disponível
-        if (fila.getSetor() != null) {
-            PainelProfissionalDTO painelProfissionalPayload = new PainelProfissionalDTO(
-                    fila.getSetor().getId(),
-                    getFilaAtual(fila.getSetor().getId())
-            );
-            filaBroadcastService.broadcastFilaProfissionalUpdate(fila.getSetor().getId(), painelProfissionalPayload);
+    /**
+     * Converte as entradas aguardando da fila (na ordem do banco: prioridade, entrada) incluindo a
+     * posição na ordem em que o chamarProximo as atende e a espera estimada pelo ritmo recente.
+     * Retornos só são chamados nas filas que os atendem primeiro; nas demais ficam sem posição.
+     */
+    private List<EntradaFilaResponseDTO> comEstimativas(Fila fila, List<EntradaFila> aguardando) {
+        boolean retornoPrimeiro = atendeRetornoPrimeiro(fila);
+        Map<UUID, Integer> posicoes = new HashMap<>();
+        if (retornoPrimeiro) {
+            aguardando.stream().filter(EntradaFila::isRetorno).forEach(e -> posicoes.put(e.getId(), posicoes.size() + 1));
         }
+        aguardando.stream().filter(e -> !e.isRetorno()).forEach(e -> posicoes.put(e.getId(), posicoes.size() + 1));
+        return aguardando.stream()
+                .map(entrada -> {
+                    EntradaFilaResponseDTO dto = entradaFilaMapper.toResponseDTO(entrada);
+                    Integer posicao = posicoes.get(entrada.getId());
+                    return posicao != null
+                            ? dto.comEstimativa(posicao, ritmoAtendimento.estimarEsperaSegundos(fila.getId(), posicao))
+                            : dto;
+                })
+                .collect(Collectors.toList());
     }
 
-    private void notificarSomentePainelProfissional(Fila fila) {
-        if (fila == null || fila.getSetor() == null) {
+    // Uma entrada (ou uma página delas) sem a fila inteira: a posição vem do índice em memória; sem índice, sem estimativa
+    private EntradaFilaResponseDTO comEstimativaPeloIndice(Fila fila, EntradaFila entrada) {
+        EntradaFilaResponseDTO dto = entradaFilaMapper.toResponseDTO(entrada);
+        Integer posicao = posicaoPeloIndice(fila, entrada);
+        return posicao != null
+                ? dto.comEstimativa(posicao, ritmoAtendimento.estimarEsperaSegundos(fila.getId(), posicao))
+                : dto;
+    }
+
+    // Posição pelo índice em memória (quem está à frente na ordem de chamada), inclusive de entrada ainda fora dele
+    private Integer posicaoPeloIndice(Fila fila, EntradaFila entrada) {
+        boolean retornoPrimeiro = atendeRetornoPrimeiro(fila);
+        if (!filaPrioridadeIndex.isAtivo() || (entrada.isRetorno() && !retornoPrimeiro)) {
+            return null;
+        }
+        int aFrente = filaPrioridadeIndex.quantidadeAFrente(fila.getId(), entrada.getId(),
+                Boolean.TRUE.equals(entrada.getPrioridade()), entrada.getDataHoraEntrada(), entrada.isRetorno());
+        if (retornoPrimeiro && !entrada.isRetorno()) {
+            aFrente += filaPrioridadeIndex.tamanho(fila.getId(), true);
+        }
+        return aFrente + 1;
+    }
+
+    // Últimas chamadas em memória e histórico dos painéis, ambos aplicados após o commit
+    private void registrarChamada(Fila fila, EntradaFila entrada) {
+        String nomePaciente = entrada.getCliente() != null ? entrada.getCliente().getNome() : null;
+        chamadasRecentes.registrar(fila.getId(), new ChamadaDTO(
+                nomePaciente, entrada.getGuicheOuSalaAtendimento(), entrada.getDataHoraChamada()));
+        chamadaPainelService.registrar(new ChamadaPainelRegistroDTO(
+                entrada.getId(),
+                fila.getId(),
+                fila.getSetor() != null ? fila.getSetor().getId() : null,
+                fila.getUnidadeAtendimento() != null ? fila.getUnidadeAtendimento().getId() : null,
+                nomePaciente,
+                entrada.getGuicheOuSalaAtendimento(),
+                entrada.getDataHoraChamada()));
+    }
+
+    private void publicarAlteracao(Fila fila, TipoEventoFila tipo) {
+        if (fila == null) {
             return;
         }
-        PainelProfissionalDTO painelProfissionalPayload = new PainelProfissionalDTO(
-                fila.getSetor().getId(),
-                getFilaAtual(fila.getSetor().getId())
-        );
-        filaBroadcastService.broadcastFilaProfissionalUpdate(fila.getSetor().getId(), painelProfissionalPayload);
+        eventPublisher.publishEvent(new FilaAlteradaEvent(fila.getId(), fila.getSetor() != null ? fila.getSetor().getId() : null, tipo));
     }
 }
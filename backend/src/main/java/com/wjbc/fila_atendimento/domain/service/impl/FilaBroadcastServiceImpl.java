@@ -1,17 +1,61 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
 import com.wjbc.fila_atendimento.controller.FilaWebSocketController;
+import com.wjbc.fila_atendimento.domain.cache.PainelProfissionalDeltaTracker;
+import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
 import com.wjbc.fila_atendimento.domain.service.FilaBroadcastService;
-import lombok.RequiredArgsConstructor;
+import com.wjbc.fila_atendimento.domain.transacao.AposCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class FilaBroadcastServiceImpl implements FilaBroadcastService {
 
     private final FilaWebSocketController filaWebSocketController;
+    private final PainelProfissionalDeltaTracker deltaTracker;
+    private final TransactionTemplate transacaoLeitura;
+    private final Counter atualizacoesCoalescidas;
+    private final Counter atualizacoesEmitidas;
+
+    // Setores com painel profissional desatualizado -> como montar o snapshot mais recente
+    private final Map<UUID, Supplier<PainelProfissionalDTO>> pendentes = new ConcurrentHashMap<>();
+
+    @Value("${painel.profissional.coalescencia.habilitado:true}")
+    private boolean coalescenciaHabilitada;
+
+    // Mantém o envio da lista completa em /topic/fila/{setorId} para clientes que ainda não usam o delta
+    @Value("${painel.profissional.delta.enviar-snapshot-completo:true}")
+    private boolean enviarSnapshotCompleto;
+
+    public FilaBroadcastServiceImpl(FilaWebSocketController filaWebSocketController,
+                                    PainelProfissionalDeltaTracker deltaTracker,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.filaWebSocketController = filaWebSocketController;
+        this.deltaTracker = deltaTracker;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.atualizacoesCoalescidas = Counter.builder("painel.profissional.atualizacoes")
+                .tag("resultado", "coalescida")
+                .description("Atualizações do painel profissional absorvidas por um envio já pendente")
+                .register(meterRegistry);
+        this.atualizacoesEmitidas = Counter.builder("painel.profissional.atualizacoes")
+                .tag("resultado", "emitida")
+                .description("Snapshots do painel profissional efetivamente enviados")
+                .register(meterRegistry);
+    }
 
     @Override
     public void broadcastPainelPublicoUpdate(UUID painelId, Object payload) {
@@ -23,4 +67,52 @@ public class FilaBroadcastServiceImpl implements FilaBroadcastService {
         filaWebSocketController.sendFilaProfissionalUpdate(setorId, payload);
     }
 
+    @Override
+    public void agendarFilaProfissionalUpdate(UUID setorId, Supplier<PainelProfissionalDTO> payload) {
+        if (!coalescenciaHabilitada) {
+            publicarFilaProfissional(setorId, payload.get());
+            return;
+        }
+        // Só marca após o commit: um envio antecipado leria o estado anterior à alteração
+        AposCommit.executar(() -> {
+            if (pendentes.put(setorId, payload) != null) {
+                atualizacoesCoalescidas.increment();
+            }
+        });
+    }
+
+    /** Envia um único snapshot por setor marcado desde o último ciclo. */
+    @Scheduled(fixedDelayString = "${painel.profissional.coalescencia.janela-ms:250}")
+    public void enviarPendentes() {
+        for (UUID setorId : pendentes.keySet()) {
+            Supplier<PainelProfissionalDTO> payload = pendentes.remove(setorId);
+            if (payload == null) {
+                continue;
+            }
+            try {
+                publicarFilaProfissional(setorId, transacaoLeitura.execute(status -> payload.get()));
+            } catch (RuntimeException e) {
+                log.error("Falha ao enviar atualização do painel profissional do setor {}", setorId, e);
+            }
+        }
+    }
+
+    // O delta sai pelo tracker, na vez do setor, para seguir a ordem das sequências; sincronizado
+    // para que as listas completas também saiam na ordem em que foram montadas
+    private synchronized void publicarFilaProfissional(UUID setorId, PainelProfissionalDTO snapshot) {
+        deltaTracker.registrar(setorId, snapshot.filaAtual(),
+                delta -> filaWebSocketController.sendFilaProfissionalDelta(setorId, delta));
+        if (enviarSnapshotCompleto) {
+            broadcastFilaProfissionalUpdate(setorId, snapshot);
+        }
+        atualizacoesEmitidas.increment();
+    }
+
+    public double getAtualizacoesCoalescidas() {
+        return atualizacoesCoalescidas.count();
+    }
+
+    public double getAtualizacoesEmitidas() {
+        return atualizacoesEmitidas.count();
+    }
 }
@@ -9,13 +9,18 @@ import com.wjbc.fila_atendimento.domain.mapper.FilaMapper;
 import com.wjbc.fila_atendimento.domain.model.Fila;
 import com.wjbc.fila_atendimento.domain.model.Setor;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
 import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.CadastroSpecification;
 import com.wjbc.fila_atendimento.domain.service.FilaService;
 import com.wjbc.fila_atendimento.domain.service.SetorService;
 import com.wjbc.fila_atendimento.domain.service.UnidadeAtendimentoService;
 import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -97,6 +102,20 @@ public class FilaServiceImpl implements FilaService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FilaResponseDTO> listarPorUnidade(UUID unidadeId, Pageable pageable) {
+        unidadeService.findUnidadeById(unidadeId);
+        return ConsultaPaginada.pagina(filaRepository, CadastroSpecification.daUnidade(unidadeId), pageable).map(filaMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<FilaResponseDTO> listarPorUnidade(UUID unidadeId, UUID apos, int tamanho) {
+        unidadeService.findUnidadeById(unidadeId);
+        return ConsultaPaginada.aposId(filaRepository, CadastroSpecification.daUnidade(unidadeId), apos, tamanho).map(filaMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Fila> findBySetorId(UUID setorId) {
@@ -112,6 +131,18 @@ public class FilaServiceImpl implements FilaService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<FilaResponseDTO> listarTodas(Pageable pageable) {
+        return ConsultaPaginada.pagina(filaRepository, ConsultaPaginada.todos(), pageable).map(filaMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<FilaResponseDTO> listarTodas(UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(filaRepository, ConsultaPaginada.todos(), apos, tamanho).map(filaMapper::toResponseDTO);
+    }
+
     private void validarNomeUnico(String nome, UnidadeAtendimento unidade, UUID idExcluido) {
         filaRepository.findByNomeAndUnidadeAtendimento(nome, unidade).ifPresent(fila -> {
             if (idExcluido == null || !fila.getId().equals(idExcluido)) {
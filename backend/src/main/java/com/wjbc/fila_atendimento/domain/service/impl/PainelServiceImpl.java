@@ -1,6 +1,8 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
 import com.wjbc.fila_atendimento.domain.dto.PainelCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelUpdateDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelResponseDTO;
 import com.wjbc.fila_atendimento.domain.exception.BusinessException;
@@ -8,15 +10,22 @@ import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.model.Fila;
 import com.wjbc.fila_atendimento.domain.model.Painel;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
 import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
 import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.CadastroSpecification;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
 import com.wjbc.fila_atendimento.domain.service.PainelService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -29,6 +38,8 @@ public class PainelServiceImpl implements PainelService {
     private final PainelRepository painelRepository;
     private final UnidadeAtendimentoRepository unidadeAtendimentoRepository;
     private final FilaRepository filaRepository;
+    private final PainelRoteamentoCache painelRoteamentoCache;
+    private final EntradaFilaService entradaFilaService;
 
     @Override
     @Transactional
@@ -47,7 +58,7 @@ public class PainelServiceImpl implements PainelService {
         }
 
         Painel salvo = painelRepository.save(painel);
-        return toResponseDTO(salvo);
+        return atualizarRoteamento(toResponseDTO(salvo));
     }
 
     @Override
@@ -67,7 +78,7 @@ public class PainelServiceImpl implements PainelService {
         }
 
         Painel atualizado = painelRepository.save(painel);
-        return toResponseDTO(atualizado);
+        return atualizarRoteamento(toResponseDTO(atualizado));
     }
 
     @Override
@@ -98,11 +109,38 @@ public class PainelServiceImpl implements PainelService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PainelResponseDTO> listarTodos(UUID unidadeAtendimentoId, Pageable pageable) {
+        return ConsultaPaginada.pagina(painelRepository, CadastroSpecification.daUnidade(unidadeAtendimentoId), pageable).map(this::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<PainelResponseDTO> listarTodos(UUID unidadeAtendimentoId, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(painelRepository, CadastroSpecification.daUnidade(unidadeAtendimentoId), apos, tamanho).map(this::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PainelResponseDTO> listarPorUnidade(UUID unidadeAtendimentoId, Pageable pageable) {
+        findUnidadeById(unidadeAtendimentoId);
+        return ConsultaPaginada.pagina(painelRepository, CadastroSpecification.daUnidade(unidadeAtendimentoId), pageable).map(this::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<PainelResponseDTO> listarPorUnidade(UUID unidadeAtendimentoId, UUID apos, int tamanho) {
+        findUnidadeById(unidadeAtendimentoId);
+        return ConsultaPaginada.aposId(painelRepository, CadastroSpecification.daUnidade(unidadeAtendimentoId), apos, tamanho).map(this::toResponseDTO);
+    }
+
     @Override
     @Transactional
     public void desativar(UUID id) {
         Painel painel = findPainelById(id);
         painelRepository.delete(painel);
+        painelRoteamentoCache.removerPainel(id);
     }
 
     @Override
@@ -117,7 +155,7 @@ public class PainelServiceImpl implements PainelService {
 
         painel.getFilas().add(fila);
         Painel salvo = painelRepository.save(painel);
-        return toResponseDTO(salvo);
+        return atualizarRoteamento(toResponseDTO(salvo));
     }
 
     @Override
@@ -131,7 +169,7 @@ public class PainelServiceImpl implements PainelService {
         }
 
         Painel salvo = painelRepository.save(painel);
-        return toResponseDTO(salvo);
+        return atualizarRoteamento(toResponseDTO(salvo));
     }
 
     @Override
@@ -141,6 +179,21 @@ public class PainelServiceImpl implements PainelService {
         return toResponseDTO(painel);
     }
 
+    // Estado atual do painel para a TV (ex.: ao reconectar), montado a partir da memória
+    @Override
+    public List<PainelPublicoDTO> buscarChamadasPublico(UUID id) {
+        Collection<UUID> filasIds = painelRoteamentoCache.filasDoPainel(id).orElse(null);
+        if (filasIds == null) {
+            if (!painelRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Painel não encontrado com o ID: " + id);
+            }
+            filasIds = painelRepository.findFilaIdsByPainelId(id);
+        }
+        return filasIds.stream()
+                .map(entradaFilaService::getPainelPublico)
+                .collect(Collectors.toList());
+    }
+
     // Métodos auxiliares
     private UnidadeAtendimento findUnidadeById(UUID id) {
         return unidadeAtendimentoRepository.findById(id)
@@ -157,6 +210,11 @@ public class PainelServiceImpl implements PainelService {
                 .orElseThrow(() -> new ResourceNotFoundException("Fila não encontrada com o ID: " + id));
     }
 
+    private PainelResponseDTO atualizarRoteamento(PainelResponseDTO painel) {
+        painelRoteamentoCache.definirFilas(painel.id(), painel.filasIds());
+        return painel;
+    }
+
     private PainelResponseDTO toResponseDTO(Painel painel) {
         List<UUID> filasIds = painel.getFilas() != null ?
                 painel.getFilas().stream().map(Fila::getId).collect(Collectors.toList()) :
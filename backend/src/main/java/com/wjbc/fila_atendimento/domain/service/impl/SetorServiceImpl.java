@@ -7,10 +7,15 @@ import com.wjbc.fila_atendimento.domain.exception.BusinessException;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.SetorMapper;
 import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
 import com.wjbc.fila_atendimento.domain.repository.SetorRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.CadastroSpecification;
 import com.wjbc.fila_atendimento.domain.service.SetorService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,6 +80,30 @@ public class SetorServiceImpl implements SetorService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SetorResponseDTO> listarTodos(Pageable pageable) {
+        return ConsultaPaginada.pagina(setorRepository, ConsultaPaginada.todos(), pageable).map(setorMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<SetorResponseDTO> listarTodos(UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(setorRepository, ConsultaPaginada.todos(), apos, tamanho).map(setorMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SetorResponseDTO> buscarPorNomeContendo(String nome, Pageable pageable) {
+        return ConsultaPaginada.pagina(setorRepository, CadastroSpecification.nomeContendo(nome), pageable).map(setorMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<SetorResponseDTO> buscarPorNomeContendo(String nome, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(setorRepository, CadastroSpecification.nomeContendo(nome), apos, tamanho).map(setorMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional
     public void desativar(UUID id) {
@@ -8,10 +8,15 @@ import com.wjbc.fila_atendimento.domain.exception.BusinessException;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.UnidadeAtendimentoMapper;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
 import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.CadastroSpecification;
 import com.wjbc.fila_atendimento.domain.service.UnidadeAtendimentoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -90,6 +95,30 @@ public class UnidadeAtendimentoServiceImpl implements UnidadeAtendimentoService
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UnidadeAtendimentoResponseDTO> listarTodas(Pageable pageable) {
+        return ConsultaPaginada.pagina(unidadeRepository, ConsultaPaginada.todos(), pageable).map(unidadeMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<UnidadeAtendimentoResponseDTO> listarTodas(UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(unidadeRepository, ConsultaPaginada.todos(), apos, tamanho).map(unidadeMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UnidadeAtendimentoResponseDTO> buscarPorNomeContendo(String nome, Pageable pageable) {
+        return ConsultaPaginada.pagina(unidadeRepository, CadastroSpecification.nomeContendo(nome), pageable).map(unidadeMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<UnidadeAtendimentoResponseDTO> buscarPorNomeContendo(String nome, UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(unidadeRepository, CadastroSpecification.nomeContendo(nome), apos, tamanho).map(unidadeMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UnidadeAtendimentoPublicDTO> listarUnidadesParaLogin() {
@@ -9,10 +9,14 @@ import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.UsuarioMapper;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
 import com.wjbc.fila_atendimento.domain.model.Usuario;
+import com.wjbc.fila_atendimento.domain.repository.ConsultaPaginada;
 import com.wjbc.fila_atendimento.domain.repository.UsuarioRepository;
 import com.wjbc.fila_atendimento.domain.service.UnidadeAtendimentoService;
 import com.wjbc.fila_atendimento.domain.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -111,6 +115,18 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UsuarioResponseDTO> listarTodos(Pageable pageable) {
+        return ConsultaPaginada.pagina(usuarioRepository, ConsultaPaginada.todos(), pageable).map(usuarioMapper::toResponseDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<UsuarioResponseDTO> listarTodos(UUID apos, int tamanho) {
+        return ConsultaPaginada.aposId(usuarioRepository, ConsultaPaginada.todos(), apos, tamanho).map(usuarioMapper::toResponseDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Usuario findUsuarioById(UUID id) {
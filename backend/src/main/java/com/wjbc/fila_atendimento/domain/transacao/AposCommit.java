@@ -0,0 +1,26 @@
+package com.wjbc.fila_atendimento.domain.transacao;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Efeitos em memória (índices, caches, envios) que só valem se a transação corrente for confirmada:
+ * executados após o commit, ou imediatamente quando não há transação.
+ */
+public final class AposCommit {
+
+    private AposCommit() {}
+
+    public static void executar(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+-- Histórico de chamadas por painel: gravado em lote pela aplicação, somente inserções
+ALTER TABLE fila_atendimento.chamada_painel
+    ADD COLUMN IF NOT EXISTS entrada_fila_id UUID,
+    ADD COLUMN IF NOT EXISTS nome_paciente VARCHAR(255);
+
+-- O sistema não emite código de paciente; a chamada é identificada pela entrada na fila
+ALTER TABLE fila_atendimento.chamada_painel
+    ALTER COLUMN codigo_paciente DROP NOT NULL;
+
+-- Remover um painel não pode ser bloqueado pelo histórico: as chamadas ficam, sem o painel
+ALTER TABLE fila_atendimento.chamada_painel
+    ALTER COLUMN painel_id DROP NOT NULL,
+    DROP CONSTRAINT IF EXISTS fk_chamada_painel,
+    ADD CONSTRAINT fk_chamada_painel FOREIGN KEY (painel_id)
+        REFERENCES fila_atendimento.painel (id) ON DELETE SET NULL;
+
+-- Replay das últimas chamadas de um painel
+CREATE INDEX IF NOT EXISTS idx_chamada_painel_painel_data
+    ON fila_atendimento.chamada_painel (painel_id, data_hora_chamada DESC);
@@ -0,0 +1,31 @@
+-- Índices das consultas quentes de entrada_fila. CONCURRENTLY: não bloqueia escritas em
+-- bases já populadas (o Flyway executa esta migration fora de transação).
+
+-- Próximo a chamar (reservarProximoAguardando), lista de espera e existência de aguardando na fila.
+-- Parcial: cobre apenas as poucas linhas AGUARDANDO, não o histórico.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_aguardando
+    ON fila_atendimento.entrada_fila (fila_id, retorno, prioridade DESC, data_hora_entrada)
+    WHERE status = 'AGUARDANDO';
+
+-- Cliente já aguardando na fila (adicionarClienteAFila)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_aguardando_cliente
+    ON fila_atendimento.entrada_fila (cliente_id, fila_id)
+    WHERE status = 'AGUARDANDO';
+
+-- Últimas chamadas da fila (painel público) e janelas por data de chamada (produtividade)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_chamada
+    ON fila_atendimento.entrada_fila (fila_id, data_hora_chamada DESC)
+    WHERE data_hora_chamada IS NOT NULL;
+
+-- Entradas de uma fila em um período (unidades com muitas filas: uma busca por fila)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_fila_entrada
+    ON fila_atendimento.entrada_fila (fila_id, data_hora_entrada);
+
+-- Janelas do dashboard por data (tempo de espera, horário de pico, fluxo, produtividade) quando
+-- a unidade concentra a maior parte das filas; fila_id no índice dispensa o heap para o join
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_entrada
+    ON fila_atendimento.entrada_fila (data_hora_entrada, fila_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entrada_fila_chamada_periodo
+    ON fila_atendimento.entrada_fila (data_hora_chamada, fila_id)
+    WHERE data_hora_chamada IS NOT NULL;
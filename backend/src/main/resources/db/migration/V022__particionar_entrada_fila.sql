@@ -0,0 +1,88 @@
+-- entrada_fila passa a ser particionada por mês de data_hora_entrada: o histórico atendido/cancelado
+-- fica em partições próprias (arquivadas depois de um tempo) e as janelas do dashboard leem apenas
+-- os meses do período. A conversão copia os dados existentes e roda uma única vez, na implantação.
+-- Novas partições são criadas pela aplicação (EntradaFilaParticionamentoService).
+
+-- Partições desanexadas pelo arquivamento
+CREATE SCHEMA IF NOT EXISTS fila_atendimento_arquivo;
+
+ALTER TABLE fila_atendimento.entrada_fila RENAME TO entrada_fila_legado;
+ALTER TABLE fila_atendimento.entrada_fila_legado RENAME CONSTRAINT entrada_fila_pkey TO entrada_fila_legado_pkey;
+
+-- A chave primária de uma tabela particionada precisa conter a coluna de partição; o id continua
+-- único (gerado), é o identificador da entidade e, à frente na chave, atende às buscas só por id
+CREATE TABLE fila_atendimento.entrada_fila (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    fila_id UUID NOT NULL,
+    cliente_id UUID NOT NULL,
+    prioridade BOOLEAN DEFAULT FALSE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    retorno BOOLEAN DEFAULT FALSE NOT NULL,
+    data_hora_entrada TIMESTAMP NOT NULL,
+    data_hora_chamada TIMESTAMP,
+    data_hora_saida TIMESTAMP,
+    usuario_responsavel_id UUID,
+    guiche_ou_sala_atendimento VARCHAR(100),
+    motivo_cancelamento VARCHAR(500),
+    CONSTRAINT entrada_fila_pkey PRIMARY KEY (id, data_hora_entrada),
+    CONSTRAINT fk_entrada_fila FOREIGN KEY (fila_id)
+        REFERENCES fila_atendimento.fila (id),
+    CONSTRAINT fk_entrada_cliente FOREIGN KEY (cliente_id)
+        REFERENCES fila_atendimento.cliente (id),
+    CONSTRAINT fk_entrada_usuario FOREIGN KEY (usuario_responsavel_id)
+        REFERENCES fila_atendimento.usuario (id)
+) PARTITION BY RANGE (data_hora_entrada);
+
+-- Recebe o que cair fora dos meses já criados; a aplicação move essas linhas ao criar o mês
+CREATE TABLE fila_atendimento.entrada_fila_padrao
+    PARTITION OF fila_atendimento.entrada_fila DEFAULT;
+
+-- Um mês por partição, do registro mais antigo até três meses à frente
+DO $$
+DECLARE
+    mes DATE;
+    ultimo DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(data_hora_entrada), now()))::date
+      INTO mes
+      FROM fila_atendimento.entrada_fila_legado;
+    WHILE mes <= ultimo LOOP
+        EXECUTE format('CREATE TABLE fila_atendimento.%I PARTITION OF fila_atendimento.entrada_fila '
+                       'FOR VALUES FROM (%L) TO (%L)',
+                       'entrada_fila_' || to_char(mes, 'YYYY_MM'), mes, (mes + INTERVAL '1 month')::date);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO fila_atendimento.entrada_fila
+    (id, fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada, data_hora_chamada,
+     data_hora_saida, usuario_responsavel_id, guiche_ou_sala_atendimento, motivo_cancelamento)
+SELECT id, fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada, data_hora_chamada,
+       data_hora_saida, usuario_responsavel_id, guiche_ou_sala_atendimento, motivo_cancelamento
+FROM fila_atendimento.entrada_fila_legado;
+
+-- Remove também os índices da V021, recriados abaixo na tabela particionada
+DROP TABLE fila_atendimento.entrada_fila_legado;
+
+-- Mesmos índices da V021, agora propagados a cada partição (inclusive às criadas depois)
+CREATE INDEX idx_entrada_fila_aguardando
+    ON fila_atendimento.entrada_fila (fila_id, retorno, prioridade DESC, data_hora_entrada)
+    WHERE status = 'AGUARDANDO';
+
+CREATE INDEX idx_entrada_fila_aguardando_cliente
+    ON fila_atendimento.entrada_fila (cliente_id, fila_id)
+    WHERE status = 'AGUARDANDO';
+
+CREATE INDEX idx_entrada_fila_chamada
+    ON fila_atendimento.entrada_fila (fila_id, data_hora_chamada DESC)
+    WHERE data_hora_chamada IS NOT NULL;
+
+CREATE INDEX idx_entrada_fila_fila_entrada
+    ON fila_atendimento.entrada_fila (fila_id, data_hora_entrada);
+
+CREATE INDEX idx_entrada_fila_entrada
+    ON fila_atendimento.entrada_fila (data_hora_entrada, fila_id);
+
+CREATE INDEX idx_entrada_fila_chamada_periodo
+    ON fila_atendimento.entrada_fila (data_hora_chamada, fila_id)
+    WHERE data_hora_chamada IS NOT NULL;
@@ -0,0 +1,57 @@
+-- Consolidação horária do dashboard. As métricas são guardadas como somas e contagens (e não como
+-- médias) para que horas consolidadas e linhas brutas possam ser somadas em qualquer período.
+-- Setor e unidade vêm da fila na leitura, como nas consultas sobre entrada_fila.
+
+-- Por hora de entrada: volume (fluxo, horários de pico) e tempo de espera até a chamada
+CREATE TABLE IF NOT EXISTS fila_atendimento.dashboard_entrada_hora (
+    fila_id UUID NOT NULL,
+    hora TIMESTAMP NOT NULL,
+    entradas BIGINT NOT NULL,
+    espera_soma_segundos NUMERIC NOT NULL,
+    espera_qtd BIGINT NOT NULL,
+    primeira_entrada TIMESTAMP NOT NULL,
+    ultima_entrada TIMESTAMP NOT NULL,
+    CONSTRAINT pk_dashboard_entrada_hora PRIMARY KEY (fila_id, hora)
+);
+
+-- Por hora de chamada e profissional: atendimentos e tempo de atendimento até a saída
+CREATE TABLE IF NOT EXISTS fila_atendimento.dashboard_atendimento_hora (
+    fila_id UUID NOT NULL,
+    hora TIMESTAMP NOT NULL,
+    usuario_id UUID NOT NULL,
+    atendimentos BIGINT NOT NULL,
+    atendimento_soma_segundos NUMERIC NOT NULL,
+    atendimento_qtd BIGINT NOT NULL,
+    CONSTRAINT pk_dashboard_atendimento_hora PRIMARY KEY (fila_id, hora, usuario_id)
+);
+
+-- Marca d'água: alterações em entrada_fila anteriores a ela já estão consolidadas
+CREATE TABLE IF NOT EXISTS fila_atendimento.dashboard_rollup_controle (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    marca TIMESTAMP NOT NULL
+);
+
+-- Localiza as entradas finalizadas desde a última consolidação
+CREATE INDEX IF NOT EXISTS idx_entrada_fila_saida
+    ON fila_atendimento.entrada_fila (data_hora_saida)
+    WHERE data_hora_saida IS NOT NULL;
+
+-- Carga inicial com o histórico existente
+INSERT INTO fila_atendimento.dashboard_entrada_hora
+    (fila_id, hora, entradas, espera_soma_segundos, espera_qtd, primeira_entrada, ultima_entrada)
+SELECT fila_id, date_trunc('hour', data_hora_entrada), COUNT(*),
+       COALESCE(SUM(EXTRACT(EPOCH FROM (data_hora_chamada - data_hora_entrada))), 0),
+       COUNT(data_hora_chamada), MIN(data_hora_entrada), MAX(data_hora_entrada)
+FROM fila_atendimento.entrada_fila
+GROUP BY fila_id, date_trunc('hour', data_hora_entrada);
+
+INSERT INTO fila_atendimento.dashboard_atendimento_hora
+    (fila_id, hora, usuario_id, atendimentos, atendimento_soma_segundos, atendimento_qtd)
+SELECT fila_id, date_trunc('hour', data_hora_chamada), usuario_responsavel_id, COUNT(*),
+       COALESCE(SUM(EXTRACT(EPOCH FROM (data_hora_saida - data_hora_chamada))), 0),
+       COUNT(data_hora_saida)
+FROM fila_atendimento.entrada_fila
+WHERE data_hora_chamada IS NOT NULL AND usuario_responsavel_id IS NOT NULL
+GROUP BY fila_id, date_trunc('hour', data_hora_chamada), usuario_responsavel_id;
+
+INSERT INTO fila_atendimento.dashboard_rollup_controle (id, marca) VALUES (1, LOCALTIMESTAMP);
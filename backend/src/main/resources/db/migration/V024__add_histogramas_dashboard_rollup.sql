@@ -0,0 +1,93 @@
+-- Percentis de espera e de atendimento a partir de histogramas por hora consolidada.
+-- Cada histograma tem 150 faixas logarítmicas de tempo (em segundos): a faixa 1 recebe menos de 1s e
+-- a faixa k >= 2 recebe [1.1^(k-2), 1.1^(k-1)), até ~15 dias na última; o valor de uma faixa é o
+-- ponto médio geométrico, com erro relativo de até 5%. Histogramas se combinam somando as faixas,
+-- então qualquer período é respondido somando os das horas envolvidas.
+
+CREATE OR REPLACE FUNCTION fila_atendimento.faixa_tempo(segundos NUMERIC)
+RETURNS INTEGER LANGUAGE sql IMMUTABLE STRICT AS $$
+    SELECT CASE WHEN segundos < 1 THEN 1
+                ELSE LEAST(2 + floor(ln(segundos) / ln(1.1))::INTEGER, 150) END
+$$;
+
+CREATE OR REPLACE FUNCTION fila_atendimento.histograma_tempo_acumular(estado INTEGER[], segundos NUMERIC)
+RETURNS INTEGER[] LANGUAGE plpgsql IMMUTABLE AS $$
+DECLARE
+    faixa INTEGER;
+BEGIN
+    IF segundos IS NULL THEN
+        RETURN estado;
+    END IF;
+    IF estado IS NULL THEN
+        estado := array_fill(0, ARRAY[150]);
+    END IF;
+    faixa := fila_atendimento.faixa_tempo(segundos);
+    estado[faixa] := estado[faixa] + 1;
+    RETURN estado;
+END
+$$;
+
+-- Histograma dos tempos (segundos) do grupo; nulos são ignorados e um grupo sem tempos resulta em NULL
+CREATE AGGREGATE fila_atendimento.histograma_tempo(NUMERIC) (
+    SFUNC = fila_atendimento.histograma_tempo_acumular,
+    STYPE = INTEGER[]
+);
+
+CREATE OR REPLACE FUNCTION fila_atendimento.histograma_somar_estado(estado INTEGER[], histograma INTEGER[])
+RETURNS INTEGER[] LANGUAGE sql IMMUTABLE STRICT AS $$
+    SELECT array_agg(e + h ORDER BY i)
+    FROM unnest(estado, histograma) WITH ORDINALITY AS t(e, h, i)
+$$;
+
+-- Soma faixa a faixa; STRICT sem valor inicial: o primeiro histograma não nulo vira o estado
+CREATE AGGREGATE fila_atendimento.histograma_somar(INTEGER[]) (
+    SFUNC = fila_atendimento.histograma_somar_estado,
+    STYPE = INTEGER[]
+);
+
+-- Tempo (segundos) do percentil p (0 < p <= 1): valor da faixa que contém a amostra de ordem ceil(p * total)
+CREATE OR REPLACE FUNCTION fila_atendimento.histograma_percentil(histograma INTEGER[], p NUMERIC)
+RETURNS NUMERIC LANGUAGE plpgsql IMMUTABLE STRICT AS $$
+DECLARE
+    total BIGINT;
+    ordem BIGINT;
+    acumulado BIGINT := 0;
+BEGIN
+    SELECT SUM(q) INTO total FROM unnest(histograma) q;
+    IF total IS NULL OR total = 0 THEN
+        RETURN NULL;
+    END IF;
+    ordem := GREATEST(ceil(p * total), 1);
+    FOR faixa IN 1 .. array_length(histograma, 1) LOOP
+        acumulado := acumulado + histograma[faixa];
+        IF acumulado >= ordem THEN
+            RETURN CASE WHEN faixa = 1 THEN 0 ELSE power(1.1::NUMERIC, faixa - 1.5) END;
+        END IF;
+    END LOOP;
+    RETURN NULL;
+END
+$$;
+
+ALTER TABLE fila_atendimento.dashboard_entrada_hora
+    ADD COLUMN IF NOT EXISTS espera_histograma INTEGER[];
+
+ALTER TABLE fila_atendimento.dashboard_atendimento_hora
+    ADD COLUMN IF NOT EXISTS atendimento_histograma INTEGER[];
+
+-- Histogramas das horas já consolidadas
+UPDATE fila_atendimento.dashboard_entrada_hora r
+SET espera_histograma = h.histograma
+FROM (SELECT fila_id, date_trunc('hour', data_hora_entrada) AS hora,
+             fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (data_hora_chamada - data_hora_entrada))) AS histograma
+      FROM fila_atendimento.entrada_fila
+      GROUP BY fila_id, date_trunc('hour', data_hora_entrada)) h
+WHERE r.fila_id = h.fila_id AND r.hora = h.hora;
+
+UPDATE fila_atendimento.dashboard_atendimento_hora r
+SET atendimento_histograma = h.histograma
+FROM (SELECT fila_id, date_trunc('hour', data_hora_chamada) AS hora, usuario_responsavel_id AS usuario_id,
+             fila_atendimento.histograma_tempo(EXTRACT(EPOCH FROM (data_hora_saida - data_hora_chamada))) AS histograma
+      FROM fila_atendimento.entrada_fila
+      WHERE data_hora_chamada IS NOT NULL AND usuario_responsavel_id IS NOT NULL
+      GROUP BY fila_id, date_trunc('hour', data_hora_chamada), usuario_responsavel_id) h
+WHERE r.fila_id = h.fila_id AND r.hora = h.hora AND r.usuario_id = h.usuario_id;
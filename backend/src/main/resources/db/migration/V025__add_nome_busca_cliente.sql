@@ -0,0 +1,20 @@
+-- Busca de clientes por nome: nome_busca guarda o nome sem acento e em minúsculas, calculado pelo
+-- banco a cada escrita. As consultas e os índices da V026 usam a coluna em vez de recalcular a
+-- expressão a cada linha comparada (unaccent custa dezenas de microssegundos por nome).
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+-- unaccent() é STABLE (depende do dicionário resolvido pelo search_path) e não pode ser usada em
+-- coluna gerada nem em índice. Com o dicionário fixado pelo nome completo o resultado só depende do
+-- texto, e a função pode ser declarada IMMUTABLE.
+CREATE OR REPLACE FUNCTION fila_atendimento.f_unaccent(texto text)
+    RETURNS text
+    LANGUAGE sql
+    IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, texto)
+$$;
+
+-- Collation "C": o início do nome vira um intervalo do índice e a mesma ordem atende o ORDER BY
+ALTER TABLE fila_atendimento.cliente
+    ADD COLUMN IF NOT EXISTS nome_busca TEXT COLLATE "C"
+        GENERATED ALWAYS AS (fila_atendimento.f_unaccent(lower(nome))) STORED;
@@ -0,0 +1,13 @@
+-- Índices da busca de clientes por nome (nome_busca, V025). Parciais: as consultas só enxergam
+-- clientes ativos. CONCURRENTLY: não bloqueia escritas em cliente (o Flyway executa esta migration
+-- fora de transação).
+
+-- Início do nome (o que a recepção digita primeiro): percorrido em ordem alfabética, para no limite
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_nome_busca
+    ON fila_atendimento.cliente (nome_busca)
+    WHERE ativo = true;
+
+-- Trigramas: LIKE '%palavra%' (sobrenome, meio do nome) e semelhança (erros de digitação) sem varrer a tabela
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_nome_busca_trgm
+    ON fila_atendimento.cliente USING gin (nome_busca public.gin_trgm_ops)
+    WHERE ativo = true;
@@ -0,0 +1,12 @@
+-- Busca de clientes por telefone: digitos guarda DDD + número como texto, calculado pelo banco a cada
+-- escrita. A busca compara a coluna (índices da V028) em vez de converter e concatenar ddd e numero a
+-- cada linha, o que obrigava a varrer a tabela inteira.
+-- Collation "C": o início (e, invertido, o fim) dos dígitos vira um intervalo do índice.
+ALTER TABLE fila_atendimento.cliente_telefones
+    ADD COLUMN IF NOT EXISTS digitos TEXT COLLATE "C"
+        GENERATED ALWAYS AS (ddd::text || numero::text) STORED;
+
+-- Telefone é o mesmo @Embeddable nas duas tabelas: a coluna precisa existir também nos telefones das unidades
+ALTER TABLE fila_atendimento.unidade_atendimento_telefones
+    ADD COLUMN IF NOT EXISTS digitos TEXT COLLATE "C"
+        GENERATED ALWAYS AS (ddd::text || numero::text) STORED;
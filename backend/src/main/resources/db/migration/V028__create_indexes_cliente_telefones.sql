@@ -0,0 +1,17 @@
+-- Índices da busca de clientes por telefone (digitos, V027). CONCURRENTLY: não bloqueia escritas em
+-- cliente_telefones (o Flyway executa esta migration fora de transação). INCLUDE (cliente_id): a busca
+-- só precisa do cliente de cada telefone encontrado.
+
+-- Início: DDD + começo do número
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_telefones_digitos
+    ON fila_atendimento.cliente_telefones (digitos)
+    INCLUDE (cliente_id);
+
+-- Fim: número sem DDD ou só os últimos dígitos, como intervalo dos dígitos invertidos
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_telefones_digitos_invertidos
+    ON fila_atendimento.cliente_telefones (reverse(digitos))
+    INCLUDE (cliente_id);
+
+-- Telefones de cada cliente (coleção da entidade e a projeção dos resultados da busca)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_telefones_cliente_id
+    ON fila_atendimento.cliente_telefones (cliente_id);
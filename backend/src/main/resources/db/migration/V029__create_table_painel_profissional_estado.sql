@@ -0,0 +1,10 @@
+-- Estado base dos deltas do painel profissional, compartilhado pelas instâncias: a última lista de
+-- aguardando publicada de cada setor (entradas e ordem de chamada por fila, em JSON) e sua sequência,
+-- incrementada com a linha bloqueada. Dado derivado, recriado a partir da fila quando ausente.
+CREATE TABLE IF NOT EXISTS fila_atendimento.painel_profissional_estado (
+    setor_id UUID PRIMARY KEY,
+    sequencia BIGINT NOT NULL,
+    entradas TEXT NOT NULL,
+    estimativas TEXT NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL
+);
@@ -0,0 +1,53 @@
+package com.wjbc.fila_atendimento.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class WebSocketConfigTest {
+    private final WebSocketConfig config = new WebSocketConfig();
+    private MessageBrokerRegistry registry;
+    private StompBrokerRelayRegistration relay;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(MessageBrokerRegistry.class);
+        relay = mock(StompBrokerRelayRegistration.class, RETURNS_SELF);
+        when(registry.enableStompBrokerRelay("/topic")).thenReturn(relay);
+        ReflectionTestUtils.setField(config, "relayHost", "broker");
+        ReflectionTestUtils.setField(config, "relayPorta", 61613);
+        ReflectionTestUtils.setField(config, "relayLogin", "admin");
+        ReflectionTestUtils.setField(config, "relaySenha", "segredo");
+        ReflectionTestUtils.setField(config, "relayVirtualHost", "");
+    }
+
+    @Test void modoSimples_usaBrokerEmMemoria() {
+        ReflectionTestUtils.setField(config, "modoBroker", "simples");
+        config.configureMessageBroker(registry);
+        verify(registry).enableSimpleBroker("/topic");
+        verify(registry, never()).enableStompBrokerRelay(any());
+        verify(registry).setApplicationDestinationPrefixes("/app");
+    }
+
+    @Test void modoRelay_apontaParaBrokerExterno() {
+        ReflectionTestUtils.setField(config, "modoBroker", "relay");
+        config.configureMessageBroker(registry);
+        verify(registry, never()).enableSimpleBroker(any());
+        verify(relay).setRelayHost("broker");
+        verify(relay).setRelayPort(61613);
+        verify(relay).setClientLogin("admin");
+        verify(relay).setSystemPasscode("segredo");
+        verify(relay, never()).setVirtualHost(any());
+        verify(registry).setApplicationDestinationPrefixes("/app");
+    }
+
+    @Test void modoInvalido_falhaNaInicializacao() {
+        ReflectionTestUtils.setField(config, "modoBroker", "kafka");
+        assertThrows(IllegalStateException.class, () -> config.configureMessageBroker(registry));
+    }
+}
@@ -0,0 +1,168 @@
+package com.wjbc.fila_atendimento.configuration;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.wjbc.fila_atendimento.FilaAtendimentoApplication;
+import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
+import com.wjbc.fila_atendimento.domain.service.FilaBroadcastService;
+import com.wjbc.fila_atendimento.security.enums.SECURITY_CONSTANTS;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas instâncias da aplicação com {@code websocket.broker.modo=relay}, ligadas a um broker STOMP
+ * embarcado (Artemis): o que uma publica em {@code /topic/**} chega ao cliente conectado na outra.
+ */
+class WebSocketRelayIntegracaoTest {
+
+    @TempDir
+    static Path diretorioBroker;
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext instanciaA;
+    private static ConfigurableApplicationContext instanciaB;
+    // Usado pelo cliente STOMP para acompanhar o RECEIPT da inscrição
+    private static final ThreadPoolTaskScheduler agendador = new ThreadPoolTaskScheduler();
+
+    @BeforeAll
+    static void iniciar() throws Exception {
+        int portaBroker = portaLivre();
+        ConfigurationImpl configuracao = new ConfigurationImpl();
+        configuracao.setBrokerInstance(diretorioBroker.toFile());
+        configuracao.setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                // Destinos /topic/... são endereços multicast: cada inscrito recebe a mensagem
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + portaBroker + "?protocols=STOMP;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ().setConfiguration(configuracao);
+        broker.start();
+        agendador.initialize();
+        instanciaA = iniciarInstancia("a", portaBroker);
+        instanciaB = iniciarInstancia("b", portaBroker);
+    }
+
+    @AfterAll
+    static void encerrar() throws Exception {
+        agendador.shutdown();
+        if (instanciaB != null) {
+            instanciaB.close();
+        }
+        if (instanciaA != null) {
+            instanciaA.close();
+        }
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void atualizacaoPublicadaNumaInstancia_chegaAoClienteDaOutra() throws Exception {
+        UUID setorId = UUID.randomUUID();
+        BlockingQueue<Map<?, ?>> recebidas = new LinkedBlockingQueue<>();
+        StompSession sessao = conectar(instanciaB);
+        try {
+            inscrever(sessao, "/topic/fila/" + setorId, recebidas);
+
+            instanciaA.getBean(FilaBroadcastService.class)
+                    .broadcastFilaProfissionalUpdate(setorId, new PainelProfissionalDTO(setorId, List.of()));
+
+            Map<?, ?> mensagem = recebidas.poll(10, TimeUnit.SECONDS);
+            assertNotNull(mensagem, "Atualização publicada na instância A não chegou ao cliente da instância B");
+            assertEquals(setorId.toString(), mensagem.get("setorId"));
+        } finally {
+            sessao.disconnect();
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciarInstancia(String nome, int portaBroker) throws InterruptedException {
+        // Como argumentos de linha de comando, para valer sobre o application.properties (inclusive o perfil ativo)
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(FilaAtendimentoApplication.class)
+                .run("--spring.profiles.active=test",
+                        "--server.port=0",
+                        // Cada instância com o próprio H2 (o create-drop de uma apagaria as tabelas da outra)
+                        "--spring.datasource.url=jdbc:h2:mem:relay-" + nome,
+                        "--spring.jmx.enabled=false",
+                        "--websocket.broker.modo=relay",
+                        "--websocket.broker.relay.host=127.0.0.1",
+                        "--websocket.broker.relay.porta=" + portaBroker);
+        // Mensagens enviadas antes da conexão de sistema com o broker são descartadas pelo relay
+        StompBrokerRelayMessageHandler relay = contexto.getBean(StompBrokerRelayMessageHandler.class);
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!relay.isBrokerAvailable()) {
+            assertTrue(System.currentTimeMillis() < limite, "Relay da instância " + nome + " não conectou ao broker");
+            Thread.sleep(50);
+        }
+        return contexto;
+    }
+
+    private static StompSession conectar(ConfigurableApplicationContext instancia) throws Exception {
+        WebSocketStompClient cliente = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        cliente.setMessageConverter(new MappingJackson2MessageConverter());
+        cliente.setTaskScheduler(agendador);
+        StompHeaders conexao = new StompHeaders();
+        conexao.add("Authorization", SECURITY_CONSTANTS.TOKEN_PREFIX + JWT.create().withSubject("painel@teste.com")
+                .sign(Algorithm.HMAC512(SECURITY_CONSTANTS.SECRET.getBytes())));
+        int porta = ((WebServerApplicationContext) instancia).getWebServer().getPort();
+        return cliente.connectAsync("http://localhost:" + porta + "/ws", new WebSocketHttpHeaders(), conexao,
+                new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+    }
+
+    // Só retorna depois que o broker confirma a inscrição (RECEIPT repassado pelo relay)
+    private static void inscrever(StompSession sessao, String destino, BlockingQueue<Map<?, ?>> recebidas) throws InterruptedException {
+        CountDownLatch confirmada = new CountDownLatch(1);
+        StompHeaders cabecalhos = new StompHeaders();
+        cabecalhos.setDestination(destino);
+        cabecalhos.setReceipt(UUID.randomUUID().toString());
+        sessao.subscribe(cabecalhos, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                recebidas.add((Map<?, ?>) payload);
+            }
+        }).addReceiptTask(confirmada::countDown);
+        assertTrue(confirmada.await(10, TimeUnit.SECONDS), "Inscrição em " + destino + " não confirmada pelo broker");
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.wjbc.fila_atendimento.controller;
 
 import com.wjbc.fila_atendimento.domain.dto.ApiResponse;
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
 import com.wjbc.fila_atendimento.domain.service.ClienteService;
@@ -35,7 +36,7 @@ class ClienteControllerTest {
     void listarTodos_sucesso() {
         ClienteResponseDTO dto = new ClienteResponseDTO(UUID.randomUUID(), "12345678900", "Nome", "email@email.com", null, null);
         when(clienteService.listarTodos()).thenReturn(List.of(dto));
-        ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> response = clienteController.listarTodos(null, null);
+        ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> response = clienteController.listarTodos(null, null, null);
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
         assertNotNull(response.getBody());
         assertFalse(response.getBody().getData().isEmpty());
@@ -52,6 +53,16 @@ class ClienteControllerTest {
         assertEquals(id, response.getBody().getData().id());
     }
 
+    @Test
+    void buscarPorTermo_sucesso() {
+        ClienteBuscaDTO dto = new ClienteBuscaDTO(UUID.randomUUID(), "Maria", "12345678900");
+        when(clienteService.buscarPorTermo("mar", 5)).thenReturn(List.of(dto));
+        ResponseEntity<ApiResponse<List<ClienteBuscaDTO>>> response = clienteController.buscarPorTermo("mar", 5);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertEquals(List.of(dto), response.getBody().getData());
+    }
+
     @Test
     void buscarPorCpf_sucesso() {
         String cpf = "12345678900";
@@ -68,7 +79,7 @@ class ClienteControllerTest {
         String nome = "Nome";
         ClienteResponseDTO dto = new ClienteResponseDTO(UUID.randomUUID(), "12345678900", nome, "email@email.com", null, null);
         when(clienteService.buscarPorNomeSemelhante(nome)).thenReturn(List.of(dto));
-        ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> response = clienteController.buscarPorNomeSemelhante(nome, null, null);
+        ResponseEntity<ApiResponse<List<ClienteResponseDTO>>> response = clienteController.buscarPorNomeSemelhante(nome, null, null, null);
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
         assertNotNull(response.getBody().getData());
         assertFalse(response.getBody().getData().isEmpty());
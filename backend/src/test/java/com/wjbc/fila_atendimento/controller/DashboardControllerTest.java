@@ -1,7 +1,10 @@
 package com.wjbc.fila_atendimento.controller;
 
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardResumoDTO;
 import com.wjbc.fila_atendimento.domain.dashboard.dto.FluxoPacientesDTO;
 import com.wjbc.fila_atendimento.domain.dashboard.dto.HorarioPicoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.PercentisAtendimentoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.PercentisEsperaDTO;
 import com.wjbc.fila_atendimento.domain.dashboard.dto.ProdutividadeDTO;
 import com.wjbc.fila_atendimento.domain.dashboard.dto.TempoEsperaDTO;
 import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardService;
@@ -123,4 +126,76 @@ class DashboardControllerTest {
         Exception exception = assertThrows(RuntimeException.class, () -> dashboardController.fluxoPacientes(unidadeId, inicio, fim));
         assertEquals("Erro", exception.getMessage());
     }
+
+    @Test
+    void percentisEspera_sucesso() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        PercentisEsperaDTO dto = new PercentisEsperaDTO("Fila", "Setor", "Unidade", 50L, 8.0, 25.0, 60.0);
+        when(dashboardService.calcularPercentisEspera(unidadeId, inicio, fim)).thenReturn(List.of(dto));
+        ResponseEntity<ApiResponse<List<PercentisEsperaDTO>>> response = dashboardController.percentisEspera(unidadeId, inicio, fim);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+        assertNotNull(response.getBody().getData());
+        assertFalse(response.getBody().getData().isEmpty());
+    }
+
+    @Test
+    void percentisEspera_erro() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        when(dashboardService.calcularPercentisEspera(unidadeId, inicio, fim)).thenThrow(new RuntimeException("Erro"));
+        Exception exception = assertThrows(RuntimeException.class, () -> dashboardController.percentisEspera(unidadeId, inicio, fim));
+        assertEquals("Erro", exception.getMessage());
+    }
+
+    @Test
+    void percentisAtendimento_sucesso() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        PercentisAtendimentoDTO dto = new PercentisAtendimentoDTO("Profissional", "Setor", "Unidade", 30L, 12.0, 20.0, 35.0);
+        when(dashboardService.calcularPercentisAtendimento(unidadeId, inicio, fim)).thenReturn(List.of(dto));
+        ResponseEntity<ApiResponse<List<PercentisAtendimentoDTO>>> response = dashboardController.percentisAtendimento(unidadeId, inicio, fim);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+        assertNotNull(response.getBody().getData());
+        assertFalse(response.getBody().getData().isEmpty());
+    }
+
+    @Test
+    void percentisAtendimento_erro() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        when(dashboardService.calcularPercentisAtendimento(unidadeId, inicio, fim)).thenThrow(new RuntimeException("Erro"));
+        Exception exception = assertThrows(RuntimeException.class, () -> dashboardController.percentisAtendimento(unidadeId, inicio, fim));
+        assertEquals("Erro", exception.getMessage());
+    }
+
+    @Test
+    void resumo_sucesso() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        DashboardResumoDTO dto = new DashboardResumoDTO(
+                List.of(new TempoEsperaDTO("Fila", "Setor", "Unidade", 10.0, inicio, fim)),
+                List.of(new ProdutividadeDTO("Profissional", "Setor", "Unidade", 5L, 10.0)),
+                List.of(new HorarioPicoDTO("Unidade", "Setor", inicio, 20L)),
+                List.of(new FluxoPacientesDTO("Unidade", "Setor", null, 100L)));
+        when(dashboardService.gerarResumo(unidadeId, inicio, fim)).thenReturn(dto);
+        ResponseEntity<ApiResponse<DashboardResumoDTO>> response = dashboardController.resumo(unidadeId, inicio, fim);
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
+        assertEquals(dto, response.getBody().getData());
+    }
+
+    @Test
+    void resumo_erro() {
+        UUID unidadeId = UUID.randomUUID();
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now();
+        when(dashboardService.gerarResumo(unidadeId, inicio, fim)).thenThrow(new RuntimeException("Erro"));
+        Exception exception = assertThrows(RuntimeException.class, () -> dashboardController.resumo(unidadeId, inicio, fim));
+        assertEquals("Erro", exception.getMessage());
+    }
 }
@@ -12,6 +12,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -335,6 +339,40 @@ class SetorControllerTest {
                 .andExpect(jsonPath("$.data[2].nome").value("Setor 3"));
     }
 
+    @Test
+    void listarTodos_comPageESize_paginaNoBancoComHeaders() throws Exception {
+        SetorResponseDTO setor1 = new SetorResponseDTO(UUID.randomUUID(), "Setor 1");
+        SetorResponseDTO setor2 = new SetorResponseDTO(UUID.randomUUID(), "Setor 2");
+        Mockito.when(setorService.listarTodos(PageRequest.of(1, 2)))
+                .thenReturn(new PageImpl<>(List.of(setor1, setor2), PageRequest.of(1, 2), 7));
+
+        mockMvc.perform(get("/api/setores").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(header().string("X-Total-Count", "7"))
+                .andExpect(header().string("X-Total-Pages", "4"))
+                .andExpect(header().string("X-Page", "1"))
+                .andExpect(header().string("X-Page-Size", "2"))
+                .andExpect(header().string("Content-Range", "items 2-3/7"))
+                .andExpect(header().string("X-Next-Cursor", setor2.id().toString()));
+        Mockito.verify(setorService, Mockito.never()).listarTodos();
+    }
+
+    @Test
+    void listarTodos_comAfter_usaCursor() throws Exception {
+        UUID after = UUID.randomUUID();
+        SetorResponseDTO setor = new SetorResponseDTO(UUID.randomUUID(), "Setor 9");
+        Mockito.when(setorService.listarTodos(after, 1))
+                .thenReturn(Window.from(List.of(setor), i -> ScrollPosition.forward(Map.of("id", setor.id())), true));
+
+        mockMvc.perform(get("/api/setores").param("after", after.toString()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].nome").value("Setor 9"))
+                .andExpect(header().string("X-Page-Size", "1"))
+                .andExpect(header().string("X-Next-Cursor", setor.id().toString()))
+                .andExpect(header().doesNotExist("X-Total-Count"));
+    }
+
     @Test
     void criar_comEspacosEmBranco_deveRetornarBadRequest() throws Exception {
         SetorCreateDTO dtoInvalido = new SetorCreateDTO("   "); // Apenas espaços
@@ -0,0 +1,109 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.ChamadaDTO;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChamadasRecentesCacheTest {
+    @Mock EntradaFilaRepository entradaFilaRepository;
+    @Mock FilaRepository filaRepository;
+
+    private ChamadasRecentesCache cache;
+    private final UUID filaId = UUID.randomUUID();
+    private final LocalDateTime agora = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new ChamadasRecentesCache(entradaFilaRepository, filaRepository);
+    }
+
+    private ChamadaDTO chamada(String nome, int minutosAtras) {
+        return new ChamadaDTO(nome, "Sala 1", agora.minusMinutes(minutosAtras));
+    }
+
+    @Test void inicializar_carregaUltimasChamadasDeCadaFila() {
+        Fila fila = new Fila(); fila.setId(filaId);
+        when(filaRepository.findAll()).thenReturn(List.of(fila));
+        when(entradaFilaRepository.findUltimasChamadas(eq(filaId), any(Pageable.class)))
+                .thenReturn(List.of(chamada("C", 1), chamada("B", 2), chamada("A", 3)));
+
+        cache.inicializar();
+
+        assertEquals(List.of("C", "B", "A"), nomes(cache.ultimas(filaId)));
+        verify(entradaFilaRepository, times(1)).findUltimasChamadas(eq(filaId), any(Pageable.class));
+    }
+
+    @Test void registrar_descartaAMaisAntigaAoAtingirACapacidade() {
+        when(entradaFilaRepository.findUltimasChamadas(eq(filaId), any(Pageable.class)))
+                .thenReturn(List.of(chamada("B", 2), chamada("A", 3)));
+        cache.ultimas(filaId);
+
+        cache.registrar(filaId, chamada("C", 1));
+        cache.registrar(filaId, chamada("D", 0));
+
+        assertEquals(List.of("D", "C", "B"), nomes(cache.ultimas(filaId)));
+        verify(entradaFilaRepository, times(1)).findUltimasChamadas(eq(filaId), any(Pageable.class));
+    }
+
+    @Test void registrar_emFilaNaoCarregada_naoCriaEstadoParcial() {
+        cache.registrar(filaId, chamada("D", 0));
+        when(entradaFilaRepository.findUltimasChamadas(eq(filaId), any(Pageable.class)))
+                .thenReturn(List.of(chamada("D", 0), chamada("C", 1)));
+
+        assertEquals(List.of("D", "C"), nomes(cache.ultimas(filaId)));
+    }
+
+    @Test void invalidar_recarregaDoBancoNaProximaLeitura() {
+        when(entradaFilaRepository.findUltimasChamadas(eq(filaId), any(Pageable.class))).thenReturn(List.of(chamada("A", 3)));
+        cache.ultimas(filaId);
+        cache.invalidar(filaId);
+        cache.ultimas(filaId);
+        verify(entradaFilaRepository, times(2)).findUltimasChamadas(eq(filaId), any(Pageable.class));
+    }
+
+    @Test void registrosConcorrentes_mantemAsUltimasSemDuplicar() throws Exception {
+        when(entradaFilaRepository.findUltimasChamadas(eq(filaId), any(Pageable.class))).thenReturn(List.of());
+        cache.ultimas(filaId);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            String nome = "P" + i;
+            executor.execute(() -> {
+                cache.registrar(filaId, chamada(nome, 0));
+                List<ChamadaDTO> lidas = cache.ultimas(filaId);
+                assertTrue(lidas.size() <= 3);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<String> ultimas = nomes(cache.ultimas(filaId));
+        assertEquals(3, ultimas.size());
+        assertEquals(3, ultimas.stream().distinct().count());
+    }
+
+    private static List<String> nomes(List<ChamadaDTO> chamadas) {
+        List<String> nomes = new ArrayList<>();
+        chamadas.forEach(c -> nomes.add(c.nomePaciente()));
+        return nomes;
+    }
+}
@@ -0,0 +1,179 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
+import com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO;
+import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.support.Benchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+class ClienteBuscaIndexTest {
+    @Mock ClienteRepository clienteRepository;
+
+    private ClienteBuscaIndex index;
+    private final ClienteBuscaDTO maria = new ClienteBuscaDTO(UUID.randomUUID(), "Maria da Conceição Souza", "123.456.789-00");
+    private final ClienteBuscaDTO mariana = new ClienteBuscaDTO(UUID.randomUUID(), "Mariana Souza", "98765432100");
+    private final ClienteBuscaDTO jose = new ClienteBuscaDTO(UUID.randomUUID(), "José Maria Alves", "11122233344");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new ClienteBuscaIndex(clienteRepository, true, 1000);
+        when(clienteRepository.findResumosParaBusca()).thenReturn(List.of(maria, mariana, jose));
+        when(clienteRepository.findTelefonesParaBusca()).thenReturn(List.of(
+                new ClienteTelefoneDTO(jose.id(), 77, 988887777L), new ClienteTelefoneDTO(jose.id(), 77, 32221111L)));
+        index.recarregar();
+    }
+
+    private List<String> nomes(String termo) {
+        return index.buscar(termo, 10).orElseThrow().stream().map(ClienteBuscaDTO::nome).toList();
+    }
+
+    @Test void nomesQueComecamPeloTermo_vemAntes_eIgnoramAcentos() {
+        assertEquals(List.of("Maria da Conceição Souza", "Mariana Souza", "José Maria Alves"), nomes("MARIA"));
+        assertEquals(List.of("José Maria Alves"), nomes("jose"));
+        assertEquals(List.of("Maria da Conceição Souza"), nomes("conceicao"));
+    }
+
+    @Test void cadaPalavraDoTermo_comecaUmaPalavraDoCliente() {
+        assertEquals(List.of("Maria da Conceição Souza", "Mariana Souza"), nomes("sou mar"));
+        assertEquals(List.of("José Maria Alves"), nomes("alv jo"));
+        assertTrue(nomes("souza alves").isEmpty());
+    }
+
+    @Test void digitos_buscamCpfETelefone_semPontuacao() {
+        assertEquals(List.of("Maria da Conceição Souza"), nomes("123.456"));
+        assertEquals(List.of("José Maria Alves"), nomes("(77) 98888"));
+        assertEquals(List.of("José Maria Alves"), nomes("3222-1111"));
+        assertTrue(index.buscar(" ", 10).orElseThrow().isEmpty());
+        assertTrue(nomes("7").isEmpty());
+    }
+
+    @Test void limite_cortaOsResultados() {
+        assertEquals(List.of("Maria da Conceição Souza", "Mariana Souza"),
+                index.buscar("maria", 2).orElseThrow().stream().map(ClienteBuscaDTO::nome).toList());
+    }
+
+    @Test void alteracoes_semTransacao_valemNaHora() {
+        index.atualizar(new ClienteBuscaDTO(mariana.id(), "Mariana Teixeira", mariana.cpf(), List.of("71999990000")));
+        index.remover(jose.id());
+
+        assertEquals(List.of("Maria da Conceição Souza", "Mariana Teixeira"), nomes("maria"));
+        assertTrue(nomes("souza mariana").isEmpty());
+        assertEquals(List.of("Mariana Teixeira"), nomes("71 9999"));
+        assertEquals(2, index.tamanho());
+    }
+
+    @Test void alteracaoDuranteARecarga_naoSePerde() {
+        ClienteBuscaDTO novo = new ClienteBuscaDTO(UUID.randomUUID(), "Otávio Mendes", "55566677788");
+        // Cadastrado (e removido outro) enquanto a recarga lê o banco, que ainda não os enxerga
+        when(clienteRepository.findResumosParaBusca()).thenAnswer(invocacao -> {
+            index.atualizar(novo);
+            index.remover(mariana.id());
+            return List.of(maria, mariana, jose);
+        });
+
+        index.recarregar();
+
+        assertEquals(List.of("Otávio Mendes"), nomes("otavio"));
+        assertEquals(List.of("Maria da Conceição Souza", "José Maria Alves"), nomes("maria"));
+    }
+
+    @Test void acimaDoMaximoDeClientes_ficaInativo_eVoltaNaRecarga() {
+        index = new ClienteBuscaIndex(clienteRepository, true, 3);
+        index.recarregar();
+        assertTrue(index.isAtivo());
+
+        index.atualizar(new ClienteBuscaDTO(UUID.randomUUID(), "Quarto Cliente", "00000000004"));
+        assertFalse(index.isAtivo());
+        assertTrue(index.buscar("maria", 10).isEmpty());
+
+        when(clienteRepository.findResumosParaBusca()).thenReturn(List.of(maria, mariana, jose, jose, jose));
+        index.recarregar();
+        assertFalse(index.isAtivo());
+        verify(clienteRepository, times(2)).findTelefonesParaBusca();
+
+        when(clienteRepository.findResumosParaBusca()).thenReturn(List.of(maria));
+        index.recarregar();
+        assertEquals(List.of("Maria da Conceição Souza"), nomes("mar"));
+    }
+
+    @Test void falhaNaRecarga_mantemOIndiceAtual() {
+        when(clienteRepository.findResumosParaBusca()).thenThrow(new IllegalStateException("banco indisponível"));
+
+        assertThrows(IllegalStateException.class, index::recarregar);
+
+        assertEquals(3, index.tamanho());
+        index.remover(maria.id());
+        assertEquals(2, index.tamanho());
+    }
+
+    @Test void desabilitado_naoCarregaNemResponde() {
+        index = new ClienteBuscaIndex(clienteRepository, false, 1000);
+        index.inicializar();
+        index.atualizar(maria);
+
+        assertFalse(index.isAtivo());
+        assertTrue(index.buscar("maria", 10).isEmpty());
+    }
+
+    @Test void digitosDaBusca_soSemLetras() {
+        assertEquals("12345678900", ClienteBuscaIndex.digitosDaBusca(" 123.456.789-00 "));
+        assertEquals("77988887777", ClienteBuscaIndex.digitosDaBusca("(77) 98888-7777"));
+        assertNull(ClienteBuscaIndex.digitosDaBusca("maria 77"));
+    }
+
+    // Termos típicos da recepção sobre 200 mil clientes: p95 em microssegundos, sem banco (o limite só com
+    // -Dbenchmark.verificar-tempos=true)
+    @Test void benchmark_p95EmMicrossegundos() {
+        String[] nomes = {"Maria", "José", "Ana", "João", "Antônia", "Francisco", "Lúcia", "Pedro", "Marcos", "Juliana",
+                "Luiz", "Márcia", "Carlos", "Fernanda", "Paulo", "Raimundo", "Cláudia", "Vitor", "Conceição", "Sebastião"};
+        String[] sobrenomes = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima",
+                "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Gonçalves", "Araújo", "Rocha", "Dias"};
+        List<ClienteBuscaDTO> clientes = new ArrayList<>();
+        List<ClienteTelefoneDTO> telefones = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            UUID id = UUID.randomUUID();
+            clientes.add(new ClienteBuscaDTO(id, nomes[i % 20] + " " + sobrenomes[(i / 20) % 20] + " " + sobrenomes[(i / 400) % 20],
+                    String.format("%011d", 10_000_000_000L + i * 7919L)));
+            telefones.add(new ClienteTelefoneDTO(id, 11 + i % 80, 900_000_000L + i));
+        }
+        when(clienteRepository.findResumosParaBusca()).thenReturn(clientes);
+        when(clienteRepository.findTelefonesParaBusca()).thenReturn(telefones);
+        index = new ClienteBuscaIndex(clienteRepository, true, 300_000);
+        index.recarregar();
+
+        List<String> termos = List.of("mar", "maria s", "jose", "conc", "sil", "oliveira go", "joão pereira",
+                "ana", "ra", "vitor rocha dias", "1000", "11900", "(45) 90001", "900012", "lu");
+        for (int volta = 0; volta < 50; volta++) {
+            termos.forEach(termo -> index.buscar(termo, 10));
+        }
+        long[] tempos = new long[termos.size() * 100];
+        int i = 0;
+        for (int volta = 0; volta < 100; volta++) {
+            for (String termo : termos) {
+                long inicio = System.nanoTime();
+                index.buscar(termo, 10);
+                tempos[i++] = System.nanoTime() - inicio;
+            }
+        }
+        Arrays.sort(tempos);
+        long p50 = tempos[tempos.length / 2] / 1000;
+        long p95 = tempos[(int) Math.ceil(tempos.length * 0.95) - 1] / 1000;
+        log.info("Busca de clientes em memória em {} clientes: p50 {} µs, p95 {} µs", index.tamanho(), p50, p95);
+
+        Benchmark.verificarTempo(p95 < 2_000, () -> "p95 da busca em memória: " + p95 + " µs");
+    }
+}
@@ -0,0 +1,170 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteradaEvent;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DashboardResultadoCacheTest {
+    @Mock FilaRepository filaRepository;
+
+    private DashboardResultadoCache cache;
+    private final UUID unidade = UUID.randomUUID();
+    private final UUID outraUnidade = UUID.randomUUID();
+    private final UUID fila = UUID.randomUUID();
+    private final List<LocalDateTime[]> consultas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(filaRepository.findUnidadeAtendimentoIdById(fila)).thenReturn(Optional.of(unidade));
+        cache = novoCache(3, 60);
+    }
+
+    private DashboardResultadoCache novoCache(int tamanhoMaximo, long ttlAbertoSegundos) {
+        return new DashboardResultadoCache(filaRepository, new SimpleMeterRegistry(), true,
+                tamanhoMaximo, ttlAbertoSegundos, 86400, 24, 60);
+    }
+
+    private BiFunction<LocalDateTime, LocalDateTime, List<String>> consulta() {
+        return (inicio, fim) -> {
+            consultas.add(new LocalDateTime[]{inicio, fim});
+            return List.of("resultado " + consultas.size());
+        };
+    }
+
+    private List<String> obter(UUID unidadeId, LocalDateTime inicio, LocalDateTime fim) {
+        return cache.obter("tempo-medio-espera", unidadeId, inicio, fim, consulta());
+    }
+
+    @Test void mesmoPeriodo_consultaUmaVez() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now().minusHours(1);
+        assertEquals(List.of("resultado 1"), obter(unidade, inicio, fim));
+        assertEquals(List.of("resultado 1"), obter(unidade, inicio, fim));
+        assertEquals(1, consultas.size());
+        assertEquals(1, cache.getAcertos());
+        assertEquals(1, cache.getFaltas());
+    }
+
+    @Test void relatoriosEUnidadesDiferentes_naoCompartilham() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now().minusHours(1);
+        obter(unidade, inicio, fim);
+        obter(outraUnidade, inicio, fim);
+        cache.obter("produtividade", unidade, inicio, fim, consulta());
+        assertEquals(3, consultas.size());
+    }
+
+    @Test void periodoAteAgora_ignoraFimEArredondaInicio() {
+        LocalDateTime inicio = LocalDateTime.of(2026, 1, 10, 8, 15, 42);
+        obter(unidade, inicio, LocalDateTime.now().plusSeconds(5));
+        obter(unidade, inicio.plusSeconds(10), LocalDateTime.now().plusMinutes(1));
+        assertEquals(1, consultas.size());
+        assertEquals(LocalDateTime.of(2026, 1, 10, 8, 15), consultas.get(0)[0]);
+    }
+
+    @Test void alteracaoDeFila_invalidaPeriodosRecentesDaUnidade() {
+        LocalDateTime inicio = LocalDateTime.now().minusHours(3);
+        LocalDateTime fim = LocalDateTime.now().plusHours(1);
+        obter(unidade, inicio, fim);
+        obter(outraUnidade, inicio, fim);
+
+        cache.aoAlterarFila(new FilaAlteradaEvent(fila, null, TipoEventoFila.ENTRADA));
+
+        obter(unidade, inicio, fim);
+        obter(outraUnidade, inicio, fim);
+        assertEquals(3, consultas.size());
+    }
+
+    @Test void alteracaoEmOutraInstancia_tambemInvalida() {
+        LocalDateTime inicio = LocalDateTime.now().minusHours(3);
+        LocalDateTime fim = LocalDateTime.now().minusMinutes(5);
+        obter(unidade, inicio, fim);
+
+        cache.aoAlterarFilaEmOutraInstancia(new FilaAlteracaoEvento("outra", TipoEventoFila.CHAMADA, null, fila,
+                UUID.randomUUID(), false, false, null));
+
+        obter(unidade, inicio, fim);
+        assertEquals(2, consultas.size());
+    }
+
+    @Test void periodoHistorico_sobreviveAsAlteracoes() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(10);
+        LocalDateTime fim = LocalDateTime.now().minusDays(3);
+        obter(unidade, inicio, fim);
+
+        cache.aoAlterarFila(new FilaAlteradaEvent(fila, null, TipoEventoFila.CHAMADA));
+
+        obter(unidade, inicio, fim);
+        assertEquals(1, consultas.size());
+    }
+
+    @Test void unidadeDaFila_consultadaUmaVez() {
+        cache.aoAlterarFila(new FilaAlteradaEvent(fila, null, TipoEventoFila.ENTRADA));
+        cache.aoAlterarFila(new FilaAlteradaEvent(fila, null, TipoEventoFila.CHAMADA));
+        verify(filaRepository, times(1)).findUnidadeAtendimentoIdById(fila);
+    }
+
+    @Test void filaDesconhecida_invalidaTodasAsUnidades() {
+        LocalDateTime inicio = LocalDateTime.now().minusHours(3);
+        LocalDateTime fim = LocalDateTime.now().plusHours(1);
+        obter(outraUnidade, inicio, fim);
+
+        cache.aoAlterarFila(new FilaAlteradaEvent(UUID.randomUUID(), null, TipoEventoFila.ENTRADA));
+
+        obter(outraUnidade, inicio, fim);
+        assertEquals(2, consultas.size());
+    }
+
+    @Test void ttlExpirado_consultaNovamente() {
+        cache = novoCache(3, 0);
+        LocalDateTime inicio = LocalDateTime.now().minusHours(3);
+        LocalDateTime fim = LocalDateTime.now().minusHours(1);
+        obter(unidade, inicio, fim);
+        obter(unidade, inicio, fim);
+        assertEquals(2, consultas.size());
+    }
+
+    @Test void tamanhoMaximo_removeMenosUsado() {
+        LocalDateTime fim = LocalDateTime.now().minusDays(3);
+        LocalDateTime a = fim.minusDays(1);
+        LocalDateTime b = fim.minusDays(2);
+        LocalDateTime c = fim.minusDays(3);
+        obter(unidade, a, fim);
+        obter(unidade, b, fim);
+        obter(unidade, c, fim);
+        obter(unidade, a, fim);
+        obter(unidade, fim.minusDays(4), fim);
+        assertEquals(3, cache.tamanho());
+
+        obter(unidade, a, fim);
+        assertEquals(4, consultas.size());
+        obter(unidade, b, fim);
+        assertEquals(5, consultas.size());
+    }
+
+    @Test void desabilitado_sempreConsulta() {
+        cache = new DashboardResultadoCache(filaRepository, new SimpleMeterRegistry(), false, 3, 60, 86400, 24, 60);
+        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
+        LocalDateTime fim = LocalDateTime.now().minusHours(1);
+        obter(unidade, inicio, fim);
+        obter(unidade, inicio, fim);
+        assertEquals(2, consultas.size());
+    }
+}
@@ -0,0 +1,107 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class FilaPrioridadeIndexTest {
+    @Mock EntradaFilaRepository entradaFilaRepository;
+    @InjectMocks FilaPrioridadeIndex index;
+
+    private final UUID filaId = UUID.randomUUID();
+    private final LocalDateTime base = LocalDateTime.now().minusHours(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(index, "habilitado", true);
+        ReflectionTestUtils.setField(index, "margemReconciliacaoSegundos", 60L);
+    }
+
+    private EntradaFilaPrioridadeDTO entrada(boolean prioridade, boolean retorno, int minutos) {
+        return new EntradaFilaPrioridadeDTO(UUID.randomUUID(), filaId, prioridade, retorno, base.plusMinutes(minutos));
+    }
+
+    @Test void reconstruir_ativaIndiceComEntradasDoBanco() {
+        EntradaFilaPrioridadeDTO e = entrada(false, false, 0);
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(List.of(e));
+        assertFalse(index.isAtivo());
+        index.reconstruir();
+        assertTrue(index.isAtivo());
+        assertEquals(1, index.tamanho(filaId));
+    }
+
+    @Test void quantidadeAFrente_contaApenasQuemSeriaChamadoAntes() {
+        index.adicionar(entrada(false, false, 0));
+        index.adicionar(entrada(true, false, 20));
+        index.adicionar(entrada(false, false, 30));
+        index.adicionar(entrada(false, true, 0));
+
+        assertEquals(2, index.quantidadeAFrente(filaId, UUID.randomUUID(), false, base.plusMinutes(10), false));
+        assertEquals(1, index.quantidadeAFrente(filaId, UUID.randomUUID(), true, base.plusMinutes(25), false));
+        assertEquals(0, index.quantidadeAFrente(filaId, UUID.randomUUID(), false, base.minusMinutes(1), true));
+        assertEquals(1, index.tamanho(filaId, true));
+        assertEquals(0, index.quantidadeAFrente(UUID.randomUUID(), UUID.randomUUID(), false, base, false));
+    }
+
+    @Test void retirarProximo_respeitaPrioridadeEOrdemDeChegada() {
+        EntradaFilaPrioridadeDTO primeiroNormal = entrada(false, false, 0);
+        EntradaFilaPrioridadeDTO segundoNormal = entrada(false, false, 5);
+        EntradaFilaPrioridadeDTO prioritario = entrada(true, false, 10);
+        index.adicionar(segundoNormal);
+        index.adicionar(prioritario);
+        index.adicionar(primeiroNormal);
+        assertEquals(Optional.of(prioritario.id()), index.retirarProximo(filaId, false));
+        assertEquals(Optional.of(primeiroNormal.id()), index.retirarProximo(filaId, false));
+        assertEquals(Optional.of(segundoNormal.id()), index.retirarProximo(filaId, false));
+        assertTrue(index.retirarProximo(filaId, false).isEmpty());
+    }
+
+    @Test void retirarProximo_retornoSomenteQuandoSolicitado() {
+        EntradaFilaPrioridadeDTO retorno = entrada(false, true, 0);
+        EntradaFilaPrioridadeDTO normal = entrada(true, false, 5);
+        index.adicionar(retorno);
+        index.adicionar(normal);
+        assertEquals(Optional.of(normal.id()), index.retirarProximo(filaId, false));
+        assertTrue(index.retirarProximo(filaId, false).isEmpty());
+        assertEquals(Optional.of(retorno.id()), index.retirarProximo(filaId, true));
+    }
+
+    @Test void retirarProximo_filaDesconhecida() {
+        assertTrue(index.retirarProximo(UUID.randomUUID(), true).isEmpty());
+    }
+
+    @Test void reconciliar_incluiAusentesERemoveObsoletas() {
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(List.of());
+        index.reconstruir();
+        EntradaFilaPrioridadeDTO obsoleta = entrada(false, false, 0);
+        EntradaFilaPrioridadeDTO recente = new EntradaFilaPrioridadeDTO(UUID.randomUUID(), filaId, false, false, LocalDateTime.now());
+        EntradaFilaPrioridadeDTO ausente = entrada(false, false, 1);
+        index.adicionar(obsoleta);
+        index.adicionar(recente);
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(new ArrayList<>(List.of(ausente)));
+
+        index.reconciliar();
+
+        assertEquals(2, index.getDivergenciasCorrigidas());
+        assertEquals(Optional.of(ausente.id()), index.retirarProximo(filaId, false));
+        // a entrada recente permanece: pode ainda não ter sido vista pela consulta
+        assertEquals(Optional.of(recente.id()), index.retirarProximo(filaId, false));
+        assertTrue(index.retirarProximo(filaId, false).isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaDeltaDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.repository.PainelProfissionalEstadoRepository;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas instâncias do tracker sobre o mesmo banco, como duas réplicas atrás do broker externo:
+ * os deltas de um setor, gerados e enviados ao mesmo tempo pelas duas, formam uma única sequência,
+ * enviada em ordem.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class PainelProfissionalDeltaTrackerPostgresTest {
+
+    private static final int THREADS = 8;
+    private static final int REGISTROS_POR_THREAD = 20;
+    private static final Consumer<FilaDeltaDTO> SEM_ENVIO = delta -> {};
+
+    @Autowired PainelProfissionalEstadoRepository estadoRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ObjectMapper objectMapper;
+
+    private PainelProfissionalDeltaTracker instanciaA;
+    private PainelProfissionalDeltaTracker instanciaB;
+    private final UUID setorId = UUID.randomUUID();
+    private final FilaResponseDTO fila = new FilaResponseDTO(UUID.randomUUID(), "Triagem", null, null);
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        instanciaA = new PainelProfissionalDeltaTracker(estadoRepository, transactionManager, objectMapper, "relay");
+        instanciaB = new PainelProfissionalDeltaTracker(estadoRepository, transactionManager, objectMapper, "relay");
+    }
+
+    @AfterEach
+    void limpar() {
+        estadoRepository.deleteById(setorId);
+    }
+
+    private EntradaFilaResponseDTO aguardando(UUID id, int posicao) {
+        return new EntradaFilaResponseDTO(id, StatusFila.AGUARDANDO, false, false, LocalDateTime.of(2025, 1, 1, 8, 0),
+                null, null, null, null, fila, null).comEstimativa(posicao, 60L * posicao);
+    }
+
+    @Test
+    void registrar_simultaneoNasDuasInstancias_formaUmaUnicaSequencia() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<FilaDeltaDTO>>> resultados = new ArrayList<>();
+        // O que chega ao broker, na ordem de envio
+        List<Long> enviadas = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                PainelProfissionalDeltaTracker instancia = t % 2 == 0 ? instanciaA : instanciaB;
+                Callable<List<FilaDeltaDTO>> tarefa = () -> {
+                    List<FilaDeltaDTO> deltas = new ArrayList<>();
+                    for (int i = 0; i < REGISTROS_POR_THREAD; i++) {
+                        // Cada lista tem uma entrada nova: todo registro gera delta
+                        deltas.add(instancia.registrar(setorId, List.of(aguardando(UUID.randomUUID(), 1)),
+                                delta -> enviadas.add(delta.sequencia())).orElseThrow());
+                    }
+                    return deltas;
+                };
+                resultados.add(executor.submit(tarefa));
+            }
+            List<FilaDeltaDTO> deltas = new ArrayList<>();
+            for (Future<List<FilaDeltaDTO>> resultado : resultados) {
+                deltas.addAll(resultado.get());
+            }
+
+            deltas.sort(Comparator.comparingLong(FilaDeltaDTO::sequencia));
+            for (int i = 0; i < deltas.size(); i++) {
+                assertEquals(i, deltas.get(i).sequenciaAnterior());
+                assertEquals(i + 1, deltas.get(i).sequencia());
+            }
+            assertEquals(deltas.stream().map(FilaDeltaDTO::sequencia).toList(), enviadas);
+            assertEquals(THREADS * REGISTROS_POR_THREAD, instanciaB.snapshot(setorId).orElseThrow().sequencia());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void registrar_deltaDeUmaInstanciaPartiDoEstadoPublicadoPelaOutra() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        instanciaA.registrar(setorId, List.of(aguardando(a, 1), aguardando(b, 2)), SEM_ENVIO);
+
+        // Chamado o primeiro, na outra instância
+        FilaDeltaDTO delta = instanciaB.registrar(setorId, List.of(aguardando(b, 1)), SEM_ENVIO).orElseThrow();
+
+        assertEquals(1, delta.sequenciaAnterior());
+        assertEquals(1, delta.alteracoes().size());
+        assertEquals(a, delta.alteracoes().get(0).entradaFilaId());
+        assertEquals(List.of(b), delta.estimativas().get(0).ordem());
+        assertEquals(List.of(aguardando(b, 1)), instanciaA.snapshot(setorId).orElseThrow().filaAtual());
+    }
+
+    @Test
+    void inicializar_primeiraInstanciaDefineOEstadoBase() {
+        UUID a = UUID.randomUUID();
+        FilaSnapshotDTO inicial = instanciaA.inicializar(setorId, List.of(aguardando(a, 1)));
+        FilaSnapshotDTO naOutra = instanciaB.inicializar(setorId, List.of());
+
+        assertEquals(0, inicial.sequencia());
+        assertEquals(inicial, naOutra);
+        assertTrue(instanciaB.registrar(setorId, List.of(aguardando(a, 1)), SEM_ENVIO).isEmpty());
+    }
+}
@@ -0,0 +1,197 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaAlteracaoDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaDeltaDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaEstimativasDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.dto.SetorResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.UnidadeAtendimentoResponseDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoAlteracaoFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoTelefone;
+import com.wjbc.fila_atendimento.domain.model.Endereco;
+import com.wjbc.fila_atendimento.domain.model.PainelProfissionalEstado;
+import com.wjbc.fila_atendimento.domain.model.Telefone;
+import com.wjbc.fila_atendimento.support.PainelProfissionalEstadoEmMemoria;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PainelProfissionalDeltaTrackerTest {
+    private final PainelProfissionalDeltaTracker tracker = PainelProfissionalEstadoEmMemoria.novoTracker();
+    private final UUID setorId = UUID.randomUUID();
+    private final FilaResponseDTO fila = new FilaResponseDTO(UUID.randomUUID(), "Triagem", null, null);
+    private final List<FilaDeltaDTO> enviados = new ArrayList<>();
+
+    private static EntradaFilaResponseDTO entrada(UUID id, StatusFila status) {
+        return new EntradaFilaResponseDTO(id, status, false, false, LocalDateTime.of(2025, 1, 1, 8, 0),
+                null, null, null, null, null, null);
+    }
+
+    private EntradaFilaResponseDTO aguardando(UUID id, int posicao, Long espera) {
+        return new EntradaFilaResponseDTO(id, StatusFila.AGUARDANDO, false, false, LocalDateTime.of(2025, 1, 1, 8, 0),
+                null, null, null, null, fila, null).comEstimativa(posicao, espera);
+    }
+
+    @Test void registrar_primeiraListaGeraSomenteAdicionadas() {
+        UUID a = UUID.randomUUID();
+        FilaDeltaDTO delta = tracker.registrar(setorId, List.of(entrada(a, StatusFila.AGUARDANDO)), enviados::add).orElseThrow();
+        assertEquals(0, delta.sequenciaAnterior());
+        assertEquals(1, delta.sequencia());
+        assertEquals(List.of(new FilaAlteracaoDTO(TipoAlteracaoFila.ADICIONADA, a, entrada(a, StatusFila.AGUARDANDO))), delta.alteracoes());
+        assertEquals(List.of(delta), enviados);
+    }
+
+    @Test void registrar_detectaAtualizacaoERemocao() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        tracker.registrar(setorId, List.of(entrada(a, StatusFila.AGUARDANDO), entrada(b, StatusFila.AGUARDANDO)), enviados::add);
+
+        FilaDeltaDTO delta = tracker.registrar(setorId, List.of(entrada(a, StatusFila.CHAMADO)), enviados::add).orElseThrow();
+
+        assertEquals(2, delta.sequencia());
+        assertEquals(List.of(
+                new FilaAlteracaoDTO(TipoAlteracaoFila.ATUALIZADA, a, entrada(a, StatusFila.CHAMADO)),
+                new FilaAlteracaoDTO(TipoAlteracaoFila.REMOVIDA, b, null)
+        ), delta.alteracoes());
+    }
+
+    @Test void registrar_semMudancaNaoAvancaSequencia() {
+        List<EntradaFilaResponseDTO> lista = List.of(entrada(UUID.randomUUID(), StatusFila.AGUARDANDO));
+        tracker.registrar(setorId, lista, enviados::add);
+        assertTrue(tracker.registrar(setorId, lista, enviados::add).isEmpty());
+        assertEquals(1, tracker.snapshot(setorId).orElseThrow().sequencia());
+        assertEquals(1, enviados.size());
+    }
+
+    @Test void snapshot_refleteUltimoEstadoPublicado() {
+        UUID a = UUID.randomUUID();
+        assertTrue(tracker.snapshot(setorId).isEmpty());
+        tracker.registrar(setorId, List.of(entrada(a, StatusFila.AGUARDANDO)), enviados::add);
+        FilaSnapshotDTO snapshot = tracker.snapshot(setorId).orElseThrow();
+        assertEquals(1, snapshot.sequencia());
+        assertEquals(List.of(entrada(a, StatusFila.AGUARDANDO)), snapshot.filaAtual());
+    }
+
+    @Test void inicializar_naoSobrescreveEstadoExistente() {
+        UUID a = UUID.randomUUID();
+        FilaSnapshotDTO inicial = tracker.inicializar(setorId, List.of(entrada(a, StatusFila.AGUARDANDO)));
+        assertEquals(0, inicial.sequencia());
+
+        FilaSnapshotDTO novamente = tracker.inicializar(setorId, List.of());
+        assertEquals(inicial, novamente);
+        // Deltas seguintes partem do estado inicializado
+        assertTrue(tracker.registrar(setorId, List.of(entrada(a, StatusFila.AGUARDANDO)), enviados::add).isEmpty());
+    }
+
+    @Test void registrar_chamadaGeraSomenteARemocaoEANovaOrdem() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        tracker.registrar(setorId, List.of(aguardando(a, 1, 300L), aguardando(b, 2, 600L), aguardando(c, 3, 900L)), enviados::add);
+
+        // Chamado o primeiro: os demais sobem uma posição e esperam menos
+        FilaDeltaDTO delta = tracker.registrar(setorId, List.of(aguardando(b, 1, 300L), aguardando(c, 2, 600L)), enviados::add).orElseThrow();
+
+        assertEquals(List.of(new FilaAlteracaoDTO(TipoAlteracaoFila.REMOVIDA, a, null)), delta.alteracoes());
+        assertEquals(List.of(new FilaEstimativasDTO(fila.id(), List.of(b, c), List.of(300L, 600L))), delta.estimativas());
+    }
+
+    @Test void registrar_somenteEstimativaMudouEnviaApenasABlocoDaFila() {
+        UUID a = UUID.randomUUID();
+        tracker.registrar(setorId, List.of(aguardando(a, 1, 300L)), enviados::add);
+
+        FilaDeltaDTO delta = tracker.registrar(setorId, List.of(aguardando(a, 1, 240L)), enviados::add).orElseThrow();
+
+        assertEquals(2, delta.sequencia());
+        assertTrue(delta.alteracoes().isEmpty());
+        assertEquals(List.of(new FilaEstimativasDTO(fila.id(), List.of(a), List.of(240L))), delta.estimativas());
+    }
+
+    @Test void registrar_filaEsvaziadaEnviaOrdemVazia() {
+        UUID a = UUID.randomUUID();
+        tracker.registrar(setorId, List.of(aguardando(a, 1, null)), enviados::add);
+
+        FilaDeltaDTO delta = tracker.registrar(setorId, List.of(), enviados::add).orElseThrow();
+
+        assertEquals(List.of(new FilaEstimativasDTO(fila.id(), List.of(), List.of())), delta.estimativas());
+    }
+
+    @Test void snapshot_trazPosicaoEEsperaNasEntradas() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        tracker.registrar(setorId, List.of(aguardando(a, 2, 600L), aguardando(b, 1, null)), enviados::add);
+
+        assertEquals(List.of(aguardando(a, 2, 600L), aguardando(b, 1, null)), tracker.snapshot(setorId).orElseThrow().filaAtual());
+    }
+
+    @Test void registrar_falhaNoEnvioNaoAvancaASequencia() {
+        List<EntradaFilaResponseDTO> lista = List.of(entrada(UUID.randomUUID(), StatusFila.AGUARDANDO));
+
+        assertThrows(IllegalStateException.class, () -> tracker.registrar(setorId, lista, delta -> {
+            throw new IllegalStateException("broker indisponível");
+        }));
+
+        assertEquals(0, tracker.registrar(setorId, lista, enviados::add).orElseThrow().sequenciaAnterior());
+    }
+
+    @Test void registrar_brokerSimples_cadaInstanciaTemOProprioEstado() {
+        // Cada instância republica a mesma alteração para os próprios inscritos
+        PainelProfissionalDeltaTracker outraInstancia = PainelProfissionalEstadoEmMemoria.novoTracker();
+        List<EntradaFilaResponseDTO> lista = List.of(entrada(UUID.randomUUID(), StatusFila.AGUARDANDO));
+
+        FilaDeltaDTO nesta = tracker.registrar(setorId, lista, enviados::add).orElseThrow();
+        FilaDeltaDTO naOutra = outraInstancia.registrar(setorId, lista, enviados::add).orElseThrow();
+
+        assertEquals(nesta, naOutra);
+        assertEquals(List.of(nesta, naOutra), enviados);
+    }
+
+    @Test void registrar_brokerExterno_instanciasCompartilhamSequenciaEEstadoBase() {
+        Map<UUID, PainelProfissionalEstado> banco = new HashMap<>();
+        PainelProfissionalDeltaTracker instanciaA = PainelProfissionalEstadoEmMemoria.novoTrackerCompartilhado(banco);
+        PainelProfissionalDeltaTracker instanciaB = PainelProfissionalEstadoEmMemoria.novoTrackerCompartilhado(banco);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        FilaDeltaDTO primeiro = instanciaA.registrar(setorId, List.of(aguardando(a, 1, null)), enviados::add).orElseThrow();
+        FilaDeltaDTO segundo = instanciaB.registrar(setorId, List.of(aguardando(a, 1, null), aguardando(b, 2, null)), enviados::add).orElseThrow();
+
+        assertEquals(primeiro.sequencia(), segundo.sequenciaAnterior());
+        assertEquals(List.of(new FilaAlteracaoDTO(TipoAlteracaoFila.ADICIONADA, b, aguardando(b, 2, null).comEstimativa(null, null))),
+                segundo.alteracoes());
+        assertEquals(instanciaB.snapshot(setorId), instanciaA.snapshot(setorId));
+        assertEquals(2, instanciaA.snapshot(setorId).orElseThrow().sequencia());
+        assertEquals(List.of(primeiro, segundo), enviados);
+    }
+
+    @Test void snapshot_brokerExterno_preservaAEntradaCompletaGravadaNoBanco() {
+        PainelProfissionalDeltaTracker tracker = PainelProfissionalEstadoEmMemoria.novoTrackerCompartilhado(new HashMap<>());
+        Telefone telefone = new Telefone();
+        telefone.setTipo(TipoTelefone.CELULAR);
+        telefone.setDdd(77);
+        telefone.setNumero(988887777L);
+        Endereco endereco = new Endereco();
+        endereco.setCidade("Vitória da Conquista");
+        FilaResponseDTO filaCompleta = new FilaResponseDTO(UUID.randomUUID(), "Triagem", new SetorResponseDTO(setorId, "Recepção"),
+                new UnidadeAtendimentoResponseDTO(UUID.randomUUID(), "UBS Centro", endereco, List.of(telefone)));
+        EntradaFilaResponseDTO entrada = new EntradaFilaResponseDTO(UUID.randomUUID(), StatusFila.AGUARDANDO, true, true,
+                LocalDateTime.of(2025, 1, 1, 8, 0), null, null, null,
+                new ClienteResponseDTO(UUID.randomUUID(), "123.456.789-00", "Maria", null, List.of(telefone), endereco),
+                filaCompleta, UUID.randomUUID()).comEstimativa(1, 120L);
+
+        tracker.registrar(setorId, List.of(entrada), enviados::add);
+
+        assertEquals(List.of(entrada), tracker.snapshot(setorId).orElseThrow().filaAtual());
+    }
+}
@@ -0,0 +1,65 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.PainelFilaVinculoDTO;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class PainelRoteamentoCacheTest {
+    @Mock PainelRepository painelRepository;
+
+    private PainelRoteamentoCache cache;
+    private final UUID painelA = UUID.randomUUID();
+    private final UUID painelB = UUID.randomUUID();
+    private final UUID fila1 = UUID.randomUUID();
+    private final UUID fila2 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cache = new PainelRoteamentoCache(painelRepository);
+        when(painelRepository.findVinculosPainelFila()).thenReturn(List.of(
+                new PainelFilaVinculoDTO(painelA, fila1),
+                new PainelFilaVinculoDTO(painelA, fila2),
+                new PainelFilaVinculoDTO(painelB, fila1)));
+    }
+
+    @Test void antesDeCarregar_naoResponde() {
+        assertEquals(Optional.empty(), cache.paineisDaFila(fila1));
+    }
+
+    @Test void recarregar_montaRoteamentoPorFila() {
+        cache.recarregar();
+        assertEquals(Set.of(painelA, painelB), cache.paineisDaFila(fila1).orElseThrow());
+        assertEquals(Set.of(painelA), cache.paineisDaFila(fila2).orElseThrow());
+        assertEquals(Set.of(), cache.paineisDaFila(UUID.randomUUID()).orElseThrow());
+    }
+
+    @Test void definirFilas_substituiVinculosDoPainel() {
+        cache.recarregar();
+        cache.definirFilas(painelA, List.of(fila2));
+        assertEquals(Set.of(painelB), cache.paineisDaFila(fila1).orElseThrow());
+        assertEquals(Set.of(painelA), cache.paineisDaFila(fila2).orElseThrow());
+
+        UUID novo = UUID.randomUUID();
+        cache.definirFilas(novo, List.of(fila1));
+        assertEquals(Set.of(painelB, novo), cache.paineisDaFila(fila1).orElseThrow());
+    }
+
+    @Test void removerPainel_retiraDeTodasAsFilas() {
+        cache.recarregar();
+        cache.removerPainel(painelA);
+        assertEquals(Set.of(painelB), cache.paineisDaFila(fila1).orElseThrow());
+        assertEquals(Set.of(), cache.paineisDaFila(fila2).orElseThrow());
+    }
+}
@@ -0,0 +1,117 @@
+package com.wjbc.fila_atendimento.domain.cache;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RitmoAtendimentoTrackerTest {
+    @Mock EntradaFilaRepository entradaFilaRepository;
+
+    private RitmoAtendimentoTracker tracker;
+    private final Fila fila = new Fila();
+    private final LocalDateTime agora = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tracker = new RitmoAtendimentoTracker(entradaFilaRepository, true, 60);
+        fila.setId(UUID.randomUUID());
+    }
+
+    // Atendimento no guichê, chamado e finalizado nos minutos informados (antes de agora)
+    private void atender(String guiche, int chamadaMinutosAtras, int saidaMinutosAtras) {
+        EntradaFila entrada = new EntradaFila();
+        entrada.setId(UUID.randomUUID());
+        entrada.setFila(fila);
+        entrada.setGuicheOuSalaAtendimento(guiche);
+        entrada.setDataHoraChamada(agora.minusMinutes(chamadaMinutosAtras));
+        tracker.registrarChamada(entrada);
+        entrada.setDataHoraSaida(agora.minusMinutes(saidaMinutosAtras));
+        tracker.registrarFinalizacao(entrada);
+    }
+
+    @Test void semChamadas_semEstimativa() {
+        assertNull(tracker.estimarEsperaSegundos(fila.getId(), 1));
+    }
+
+    @Test void duracaoMediaEGuichesEmUso_definemAsRodadas() {
+        atender("Guichê 1", 30, 20); // 10 min
+        atender("Guichê 2", 25, 5);  // 20 min
+        atender("Guichê 1", 19, 4);  // 15 min
+
+        // Duração média 15 min, 2 guichês: posições 1 e 2 na primeira rodada, 3 e 4 na segunda
+        assertEquals(450L, tracker.estimarEsperaSegundos(fila.getId(), 1));
+        assertEquals(450L, tracker.estimarEsperaSegundos(fila.getId(), 2));
+        assertEquals(1350L, tracker.estimarEsperaSegundos(fila.getId(), 3));
+        assertNull(tracker.estimarEsperaSegundos(UUID.randomUUID(), 1));
+    }
+
+    @Test void atendimentosForaDaJanela_saemDaMedia() {
+        atender("Guichê 1", 200, 100); // 100 min, fora da janela de 60
+        atender("Guichê 1", 10, 6);    // 4 min
+
+        assertEquals(120L, tracker.estimarEsperaSegundos(fila.getId(), 1));
+    }
+
+    @Test void semAtendimentosFinalizados_usaOIntervaloEntreChamadas() {
+        for (int minutos : new int[]{30, 20, 10}) {
+            EntradaFila entrada = new EntradaFila();
+            entrada.setFila(fila);
+            entrada.setDataHoraChamada(agora.minusMinutes(minutos));
+            tracker.registrarChamada(entrada);
+        }
+
+        assertEquals(1800L, tracker.estimarEsperaSegundos(fila.getId(), 3));
+    }
+
+    @Test void chamadaDeOutraInstancia_contaComoChamada() {
+        EntradaFila entrada = new EntradaFila();
+        entrada.setFila(fila);
+        entrada.setDataHoraChamada(agora.minusMinutes(5));
+        tracker.registrarChamada(entrada);
+
+        tracker.aoAlterarFilaEmOutraInstancia(new FilaAlteracaoEvento("outra", TipoEventoFila.CHAMADA, null, fila.getId(),
+                UUID.randomUUID(), false, false, agora.minusMinutes(30)));
+
+        Long estimativa = tracker.estimarEsperaSegundos(fila.getId(), 1);
+        assertNotNull(estimativa);
+        assertEquals(300L, estimativa, 2);
+    }
+
+    @Test void recarregar_refazORitmoPeloBanco() {
+        atender("Guichê 1", 10, 9);
+        UUID outraFila = UUID.randomUUID();
+        when(entradaFilaRepository.findChamadasDesde(any(), any())).thenReturn(List.of(
+                new EntradaFilaChamadaDTO(UUID.randomUUID(), outraFila, agora.minusMinutes(40), agora.minusMinutes(30),
+                        agora.minusMinutes(24), "Sala 3")));
+
+        tracker.recarregar();
+
+        assertNull(tracker.estimarEsperaSegundos(fila.getId(), 1));
+        assertEquals(180L, tracker.estimarEsperaSegundos(outraFila, 1));
+    }
+
+    @Test void desabilitado_naoEstimaNemConsulta() {
+        tracker = new RitmoAtendimentoTracker(entradaFilaRepository, false, 60);
+        atender("Guichê 1", 10, 5);
+        tracker.inicializar();
+
+        assertNull(tracker.estimarEsperaSegundos(fila.getId(), 1));
+        verifyNoInteractions(entradaFilaRepository);
+    }
+}
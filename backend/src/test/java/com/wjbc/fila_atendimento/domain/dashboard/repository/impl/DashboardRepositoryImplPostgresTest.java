@@ -0,0 +1,327 @@
+package com.wjbc.fila_atendimento.domain.dashboard.repository.impl;
+
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardResumoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.FluxoPacientesDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.PercentisAtendimentoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.PercentisEsperaDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.ProdutividadeDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.TempoEsperaDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.repository.DashboardRepository;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardRollupService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * As consultas do dashboard sobre os rollups (mais as pontas brutas) devem devolver o mesmo que
+ * as consultas originais, que agregavam entrada_fila no período inteiro.
+ */
+// Consolidação agendada adiada e sem atraso: o teste consolida explicitamente
+@SpringBootTest(properties = {
+        "dashboard.rollup.intervalo-ms=3600000",
+        "dashboard.rollup.atraso-seguranca-segundos=0"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DashboardRepositoryImplPostgresTest {
+
+    // Consultas anteriores aos rollups, usadas como referência
+    private static final String JUNCOES = "JOIN fila_atendimento.fila f ON ef.fila_id = f.id " +
+            "JOIN fila_atendimento.setor s ON f.setor_id = s.id " +
+            "JOIN fila_atendimento.unidade_atendimento ua ON f.unidade_atendimento_id = ua.id ";
+    private static final String REF_TEMPO_ESPERA = "SELECT f.nome, " +
+            "AVG(EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada))/60), MIN(ef.data_hora_entrada), MAX(ef.data_hora_entrada) " +
+            "FROM fila_atendimento.entrada_fila ef " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim GROUP BY f.nome";
+    private static final String REF_PRODUTIVIDADE = "SELECT u.nome_usuario, COUNT(ef.id), " +
+            "AVG(EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada))/60) " +
+            "FROM fila_atendimento.entrada_fila ef JOIN fila_atendimento.usuario u ON ef.usuario_responsavel_id = u.id " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_chamada BETWEEN :inicio AND :fim GROUP BY u.nome_usuario";
+    private static final String REF_HORARIO_PICO = "SELECT s.nome || ' ' || to_char(date_trunc('hour', ef.data_hora_entrada), 'YYYY-MM-DD HH24:MI'), COUNT(ef.id) " +
+            "FROM fila_atendimento.entrada_fila ef " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim " +
+            "GROUP BY s.nome, date_trunc('hour', ef.data_hora_entrada)";
+    private static final String REF_FLUXO = "SELECT s.nome, COUNT(ef.id) FROM fila_atendimento.entrada_fila ef " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim GROUP BY s.nome";
+
+    // Percentis exatos (mesma ordem ceil(p * n) dos histogramas), em minutos
+    private static final String PERCENTIS_EXATOS = "COUNT(*), " +
+            "percentile_disc(0.5) WITHIN GROUP (ORDER BY t.segundos) / 60, " +
+            "percentile_disc(0.9) WITHIN GROUP (ORDER BY t.segundos) / 60, " +
+            "percentile_disc(0.99) WITHIN GROUP (ORDER BY t.segundos) / 60 ";
+    private static final String REF_PERCENTIS_ESPERA = "SELECT t.nome, " + PERCENTIS_EXATOS +
+            "FROM (SELECT f.nome, EXTRACT(EPOCH FROM (ef.data_hora_chamada - ef.data_hora_entrada)) AS segundos " +
+            "FROM fila_atendimento.entrada_fila ef " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_entrada BETWEEN :inicio AND :fim " +
+            "AND ef.data_hora_chamada IS NOT NULL) t GROUP BY t.nome";
+    private static final String REF_PERCENTIS_ATENDIMENTO = "SELECT t.nome_usuario, " + PERCENTIS_EXATOS +
+            "FROM (SELECT u.nome_usuario, EXTRACT(EPOCH FROM (ef.data_hora_saida - ef.data_hora_chamada)) AS segundos " +
+            "FROM fila_atendimento.entrada_fila ef JOIN fila_atendimento.usuario u ON ef.usuario_responsavel_id = u.id " + JUNCOES +
+            "WHERE ua.id = :unidadeId AND ef.data_hora_chamada BETWEEN :inicio AND :fim " +
+            "AND ef.data_hora_saida IS NOT NULL) t GROUP BY t.nome_usuario";
+
+    // Faixas de 10%: o ponto médio geométrico fica a no máximo sqrt(1,1) - 1 do valor exato
+    private static final double ERRO_RELATIVO_HISTOGRAMA = Math.sqrt(1.1) - 1;
+
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired DashboardRepository dashboardRepository;
+    @Autowired DashboardRollupService dashboardRollupService;
+    @Autowired NamedParameterJdbcTemplate jdbc;
+
+    private final UUID unidadeId = UUID.randomUUID();
+    private final UUID setorId = UUID.randomUUID();
+    private final String sufixo = unidadeId.toString();
+    private LocalDateTime agora;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        agora = LocalDateTime.now().withNano(0);
+        MapSqlParameterSource p = parametros().addValue("agora", Timestamp.valueOf(agora));
+        jdbc.update("INSERT INTO fila_atendimento.unidade_atendimento (id, nome) VALUES (:unidade, 'Dashboard ' || :sufixo)", p);
+        jdbc.update("INSERT INTO fila_atendimento.setor (id, nome) VALUES (:setor, 'Dashboard ' || :sufixo)", p);
+        jdbc.update("INSERT INTO fila_atendimento.fila (nome, setor_id, unidade_atendimento_id) " +
+                "SELECT 'Fila ' || g, :setor, :unidade FROM generate_series(1, 2) g", p);
+        jdbc.update("INSERT INTO fila_atendimento.usuario (nome_usuario, email, senha, categoria) " +
+                "SELECT 'Profissional ' || g, :sufixo || '-' || g || '@dashboard.test', 'x', 'PROFISSIONAL' " +
+                "FROM generate_series(1, 2) g", p);
+        jdbc.update("INSERT INTO fila_atendimento.cliente (nome) VALUES ('Dashboard ' || :sufixo)", p);
+        // Uma entrada a cada 97s nos últimos ~3 dias; 10% sem chamada, parte das chamadas sem saída
+        jdbc.update("""
+                WITH f AS (SELECT array_agg(id ORDER BY nome) ids FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade),
+                     u AS (SELECT array_agg(id ORDER BY nome_usuario) ids FROM fila_atendimento.usuario WHERE email LIKE :sufixo || '-%'),
+                     c AS (SELECT id FROM fila_atendimento.cliente WHERE nome = 'Dashboard ' || :sufixo),
+                     t AS (SELECT CAST(:agora AS timestamp) agora),
+                     base AS (
+                         SELECT g, t.agora - g * interval '97 seconds' AS entrada,
+                                t.agora - g * interval '97 seconds' + (g % 37) * interval '1 minute' AS chamada, t.agora
+                         FROM generate_series(1, 3000) g, t)
+                INSERT INTO fila_atendimento.entrada_fila
+                    (fila_id, cliente_id, status, data_hora_entrada, data_hora_chamada, data_hora_saida, usuario_responsavel_id)
+                SELECT f.ids[1 + b.g % 2], c.id, 'ATENDIDO', b.entrada,
+                       CASE WHEN b.g % 10 <> 0 AND b.chamada < b.agora THEN b.chamada END,
+                       CASE WHEN b.g % 10 <> 0 AND b.g % 7 <> 0 AND b.chamada + (b.g % 23) * interval '1 minute' < b.agora
+                            THEN b.chamada + (b.g % 23) * interval '1 minute' END,
+                       CASE WHEN b.g % 10 <> 0 AND b.chamada < b.agora THEN u.ids[1 + b.g % 3 % 2] END
+                FROM base b, f, u, c
+                """, p);
+        // Tudo o que foi inserido passa a ser alteração posterior à marca
+        jdbc.update("UPDATE fila_atendimento.dashboard_rollup_controle SET marca = CAST(:agora AS timestamp) - interval '5 days'", p);
+        dashboardRollupService.consolidar();
+    }
+
+    @AfterAll
+    void limpar() {
+        MapSqlParameterSource p = parametros();
+        String filas = "(SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade)";
+        jdbc.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id IN " + filas, p);
+        jdbc.update("DELETE FROM fila_atendimento.dashboard_entrada_hora WHERE fila_id IN " + filas, p);
+        jdbc.update("DELETE FROM fila_atendimento.dashboard_atendimento_hora WHERE fila_id IN " + filas, p);
+        jdbc.update("DELETE FROM fila_atendimento.usuario WHERE email LIKE :sufixo || '-%'", p);
+        jdbc.update("DELETE FROM fila_atendimento.cliente WHERE nome = 'Dashboard ' || :sufixo", p);
+        jdbc.update("DELETE FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade", p);
+        jdbc.update("DELETE FROM fila_atendimento.setor WHERE id = :setor", p);
+        jdbc.update("DELETE FROM fila_atendimento.unidade_atendimento WHERE id = :unidade", p);
+    }
+
+    @Test
+    void consultas_coincidemComAsLinhasBrutasEmQualquerPeriodo() {
+        LocalDateTime hora = agora.truncatedTo(ChronoUnit.HOURS);
+        // Início e fim fora da hora cheia; período alinhado; dentro de uma única hora; tudo
+        assertCoincidem(agora.minusDays(3).plusMinutes(17), agora);
+        assertCoincidem(hora.minusDays(2), hora.minusDays(1));
+        assertCoincidem(hora.minusHours(2).plusMinutes(5), hora.minusHours(2).plusMinutes(40));
+        assertCoincidem(agora.minusDays(10), agora.plusHours(1));
+    }
+
+    @Test
+    void consolidar_incorporaTransicoesPosterioresAMarca() {
+        LocalDateTime inicio = agora.minusDays(4);
+        LocalDateTime fim = LocalDateTime.now().plusMinutes(1);
+        // Entrada de dois dias atrás, ainda sem chamada, chamada agora: muda uma hora já consolidada
+        jdbc.update("""
+                UPDATE fila_atendimento.entrada_fila
+                SET status = 'CHAMADO', data_hora_chamada = LOCALTIMESTAMP,
+                    usuario_responsavel_id = (SELECT id FROM fila_atendimento.usuario WHERE email = :sufixo || '-1@dashboard.test')
+                WHERE id = (SELECT id FROM fila_atendimento.entrada_fila
+                            WHERE fila_id IN (SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade)
+                              AND data_hora_chamada IS NULL AND data_hora_entrada < LOCALTIMESTAMP - interval '2 days'
+                            LIMIT 1)
+                """, parametros());
+        assertNotEquals(tempoEsperaReferencia(inicio, fim), tempoEspera(inicio, fim),
+                "Hora consolidada antes da chamada deveria estar desatualizada até a próxima consolidação");
+
+        dashboardRollupService.consolidar();
+
+        assertCoincidem(inicio, fim);
+    }
+
+    @Test
+    void resumo_coincideComOsRelatoriosSeparados() {
+        LocalDateTime hora = agora.truncatedTo(ChronoUnit.HOURS);
+        assertResumo(agora.minusDays(3).plusMinutes(17), agora);
+        assertResumo(hora.minusDays(2), hora.minusDays(1));
+        assertResumo(hora.minusHours(2).plusMinutes(5), hora.minusHours(2).plusMinutes(40));
+        assertResumo(agora.minusDays(10), agora.plusHours(1));
+    }
+
+    private void assertResumo(LocalDateTime inicio, LocalDateTime fim) {
+        String periodo = " em " + inicio + " – " + fim;
+        DashboardResumoDTO resumo = dashboardRepository.buscarResumo(unidadeId, inicio, fim);
+        assertFalse(resumo.tempoMedioEspera().isEmpty(), "Resumo vazio" + periodo);
+        assertEquals(new HashSet<>(dashboardRepository.buscarTempoMedioEspera(unidadeId, inicio, fim)),
+                new HashSet<>(resumo.tempoMedioEspera()), "Tempo de espera" + periodo);
+        assertEquals(new HashSet<>(dashboardRepository.buscarProdutividadePorProfissional(unidadeId, inicio, fim)),
+                new HashSet<>(resumo.produtividade()), "Produtividade" + periodo);
+        assertEquals(dashboardRepository.buscarHorariosPico(unidadeId, inicio, fim), resumo.horariosPico(),
+                "Horários de pico" + periodo);
+        assertEquals(new HashSet<>(dashboardRepository.buscarFluxoPacientes(unidadeId, inicio, fim)),
+                new HashSet<>(resumo.fluxoPacientes()), "Fluxo de pacientes" + periodo);
+    }
+
+    @Test
+    void percentis_ficamDentroDoErroDasFaixasEmQualquerPeriodo() {
+        LocalDateTime hora = agora.truncatedTo(ChronoUnit.HOURS);
+        assertPercentis(agora.minusDays(3).plusMinutes(17), agora);
+        assertPercentis(hora.minusDays(2), hora.minusDays(1));
+        assertPercentis(hora.minusHours(2).plusMinutes(5), hora.minusHours(2).plusMinutes(40));
+        assertPercentis(agora.minusDays(10), agora.plusHours(1));
+    }
+
+    private void assertPercentis(LocalDateTime inicio, LocalDateTime fim) {
+        String periodo = " em " + inicio + " – " + fim;
+        Map<String, double[]> esperaExata = percentisReferencia(REF_PERCENTIS_ESPERA, inicio, fim);
+        List<PercentisEsperaDTO> espera = dashboardRepository.buscarPercentisEspera(unidadeId, inicio, fim);
+        assertEquals(esperaExata.keySet(), espera.stream().map(PercentisEsperaDTO::filaNome).collect(Collectors.toSet()),
+                "Filas" + periodo);
+        for (PercentisEsperaDTO d : espera) {
+            assertProximos(esperaExata.get(d.filaNome()),
+                    d.amostras(), d.p50EsperaMinutos(), d.p90EsperaMinutos(), d.p99EsperaMinutos(),
+                    "Espera de " + d.filaNome() + periodo);
+        }
+        Map<String, double[]> atendimentoExato = percentisReferencia(REF_PERCENTIS_ATENDIMENTO, inicio, fim);
+        List<PercentisAtendimentoDTO> atendimento = dashboardRepository.buscarPercentisAtendimento(unidadeId, inicio, fim);
+        assertEquals(atendimentoExato.keySet(),
+                atendimento.stream().map(PercentisAtendimentoDTO::profissionalNome).collect(Collectors.toSet()),
+                "Profissionais" + periodo);
+        for (PercentisAtendimentoDTO d : atendimento) {
+            assertProximos(atendimentoExato.get(d.profissionalNome()),
+                    d.amostras(), d.p50AtendimentoMinutos(), d.p90AtendimentoMinutos(), d.p99AtendimentoMinutos(),
+                    "Atendimento de " + d.profissionalNome() + periodo);
+        }
+    }
+
+    private static void assertProximos(double[] exatos, Long amostras, Double p50, Double p90, Double p99, String mensagem) {
+        assertEquals((long) exatos[0], amostras, mensagem + ": amostras");
+        double[] estimados = {p50, p90, p99};
+        for (int i = 0; i < estimados.length; i++) {
+            double exato = exatos[i + 1];
+            assertEquals(exato, estimados[i], exato * ERRO_RELATIVO_HISTOGRAMA + 1e-9, mensagem + ": percentil " + i);
+        }
+    }
+
+    // Chave (1ª coluna) → amostras, p50, p90, p99
+    private Map<String, double[]> percentisReferencia(String sql, LocalDateTime inicio, LocalDateTime fim) {
+        Map<String, double[]> linhas = new HashMap<>();
+        jdbc.query(sql, parametros().addValue("unidadeId", unidadeId)
+                .addValue("inicio", Timestamp.valueOf(inicio)).addValue("fim", Timestamp.valueOf(fim)), rs -> {
+            linhas.put(rs.getString(1), new double[]{rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5)});
+        });
+        return linhas;
+    }
+
+    private void assertCoincidem(LocalDateTime inicio, LocalDateTime fim) {
+        String periodo = " em " + inicio + " – " + fim;
+        assertEquals(tempoEsperaReferencia(inicio, fim), tempoEspera(inicio, fim), "Tempo de espera" + periodo);
+        assertEquals(referencia(REF_PRODUTIVIDADE, inicio, fim),
+                porChave(dashboardRepository.buscarProdutividadePorProfissional(unidadeId, inicio, fim),
+                        ProdutividadeDTO::profissionalNome,
+                        d -> d.atendimentosRealizados() + " " + arredondar(d.tempoMedioAtendimentoMinutos())),
+                "Produtividade" + periodo);
+        assertEquals(referencia(REF_HORARIO_PICO, inicio, fim),
+                porChave(dashboardRepository.buscarHorariosPico(unidadeId, inicio, fim),
+                        d -> d.setorNome() + " " + d.horario().format(HORA), d -> String.valueOf(d.quantidadeAtendimentos())),
+                "Horários de pico" + periodo);
+        assertEquals(referencia(REF_FLUXO, inicio, fim),
+                porChave(dashboardRepository.buscarFluxoPacientes(unidadeId, inicio, fim),
+                        FluxoPacientesDTO::setorOrigem, d -> String.valueOf(d.quantidadePacientes())),
+                "Fluxo de pacientes" + periodo);
+    }
+
+    private Map<String, String> tempoEspera(LocalDateTime inicio, LocalDateTime fim) {
+        return porChave(dashboardRepository.buscarTempoMedioEspera(unidadeId, inicio, fim), TempoEsperaDTO::filaNome,
+                d -> arredondar(d.tempoMedioEsperaMinutos()) + " " + Timestamp.valueOf(d.periodoInicio())
+                        + " " + Timestamp.valueOf(d.periodoFim()));
+    }
+
+    private Map<String, String> tempoEsperaReferencia(LocalDateTime inicio, LocalDateTime fim) {
+        return referencia(REF_TEMPO_ESPERA, inicio, fim);
+    }
+
+    // Linhas da consulta de referência como chave (1ª coluna) → demais colunas, médias arredondadas
+    private Map<String, String> referencia(String sql, LocalDateTime inicio, LocalDateTime fim) {
+        Map<String, String> linhas = new HashMap<>();
+        jdbc.query(sql, parametros().addValue("unidadeId", unidadeId)
+                .addValue("inicio", Timestamp.valueOf(inicio)).addValue("fim", Timestamp.valueOf(fim)), rs -> {
+            StringBuilder valores = new StringBuilder();
+            for (int i = 2; i <= rs.getMetaData().getColumnCount(); i++) {
+                Object valor = rs.getObject(i);
+                if (i > 2) {
+                    valores.append(' ');
+                }
+                valores.append(valor instanceof BigDecimal numero ? arredondar(numero.doubleValue()) : String.valueOf(valor));
+            }
+            linhas.put(rs.getString(1), valores.toString());
+        });
+        return linhas;
+    }
+
+    private static <T> Map<String, String> porChave(List<T> dtos, Function<T, String> chave, Function<T, String> valores) {
+        return dtos.stream().collect(Collectors.toMap(chave, valores));
+    }
+
+    private static String arredondar(Double valor) {
+        return valor == null ? "null" : String.format(Locale.ROOT, "%.6f", valor);
+    }
+
+    private MapSqlParameterSource parametros() {
+        return new MapSqlParameterSource("unidade", unidadeId).addValue("setor", setorId).addValue("sufixo", sufixo);
+    }
+}
@@ -0,0 +1,211 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service.impl;
+
+import com.wjbc.fila_atendimento.controller.FilaWebSocketController;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.DashboardAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.FilaAoVivoDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DashboardAoVivoServiceImplTest {
+    @Mock EntradaFilaRepository entradaFilaRepository;
+    @Mock FilaRepository filaRepository;
+    @Mock FilaWebSocketController filaWebSocketController;
+
+    private DashboardAoVivoServiceImpl service;
+    private final UnidadeAtendimento unidade = new UnidadeAtendimento();
+    private final Fila fila = new Fila();
+    private final LocalDateTime agora = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new DashboardAoVivoServiceImpl(entradaFilaRepository, filaRepository, filaWebSocketController, true, 15, 60);
+        unidade.setId(UUID.randomUUID());
+        Setor setor = new Setor();
+        setor.setId(UUID.randomUUID());
+        fila.setId(UUID.randomUUID());
+        fila.setNome("Triagem");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+    }
+
+    private EntradaFila entrada(int minutosAtras) {
+        EntradaFila entrada = new EntradaFila();
+        entrada.setId(UUID.randomUUID());
+        entrada.setFila(fila);
+        entrada.setDataHoraEntrada(agora.minusMinutes(minutosAtras));
+        return entrada;
+    }
+
+    private FilaAoVivoDTO unicaFila(DashboardAoVivoDTO dashboard) {
+        assertEquals(1, dashboard.filas().size());
+        return dashboard.filas().get(0);
+    }
+
+    @Test void entradasEChamadas_resultamNasMetricasDaFila() {
+        EntradaFila antiga = entrada(20);
+        service.registrarEntrada(antiga);
+        service.registrarEntrada(entrada(5));
+        for (int espera : new int[]{10, 20, 30}) {
+            EntradaFila chamada = entrada(espera + 1);
+            service.registrarEntrada(chamada);
+            chamada.setDataHoraChamada(agora.minusMinutes(1));
+            service.registrarChamada(chamada);
+        }
+
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+
+        assertEquals("Triagem", metricas.filaNome());
+        assertEquals(fila.getSetor().getId(), metricas.setorId());
+        assertEquals(2, metricas.aguardando());
+        assertTrue(metricas.esperaMaisAntigaSegundos() >= 20 * 60);
+        assertEquals(0.2, metricas.chamadasPorMinuto());
+        assertEquals(20.0, metricas.esperaMediaMovelMinutos());
+        verifyNoInteractions(filaRepository);
+    }
+
+    @Test void chamadasForaDaJanela_naoEntramNaMedia() {
+        EntradaFila recente = entrada(6);
+        recente.setDataHoraChamada(agora.minusMinutes(1));
+        EntradaFila antiga = entrada(60);
+        antiga.setDataHoraChamada(agora.minusMinutes(20));
+        service.registrarChamada(recente);
+        service.registrarChamada(antiga);
+
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+
+        assertEquals(0, metricas.aguardando());
+        assertNull(metricas.esperaMaisAntigaSegundos());
+        assertEquals(0.07, metricas.chamadasPorMinuto());
+        assertEquals(5.0, metricas.esperaMediaMovelMinutos());
+    }
+
+    @Test void cancelamento_tiraDosAguardando() {
+        EntradaFila entrada = entrada(3);
+        service.registrarEntrada(entrada);
+        service.registrarCancelamento(entrada);
+
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+
+        assertEquals(0, metricas.aguardando());
+        assertNull(metricas.esperaMediaMovelMinutos());
+    }
+
+    @Test void inicializar_carregaAguardandoEChamadasRecentes_eIdentificaAsFilasDeUmaVez() {
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(List.of(
+                new EntradaFilaPrioridadeDTO(UUID.randomUUID(), fila.getId(), false, false, agora.minusMinutes(12))));
+        when(entradaFilaRepository.findChamadasDesde(any(), any())).thenReturn(List.of(
+                new EntradaFilaChamadaDTO(UUID.randomUUID(), fila.getId(), agora.minusMinutes(9), agora.minusMinutes(2), null, "Sala 1")));
+        when(filaRepository.findAllById(anyIterable())).thenReturn(List.of(fila));
+
+        service.inicializar();
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+
+        assertEquals(1, metricas.aguardando());
+        assertEquals(7.0, metricas.esperaMediaMovelMinutos());
+        service.obter(unidade.getId());
+        verify(filaRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test void alteracaoDeOutraInstancia_atualizaAsMetricas() {
+        service.registrarEntrada(entrada(1));
+        UUID entradaRemota = UUID.randomUUID();
+        service.aoAlterarFilaEmOutraInstancia(new FilaAlteracaoEvento("outra", TipoEventoFila.ENTRADA, null, fila.getId(),
+                entradaRemota, false, false, agora.minusMinutes(4)));
+        assertEquals(2, unicaFila(service.obter(unidade.getId())).aguardando());
+
+        service.aoAlterarFilaEmOutraInstancia(new FilaAlteracaoEvento("outra", TipoEventoFila.CHAMADA, null, fila.getId(),
+                entradaRemota, false, false, agora.minusMinutes(4)));
+
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+        assertEquals(1, metricas.aguardando());
+        assertEquals(4.0, metricas.esperaMediaMovelMinutos(), 0.05);
+    }
+
+    @Test void publicar_enviaCadaUnidadeEUmUltimoEnvioVazio() {
+        EntradaFila entrada = entrada(2);
+        service.registrarEntrada(entrada);
+
+        service.publicar();
+        service.registrarCancelamento(entrada);
+        service.publicar();
+        service.publicar();
+
+        ArgumentCaptor<Object> envios = ArgumentCaptor.forClass(Object.class);
+        verify(filaWebSocketController, times(2)).sendDashboardAoVivo(eq(unidade.getId()), envios.capture());
+        assertEquals(1, ((DashboardAoVivoDTO) envios.getAllValues().get(0)).filas().size());
+        assertTrue(((DashboardAoVivoDTO) envios.getAllValues().get(1)).filas().isEmpty());
+    }
+
+    @Test void reconciliar_corrigeAguardandoPeloBanco() {
+        EntradaFila perdida = entrada(10);
+        service.registrarEntrada(perdida);
+        service.registrarEntrada(entrada(0));
+        UUID naoRecebida = UUID.randomUUID();
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(List.of(
+                new EntradaFilaPrioridadeDTO(naoRecebida, fila.getId(), false, false, agora.minusMinutes(30))));
+        when(filaRepository.findAllById(anyIterable())).thenReturn(List.of(fila));
+
+        service.reconciliar();
+
+        // A recente fica (pode ainda não estar visível para a consulta); a antiga some e a ausente entra
+        FilaAoVivoDTO metricas = unicaFila(service.obter(unidade.getId()));
+        assertEquals(2, metricas.aguardando());
+        assertTrue(metricas.esperaMaisAntigaSegundos() >= 30 * 60);
+    }
+
+    @Test void reconciliar_naoReadicionaEntradaChamadaDuranteAConsulta() {
+        EntradaFila chamada = entrada(10);
+        service.registrarEntrada(chamada);
+        when(filaRepository.findAllById(anyIterable())).thenReturn(List.of(fila));
+        // A chamada é confirmada depois que a consulta já leu a entrada como aguardando
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenAnswer(invocacao -> {
+            chamada.setDataHoraChamada(agora);
+            service.registrarChamada(chamada);
+            return List.of(new EntradaFilaPrioridadeDTO(chamada.getId(), fila.getId(), false, false, chamada.getDataHoraEntrada()));
+        });
+
+        service.reconciliar();
+
+        assertEquals(0, unicaFila(service.obter(unidade.getId())).aguardando());
+
+        // Na reconciliação seguinte a saída já está refletida no banco e a marca é descartada
+        when(entradaFilaRepository.findPrioridadesByStatus(StatusFila.AGUARDANDO)).thenReturn(List.of());
+        service.reconciliar();
+        assertEquals(0, unicaFila(service.obter(unidade.getId())).aguardando());
+    }
+
+    @Test void desabilitado_naoMantemEstado() {
+        service = new DashboardAoVivoServiceImpl(entradaFilaRepository, filaRepository, filaWebSocketController, false, 15, 60);
+        service.registrarEntrada(entrada(1));
+        service.inicializar();
+        service.publicar();
+
+        assertTrue(service.obter(unidade.getId()).filas().isEmpty());
+        verifyNoInteractions(entradaFilaRepository, filaWebSocketController);
+    }
+}
@@ -0,0 +1,78 @@
+package com.wjbc.fila_atendimento.domain.dashboard.service.impl;
+
+import com.wjbc.fila_atendimento.domain.cache.DashboardResultadoCache;
+import com.wjbc.fila_atendimento.domain.dashboard.dto.*;
+import com.wjbc.fila_atendimento.domain.dashboard.repository.DashboardRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DashboardServiceImplTest {
+    @Mock DashboardRepository dashboardRepository;
+    @Mock FilaRepository filaRepository;
+
+    private DashboardServiceImpl service;
+    private final UUID unidadeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        DashboardResultadoCache cache = new DashboardResultadoCache(filaRepository, new SimpleMeterRegistry(),
+                false, 10, 60, 86400, 24, 60);
+        service = new DashboardServiceImpl(dashboardRepository, cache, 30, 4);
+    }
+
+    @AfterEach
+    void encerrar() {
+        service.encerrar();
+    }
+
+    @Test void resumo_periodoCurto_usaConsultaUnica() {
+        LocalDateTime fim = LocalDateTime.now();
+        LocalDateTime inicio = fim.minusDays(7);
+        DashboardResumoDTO resumo = new DashboardResumoDTO(List.of(), List.of(), List.of(), List.of());
+        when(dashboardRepository.buscarResumo(unidadeId, inicio, fim)).thenReturn(resumo);
+
+        assertSame(resumo, service.gerarResumo(unidadeId, inicio, fim));
+        verify(dashboardRepository, never()).buscarTempoMedioEspera(any(), any(), any());
+    }
+
+    @Test void resumo_periodoLongo_calculaRelatoriosEmParalelo() {
+        LocalDateTime fim = LocalDateTime.now();
+        LocalDateTime inicio = fim.minusDays(30);
+        TempoEsperaDTO espera = new TempoEsperaDTO("Fila", "Setor", "Unidade", 10.0, inicio, fim);
+        ProdutividadeDTO produtividade = new ProdutividadeDTO("Profissional", "Setor", "Unidade", 5L, 10.0);
+        HorarioPicoDTO pico = new HorarioPicoDTO("Unidade", "Setor", inicio, 20L);
+        FluxoPacientesDTO fluxo = new FluxoPacientesDTO("Unidade", "Setor", null, 100L);
+        when(dashboardRepository.buscarTempoMedioEspera(unidadeId, inicio, fim)).thenReturn(List.of(espera));
+        when(dashboardRepository.buscarProdutividadePorProfissional(unidadeId, inicio, fim)).thenReturn(List.of(produtividade));
+        when(dashboardRepository.buscarHorariosPico(unidadeId, inicio, fim)).thenReturn(List.of(pico));
+        when(dashboardRepository.buscarFluxoPacientes(unidadeId, inicio, fim)).thenReturn(List.of(fluxo));
+
+        DashboardResumoDTO resumo = service.gerarResumo(unidadeId, inicio, fim);
+
+        assertEquals(new DashboardResumoDTO(List.of(espera), List.of(produtividade), List.of(pico), List.of(fluxo)), resumo);
+        verify(dashboardRepository, never()).buscarResumo(any(), any(), any());
+    }
+
+    @Test void resumo_emParalelo_propagaErroDoRelatorio() {
+        LocalDateTime fim = LocalDateTime.now();
+        LocalDateTime inicio = fim.minusDays(60);
+        when(dashboardRepository.buscarTempoMedioEspera(unidadeId, inicio, fim)).thenThrow(new IllegalStateException("Erro"));
+
+        Exception exception = assertThrows(IllegalStateException.class, () -> service.gerarResumo(unidadeId, inicio, fim));
+        assertEquals("Erro", exception.getMessage());
+    }
+}
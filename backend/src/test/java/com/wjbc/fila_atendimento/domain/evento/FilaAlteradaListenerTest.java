@@ -0,0 +1,126 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.Painel;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.domain.service.FilaBroadcastService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FilaAlteradaListenerTest {
+    @Mock EntradaFilaService entradaFilaService;
+    @Mock PainelRepository painelRepository;
+    @Mock PainelRoteamentoCache painelRoteamentoCache;
+    @Mock FilaBroadcastService filaBroadcastService;
+
+    private FilaAlteradaListener listener;
+    private final UUID setorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Uma thread e uma vaga na fila do executor, para exercitar mesclagem e descarte
+        listener = new FilaAlteradaListener(entradaFilaService, painelRepository, painelRoteamentoCache, filaBroadcastService, new SimpleMeterRegistry(), 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.encerrar();
+    }
+
+    private Painel painel() {
+        Painel painel = new Painel();
+        painel.setId(UUID.randomUUID());
+        return painel;
+    }
+
+    private void aguardar(java.util.function.BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Condição não atingida a tempo");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test void entrada_agendaSomentePainelProfissional() {
+        listener.aoAlterarFila(new FilaAlteradaEvent(UUID.randomUUID(), setorId, TipoEventoFila.ENTRADA));
+        verify(filaBroadcastService).agendarFilaProfissionalUpdate(eq(setorId), any());
+        verifyNoInteractions(painelRepository);
+    }
+
+    @Test void chamada_montaPayloadUmaVezParaTodosOsPaineisDaFila() throws Exception {
+        UUID filaId = UUID.randomUUID();
+        Painel p1 = painel();
+        Painel p2 = painel();
+        PainelPublicoDTO payload = new PainelPublicoDTO(filaId, null, List.of(), "", 15, 3, 5, false);
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.of(Set.of(p1.getId(), p2.getId())));
+        when(entradaFilaService.getPainelPublico(filaId)).thenReturn(payload);
+
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaId, setorId, TipoEventoFila.CHAMADA));
+        aguardar(() -> listener.getEnviados() == 1);
+
+        verify(entradaFilaService, times(1)).getPainelPublico(filaId);
+        verifyNoInteractions(painelRepository);
+        verify(filaBroadcastService).broadcastPainelPublicoUpdate(p1.getId(), payload);
+        verify(filaBroadcastService).broadcastPainelPublicoUpdate(p2.getId(), payload);
+        verify(filaBroadcastService).agendarFilaProfissionalUpdate(eq(setorId), any());
+    }
+
+    @Test void chamada_semRoteamentoCarregado_consultaOBanco() throws Exception {
+        UUID filaId = UUID.randomUUID();
+        Painel p1 = painel();
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.empty());
+        when(painelRepository.findPaineisByFilaId(filaId)).thenReturn(List.of(p1));
+
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaId, setorId, TipoEventoFila.CHAMADA));
+        aguardar(() -> listener.getEnviados() == 1);
+
+        verify(filaBroadcastService).broadcastPainelPublicoUpdate(eq(p1.getId()), any());
+    }
+
+    @Test void chamadas_pendentesSaoMescladasEExcedentesDescartadas() throws Exception {
+        UUID filaOcupando = UUID.randomUUID();
+        UUID filaNaFila = UUID.randomUUID();
+        UUID filaDescartada = UUID.randomUUID();
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        when(painelRoteamentoCache.paineisDaFila(any())).thenReturn(Optional.of(Set.of(UUID.randomUUID())));
+        when(entradaFilaService.getPainelPublico(filaOcupando)).thenAnswer(inv -> {
+            ocupado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaOcupando, null, TipoEventoFila.CHAMADA));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaNaFila, null, TipoEventoFila.CHAMADA));
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaNaFila, null, TipoEventoFila.CHAMADA));
+        listener.aoAlterarFila(new FilaAlteradaEvent(filaDescartada, null, TipoEventoFila.CHAMADA));
+        liberar.countDown();
+
+        aguardar(() -> listener.getEnviados() == 2);
+        assertEquals(1, listener.getMesclados());
+        assertEquals(1, listener.getDescartados());
+        verify(entradaFilaService, times(1)).getPainelPublico(filaNaFila);
+        verify(entradaFilaService, never()).getPainelPublico(filaDescartada);
+    }
+}
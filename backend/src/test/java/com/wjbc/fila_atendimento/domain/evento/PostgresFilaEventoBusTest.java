@@ -0,0 +1,118 @@
+package com.wjbc.fila_atendimento.domain.evento;
+
+import com.wjbc.fila_atendimento.domain.cache.FilaPrioridadeIndex;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.SetorRepository;
+import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simula uma segunda instância emitindo NOTIFY no canal de alterações e verifica que
+ * esta instância atualiza o índice local, ignorando as notificações que ela mesma gerou.
+ */
+@SpringBootTest(properties = {
+        "fila.eventos.postgres.habilitado=true",
+        "fila.eventos.postgres.intervalo-escuta-ms=50"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class PostgresFilaEventoBusTest {
+
+    @Autowired PostgresFilaEventoBus bus;
+    @Autowired FilaPrioridadeIndex filaPrioridadeIndex;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired FilaRepository filaRepository;
+    @Autowired SetorRepository setorRepository;
+    @Autowired UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    private Fila criarFila() {
+        UnidadeAtendimento unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        Fila fila = new Fila();
+        fila.setNome("Recepção");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+        return filaRepository.save(fila);
+    }
+
+    private void notificar(String origem, TipoEventoFila tipo, Fila fila, UUID entradaId) {
+        FilaAlteracaoEvento evento = new FilaAlteracaoEvento(origem, tipo, fila.getSetor().getId(), fila.getId(),
+                entradaId, false, false, LocalDateTime.now().minusMinutes(5));
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, PostgresFilaEventoBus.CANAL, evento.paraPayload());
+    }
+
+    private void aguardar(java.util.function.BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Notificação não recebida a tempo");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void notificacaoDeOutraInstanciaAtualizaIndiceLocal() throws Exception {
+        Fila fila = criarFila();
+        UUID propria = UUID.randomUUID();
+        UUID remota = UUID.randomUUID();
+
+        notificar(bus.getOrigem(), TipoEventoFila.ENTRADA, fila, propria);
+        notificar("outra-instancia", TipoEventoFila.ENTRADA, fila, remota);
+        aguardar(() -> filaPrioridadeIndex.tamanho(fila.getId()) > 0);
+
+        // As notificações chegam em ordem: a da própria instância já foi descartada
+        assertEquals(Optional.of(remota), filaPrioridadeIndex.retirarProximo(fila.getId(), false));
+        assertTrue(filaPrioridadeIndex.retirarProximo(fila.getId(), false).isEmpty());
+    }
+
+    @Test
+    void chamadaEmOutraInstanciaRemoveDoIndice() throws Exception {
+        Fila fila = criarFila();
+        UUID entrada = UUID.randomUUID();
+        notificar("outra-instancia", TipoEventoFila.ENTRADA, fila, entrada);
+        aguardar(() -> filaPrioridadeIndex.tamanho(fila.getId()) == 1);
+
+        notificar("outra-instancia", TipoEventoFila.CHAMADA, fila, entrada);
+        aguardar(() -> filaPrioridadeIndex.tamanho(fila.getId()) == 0);
+    }
+
+    @Test
+    void payloadIdaEVolta() {
+        FilaAlteracaoEvento evento = new FilaAlteracaoEvento("abc", TipoEventoFila.CANCELAMENTO, null, UUID.randomUUID(),
+                UUID.randomUUID(), true, true, LocalDateTime.of(2025, 3, 1, 9, 30, 15));
+        assertEquals(evento, FilaAlteracaoEvento.dePayload(evento.paraPayload()));
+        assertThrows(IllegalArgumentException.class, () -> FilaAlteracaoEvento.dePayload("lixo"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColunarExportacaoWriterTest {
+
+    private static final List<ColunaExportacao> COLUNAS = List.of(
+            new ColunaExportacao("id", ColunaExportacao.Tipo.UUID),
+            new ColunaExportacao("status", ColunaExportacao.Tipo.TEXTO),
+            new ColunaExportacao("data_hora", ColunaExportacao.Tipo.DATA_HORA),
+            new ColunaExportacao("prioridade", ColunaExportacao.Tipo.BOOLEANO));
+
+    @Test void gravaELeDeVolta_emVariosGrupos() throws IOException {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 8, 0, 0, 123_456_000);
+        List<Object[]> linhas = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            linhas.add(new Object[]{
+                    i % 7 == 0 ? null : UUID.randomUUID(),
+                    i % 5 == 0 ? null : (i % 2 == 0 ? "ATENDIDO" : "CANCELADO"),
+                    i % 4 == 0 ? null : base.plusSeconds(97L * (i % 3 == 0 ? -i : i)),
+                    i % 3 == 0});
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ColunarExportacaoWriter writer = new ColunarExportacaoWriter(COLUNAS, saida, 10);
+        for (Object[] linha : linhas) {
+            writer.escrever(linha);
+        }
+        writer.concluir();
+
+        LeitorColunar leitor = new LeitorColunar(saida.toByteArray());
+        assertEquals(List.of("id", "status", "data_hora", "prioridade"), leitor.nomes);
+        assertEquals(List.of(10, 10, 5), leitor.tamanhosDosGrupos);
+        assertEquals(linhas.size(), leitor.linhas.size());
+        for (int i = 0; i < linhas.size(); i++) {
+            assertArrayEquals(linhas.get(i), leitor.linhas.get(i), "Linha " + i);
+        }
+    }
+
+    @Test void semLinhas_soCabecalhoEFim() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        new ColunarExportacaoWriter(COLUNAS, saida, 10).concluir();
+
+        LeitorColunar leitor = new LeitorColunar(saida.toByteArray());
+        assertEquals(4, leitor.nomes.size());
+        assertTrue(leitor.linhas.isEmpty());
+    }
+
+    @Test void textosRepetidos_ocupamUmaVezPorGrupo() throws IOException {
+        List<ColunaExportacao> colunas = List.of(new ColunaExportacao("status", ColunaExportacao.Tipo.TEXTO));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ColunarExportacaoWriter writer = new ColunarExportacaoWriter(colunas, saida, 1000);
+        for (int i = 0; i < 1000; i++) {
+            writer.escrever(new Object[]{"AGUARDANDO_ATENDIMENTO"});
+        }
+        writer.concluir();
+
+        // presença (125) + dicionário (~24) + um byte de índice por linha (1000)
+        assertTrue(saida.size() < 1200, "Tamanho: " + saida.size());
+    }
+
+    /** Leitura do formato descrito em {@link ColunarExportacaoWriter}. */
+    static class LeitorColunar {
+        final List<String> nomes = new ArrayList<>();
+        final List<ColunaExportacao.Tipo> tipos = new ArrayList<>();
+        final List<Integer> tamanhosDosGrupos = new ArrayList<>();
+        final List<Object[]> linhas = new ArrayList<>();
+
+        LeitorColunar(byte[] bytes) throws IOException {
+            this(new ByteArrayInputStream(bytes));
+        }
+
+        LeitorColunar(InputStream entrada) throws IOException {
+            DataInputStream in = new DataInputStream(entrada);
+            byte[] assinatura = in.readNBytes(4);
+            assertArrayEquals(ColunarExportacaoWriter.ASSINATURA, assinatura);
+            assertEquals(ColunarExportacaoWriter.VERSAO, in.read());
+            int colunas = (int) varint(in);
+            for (int c = 0; c < colunas; c++) {
+                nomes.add(texto(in));
+                int codigo = in.read();
+                tipos.add(Arrays.stream(ColunaExportacao.Tipo.values()).filter(t -> t.getCodigo() == codigo).findFirst().orElseThrow());
+            }
+            int tamanho;
+            while ((tamanho = (int) varint(in)) > 0) {
+                tamanhosDosGrupos.add(tamanho);
+                Object[][] grupo = new Object[tamanho][colunas];
+                for (int c = 0; c < colunas; c++) {
+                    lerBloco(in, grupo, c, tipos.get(c));
+                }
+                linhas.addAll(Arrays.asList(grupo));
+            }
+            assertEquals(-1, in.read(), "Bytes após o fim");
+        }
+
+        private static void lerBloco(DataInputStream in, Object[][] grupo, int c, ColunaExportacao.Tipo tipo) throws IOException {
+            boolean[] presentes = bitmap(in, grupo.length);
+            switch (tipo) {
+                case UUID -> {
+                    for (int i = 0; i < grupo.length; i++) {
+                        if (presentes[i]) {
+                            grupo[i][c] = new UUID(in.readLong(), in.readLong());
+                        }
+                    }
+                }
+                case DATA_HORA -> {
+                    long anterior = 0;
+                    for (int i = 0; i < grupo.length; i++) {
+                        if (presentes[i]) {
+                            long zigzag = varint(in);
+                            anterior += (zigzag >>> 1) ^ -(zigzag & 1);
+                            grupo[i][c] = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(anterior, ChronoUnit.MICROS);
+                        }
+                    }
+                }
+                case TEXTO -> {
+                    String[] dicionario = new String[(int) varint(in)];
+                    for (int d = 0; d < dicionario.length; d++) {
+                        dicionario[d] = texto(in);
+                    }
+                    for (int i = 0; i < grupo.length; i++) {
+                        if (presentes[i]) {
+                            grupo[i][c] = dicionario[(int) varint(in)];
+                        }
+                    }
+                }
+                case BOOLEANO -> {
+                    boolean[] valores = bitmap(in, grupo.length);
+                    for (int i = 0; i < grupo.length; i++) {
+                        if (presentes[i]) {
+                            grupo[i][c] = valores[i];
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean[] bitmap(DataInputStream in, int linhas) throws IOException {
+            boolean[] bits = new boolean[linhas];
+            byte[] octetos = in.readNBytes((linhas + 7) / 8);
+            for (int i = 0; i < linhas; i++) {
+                bits[i] = (octetos[i / 8] & (1 << (i % 8))) != 0;
+            }
+            return bits;
+        }
+
+        private static String texto(DataInputStream in) throws IOException {
+            return new String(in.readNBytes((int) varint(in)), StandardCharsets.UTF_8);
+        }
+
+        private static long varint(DataInputStream in) throws IOException {
+            long valor = 0;
+            int deslocamento = 0;
+            int octeto;
+            do {
+                octeto = in.readUnsignedByte();
+                valor |= (long) (octeto & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while ((octeto & 0x80) != 0);
+            return valor;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wjbc.fila_atendimento.domain.exportacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExportacaoWriterTest {
+
+    private static final List<ColunaExportacao> COLUNAS = List.of(
+            new ColunaExportacao("id", ColunaExportacao.Tipo.UUID),
+            new ColunaExportacao("texto", ColunaExportacao.Tipo.TEXTO),
+            new ColunaExportacao("data_hora", ColunaExportacao.Tipo.DATA_HORA),
+            new ColunaExportacao("ativo", ColunaExportacao.Tipo.BOOLEANO));
+
+    @Test void escreveCabecalhoELinhas() throws IOException {
+        UUID id = UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        CsvExportacaoWriter writer = new CsvExportacaoWriter(COLUNAS, saida);
+        writer.escrever(new Object[]{id, "Guichê 1", LocalDateTime.of(2026, 3, 1, 8, 5, 9), true});
+        writer.escrever(new Object[]{null, null, null, false});
+        writer.concluir();
+
+        assertEquals("id,texto,data_hora,ativo\r\n"
+                        + "3f2504e0-4f89-11d3-9a0c-0305e82c3301,Guichê 1,2026-03-01T08:05:09,true\r\n"
+                        + ",,,false\r\n",
+                saida.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test void valoresComSeparadorAspasOuQuebra_vaoEntreAspas() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        CsvExportacaoWriter writer = new CsvExportacaoWriter(COLUNAS, saida);
+        writer.escrever(new Object[]{null, "a,b", null, null});
+        writer.escrever(new Object[]{null, "disse \"não\"", null, null});
+        writer.escrever(new Object[]{null, "linha 1\nlinha 2", null, null});
+        writer.concluir();
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(",\"a,b\",,", linhas[1]);
+        assertEquals(",\"disse \"\"não\"\"\",,", linhas[2]);
+        assertEquals(",\"linha 1\nlinha 2\",,", linhas[3]);
+    }
+}
@@ -0,0 +1,162 @@
+package com.wjbc.fila_atendimento.domain.repository;
+
+import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.service.ClienteService;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listagens paginadas no banco: a navegação por cursor percorre os mesmos itens, na mesma ordem,
+ * que a paginação por página e a lista completa, sem repetir nem pular.
+ */
+@SpringBootTest(properties = "fila.indice-memoria.habilitado=false")
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultaPaginadaPostgresTest {
+
+    private static final int CLIENTES = 25;
+    private static final int AGUARDANDO = 30;
+
+    @Autowired ClienteService clienteService;
+    @Autowired EntradaFilaService entradaFilaService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final String prefixo = "Paginação " + UUID.randomUUID().toString().substring(0, 8);
+    private final UUID unidadeId = UUID.randomUUID();
+    private final UUID setorId = UUID.randomUUID();
+    private final UUID filaId = UUID.randomUUID();
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        jdbcTemplate.update("INSERT INTO fila_atendimento.unidade_atendimento (id, nome) VALUES (?, ?)", unidadeId, prefixo);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.setor (id, nome) VALUES (?, ?)", setorId, prefixo);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.fila (id, nome, setor_id, unidade_atendimento_id) VALUES (?, 'Triagem', ?, ?)",
+                filaId, setorId, unidadeId);
+        // Dois telefones por cliente, para a busca por telefone ter de eliminar repetidos
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente (nome, cpf) " +
+                "SELECT ? || ' ' || g, substr(md5(? || g), 1, 14) FROM generate_series(1, ?) g", prefixo, prefixo, CLIENTES);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente_telefones (cliente_id, tipo, ddd, numero) " +
+                "SELECT c.id, 'CELULAR', 77, 900000000 + t FROM fila_atendimento.cliente c, generate_series(1, 2) t " +
+                "WHERE c.nome LIKE ? || ' %'", prefixo);
+        // Aguardando com e sem prioridade, um minuto entre as entradas; as atendidas ficam fora da listagem
+        LocalDateTime agora = LocalDateTime.now().withNano(0);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.entrada_fila (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada)
+                SELECT ?, (SELECT id FROM fila_atendimento.cliente WHERE nome = ? || ' 1'), g % 4 = 0,
+                       CASE WHEN g % 5 = 0 THEN 'ATENDIDO' ELSE 'AGUARDANDO' END, false,
+                       ?::timestamp - g * interval '1 minute'
+                FROM generate_series(1, ?) g
+                """, filaId, prefixo, agora, AGUARDANDO * 5 / 4);
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id = ?", filaId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.cliente WHERE nome LIKE ? || ' %'", prefixo);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.fila WHERE id = ?", filaId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.setor WHERE id = ?", setorId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.unidade_atendimento WHERE id = ?", unidadeId);
+    }
+
+    @Test
+    void clientesPorNome_cursorPercorreOsMesmosItensDasPaginas() {
+        Page<ClienteResponseDTO> primeira = clienteService.buscarPorNomeSemelhante(prefixo, PageRequest.of(0, 10));
+        assertEquals(CLIENTES, primeira.getTotalElements());
+        assertEquals(3, primeira.getTotalPages());
+
+        List<UUID> porPagina = new ArrayList<>();
+        for (int pagina = 0; pagina < 3; pagina++) {
+            clienteService.buscarPorNomeSemelhante(prefixo, PageRequest.of(pagina, 10)).forEach(c -> porPagina.add(c.id()));
+        }
+        List<UUID> porCursor = percorrer((apos) -> clienteService.buscarPorNomeSemelhante(prefixo, apos, 10), ClienteResponseDTO::id);
+
+        assertEquals(CLIENTES, new HashSet<>(porCursor).size());
+        assertEquals(porPagina, porCursor);
+        // O cursor da primeira página continua exatamente depois dela
+        Window<ClienteResponseDTO> continuacao = clienteService.buscarPorNomeSemelhante(prefixo, porPagina.get(9), 10);
+        assertEquals(porPagina.subList(10, 20), continuacao.getContent().stream().map(ClienteResponseDTO::id).toList());
+    }
+
+    @Test
+    void clientesPorTelefone_semRepetirClienteComVariosNumeros() {
+        Page<ClienteResponseDTO> pagina = clienteService.buscarPorTelefone("77900000001", PageRequest.of(0, 10));
+        List<UUID> porCursor = percorrer((apos) -> clienteService.buscarPorTelefone("77900000001", apos, 7), ClienteResponseDTO::id);
+
+        assertEquals(CLIENTES, pagina.getTotalElements());
+        assertEquals(CLIENTES, porCursor.size());
+        assertEquals(CLIENTES, new HashSet<>(porCursor).size());
+    }
+
+    @Test
+    void aguardando_cursorSegueAOrdemDeEsperaDaListaCompleta() {
+        List<UUID> completa = entradaFilaService.listarAguardandoPorFila(filaId).stream().map(EntradaFilaResponseDTO::id).toList();
+        Page<EntradaFilaResponseDTO> pagina = entradaFilaService.listarAguardandoPorFila(filaId, PageRequest.of(1, 7));
+        List<UUID> porCursor = percorrer((apos) -> entradaFilaService.listarAguardandoPorFila(filaId, apos, 7), EntradaFilaResponseDTO::id);
+
+        assertEquals(AGUARDANDO, completa.size());
+        assertEquals(AGUARDANDO, pagina.getTotalElements());
+        assertEquals(completa.subList(7, 14), pagina.getContent().stream().map(EntradaFilaResponseDTO::id).toList());
+        assertEquals(completa, porCursor);
+    }
+
+    @Test
+    void aguardando_cursorDeEntradaJaChamadaContinuaDepoisDela() {
+        List<UUID> completa = entradaFilaService.listarAguardandoPorFila(filaId).stream().map(EntradaFilaResponseDTO::id).toList();
+        UUID cursor = completa.get(4);
+        jdbcTemplate.update("UPDATE fila_atendimento.entrada_fila SET status = 'CHAMADO' WHERE id = ?", cursor);
+        try {
+            Window<EntradaFilaResponseDTO> seguintes = entradaFilaService.listarAguardandoPorFila(filaId, cursor, 5);
+            assertEquals(completa.subList(5, 10), seguintes.getContent().stream().map(EntradaFilaResponseDTO::id).toList());
+            assertTrue(seguintes.hasNext());
+        } finally {
+            jdbcTemplate.update("UPDATE fila_atendimento.entrada_fila SET status = 'AGUARDANDO' WHERE id = ?", cursor);
+        }
+    }
+
+    private static <T> List<UUID> percorrer(Function<UUID, Window<T>> proxima, Function<T, UUID> id) {
+        List<UUID> ids = new ArrayList<>();
+        UUID apos = null;
+        Window<T> janela;
+        do {
+            janela = proxima.apply(apos);
+            janela.forEach(item -> ids.add(id.apply(item)));
+            apos = ids.isEmpty() ? null : ids.get(ids.size() - 1);
+        } while (janela.hasNext());
+        return ids;
+    }
+}
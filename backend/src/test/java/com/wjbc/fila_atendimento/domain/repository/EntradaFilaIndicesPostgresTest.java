@@ -0,0 +1,214 @@
+package com.wjbc.fila_atendimento.domain.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.dashboard.repository.query.DashboardQueries;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaParticionamentoService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regressão de planos: popula entrada_fila com um histórico realista (a grande maioria já
+ * atendida, ~1% aguardando), roda EXPLAIN nas consultas quentes e verifica que cada uma usa
+ * o índice esperado e que nenhuma faz Seq Scan em entrada_fila. O histórico é distribuído nas
+ * partições mensais, e os índices são conferidos pelas cópias de cada partição.
+ *
+ * O volume padrão mantém o teste rápido; para reproduzir uma base de produção use, por exemplo,
+ * {@code -Dexplain.linhas=3000000}.
+ */
+@SpringBootTest(properties = "fila.indice-memoria.habilitado=false")
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntradaFilaIndicesPostgresTest {
+
+    private static final int FILAS = 40;
+    private static final int CLIENTES = 2_000;
+    private static final long LINHAS = Long.getLong("explain.linhas", 300_000L);
+
+    @Autowired NamedParameterJdbcTemplate jdbc;
+    @Autowired EntradaFilaParticionamentoService particionamento;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID unidadeId = UUID.randomUUID();
+    private final UUID setorId = UUID.randomUUID();
+    private UUID filaId;
+    private UUID clienteId;
+    private LocalDateTime agora;
+    private Set<String> particoesPopuladas;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        agora = LocalDateTime.now().withNano(0);
+        particionamento.criarParticoes(YearMonth.from(agora.minusSeconds(LINHAS * 20)), YearMonth.from(agora));
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("unidade", unidadeId)
+                .addValue("setor", setorId)
+                .addValue("sufixo", unidadeId.toString())
+                .addValue("filas", FILAS)
+                .addValue("clientes", CLIENTES)
+                .addValue("linhas", LINHAS)
+                .addValue("agora", Timestamp.valueOf(agora))
+                .addValue("prefixoCliente", "Explain " + unidadeId + " ");
+        jdbc.update("INSERT INTO fila_atendimento.unidade_atendimento (id, nome) VALUES (:unidade, 'Explain ' || :sufixo)", p);
+        jdbc.update("INSERT INTO fila_atendimento.setor (id, nome) VALUES (:setor, 'Explain ' || :sufixo)", p);
+        jdbc.update("INSERT INTO fila_atendimento.fila (nome, setor_id, unidade_atendimento_id) " +
+                "SELECT 'Fila ' || g, :setor, :unidade FROM generate_series(1, :filas) g", p);
+        jdbc.update("INSERT INTO fila_atendimento.cliente (nome, cpf) " +
+                "SELECT :prefixoCliente || g, substr(md5(:sufixo || g), 1, 14) FROM generate_series(1, :clientes) g", p);
+        // Uma entrada a cada 20s, da mais recente para a mais antiga; 1% aguardando, 1% chamado
+        jdbc.update("""
+                WITH f AS (SELECT array_agg(id ORDER BY nome) ids FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade),
+                     c AS (SELECT array_agg(id) ids FROM fila_atendimento.cliente WHERE nome LIKE :prefixoCliente || '%'),
+                     t AS (SELECT CAST(:agora AS timestamp) agora)
+                INSERT INTO fila_atendimento.entrada_fila
+                    (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada, data_hora_chamada, data_hora_saida)
+                SELECT f.ids[1 + g % :filas], c.ids[1 + g % array_length(c.ids, 1)], g % 7 = 0,
+                       CASE WHEN g % 100 = 0 THEN 'AGUARDANDO' WHEN g % 100 = 1 THEN 'CHAMADO' ELSE 'ATENDIDO' END,
+                       g % 13 = 0,
+                       t.agora - g * interval '20 seconds',
+                       CASE WHEN g % 100 = 0 THEN NULL ELSE t.agora - g * interval '20 seconds' + interval '5 minutes' END,
+                       CASE WHEN g % 100 > 1 THEN t.agora - g * interval '20 seconds' + interval '15 minutes' END
+                FROM generate_series(1, :linhas) g, f, c, t
+                """, p);
+        // ANALYZE na tabela particionada também coleta as estatísticas de cada partição
+        jdbc.getJdbcTemplate().execute("ANALYZE fila_atendimento.entrada_fila");
+        jdbc.getJdbcTemplate().execute("ANALYZE fila_atendimento.fila");
+        // Partições vazias (meses futuros) são varridas sem custo; a regressão interessa nas populadas
+        particoesPopuladas = new HashSet<>(jdbc.getJdbcTemplate().queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'fila_atendimento.entrada_fila'::regclass AND c.reltuples > 1000", String.class));
+        filaId = jdbc.queryForObject("SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade ORDER BY nome LIMIT 1", p, UUID.class);
+        clienteId = jdbc.queryForObject("SELECT cliente_id FROM fila_atendimento.entrada_fila WHERE fila_id = :fila LIMIT 1",
+                new MapSqlParameterSource("fila", filaId), UUID.class);
+    }
+
+    @AfterAll
+    void limpar() {
+        MapSqlParameterSource p = new MapSqlParameterSource("unidade", unidadeId)
+                .addValue("setor", setorId)
+                .addValue("prefixoCliente", "Explain " + unidadeId + " ");
+        jdbc.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id IN " +
+                "(SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade)", p);
+        jdbc.update("DELETE FROM fila_atendimento.cliente WHERE nome LIKE :prefixoCliente || '%'", p);
+        jdbc.update("DELETE FROM fila_atendimento.fila WHERE unidade_atendimento_id = :unidade", p);
+        jdbc.update("DELETE FROM fila_atendimento.setor WHERE id = :setor", p);
+        jdbc.update("DELETE FROM fila_atendimento.unidade_atendimento WHERE id = :unidade", p);
+    }
+
+    @Test
+    void reservarProximoAguardando_usaIndiceParcialDeAguardando() throws Exception {
+        Plano plano = explain("SELECT * FROM fila_atendimento.entrada_fila " +
+                "WHERE fila_id = :fila AND status = 'AGUARDANDO' AND retorno = false " +
+                "ORDER BY prioridade DESC, data_hora_entrada ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
+                Map.of("fila", filaId));
+        plano.assertUsaIndice(indicesDe("idx_entrada_fila_aguardando"));
+        plano.assertSemSeqScanEmEntradaFila();
+    }
+
+    @Test
+    void clienteJaAguardando_usaIndiceParcialPorCliente() throws Exception {
+        Plano plano = explain("SELECT 1 FROM fila_atendimento.entrada_fila " +
+                "WHERE cliente_id = :cliente AND fila_id = :fila AND status = 'AGUARDANDO' LIMIT 1",
+                Map.of("cliente", clienteId, "fila", filaId));
+        plano.assertUsaIndice(indicesDe("idx_entrada_fila_aguardando_cliente"));
+    }
+
+    @Test
+    void ultimasChamadas_usaIndiceDeChamada() throws Exception {
+        Plano plano = explain("SELECT e.guiche_ou_sala_atendimento, e.data_hora_chamada FROM fila_atendimento.entrada_fila e " +
+                "WHERE e.fila_id = :fila AND e.data_hora_chamada IS NOT NULL ORDER BY e.data_hora_chamada DESC LIMIT 3",
+                Map.of("fila", filaId));
+        plano.assertUsaIndice(indicesDe("idx_entrada_fila_chamada"));
+    }
+
+    @Test
+    void consultasDoDashboard_naoVarremEntradaFila() throws Exception {
+        assertFalse(particoesPopuladas.isEmpty());
+        // Horas inteiras nos rollups; a primeira e a última (parciais) em entrada_fila
+        LocalDateTime horaAtual = agora.truncatedTo(ChronoUnit.HOURS);
+        Map<String, Object> janela = Map.of(
+                "unidadeId", unidadeId,
+                "inicio", Timestamp.valueOf(agora.minusDays(1)),
+                "fim", Timestamp.valueOf(agora),
+                "rollupInicio", Timestamp.valueOf(horaAtual.minusDays(1).plusHours(1)),
+                "rollupFim", Timestamp.valueOf(horaAtual));
+        for (String sql : List.of(DashboardQueries.TEMPO_ESPERA, DashboardQueries.PRODUTIVIDADE,
+                DashboardQueries.HORARIO_PICO, DashboardQueries.FLUXO_PACIENTES)) {
+            explain(sql, janela).assertSemSeqScanEmEntradaFila();
+        }
+    }
+
+    private Plano explain(String sql, Map<String, Object> parametros) throws Exception {
+        String json = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, parametros, String.class);
+        JsonNode raiz = objectMapper.readTree(json).get(0).get("Plan");
+        List<JsonNode> nos = new ArrayList<>();
+        coletar(raiz, nos);
+        return new Plano(sql, json, nos, particoesPopuladas);
+    }
+
+    // O índice da tabela particionada e suas cópias em cada partição, que são as que aparecem no plano
+    private Set<String> indicesDe(String indice) {
+        Set<String> nomes = new HashSet<>(jdbc.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = CAST(:indice AS regclass)",
+                Map.of("indice", "fila_atendimento." + indice), String.class));
+        nomes.add(indice);
+        return nomes;
+    }
+
+    private static void coletar(JsonNode no, List<JsonNode> nos) {
+        nos.add(no);
+        JsonNode filhos = no.get("Plans");
+        if (filhos != null) {
+            filhos.forEach(filho -> coletar(filho, nos));
+        }
+    }
+
+    private record Plano(String sql, String json, List<JsonNode> nos, Set<String> particoesPopuladas) {
+
+        void assertUsaIndice(Set<String> indices) {
+            assertTrue(nos.stream().anyMatch(n -> indices.contains(n.path("Index Name").asText())),
+                    () -> "Plano não usa nenhum de " + indices + " para:\n" + sql + "\n" + json);
+        }
+
+        void assertSemSeqScanEmEntradaFila() {
+            assertTrue(nos.stream().noneMatch(n -> "Seq Scan".equals(n.path("Node Type").asText())
+                            && particoesPopuladas.contains(n.path("Relation Name").asText())),
+                    () -> "Seq Scan em entrada_fila para:\n" + sql + "\n" + json);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelDTO;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelResponseDTO;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import com.wjbc.fila_atendimento.domain.repository.SetorRepository;
+import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.service.ChamadaPainelService;
+import com.wjbc.fila_atendimento.domain.service.PainelService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Grava chamadas em lote no {@code chamada_painel} criado pelas migrations e lê o replay do painel.
+ */
+// Gravação agendada adiada: o teste grava explicitamente
+@SpringBootTest(properties = "chamada-painel.gravacao.intervalo-ms=3600000")
+@ActiveProfiles("test")
+@DirtiesContext
+class ChamadaPainelServiceImplPostgresTest {
+
+    @Autowired ChamadaPainelService chamadaPainelService;
+    @Autowired PainelService painelService;
+    @Autowired PainelRepository painelRepository;
+    @Autowired FilaRepository filaRepository;
+    @Autowired SetorRepository setorRepository;
+    @Autowired UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @Test
+    void gravaEmLoteERepeteAsUltimasChamadasDoPainel() {
+        UnidadeAtendimento unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        Fila fila = new Fila();
+        fila.setNome("Triagem");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+        fila = filaRepository.save(fila);
+        // Pelo serviço, para que o roteamento fila → painéis seja atualizado
+        PainelResponseDTO painel = painelService.criar(new PainelCreateDTO("TV recepção", unidade.getId(), List.of(fila.getId())));
+
+        LocalDateTime inicio = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            chamadaPainelService.registrar(new ChamadaPainelRegistroDTO(UUID.randomUUID(), fila.getId(), setor.getId(),
+                    unidade.getId(), "Paciente " + i, "Sala " + i, inicio.plusSeconds(i)));
+        }
+        chamadaPainelService.gravarPendentes();
+
+        List<ChamadaPainelDTO> ultimas = chamadaPainelService.listarUltimasDoPainel(painel.id(), 3);
+        assertEquals(List.of("Paciente 4", "Paciente 3", "Paciente 2"),
+                ultimas.stream().map(ChamadaPainelDTO::nomePaciente).toList());
+        assertEquals(fila.getId(), ultimas.get(0).filaId());
+
+        // Remover o painel preserva o histórico, sem o vínculo
+        painelRepository.deleteById(painel.id());
+        Integer semPainel = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM fila_atendimento.chamada_painel WHERE fila_id = ? AND painel_id IS NULL",
+                Integer.class, fila.getId());
+        assertEquals(5, semPainel);
+    }
+
+    @Test
+    void painelRemovidoAntesDaGravacao_naoDescartaAsChamadasDosDemais() {
+        UnidadeAtendimento unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        Fila fila = new Fila();
+        fila.setNome("Triagem");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+        fila = filaRepository.save(fila);
+        PainelResponseDTO mantido = painelService.criar(new PainelCreateDTO("TV recepção", unidade.getId(), List.of(fila.getId())));
+        PainelResponseDTO removido = painelService.criar(new PainelCreateDTO("TV corredor", unidade.getId(), List.of(fila.getId())));
+
+        for (int i = 0; i < 3; i++) {
+            chamadaPainelService.registrar(new ChamadaPainelRegistroDTO(UUID.randomUUID(), fila.getId(), setor.getId(),
+                    unidade.getId(), "Paciente " + i, "Sala " + i, LocalDateTime.now().withNano(0).plusSeconds(i)));
+        }
+        // Removido direto no banco: o roteamento em memória ainda o inclui na gravação
+        jdbcTemplate.update("DELETE FROM fila_atendimento.painel WHERE id = ?", removido.id());
+        chamadaPainelService.gravarPendentes();
+
+        assertEquals(3, chamadaPainelService.listarUltimasDoPainel(mantido.id(), 10).size());
+        Integer doRemovido = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM fila_atendimento.chamada_painel WHERE painel_id = ?", Integer.class, removido.id());
+        assertEquals(0, doRemovido);
+    }
+}
@@ -0,0 +1,134 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
+import com.wjbc.fila_atendimento.domain.exception.BusinessException;
+import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.repository.ChamadaPainelRepository;
+import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChamadaPainelServiceImplTest {
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+    @Mock ChamadaPainelRepository chamadaPainelRepository;
+    @Mock PainelRepository painelRepository;
+    @Mock PainelRoteamentoCache painelRoteamentoCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChamadaPainelServiceImpl service;
+    private final UUID filaId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ChamadaPainelServiceImpl(jdbcTemplate, transactionManager, chamadaPainelRepository, painelRepository,
+                painelRoteamentoCache, meterRegistry, 2);
+    }
+
+    private ChamadaPainelRegistroDTO chamada() {
+        return new ChamadaPainelRegistroDTO(UUID.randomUUID(), filaId, UUID.randomUUID(), UUID.randomUUID(),
+                "Maria", "Sala 3", LocalDateTime.now());
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("chamada.painel.gravacao").tag("resultado", resultado).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test void gravarPendentes_insereEmLoteUmaLinhaPorPainel() {
+        UUID painelA = UUID.randomUUID();
+        UUID painelB = UUID.randomUUID();
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.of(Set.of(painelA, painelB)));
+        service.registrar(chamada());
+        service.registrar(chamada());
+
+        service.gravarPendentes();
+
+        ArgumentCaptor<List<Object[]>> linhas = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), linhas.capture());
+        assertEquals(4, linhas.getValue().size());
+        assertEquals(4, contador("gravada"));
+        assertEquals(0, service.getPendentes());
+    }
+
+    @Test void registrar_semSetorOuUnidade_naoEnfileira() {
+        service.registrar(new ChamadaPainelRegistroDTO(UUID.randomUUID(), filaId, null, null, "Maria", "Sala 3", LocalDateTime.now()));
+        assertEquals(0, service.getPendentes());
+    }
+
+    @Test void registrar_comFilaCheia_descartaEContabiliza() {
+        service.registrar(chamada());
+        service.registrar(chamada());
+        service.registrar(chamada());
+        assertEquals(2, service.getPendentes());
+        assertEquals(1, contador("descartada"));
+    }
+
+    @Test void gravarPendentes_filaSemPaineis_naoAcessaOBanco() {
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.of(Set.of()));
+        service.registrar(chamada());
+        service.gravarPendentes();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test void gravarPendentes_falhaNoBanco_contabilizaSemPropagar() {
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.of(Set.of(UUID.randomUUID(), UUID.randomUUID())));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("fora do ar"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new DataAccessResourceFailureException("fora do ar"));
+        service.registrar(chamada());
+        assertDoesNotThrow(() -> service.gravarPendentes());
+        assertEquals(2, contador("falha"));
+        // Banco indisponível: não insiste linha a linha no restante do lote
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test void gravarPendentes_loteRecusado_descartaSoAsLinhasRecusadas() {
+        UUID removido = UUID.randomUUID();
+        UUID ativo = UUID.randomUUID();
+        when(painelRoteamentoCache.paineisDaFila(filaId)).thenReturn(Optional.of(Set.of(removido, ativo)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("fk_chamada_painel"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocacao -> {
+            if (removido.equals(((Object[]) invocacao.getRawArguments()[1])[6])) {
+                throw new DataIntegrityViolationException("fk_chamada_painel");
+            }
+            return 1;
+        });
+        service.registrar(chamada());
+        service.registrar(chamada());
+
+        service.gravarPendentes();
+
+        assertEquals(2, contador("gravada"));
+        assertEquals(2, contador("falha"));
+        verify(jdbcTemplate, times(4)).update(anyString(), any(Object[].class));
+    }
+
+    @Test void listarUltimasDoPainel_validaLimiteEPainel() {
+        UUID painelId = UUID.randomUUID();
+        assertThrows(BusinessException.class, () -> service.listarUltimasDoPainel(painelId, 0));
+        assertThrows(BusinessException.class, () -> service.listarUltimasDoPainel(painelId, 201));
+        when(painelRepository.existsById(painelId)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> service.listarUltimasDoPainel(painelId, 10));
+    }
+}
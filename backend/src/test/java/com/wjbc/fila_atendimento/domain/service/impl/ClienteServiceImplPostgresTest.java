@@ -0,0 +1,285 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
+import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.domain.repository.specification.ClienteSpecification;
+import com.wjbc.fila_atendimento.domain.service.ClienteService;
+import com.wjbc.fila_atendimento.support.Benchmark;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Busca de clientes por nome sobre nome_busca e os índices da V026: ignora acentos, começa pelos nomes que
+ * começam pelo termo, completa com os que o contêm em outra posição e com os parecidos (erros de
+ * digitação), e nenhuma das consultas varre a tabela de clientes. A busca por telefone compara o início ou
+ * o fim dos dígitos (V027) pelos índices da V028, sem varrer a tabela de telefones.
+ *
+ * A base do benchmark tem 200 mil clientes por padrão; para o volume de produção use, por exemplo,
+ * {@code -Dbenchmark.clientes=1000000}. O p95 aceito (ms, além do de uma busca por CPF, que mede a ida e volta
+ * ao banco) é ajustável com {@code -Dbenchmark.clientes.p95-ms} e só é verificado com
+ * {@code -Dbenchmark.verificar-tempos=true}; sem ele os tempos apenas vão para o log.
+ */
+@Slf4j
+@SpringBootTest(properties = "fila.indice-memoria.habilitado=false")
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClienteServiceImplPostgresTest {
+
+    private static final long CLIENTES = Long.getLong("benchmark.clientes", 200_000L);
+    private static final long P95_MAXIMO_MS = Long.getLong("benchmark.clientes.p95-ms", 10L);
+
+    // Como digitados na recepção: o nome do início, às vezes já com o começo do sobrenome
+    private static final List<String> PREFIXOS = List.of("mar", "jose", "ana", "conc", "maria s", "joão pe", "antonia",
+            "fran", "pedro al", "luc", "sebas", "Marcos Gon", "rai", "cláudia r", "vit");
+    // Sobrenome ou meio do nome: etapa dos trigramas, só medida
+    private static final List<String> SOBRENOMES = List.of("silv", "olivei", "gonç", "conceicao", "rocha");
+    // Telefone completo, sem DDD ou só os últimos dígitos (os números gerados são 9xxxxxxxx)
+    private static final List<String> TELEFONES = List.of("(11) 90000-0011", "77900012345", "900054321", "2024", "900150000",
+            "0077", "(23) 90009-9999", "3456-0987", "71 3456-0987", "90012");
+
+    @Autowired ClienteService clienteService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired NamedParameterJdbcTemplate jdbc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Os clientes do teste são identificados pelo início do CPF
+    private final String prefixoCpf = "N" + UUID.randomUUID().toString().substring(0, 4);
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        // Nome, nome do meio e sobrenome combinados sem repetir a sequência a cada volta
+        jdbcTemplate.update("""
+                WITH n AS (SELECT ARRAY['Maria','José','Ana','João','Antônia','Francisco','Lúcia','Pedro','Marcos','Juliana',
+                                        'Luiz','Márcia','Carlos','Fernanda','Paulo','Patrícia','Mariana','Rafael','Sebastião',
+                                        'Aline','Gabriel','Letícia','Raimundo','Cláudia','Lucas','Bruna','Vitor','Conceição',
+                                        'Benedito','Tereza','Gustavo','Simone','Ítalo','Helena','Otávio','Íris','Rogério',
+                                        'Débora','Sérgio','Vânia'] nomes,
+                              ARRAY['Silva','Santos','Oliveira','Souza','Rodrigues','Ferreira','Alves','Pereira','Lima',
+                                    'Gomes','Costa','Ribeiro','Martins','Carvalho','Almeida','Lopes','Soares','Fernandes',
+                                    'Vieira','Barbosa','Rocha','Dias','Nascimento','Andrade','Moreira','Nunes','Marques',
+                                    'Machado','Mendes','Freitas','Cardoso','Ramos','Gonçalves','Santana','Teixeira',
+                                    'Araújo','Conceição','Peçanha','Guimarães','Brandão','Falcão','Magalhães','Simões',
+                                    'Assunção','Damásio','Estêvão','Leão','Queiroz','Xavier','Zanetti'] sobrenomes)
+                INSERT INTO fila_atendimento.cliente (nome, cpf)
+                SELECT n.nomes[1 + g % 40] || ' ' || n.sobrenomes[1 + (g / 40) % 50] || ' ' || n.sobrenomes[1 + (g * 7 / 2000) % 50],
+                       ? || g
+                FROM generate_series(1, ?) g, n
+                """, prefixoCpf, CLIENTES);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente (nome, cpf) VALUES " +
+                "('Josué Anunciação Borba', ? || 'a'), ('Josefina Anunciata', ? || 'b')", prefixoCpf, prefixoCpf);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente (nome, cpf, ativo) VALUES ('Josué Anunciação Inativo', ? || 'c', false)",
+                prefixoCpf);
+        // Um celular por cliente gerado; os do teste de telefone com um fixo (71) 3456-0987
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.cliente_telefones (cliente_id, tipo, ddd, numero)
+                SELECT c.id, 'CELULAR', 11 + g % 80, 900000000 + g
+                FROM fila_atendimento.cliente c, CAST(substr(c.cpf, length(?) + 1) AS bigint) g
+                WHERE c.cpf LIKE ? || '%' AND substr(c.cpf, length(?) + 1) ~ '^[0-9]+$'
+                """, prefixoCpf, prefixoCpf, prefixoCpf);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.cliente_telefones (cliente_id, tipo, ddd, numero)
+                SELECT c.id, 'FIXO', 71, 34560987 FROM fila_atendimento.cliente c WHERE c.cpf IN (? || 'a', ? || 'c')
+                """, prefixoCpf, prefixoCpf);
+        jdbcTemplate.execute("ANALYZE fila_atendimento.cliente");
+        jdbcTemplate.execute("ANALYZE fila_atendimento.cliente_telefones");
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM fila_atendimento.cliente WHERE cpf LIKE ? || '%'", prefixoCpf);
+    }
+
+    @Test
+    void semelhantes_inicioDoNomeIgnoraAcentosEMaiusculas() {
+        List<ClienteResponseDTO> clientes = clienteService.buscarMaisSemelhantesPorNome("JOSUE anunc", 5);
+
+        assertFalse(clientes.isEmpty());
+        assertEquals("Josué Anunciação Borba", clientes.get(0).nome());
+        assertTrue(clientes.stream().noneMatch(c -> c.nome().endsWith("Inativo")));
+    }
+
+    @Test
+    void semelhantes_completaComNomesQueContemOTermo() {
+        List<ClienteResponseDTO> clientes = clienteService.buscarMaisSemelhantesPorNome("anunciação", 5);
+
+        assertEquals("Josué Anunciação Borba", clientes.get(0).nome());
+    }
+
+    @Test
+    void semelhantes_toleramErroDeDigitacao() {
+        List<ClienteResponseDTO> clientes = clienteService.buscarMaisSemelhantesPorNome("anunciasao", 5);
+
+        assertTrue(clientes.stream().anyMatch(c -> c.nome().equals("Josué Anunciação Borba")),
+                () -> "Sem o cliente esperado: " + clientes);
+    }
+
+    @Test
+    void semelhantes_respeitaOLimiteEmOrdemAlfabetica() {
+        List<String> nomes = clienteService.buscarMaisSemelhantesPorNome("maria", 7).stream()
+                .map(ClienteResponseDTO::nome).toList();
+
+        assertEquals(7, nomes.size());
+        assertTrue(nomes.stream().allMatch(n -> n.startsWith("Maria ")), nomes::toString);
+    }
+
+    @Test
+    void buscas_usamOsIndicesDoNome() throws Exception {
+        String termo = ClienteSpecification.normalizarNome("Anunciação");
+        Map<String, Object> parametros = Map.of(
+                "termo", termo,
+                "inicio", termo,
+                "fim", ClienteSpecification.fimDoPrefixo(termo),
+                "padrao", ClienteSpecification.padraoPalavrasEmSequencia(termo),
+                "candidatos", 200,
+                "limite", 20);
+        assertUsaIndice("idx_cliente_nome_busca", consultaDe("findPorInicioDoNome", String.class, String.class, int.class), parametros);
+        assertUsaIndice("idx_cliente_nome_busca_trgm", consultaDe("findComPalavrasNoNome", String.class, String.class, String.class, String.class, int.class, int.class),
+                parametros);
+        assertUsaIndice("idx_cliente_nome_busca_trgm", consultaDe("findComNomeParecido", String.class, String.class, int.class, int.class),
+                parametros);
+        // A consulta gerada por ClienteSpecification.porNomeSemelhante
+        assertUsaIndice("idx_cliente_nome_busca_trgm", "SELECT c.* FROM fila_atendimento.cliente c " +
+                "WHERE c.nome_busca LIKE :palavra1 AND c.nome_busca LIKE :palavra2 AND c.ativo = true",
+                Map.of("palavra1", "%josue%", "palavra2", "%anunciacao%"));
+    }
+
+    @Test
+    void telefone_inicioOuFimDosDigitos_semPontuacao() {
+        for (String termo : List.of("71 3456", "(71) 3456-0987", "34560987", "0987")) {
+            List<String> nomes = clienteService.buscarPorTelefone(termo, null, null).stream().map(ClienteResponseDTO::nome).toList();
+            assertTrue(nomes.contains("Josué Anunciação Borba"), () -> termo + ": " + nomes);
+            assertFalse(nomes.contains("Josué Anunciação Inativo"), () -> termo + ": " + nomes);
+        }
+        // Meio do número e termos sem dígitos não casam
+        assertTrue(clienteService.buscarPorTelefone("4560", null, null).stream().noneMatch(c -> c.nome().startsWith("Josué")));
+        assertTrue(clienteService.buscarPorTelefone("abc", null, null).isEmpty());
+        assertEquals(List.of("Josué Anunciação Borba"), clienteService.buscarPorTelefone("713456", PageRequest.of(0, 5))
+                .map(ClienteResponseDTO::nome).getContent());
+    }
+
+    @Test
+    void telefone_usaOsIndicesDosDigitos() throws Exception {
+        String digitos = "77900012345";
+        String invertidos = ClienteSpecification.inverter(digitos);
+        Map<String, Object> parametros = Map.of(
+                "inicio", digitos,
+                "fim", ClienteSpecification.fimDoPrefixo(digitos),
+                "inicioInvertido", invertidos,
+                "fimInvertido", ClienteSpecification.fimDoPrefixo(invertidos));
+        // A consulta de ClienteRepository.COM_TELEFONE e de ClienteSpecification.porTelefone, em SQL
+        String sql = "SELECT c.* FROM fila_atendimento.cliente c WHERE c.ativo = true AND EXISTS (" +
+                "SELECT 1 FROM fila_atendimento.cliente_telefones t WHERE t.cliente_id = c.id AND (" +
+                "(t.digitos >= :inicio AND t.digitos < :fim) OR " +
+                "(reverse(t.digitos) >= :inicioInvertido AND reverse(t.digitos) < :fimInvertido)))";
+        assertUsaIndice("idx_cliente_telefones_digitos", sql, parametros);
+        assertUsaIndice("idx_cliente_telefones_digitos_invertidos", sql, parametros);
+    }
+
+    @Test
+    void benchmark_p95DosPrefixosTipicos() {
+        long[] prefixos = medir(PREFIXOS, "prefixos", termo -> clienteService.buscarMaisSemelhantesPorNome(termo, 20));
+        medir(SOBRENOMES, "sobrenomes", termo -> clienteService.buscarMaisSemelhantesPorNome(termo, 20));
+
+        // Descontado o p95 de uma busca por CPF, o custo fixo de ida e volta ao banco nesta máquina
+        long p95 = prefixos[0] - prefixos[1];
+        Benchmark.verificarTempo(p95 <= P95_MAXIMO_MS * 1000,
+                () -> "p95 da busca por nome acima de " + P95_MAXIMO_MS + " ms além da busca por CPF: " + p95 + " µs");
+    }
+
+    @Test
+    void benchmark_p95DaBuscaPorTelefone() {
+        long[] telefones = medir(TELEFONES, "telefone", termo -> clienteService.buscarPorTelefone(termo, null, null));
+
+        long p95 = telefones[0] - telefones[1];
+        Benchmark.verificarTempo(p95 <= P95_MAXIMO_MS * 1000,
+                () -> "p95 da busca por telefone acima de " + P95_MAXIMO_MS + " ms além da busca por CPF: " + p95 + " µs");
+    }
+
+    // p95 (µs) de 20 voltas pelos termos e de uma busca por CPF a cada termo, depois de três voltas de aquecimento
+    private long[] medir(List<String> termos, String descricao, Consumer<String> busca) {
+        String cpf = prefixoCpf + "1";
+        for (int volta = 0; volta < 3; volta++) {
+            termos.forEach(busca);
+            clienteService.buscarPorCpf(cpf);
+        }
+        List<Long> tempos = new ArrayList<>();
+        List<Long> temposPorCpf = new ArrayList<>();
+        for (int volta = 0; volta < 20; volta++) {
+            for (String termo : termos) {
+                long inicio = System.nanoTime();
+                busca.accept(termo);
+                tempos.add(System.nanoTime() - inicio);
+                inicio = System.nanoTime();
+                clienteService.buscarPorCpf(cpf);
+                temposPorCpf.add(System.nanoTime() - inicio);
+            }
+        }
+        long p95 = percentil(tempos, 0.95);
+        long p95PorCpf = percentil(temposPorCpf, 0.95);
+        log.info("Busca de clientes ({}) em {} clientes: p50 {} µs, p95 {} µs (busca por CPF: p95 {} µs)",
+                descricao, CLIENTES, percentil(tempos, 0.5), p95, p95PorCpf);
+        return new long[]{p95, p95PorCpf};
+    }
+
+    private static long percentil(List<Long> tempos, double fracao) {
+        long[] ordenados = tempos.stream().mapToLong(Long::longValue).sorted().toArray();
+        return ordenados[(int) Math.ceil(ordenados.length * fracao) - 1] / 1000;
+    }
+
+    private static String consultaDe(String metodo, Class<?>... parametros) throws NoSuchMethodException {
+        return ClienteRepository.class.getMethod(metodo, parametros).getAnnotation(Query.class).value();
+    }
+
+    private void assertUsaIndice(String indice, String sql, Map<String, Object> parametros) throws Exception {
+        String json = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, parametros, String.class);
+        List<JsonNode> nos = new ArrayList<>();
+        coletar(objectMapper.readTree(json).get(0).get("Plan"), nos);
+        assertTrue(nos.stream().anyMatch(n -> indice.equals(n.path("Index Name").asText())),
+                () -> "Plano não usa " + indice + " para:\n" + sql + "\n" + json);
+        assertTrue(nos.stream().noneMatch(n -> "Seq Scan".equals(n.path("Node Type").asText())),
+                () -> "Seq Scan para:\n" + sql + "\n" + json);
+    }
+
+    private static void coletar(JsonNode no, List<JsonNode> nos) {
+        nos.add(no);
+        JsonNode filhos = no.get("Plans");
+        if (filhos != null) {
+            filhos.forEach(filho -> coletar(filho, nos));
+        }
+    }
+}
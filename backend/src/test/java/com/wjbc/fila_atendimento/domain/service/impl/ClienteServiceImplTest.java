@@ -1,7 +1,10 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.ClienteBuscaIndex;
+import com.wjbc.fila_atendimento.domain.dto.ClienteBuscaDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.ClienteTelefoneDTO;
 import com.wjbc.fila_atendimento.domain.dto.ClienteUpdateDTO;
 import com.wjbc.fila_atendimento.domain.model.Cliente;
 import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
@@ -19,6 +22,7 @@ import static org.mockito.Mockito.*;
 class ClienteServiceImplTest {
     @Mock ClienteRepository clienteRepository;
     @Mock com.wjbc.fila_atendimento.domain.mapper.ClienteMapper clienteMapper;
+    @Mock ClienteBuscaIndex clienteBuscaIndex;
     @InjectMocks ClienteServiceImpl service;
 
     private AutoCloseable mocks;
@@ -210,4 +214,107 @@ class ClienteServiceImplTest {
         when(clienteMapper.toResponseDTO(clienteExistente)).thenReturn(new ClienteResponseDTO(id, "12345678900", "Nome", "email@email.com", null, null));
         assertDoesNotThrow(() -> service.substituir(id, dto));
     }
+
+    @Test void buscarMaisSemelhantesPorNome_inicioDoNomeCompletaOLimite_naoConsultaTrigramas() {
+        Cliente cliente = new Cliente(); cliente.setId(UUID.randomUUID()); cliente.setNome("Conceição Silva");
+        when(clienteRepository.findPorInicioDoNome("conceicao s", "conceicao t", 1)).thenReturn(java.util.List.of(cliente));
+        when(clienteMapper.toResponseDTO(cliente)).thenReturn(new ClienteResponseDTO(cliente.getId(), null, cliente.getNome(), null, null, null));
+
+        java.util.List<ClienteResponseDTO> result = service.buscarMaisSemelhantesPorNome("  Conceição   S ", 1);
+
+        assertEquals(1, result.size());
+        verify(clienteRepository, never()).findComPalavrasNoNome(any(), any(), any(), any(), anyInt(), anyInt());
+        verify(clienteRepository, never()).findComNomeParecido(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test void buscarMaisSemelhantesPorNome_completaComPalavrasEDepoisComParecidos() {
+        Cliente inicio = new Cliente(); inicio.setId(UUID.randomUUID());
+        Cliente palavra = new Cliente(); palavra.setId(UUID.randomUUID());
+        Cliente parecido = new Cliente(); parecido.setId(UUID.randomUUID());
+        when(clienteRepository.findPorInicioDoNome("silva", "silvb", 20)).thenReturn(java.util.List.of(inicio));
+        when(clienteRepository.findComPalavrasNoNome("silva", "%silva%", "silva", "silvb", 200, 19)).thenReturn(java.util.List.of(palavra));
+        when(clienteRepository.findComNomeParecido("silva", "%silva%", 200, 18)).thenReturn(java.util.List.of(parecido));
+        when(clienteMapper.toResponseDTO(any(Cliente.class)))
+                .thenAnswer(i -> new ClienteResponseDTO(((Cliente) i.getArgument(0)).getId(), null, null, null, null, null));
+
+        java.util.List<ClienteResponseDTO> result = service.buscarMaisSemelhantesPorNome("Silva", null);
+
+        assertEquals(java.util.List.of(inicio.getId(), palavra.getId(), parecido.getId()),
+                result.stream().map(ClienteResponseDTO::id).toList());
+    }
+
+    @Test void buscarMaisSemelhantesPorNome_limiteAcimaDoMaximo_usaOMaximo() {
+        when(clienteRepository.findPorInicioDoNome("maria", "marib", ClienteServiceImpl.LIMITE_MAXIMO_BUSCA_SEMELHANTE)).thenReturn(new ArrayList<>());
+
+        service.buscarMaisSemelhantesPorNome("maria", 10_000);
+
+        verify(clienteRepository).findPorInicioDoNome("maria", "marib", ClienteServiceImpl.LIMITE_MAXIMO_BUSCA_SEMELHANTE);
+    }
+
+    @Test void buscarMaisSemelhantesPorNome_termoCurto_lancaExcecao() {
+        assertThrows(com.wjbc.fila_atendimento.domain.exception.BusinessException.class,
+                () -> service.buscarMaisSemelhantesPorNome(" Jó ", null));
+        verifyNoInteractions(clienteRepository);
+    }
+
+    @Test void criarEDesativar_mantemOIndiceDeBusca() {
+        ClienteCreateDTO dto = new ClienteCreateDTO("12345678900", "Nome", "email@email.com", new ArrayList<>(), null);
+        Cliente cliente = new Cliente(); cliente.setId(UUID.randomUUID()); cliente.setCpf(dto.cpf()); cliente.setNome(dto.nome());
+        ClienteBuscaDTO resumo = new ClienteBuscaDTO(cliente.getId(), cliente.getNome(), cliente.getCpf());
+        when(clienteMapper.toEntity(dto)).thenReturn(cliente);
+        when(clienteRepository.save(any())).thenReturn(cliente);
+        when(clienteMapper.toBuscaDTO(cliente)).thenReturn(resumo);
+        when(clienteRepository.findById(cliente.getId())).thenReturn(Optional.of(cliente));
+
+        service.criar(dto);
+        service.desativar(cliente.getId());
+
+        verify(clienteBuscaIndex).atualizar(resumo);
+        verify(clienteBuscaIndex).remover(cliente.getId());
+    }
+
+    @Test void buscarPorTermo_indiceAtivo_naoConsultaOBanco() {
+        ClienteBuscaDTO resumo = new ClienteBuscaDTO(UUID.randomUUID(), "Maria", "12345678900");
+        when(clienteBuscaIndex.buscar("mar", ClienteServiceImpl.LIMITE_MAXIMO_BUSCA_TERMO)).thenReturn(Optional.of(java.util.List.of(resumo)));
+
+        assertEquals(java.util.List.of(resumo), service.buscarPorTermo("mar", 500));
+        verifyNoInteractions(clienteRepository);
+    }
+
+    @Test void buscarPorTermo_indiceInativo_buscaCpfETelefoneNoBanco() {
+        Cliente porCpf = new Cliente(); porCpf.setId(UUID.randomUUID()); porCpf.setNome("Pelo CPF"); porCpf.setCpf("77988887777");
+        Cliente porTelefone = new Cliente(); porTelefone.setId(UUID.randomUUID()); porTelefone.setNome("Pelo Telefone");
+        when(clienteBuscaIndex.buscar(anyString(), anyInt())).thenReturn(Optional.empty());
+        when(clienteRepository.findByCpf("77988887777")).thenReturn(Optional.of(porCpf));
+        // Início dos dígitos em ["77988887777", "77988887778"); fim (invertidos) em ["77778888977", "77778888978")
+        when(clienteRepository.findResumosComTelefone("77988887777", "77988887778", "77778888977", "77778888978", 10))
+                .thenReturn(java.util.List.of(new ClienteBuscaDTO(porTelefone.getId(), "Pelo Telefone", null),
+                        new ClienteBuscaDTO(porCpf.getId(), "Pelo CPF", "77988887777")));
+        when(clienteRepository.findTelefonesParaBusca(java.util.List.of(porCpf.getId(), porTelefone.getId())))
+                .thenReturn(java.util.List.of(new ClienteTelefoneDTO(porTelefone.getId(), 77, 988887777L)));
+
+        java.util.List<ClienteBuscaDTO> result = service.buscarPorTermo("(77) 98888-7777", null);
+
+        assertEquals(java.util.List.of("Pelo CPF", "Pelo Telefone"), result.stream().map(ClienteBuscaDTO::nome).toList());
+        assertEquals(java.util.List.of("77988887777"), result.get(1).telefones());
+        assertTrue(result.get(0).telefones().isEmpty());
+    }
+
+    @Test void buscarPorTelefone_comparaSoOsDigitos_doInicioEDoFim() {
+        Cliente cliente = new Cliente(); cliente.setId(UUID.randomUUID()); cliente.setNome("Maria");
+        when(clienteRepository.findComTelefone("7198888", "7198889", "8888917", "8888918")).thenReturn(java.util.List.of(cliente));
+        when(clienteMapper.toResponseDTO(cliente)).thenReturn(new ClienteResponseDTO(cliente.getId(), null, "Maria", null, null, null));
+
+        assertEquals(1, service.buscarPorTelefone("(71) 9888-8", null, null).size());
+        assertTrue(service.buscarPorTelefone("sem dígitos", null, null).isEmpty());
+        verify(clienteRepository, times(1)).findComTelefone(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test void buscarPorTermo_indiceInativoETermoCurto_naoConsultaOBanco() {
+        when(clienteBuscaIndex.buscar(anyString(), anyInt())).thenReturn(Optional.empty());
+
+        assertTrue(service.buscarPorTermo("jo", null).isEmpty());
+        assertTrue(service.buscarPorTermo("7", null).isEmpty());
+        verifyNoInteractions(clienteRepository);
+    }
 }
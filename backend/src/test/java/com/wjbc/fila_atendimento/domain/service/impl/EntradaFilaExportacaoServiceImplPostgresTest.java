@@ -0,0 +1,212 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.enumeration.FormatoExportacao;
+import com.wjbc.fila_atendimento.domain.exception.BusinessException;
+import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.model.Cliente;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.SetorRepository;
+import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaExportacaoService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exportação do histórico lida por cursor (fetch size menor que o total, para percorrer vários
+ * lotes) e gravada nos dois formatos.
+ */
+@SpringBootTest(properties = {
+        "fila.indice-memoria.habilitado=false",
+        "entrada-fila.exportacao.fetch-size=100",
+        "entrada-fila.exportacao.linhas-por-grupo=256"})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntradaFilaExportacaoServiceImplPostgresTest {
+
+    private static final int LINHAS = 1_000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2003, 5, 1, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(2003, 5, 31, 23, 59, 59);
+    private static final String ARQUIVADA = "fila_atendimento_arquivo.entrada_fila_2002_03";
+
+    @Autowired EntradaFilaExportacaoService exportacao;
+    @Autowired FilaRepository filaRepository;
+    @Autowired ClienteRepository clienteRepository;
+    @Autowired SetorRepository setorRepository;
+    @Autowired UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private UnidadeAtendimento unidade;
+    private Fila fila;
+    private Cliente cliente;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void criarHistorico() {
+        unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade exportação " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        fila = new Fila();
+        fila.setNome("Recepção, \"principal\"");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+        fila = filaRepository.save(fila);
+        cliente = new Cliente();
+        cliente.setNome("Paciente exportação");
+        cliente = clienteRepository.save(cliente);
+
+        // Uma entrada por 40 minutos a partir de INICIO; 1 em 10 ainda aguardando, sem chamada nem saída
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.entrada_fila
+                    (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada, data_hora_chamada, data_hora_saida)
+                SELECT ?, ?, g % 7 = 0, CASE WHEN g % 10 = 0 THEN 'AGUARDANDO' ELSE 'ATENDIDO' END, false,
+                       h.entrada,
+                       CASE WHEN g % 10 = 0 THEN NULL ELSE h.entrada + interval '5 minutes' END,
+                       CASE WHEN g % 10 = 0 THEN NULL ELSE h.entrada + interval '15 minutes' END
+                FROM generate_series(0, ? - 1) g,
+                     LATERAL (SELECT ?::timestamp + g * interval '40 minutes' AS entrada) h
+                """, fila.getId(), cliente.getId(), LINHAS, INICIO);
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + ARQUIVADA);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id = ?", fila.getId());
+    }
+
+    @Test
+    void csv_exportaTodasAsLinhasDoPeriodoEmOrdemDeEntrada() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long linhas = exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.CSV, () -> saida);
+
+        List<String> registros = Arrays.asList(saida.toString(StandardCharsets.UTF_8).split("\r\n"));
+        long esperadas = jdbcTemplate.queryForObject("SELECT count(*) FROM fila_atendimento.entrada_fila " +
+                "WHERE fila_id = ? AND data_hora_entrada BETWEEN ? AND ?", Long.class, fila.getId(), INICIO, FIM);
+        assertEquals(esperadas, linhas);
+        assertEquals(esperadas + 1, registros.size());
+        assertTrue(registros.get(0).startsWith("id,fila_id,fila_nome,setor_nome,cliente_id,status,"));
+        assertTrue(registros.get(1).contains(",\"Recepção, \"\"principal\"\"\","));
+        assertTrue(registros.get(2).contains(",ATENDIDO,"));
+        assertTrue(registros.get(2).contains(",2003-05-01T00:40:00,2003-05-01T00:45:00,2003-05-01T00:55:00,"));
+        // Entradas 10 em 10 seguem aguardando: sem chamada nem saída
+        assertTrue(registros.get(11).contains(",AGUARDANDO,"));
+        assertTrue(registros.get(11).contains(",2003-05-01T06:40:00,,,"));
+        String ultima = registros.get(registros.size() - 1);
+        assertTrue(ultima.contains(",2003-05-28T18:00:00,"), ultima);
+    }
+
+    @Test
+    void csvComGzip_equivaleAoSemCompressao() throws IOException {
+        ByteArrayOutputStream simples = new ByteArrayOutputStream();
+        ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+
+        exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.CSV, () -> simples);
+        exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.CSV, () -> new GZIPOutputStream(compactado));
+
+        byte[] descompactado = new GZIPInputStream(new ByteArrayInputStream(compactado.toByteArray())).readAllBytes();
+        assertArrayEquals(simples.toByteArray(), descompactado);
+        assertTrue(compactado.size() < simples.size() / 3);
+    }
+
+    @Test
+    void colunar_menorQueOCsvComAsMesmasLinhas() throws IOException {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream colunar = new ByteArrayOutputStream();
+
+        long linhasCsv = exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.CSV, () -> csv);
+        long linhasColunar = exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.COLUNAR, () -> colunar);
+
+        assertEquals(linhasCsv, linhasColunar);
+        byte[] bytes = colunar.toByteArray();
+        assertArrayEquals("FCOL".getBytes(StandardCharsets.US_ASCII), Arrays.copyOf(bytes, 4));
+        assertEquals(0, bytes[bytes.length - 1]);
+        assertTrue(colunar.size() < csv.size() / 2, () -> colunar.size() + " bytes contra " + csv.size());
+    }
+
+    @Test
+    void periodoSemEntradas_soCabecalho() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        long linhas = exportacao.exportar(unidade.getId(), INICIO.minusYears(1), FIM.minusYears(1),
+                FormatoExportacao.CSV, () -> saida);
+
+        assertEquals(0, linhas);
+        assertEquals(1, saida.toString(StandardCharsets.UTF_8).split("\r\n").length);
+    }
+
+    @Test
+    void mesArquivado_entraNaExportacaoAntesDosMesesAnexados() throws IOException {
+        // Como o arquivamento deixa o mês: fora da tabela, sem chaves estrangeiras, no schema de arquivo
+        jdbcTemplate.execute("CREATE TABLE " + ARQUIVADA + " (LIKE fila_atendimento.entrada_fila INCLUDING DEFAULTS)");
+        jdbcTemplate.update("INSERT INTO " + ARQUIVADA + " (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada) " +
+                "SELECT ?, ?, false, 'ATENDIDO', false, ?::timestamp + g * interval '1 day' FROM generate_series(0, 4) g",
+                fila.getId(), cliente.getId(), LocalDateTime.of(2002, 3, 10, 8, 0));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        try {
+            long linhas = exportacao.exportar(unidade.getId(), LocalDateTime.of(2002, 3, 1, 0, 0), FIM,
+                    FormatoExportacao.CSV, () -> saida);
+
+            List<String> registros = Arrays.asList(saida.toString(StandardCharsets.UTF_8).split("\r\n"));
+            assertEquals(LINHAS + 5, linhas);
+            assertTrue(registros.get(1).contains(",2002-03-10T08:00:00,"), registros.get(1));
+            assertTrue(registros.get(5).contains(",2002-03-14T08:00:00,"), registros.get(5));
+            assertTrue(registros.get(6).contains(",2003-05-01T00:00:00,"), registros.get(6));
+            // Fora do período o mês arquivado não é lido
+            assertEquals(LINHAS, exportacao.exportar(unidade.getId(), INICIO, FIM, FormatoExportacao.CSV,
+                    ByteArrayOutputStream::new));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE " + ARQUIVADA);
+        }
+    }
+
+    @Test
+    void validacoes_antesDeAbrirODestino() {
+        EntradaFilaExportacaoService.DestinoExportacao destino = () -> fail("Destino aberto antes da validação");
+
+        assertThrows(BusinessException.class,
+                () -> exportacao.exportar(unidade.getId(), FIM, INICIO, FormatoExportacao.CSV, destino));
+        assertThrows(ResourceNotFoundException.class,
+                () -> exportacao.exportar(UUID.randomUUID(), INICIO, FIM, FormatoExportacao.CSV, destino));
+    }
+}
@@ -0,0 +1,236 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.model.Cliente;
+import com.wjbc.fila_atendimento.domain.model.EntradaFila;
+import com.wjbc.fila_atendimento.domain.model.Fila;
+import com.wjbc.fila_atendimento.domain.model.Setor;
+import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
+import com.wjbc.fila_atendimento.domain.repository.ClienteRepository;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.repository.SetorRepository;
+import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaParticionamentoService;
+import com.wjbc.fila_atendimento.support.Benchmark;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * entrada_fila particionada por mês (V022): a entidade e o repositório seguem funcionando, o
+ * serviço cria e arquiva partições, e as operações da fila não ficam mais lentas com o histórico.
+ *
+ * O histórico do benchmark tem 500 mil linhas por padrão; para volumes maiores use, por exemplo,
+ * {@code -Dbenchmark.historico.linhas=5000000}. A latência antes e depois do histórico vai para o log e só
+ * é comparada com {@code -Dbenchmark.verificar-tempos=true}.
+ */
+@Slf4j
+@SpringBootTest(properties = "fila.indice-memoria.habilitado=false")
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntradaFilaParticionamentoServiceImplPostgresTest {
+
+    private static final long HISTORICO = Long.getLong("benchmark.historico.linhas", 500_000L);
+    private static final int MESES_HISTORICO = 24;
+
+    @Autowired EntradaFilaParticionamentoService particionamento;
+    @Autowired EntradaFilaRepository entradaFilaRepository;
+    @Autowired FilaRepository filaRepository;
+    @Autowired ClienteRepository clienteRepository;
+    @Autowired SetorRepository setorRepository;
+    @Autowired UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private Fila fila;
+    // Entradas fora do mês corrente, longe da fila usada nas operações
+    private Fila filaManutencao;
+    private Cliente cliente;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void criarFila() {
+        UnidadeAtendimento unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        fila = novaFila("Triagem", setor, unidade);
+        filaManutencao = novaFila("Manutenção", setor, unidade);
+        cliente = new Cliente();
+        cliente.setNome("Paciente particionamento");
+        cliente = clienteRepository.save(cliente);
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id IN (?, ?)",
+                fila.getId(), filaManutencao.getId());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS fila_atendimento_arquivo.entrada_fila_2001_01");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS fila_atendimento.entrada_fila_2001_02");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS fila_atendimento.entrada_fila_2090_01");
+    }
+
+    private Fila novaFila(String nome, Setor setor, UnidadeAtendimento unidade) {
+        Fila nova = new Fila();
+        nova.setNome(nome);
+        nova.setSetor(setor);
+        nova.setUnidadeAtendimento(unidade);
+        return filaRepository.save(nova);
+    }
+
+    @Test
+    void entidadeERepositorio_funcionamSobreAsParticoes() {
+        EntradaFila salva = entradaFilaRepository.save(novaEntrada(StatusFila.AGUARDANDO, LocalDateTime.now()));
+
+        assertEquals("entrada_fila_" + YearMonth.now().toString().replace('-', '_'), particaoDe(salva.getId()));
+        assertTrue(entradaFilaRepository.findById(salva.getId()).isPresent());
+        assertTrue(entradaFilaRepository.existsByClienteAndFilaAndStatus(cliente, fila, StatusFila.AGUARDANDO));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            EntradaFila reservada = entradaFilaRepository.reservarProximoAguardando(fila.getId(), false).orElseThrow();
+            assertEquals(salva.getId(), reservada.getId());
+            reservada.setStatus(StatusFila.CHAMADO);
+            reservada.setDataHoraChamada(LocalDateTime.now());
+        });
+        assertEquals(StatusFila.CHAMADO, entradaFilaRepository.findById(salva.getId()).orElseThrow().getStatus());
+
+        // Exclusão lógica (@SQLDelete) continua localizando a linha só pelo id
+        entradaFilaRepository.deleteById(salva.getId());
+        assertEquals(StatusFila.CANCELADO, entradaFilaRepository.findById(salva.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void criarParticoes_moveParaOMesAsLinhasDaParticaoPadrao() {
+        UUID id = inserir(StatusFila.AGUARDANDO, LocalDateTime.of(2090, 1, 15, 10, 0));
+        assertEquals("entrada_fila_padrao", particaoDe(id));
+
+        List<String> criadas = particionamento.criarParticoes(YearMonth.of(2090, 1), YearMonth.of(2090, 1));
+
+        assertEquals(List.of("entrada_fila_2090_01"), criadas);
+        assertEquals("entrada_fila_2090_01", particaoDe(id));
+        assertTrue(particionamento.criarParticoes(YearMonth.of(2090, 1), YearMonth.of(2090, 1)).isEmpty());
+    }
+
+    @Test
+    void arquivarParticoes_desanexaApenasMesesSemEntradasEmAndamento() {
+        particionamento.criarParticoes(YearMonth.of(2001, 1), YearMonth.of(2001, 2));
+        UUID atendida = inserir(StatusFila.ATENDIDO, LocalDateTime.of(2001, 1, 10, 9, 0));
+        UUID aguardando = inserir(StatusFila.AGUARDANDO, LocalDateTime.of(2001, 2, 10, 9, 0));
+
+        List<String> arquivadas = particionamento.arquivarParticoes(YearMonth.of(2001, 3));
+
+        assertEquals(List.of("entrada_fila_2001_01"), arquivadas);
+        assertFalse(entradaFilaRepository.existsById(atendida));
+        assertTrue(entradaFilaRepository.existsById(aguardando));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM fila_atendimento_arquivo.entrada_fila_2001_01 WHERE id = ?", Integer.class, atendida));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM pg_constraint " +
+                "WHERE conrelid = 'fila_atendimento_arquivo.entrada_fila_2001_01'::regclass AND contype = 'f'", Integer.class));
+    }
+
+    @Test
+    void operacoesDaFila_naoFicamMaisLentasComOHistorico() {
+        medirOperacaoDaFila(50); // aquecimento
+        long antes = medirOperacaoDaFila(200);
+
+        YearMonth atual = YearMonth.now();
+        particionamento.criarParticoes(atual.minusMonths(MESES_HISTORICO), atual);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.entrada_fila
+                    (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada, data_hora_chamada, data_hora_saida)
+                SELECT ?, ?, g % 7 = 0, CASE WHEN g % 20 = 0 THEN 'CANCELADO' ELSE 'ATENDIDO' END, g % 13 = 0,
+                       h.entrada, h.entrada + interval '5 minutes', h.entrada + interval '15 minutes'
+                FROM generate_series(1, ?) g,
+                     LATERAL (SELECT date_trunc('month', now()) - make_interval(months => ?) +
+                                     (g * (? * interval '1 month') / ?) AS entrada) h
+                """, fila.getId(), cliente.getId(), HISTORICO, MESES_HISTORICO, MESES_HISTORICO, HISTORICO);
+        jdbcTemplate.execute("ANALYZE fila_atendimento.entrada_fila");
+
+        medirOperacaoDaFila(50);
+        long depois = medirOperacaoDaFila(200);
+
+        log.info("Operação da fila (mediana): {} µs sem histórico, {} µs com {} linhas em {} meses",
+                antes / 1000, depois / 1000, HISTORICO, MESES_HISTORICO);
+        // Todo o histórico caiu nas partições mensais criadas, nada na padrão
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM fila_atendimento.entrada_fila_padrao " +
+                "WHERE fila_id = ?", Integer.class, fila.getId()));
+        // Folga para a variação do ambiente; sem partições e índices parciais a diferença cresce com o histórico
+        Benchmark.verificarTempo(depois <= antes * 3 + 2_000_000,
+                () -> "Latência das operações da fila cresceu com o histórico: " + antes + "ns -> " + depois + "ns");
+    }
+
+    // Mediana (ns) de um ciclo entrar → chamar → atender, cada passo na própria transação
+    private long medirOperacaoDaFila(int repeticoes) {
+        long[] tempos = new long[repeticoes];
+        for (int i = 0; i < repeticoes; i++) {
+            long inicio = System.nanoTime();
+            entradaFilaRepository.save(novaEntrada(StatusFila.AGUARDANDO, LocalDateTime.now()));
+            UUID chamada = transactionTemplate.execute(status -> {
+                EntradaFila proxima = entradaFilaRepository.reservarProximoAguardando(fila.getId(), false).orElseThrow();
+                proxima.setStatus(StatusFila.CHAMADO);
+                proxima.setDataHoraChamada(LocalDateTime.now());
+                return proxima.getId();
+            });
+            transactionTemplate.executeWithoutResult(status -> {
+                EntradaFila atendida = entradaFilaRepository.findById(chamada).orElseThrow();
+                atendida.setStatus(StatusFila.ATENDIDO);
+                atendida.setDataHoraSaida(LocalDateTime.now());
+            });
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        return tempos[repeticoes / 2];
+    }
+
+    private EntradaFila novaEntrada(StatusFila status, LocalDateTime entrada) {
+        EntradaFila entradaFila = new EntradaFila();
+        entradaFila.setFila(fila);
+        entradaFila.setCliente(cliente);
+        entradaFila.setStatus(status);
+        entradaFila.setDataHoraEntrada(entrada);
+        return entradaFila;
+    }
+
+    private UUID inserir(StatusFila status, LocalDateTime entrada) {
+        return jdbcTemplate.queryForObject("INSERT INTO fila_atendimento.entrada_fila " +
+                        "(fila_id, cliente_id, status, data_hora_entrada) VALUES (?, ?, ?, ?) RETURNING id",
+                UUID.class, filaManutencao.getId(), cliente.getId(), status.name(), entrada);
+    }
+
+    private String particaoDe(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM fila_atendimento.entrada_fila WHERE id = ?",
+                String.class, id).replace("fila_atendimento.", "");
+    }
+}
@@ -0,0 +1,159 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.CategoriaUsuario;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.model.*;
+import com.wjbc.fila_atendimento.domain.repository.*;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.support.Benchmark;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dispara dezenas de "chamar próximo" simultâneos na mesma fila pelo caminho de reserva
+ * (FOR UPDATE SKIP LOCKED) e verifica que cada chamada recebe um cliente diferente.
+ * Roda sobre o PostgreSQL embarcado: o H2 aplica o LIMIT antes de pular as linhas travadas.
+ * O ganho de vazão das chamadas concorrentes vai para o log e só é verificado com
+ * {@code -Dbenchmark.verificar-tempos=true}.
+ */
+@Slf4j
+@SpringBootTest(properties = "fila.indice-memoria.habilitado=false")
+@ActiveProfiles("test")
+@DirtiesContext
+class EntradaFilaServiceImplConcorrenciaTest {
+
+    private static final int TOTAL_CHAMADAS = 150;
+    private static final int THREADS = 16;
+    private static final int GANHO_MINIMO = 2;
+
+    @Autowired EntradaFilaService entradaFilaService;
+    @Autowired EntradaFilaRepository entradaFilaRepository;
+    @Autowired ClienteRepository clienteRepository;
+    @Autowired FilaRepository filaRepository;
+    @Autowired SetorRepository setorRepository;
+    @Autowired UnidadeAtendimentoRepository unidadeAtendimentoRepository;
+    @Autowired UsuarioRepository usuarioRepository;
+
+    private Usuario usuario;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        usuario = new Usuario();
+        usuario.setNomeUsuario("Atendente");
+        usuario.setEmail("atendente-" + UUID.randomUUID() + "@teste.com");
+        usuario.setSenha("x");
+        usuario.setCategoria(CategoriaUsuario.USUARIO);
+        usuario = usuarioRepository.save(usuario);
+    }
+
+    private Fila criarFilaComClientes(int quantidade) {
+        UnidadeAtendimento unidade = new UnidadeAtendimento();
+        unidade.setNome("Unidade " + UUID.randomUUID());
+        unidade = unidadeAtendimentoRepository.save(unidade);
+        Setor setor = new Setor();
+        setor.setNome("Setor " + UUID.randomUUID());
+        setor = setorRepository.save(setor);
+        Fila fila = new Fila();
+        fila.setNome("Triagem");
+        fila.setSetor(setor);
+        fila.setUnidadeAtendimento(unidade);
+        fila = filaRepository.save(fila);
+
+        LocalDateTime entrada = LocalDateTime.now().minusHours(2);
+        List<EntradaFila> entradas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setNome("Paciente " + i);
+            cliente.setCpf(UUID.randomUUID().toString().substring(0, 14));
+            cliente = clienteRepository.save(cliente);
+            EntradaFila e = new EntradaFila();
+            e.setCliente(cliente);
+            e.setFila(fila);
+            e.setPrioridade(i % 10 == 0);
+            e.setStatus(StatusFila.AGUARDANDO);
+            e.setDataHoraEntrada(entrada.plusSeconds(i));
+            entradas.add(e);
+        }
+        entradaFilaRepository.saveAll(entradas);
+        return fila;
+    }
+
+    private long chamarTodos(UUID filaId, int chamadas, int threads, Set<UUID> chamados) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<EntradaFilaResponseDTO>> futuros = new ArrayList<>();
+        for (int i = 0; i < chamadas; i++) {
+            String guiche = "Guichê " + (i % threads);
+            futuros.add(executor.submit(() -> {
+                largada.await();
+                return entradaFilaService.chamarProximo(filaId, usuario.getId(), guiche);
+            }));
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<EntradaFilaResponseDTO> futuro : futuros) {
+            EntradaFilaResponseDTO chamado = futuro.get(60, TimeUnit.SECONDS);
+            assertTrue(chamados.add(chamado.id()), "Cliente chamado em duplicidade: " + chamado.id());
+        }
+        long decorrido = System.nanoTime() - inicio;
+        executor.shutdown();
+        return decorrido;
+    }
+
+    @Test
+    void chamarProximo_chamadasSimultaneasRecebemClientesDistintos() throws Exception {
+        Fila fila = criarFilaComClientes(TOTAL_CHAMADAS);
+
+        Set<UUID> chamados = ConcurrentHashMap.newKeySet();
+        chamarTodos(fila.getId(), TOTAL_CHAMADAS, THREADS, chamados);
+
+        assertEquals(TOTAL_CHAMADAS, chamados.size());
+        assertFalse(entradaFilaRepository.existsByFilaAndStatus(fila, StatusFila.AGUARDANDO));
+        assertThrows(ResourceNotFoundException.class,
+                () -> entradaFilaService.chamarProximo(fila.getId(), usuario.getId(), "Guichê 0"));
+    }
+
+    @Test
+    void chamarProximo_concorrenciaNaoSerializaAsChamadas() throws Exception {
+        Fila filaSequencial = criarFilaComClientes(TOTAL_CHAMADAS);
+        Fila filaConcorrente = criarFilaComClientes(TOTAL_CHAMADAS);
+
+        long sequencial = chamarTodos(filaSequencial.getId(), TOTAL_CHAMADAS, 1, ConcurrentHashMap.newKeySet());
+        long concorrente = chamarTodos(filaConcorrente.getId(), TOTAL_CHAMADAS, THREADS, ConcurrentHashMap.newKeySet());
+
+        // Com SKIP LOCKED cada guichê reserva um cliente diferente sem esperar o lock dos demais: as chamadas
+        // concorrentes terminam em bem menos tempo que as sequenciais (serializadas, levariam o mesmo tempo).
+        log.info("Chamar próximo, {} chamadas: sequencial {} ms, {} threads {} ms",
+                TOTAL_CHAMADAS, sequencial / 1_000_000, THREADS, concorrente / 1_000_000);
+        Benchmark.verificarTempo(concorrente < sequencial / GANHO_MINIMO,
+                () -> "Chamadas concorrentes não ganharam " + GANHO_MINIMO + "x: sequencial=" + sequencial / 1_000_000
+                        + "ms, concorrente=" + concorrente / 1_000_000 + "ms");
+    }
+}
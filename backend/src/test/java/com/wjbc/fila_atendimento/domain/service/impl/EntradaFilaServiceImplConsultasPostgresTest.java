@@ -0,0 +1,162 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Consultas das listas de espera contadas pelas estatísticas do Hibernate: o número de comandos SQL não cresce com
+ * o número de entradas (cliente, telefones, fila, setor e unidade vêm junto com a lista), e a resposta serializada
+ * depois da transação não dispara nenhuma consulta.
+ */
+@SpringBootTest(properties = {
+        "fila.indice-memoria.habilitado=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // As estatísticas são globais: sem o painel ao vivo consultando o banco durante as medições
+        "dashboard.ao-vivo.intervalo-ms=3600000",
+        "dashboard.ao-vivo.reconciliacao-ms=3600000"})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntradaFilaServiceImplConsultasPostgresTest {
+
+    @Autowired EntradaFilaService entradaFilaService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+    @Autowired ObjectMapper objectMapper;
+
+    private final String prefixo = "Consultas " + UUID.randomUUID().toString().substring(0, 8);
+    private final UUID unidadeId = UUID.randomUUID();
+    private final UUID setorId = UUID.randomUUID();
+    private final UUID filaId = UUID.randomUUID();
+    private Statistics estatisticas;
+    private int clientes;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO fila_atendimento.unidade_atendimento (id, nome) VALUES (?, ?)", unidadeId, prefixo);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.unidade_atendimento_telefones (unidade_atendimento_id, tipo, ddd, numero) " +
+                "VALUES (?, 'FIXO', 77, 34210000), (?, 'CELULAR', 77, 988880000)", unidadeId, unidadeId);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.setor (id, nome) VALUES (?, ?)", setorId, prefixo);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.fila (id, nome, setor_id, unidade_atendimento_id) VALUES (?, 'Triagem', ?, ?)",
+                filaId, setorId, unidadeId);
+        adicionarAguardando(3);
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id = ?", filaId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.cliente WHERE nome LIKE ? || ' %'", prefixo);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.fila WHERE id = ?", filaId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.setor WHERE id = ?", setorId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.unidade_atendimento WHERE id = ?", unidadeId);
+    }
+
+    @Test
+    void listaDeEspera_mesmasConsultasParaQualquerTamanho() {
+        long poucas = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId));
+        adicionarAguardando(60);
+        long muitas = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId));
+
+        // A fila, a lista com cliente, telefones, setor e unidade, e os telefones da unidade
+        assertEquals(3, muitas);
+        assertEquals(poucas, muitas);
+    }
+
+    @Test
+    void paginaDaListaDeEspera_mesmasConsultasParaQualquerTamanhoDePagina() {
+        long pequena = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId, PageRequest.of(0, 2)));
+        long cursorPequeno = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId, null, 2));
+        adicionarAguardando(60);
+        long grande = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId, PageRequest.of(0, 50)));
+        long cursorGrande = consultas(() -> entradaFilaService.listarAguardandoPorFila(filaId, null, 50));
+
+        // A fila, a página com cliente, setor e unidade, a contagem, os telefones dos clientes (em lote) e os da unidade
+        assertEquals(5, grande);
+        assertEquals(pequena, grande);
+        // Por cursor as associações vêm em lote: clientes, seus telefones, setor, unidade e os telefones dela
+        assertEquals(7, cursorGrande);
+        assertEquals(cursorPequeno, cursorGrande);
+    }
+
+    @Test
+    void painelProfissional_mesmasConsultasParaQualquerTamanho() {
+        long poucas = consultas(() -> entradaFilaService.getPainelProfissional(setorId));
+        adicionarAguardando(60);
+        long muitas = consultas(() -> entradaFilaService.getPainelProfissional(setorId));
+
+        assertEquals(poucas, muitas);
+    }
+
+    @Test
+    void respostaSerializadaDepoisDaTransacao_semConsultasNemAssociacoesPendentes() throws Exception {
+        var lista = entradaFilaService.listarAguardandoPorFila(filaId);
+        estatisticas.clear();
+
+        String json = objectMapper.writeValueAsString(lista);
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        EntradaFilaResponseDTO primeira = lista.get(0);
+        assertEquals(2, primeira.cliente().telefones().size());
+        assertEquals(2, primeira.fila().unidade().telefones().size());
+        assertTrue(json.contains(prefixo));
+    }
+
+    // Comandos SQL preparados pelo Hibernate durante a chamada
+    private long consultas(Supplier<?> chamada) {
+        estatisticas.clear();
+        chamada.get();
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    // Clientes novos, cada um com dois telefones, aguardando na fila (um segundo entre as entradas)
+    private void adicionarAguardando(int quantidade) {
+        int primeiro = clientes + 1;
+        clientes += quantidade;
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente (nome, cpf) " +
+                "SELECT ? || ' ' || g, substr(md5(? || g), 1, 14) FROM generate_series(?, ?) g", prefixo, prefixo, primeiro, clientes);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente_telefones (cliente_id, tipo, ddd, numero) " +
+                "SELECT c.id, 'CELULAR', 77, 900000000 + t FROM fila_atendimento.cliente c, generate_series(1, 2) t " +
+                "WHERE c.nome LIKE ? || ' %' AND NOT EXISTS " +
+                "(SELECT 1 FROM fila_atendimento.cliente_telefones ct WHERE ct.cliente_id = c.id)", prefixo);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.entrada_fila (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada)
+                SELECT ?, c.id, false, 'AGUARDANDO', false, now() - interval '1 hour' + row_number() OVER (ORDER BY c.nome) * interval '1 second'
+                FROM fila_atendimento.cliente c
+                WHERE c.nome LIKE ? || ' %' AND NOT EXISTS
+                      (SELECT 1 FROM fila_atendimento.entrada_fila e WHERE e.cliente_id = c.id AND e.fila_id = ?)
+                """, filaId, prefixo, filaId);
+    }
+}
@@ -0,0 +1,200 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.mapper.EntradaFilaMapper;
+import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
+import com.wjbc.fila_atendimento.domain.service.FilaService;
+import com.wjbc.fila_atendimento.support.Benchmark;
+import com.wjbc.fila_atendimento.support.PostgresEmbarcado;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lista de espera do painel profissional (getFilaAtual) numa consulta para o setor inteiro, comparada com o
+ * caminho anterior: as filas do setor e depois uma consulta por fila. Setores com 5 e 30 filas, cada fila
+ * com {@value #AGUARDANDO_POR_FILA} entradas aguardando. A contagem de consultas é sempre verificada; os tempos
+ * (p50 e p95) vão para o log e só são comparados com {@code -Dbenchmark.verificar-tempos=true}.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "fila.indice-memoria.habilitado=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // As estatísticas são globais: sem o painel ao vivo consultando o banco durante as medições
+        "dashboard.ao-vivo.intervalo-ms=3600000",
+        "dashboard.ao-vivo.reconciliacao-ms=3600000"})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntradaFilaServiceImplPainelPostgresTest {
+
+    private static final int AGUARDANDO_POR_FILA = 8;
+
+    @Autowired EntradaFilaService entradaFilaService;
+    @Autowired FilaService filaService;
+    @Autowired EntradaFilaRepository entradaFilaRepository;
+    @Autowired EntradaFilaMapper entradaFilaMapper;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private final String prefixo = "Painel " + UUID.randomUUID().toString().substring(0, 8);
+    private final UUID unidadeId = UUID.randomUUID();
+    private final UUID setorPequeno = UUID.randomUUID();
+    private final UUID setorGrande = UUID.randomUUID();
+    private Statistics estatisticas;
+
+    @BeforeAll
+    static void exigirPostgres() {
+        PostgresEmbarcado.exigirDisponivel();
+    }
+
+    @DynamicPropertySource
+    static void configurarBanco(DynamicPropertyRegistry registry) {
+        PostgresEmbarcado.registrar(registry);
+    }
+
+    @BeforeAll
+    void popular() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO fila_atendimento.unidade_atendimento (id, nome) VALUES (?, ?)", unidadeId, prefixo);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.unidade_atendimento_telefones (unidade_atendimento_id, tipo, ddd, numero) " +
+                "VALUES (?, 'FIXO', 77, 34210000)", unidadeId);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente (nome, cpf) " +
+                "SELECT ? || ' ' || g, substr(md5(? || g), 1, 14) FROM generate_series(1, ?) g", prefixo, prefixo, AGUARDANDO_POR_FILA * 4);
+        jdbcTemplate.update("INSERT INTO fila_atendimento.cliente_telefones (cliente_id, tipo, ddd, numero) " +
+                "SELECT c.id, 'CELULAR', 77, 900000000 + t FROM fila_atendimento.cliente c, generate_series(1, 2) t " +
+                "WHERE c.nome LIKE ? || ' %'", prefixo);
+        popularSetor(setorPequeno, 5, false);
+        popularSetor(setorGrande, 30, true);
+    }
+
+    @AfterAll
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM fila_atendimento.entrada_fila WHERE fila_id IN " +
+                "(SELECT id FROM fila_atendimento.fila WHERE unidade_atendimento_id = ?)", unidadeId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.cliente WHERE nome LIKE ? || ' %'", prefixo);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.fila WHERE unidade_atendimento_id = ?", unidadeId);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.setor WHERE id IN (?, ?)", setorPequeno, setorGrande);
+        jdbcTemplate.update("DELETE FROM fila_atendimento.unidade_atendimento WHERE id = ?", unidadeId);
+    }
+
+    @Test
+    void setor_mesmasEntradasNaOrdemDeEsperaDeCadaFila() {
+        List<EntradaFilaResponseDTO> atual = entradaFilaService.getPainelProfissional(setorGrande).filaAtual();
+        List<EntradaFilaResponseDTO> anterior = porFila(setorGrande);
+
+        assertEquals(30 * AGUARDANDO_POR_FILA, atual.size());
+        assertEquals(idsPorFila(anterior), idsPorFila(atual));
+        // As filas vêm agrupadas, em ordem de nome
+        List<String> filas = atual.stream().map(e -> e.fila().nome()).distinct().toList();
+        assertEquals(filas.stream().sorted().toList(), filas);
+        assertEquals(30, filas.size());
+        // Na fila médica os retornos são chamados primeiro
+        EntradaFilaResponseDTO primeiroRetorno = atual.stream()
+                .filter(e -> e.fila().nome().equals("Atendimento Médico") && e.isRetorno()).findFirst().orElseThrow();
+        assertEquals(1, primeiroRetorno.posicaoNaFila());
+    }
+
+    @Test
+    void setor_mesmasConsultasParaQualquerNumeroDeFilas() {
+        long pequeno = consultas(() -> entradaFilaService.getPainelProfissional(setorPequeno));
+        long grande = consultas(() -> entradaFilaService.getPainelProfissional(setorGrande));
+
+        // As entradas com cliente, telefones, fila, setor e unidade, e os telefones da unidade
+        assertEquals(2, grande);
+        assertEquals(pequeno, grande);
+        assertTrue(consultas(() -> porFila(setorGrande)) > 30);
+    }
+
+    @Test
+    void benchmark_umaConsultaPorSetor_contraUmaPorFila() {
+        for (UUID setorId : List.of(setorPequeno, setorGrande)) {
+            long[] atual = medir(() -> entradaFilaService.getPainelProfissional(setorId));
+            long[] anterior = medir(() -> porFila(setorId));
+            log.info("Painel profissional, {} entradas: uma consulta p50 {} µs, p95 {} µs; uma por fila p50 {} µs, p95 {} µs",
+                    entradaFilaService.getPainelProfissional(setorId).filaAtual().size(),
+                    atual[0], atual[1], anterior[0], anterior[1]);
+            if (setorId.equals(setorGrande)) {
+                Benchmark.verificarTempo(atual[0] < anterior[0],
+                        () -> "p50 com 30 filas: " + atual[0] + " µs numa consulta, " + anterior[0] + " µs uma por fila");
+            }
+        }
+    }
+
+    // Caminho anterior: as filas do setor (e o setor) e a lista de espera de cada uma
+    private List<EntradaFilaResponseDTO> porFila(UUID setorId) {
+        return transactionTemplate.execute(status -> filaService.findBySetorId(setorId).stream()
+                .flatMap(fila -> entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO).stream())
+                .map(entradaFilaMapper::toResponseDTO)
+                .toList());
+    }
+
+    private static Map<UUID, List<UUID>> idsPorFila(List<EntradaFilaResponseDTO> entradas) {
+        return entradas.stream().collect(Collectors.groupingBy(e -> e.fila().id(),
+                Collectors.mapping(EntradaFilaResponseDTO::id, Collectors.toList())));
+    }
+
+    private long consultas(Supplier<?> chamada) {
+        estatisticas.clear();
+        chamada.get();
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    // p50 e p95 (µs) de 30 chamadas, depois de cinco de aquecimento
+    private static long[] medir(Supplier<?> chamada) {
+        for (int i = 0; i < 5; i++) {
+            chamada.get();
+        }
+        long[] tempos = new long[30];
+        for (int i = 0; i < tempos.length; i++) {
+            long inicio = System.nanoTime();
+            chamada.get();
+            tempos[i] = (System.nanoTime() - inicio) / 1000;
+        }
+        Arrays.sort(tempos);
+        return new long[]{tempos[tempos.length / 2], tempos[(int) Math.ceil(tempos.length * 0.95) - 1]};
+    }
+
+    // Filas do setor (a primeira pode ser a médica, que chama retornos primeiro), cada uma com clientes
+    // aguardando, com e sem prioridade e retorno, um minuto entre as entradas
+    private void popularSetor(UUID setorId, int filas, boolean comFilaMedica) {
+        jdbcTemplate.update("INSERT INTO fila_atendimento.setor (id, nome) VALUES (?, ?)", setorId, prefixo + " " + filas);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.fila (nome, setor_id, unidade_atendimento_id)
+                SELECT CASE WHEN g = 1 AND ? THEN 'Atendimento Médico' ELSE ? || ' Fila ' || lpad(g::text, 2, '0') END, ?, ?
+                FROM generate_series(1, ?) g
+                """, comFilaMedica, prefixo + " " + filas, setorId, unidadeId, filas);
+        jdbcTemplate.update("""
+                INSERT INTO fila_atendimento.entrada_fila (fila_id, cliente_id, prioridade, status, retorno, data_hora_entrada)
+                SELECT f.id, c.id, c.n % 5 = 0, 'AGUARDANDO', c.n % 3 = 0, now() - interval '2 hours' + c.n * interval '1 minute'
+                FROM fila_atendimento.fila f,
+                     (SELECT id, row_number() OVER (ORDER BY nome) n FROM fila_atendimento.cliente WHERE nome LIKE ? || ' %') c
+                WHERE f.setor_id = ? AND c.n <= ?
+                """, prefixo, setorId, AGUARDANDO_POR_FILA);
+    }
+}
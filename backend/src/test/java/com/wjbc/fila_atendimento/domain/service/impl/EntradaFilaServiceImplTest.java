@@ -1,20 +1,34 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.ChamadasRecentesCache;
+import com.wjbc.fila_atendimento.domain.cache.FilaPrioridadeIndex;
+import com.wjbc.fila_atendimento.domain.cache.PainelProfissionalDeltaTracker;
+import com.wjbc.fila_atendimento.domain.cache.RitmoAtendimentoTracker;
+import com.wjbc.fila_atendimento.domain.dashboard.service.DashboardAoVivoService;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaDTO;
+import com.wjbc.fila_atendimento.domain.dto.ChamadaPainelRegistroDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaCreateDTO;
 import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaSnapshotDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoEventoFila;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteracaoEvento;
+import com.wjbc.fila_atendimento.domain.evento.FilaAlteradaEvent;
+import com.wjbc.fila_atendimento.domain.evento.FilaEventoBus;
 import com.wjbc.fila_atendimento.domain.exception.BusinessException;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
 import com.wjbc.fila_atendimento.domain.mapper.EntradaFilaMapper;
 import com.wjbc.fila_atendimento.domain.model.*;
 import com.wjbc.fila_atendimento.domain.repository.EntradaFilaRepository;
-import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
 import com.wjbc.fila_atendimento.domain.service.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 import java.util.UUID;
@@ -24,12 +38,19 @@ import static org.mockito.Mockito.*;
 
 class EntradaFilaServiceImplTest {
     @Mock EntradaFilaRepository entradaFilaRepository;
-    @Mock PainelRepository painelRepository; // novo mock
     @Mock EntradaFilaMapper entradaFilaMapper;
     @Mock ClienteService clienteService;
     @Mock FilaService filaService;
+    @Mock SetorService setorService;
     @Mock UsuarioService usuarioService;
-    @Mock FilaBroadcastService filaBroadcastService;
+    @Mock FilaPrioridadeIndex filaPrioridadeIndex;
+    @Mock PainelProfissionalDeltaTracker painelProfissionalDeltaTracker;
+    @Mock ChamadasRecentesCache chamadasRecentes;
+    @Mock ChamadaPainelService chamadaPainelService;
+    @Mock FilaEventoBus filaEventoBus;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock DashboardAoVivoService dashboardAoVivo;
+    @Mock RitmoAtendimentoTracker ritmoAtendimento;
     @InjectMocks EntradaFilaServiceImpl service;
 
     private AutoCloseable mocks;
@@ -37,8 +58,6 @@ class EntradaFilaServiceImplTest {
     @BeforeEach
     void setUp() {
         mocks = MockitoAnnotations.openMocks(this);
-        // Stub padrão: nenhum painel associado -> evita NPE em notificarPaineis
-        when(painelRepository.findPaineisByFilaId(any())).thenReturn(Collections.emptyList());
     }
 
     @org.junit.jupiter.api.AfterEach
@@ -97,11 +116,13 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
+        verify(dashboardAoVivo).registrarChamada(chamado);
+        verify(ritmoAtendimento).registrarChamada(chamado);
     }
 
     @Test void chamarProximo_medicoSemRetornoChamaNormal() {
@@ -115,8 +136,8 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, true)).thenReturn(Optional.empty());
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), true)).thenReturn(Optional.empty());
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
@@ -131,7 +152,7 @@ class EntradaFilaServiceImplTest {
         Usuario usuario = new Usuario(); usuario.setId(usuarioId);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.empty());
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> service.chamarProximo(filaId, usuarioId, guiche));
     }
 
@@ -146,6 +167,7 @@ class EntradaFilaServiceImplTest {
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.finalizarAtendimento(entradaId);
         assertNotNull(result);
+        verify(ritmoAtendimento).registrarFinalizacao(atendido);
     }
 
     @Test void finalizarAtendimento_statusInvalido() {
@@ -165,7 +187,8 @@ class EntradaFilaServiceImplTest {
         EntradaFilaResponseDTO result = service.cancelarAtendimento(entradaId);
         assertNotNull(result);
         verify(entradaFilaRepository, times(1)).save(any());
-        verify(entradaFilaRepository, never()).delete(any());
+        verify(entradaFilaRepository, never()).delete(any(EntradaFila.class));
+        verify(dashboardAoVivo).registrarCancelamento(cancelada);
     }
 
     @Test void cancelarAtendimento_statusAtendido() {
@@ -216,7 +239,7 @@ class EntradaFilaServiceImplTest {
         UUID filaId = UUID.randomUUID();
         Fila fila = new Fila(); fila.setId(filaId);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
-        when(entradaFilaRepository.findByFilaAndStatusOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO)).thenReturn(Collections.emptyList());
+        when(entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO)).thenReturn(Collections.emptyList());
         List<EntradaFilaResponseDTO> result = service.listarAguardandoPorFila(filaId);
         assertNotNull(result);
         assertTrue(result.isEmpty());
@@ -227,13 +250,73 @@ class EntradaFilaServiceImplTest {
         Fila fila = new Fila(); fila.setId(filaId);
         EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
-        when(entradaFilaRepository.findByFilaAndStatusOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO)).thenReturn(List.of(entrada));
+        when(entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO)).thenReturn(List.of(entrada));
         when(entradaFilaMapper.toResponseDTO(entrada)).thenReturn(mockResponseDTO());
         List<EntradaFilaResponseDTO> result = service.listarAguardandoPorFila(filaId);
         assertNotNull(result);
         assertEquals(1, result.size());
     }
 
+    @Test void listarAguardandoPorFila_incluiPosicaoEEsperaEstimada() {
+        Fila fila = new Fila(); fila.setId(UUID.randomUUID()); fila.setNome("Triagem");
+        EntradaFila primeira = new EntradaFila(); primeira.setId(UUID.randomUUID()); primeira.setFila(fila);
+        EntradaFila retorno = new EntradaFila(); retorno.setId(UUID.randomUUID()); retorno.setFila(fila); retorno.setRetorno(true);
+        EntradaFila segunda = new EntradaFila(); segunda.setId(UUID.randomUUID()); segunda.setFila(fila);
+        when(filaService.findFilaById(fila.getId())).thenReturn(fila);
+        when(entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO))
+                .thenReturn(List.of(primeira, retorno, segunda));
+        when(entradaFilaMapper.toResponseDTO(any())).thenAnswer(i -> mockResponseDTO());
+        when(ritmoAtendimento.estimarEsperaSegundos(fila.getId(), 1)).thenReturn(300L);
+        when(ritmoAtendimento.estimarEsperaSegundos(fila.getId(), 2)).thenReturn(900L);
+
+        List<EntradaFilaResponseDTO> result = service.listarAguardandoPorFila(fila.getId());
+
+        assertEquals(1, result.get(0).posicaoNaFila());
+        assertEquals(300L, result.get(0).esperaEstimadaSegundos());
+        // Fora de "Atendimento Médico" retornos não são chamados pelo chamarProximo
+        assertNull(result.get(1).posicaoNaFila());
+        assertNull(result.get(1).esperaEstimadaSegundos());
+        assertEquals(2, result.get(2).posicaoNaFila());
+        assertEquals(900L, result.get(2).esperaEstimadaSegundos());
+    }
+
+    @Test void listarAguardandoPorFila_atendimentoMedicoPosicionaRetornosPrimeiro() {
+        Fila fila = new Fila(); fila.setId(UUID.randomUUID()); fila.setNome("Atendimento Médico");
+        EntradaFila normal = new EntradaFila(); normal.setId(UUID.randomUUID()); normal.setFila(fila);
+        EntradaFila retorno = new EntradaFila(); retorno.setId(UUID.randomUUID()); retorno.setFila(fila); retorno.setRetorno(true);
+        when(filaService.findFilaById(fila.getId())).thenReturn(fila);
+        when(entradaFilaRepository.findComDetalhesByFilaIdAndStatus(fila.getId(), StatusFila.AGUARDANDO))
+                .thenReturn(List.of(normal, retorno));
+        when(entradaFilaMapper.toResponseDTO(any())).thenAnswer(i -> mockResponseDTO());
+
+        List<EntradaFilaResponseDTO> result = service.listarAguardandoPorFila(fila.getId());
+
+        assertEquals(2, result.get(0).posicaoNaFila());
+        assertEquals(1, result.get(1).posicaoNaFila());
+    }
+
+    @Test void adicionarClienteAFila_posicaoPeloIndiceEmMemoria() {
+        UUID clienteId = UUID.randomUUID();
+        Cliente cliente = new Cliente(); cliente.setId(clienteId);
+        Fila fila = new Fila(); fila.setId(UUID.randomUUID()); fila.setNome("Triagem");
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila);
+        entrada.setDataHoraEntrada(java.time.LocalDateTime.now());
+        when(clienteService.findClienteById(clienteId)).thenReturn(cliente);
+        when(filaService.findFilaById(fila.getId())).thenReturn(fila);
+        when(entradaFilaRepository.save(any())).thenReturn(entrada);
+        when(entradaFilaRepository.findById(entrada.getId())).thenReturn(Optional.of(entrada));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.quantidadeAFrente(fila.getId(), entrada.getId(), false, entrada.getDataHoraEntrada(), false))
+                .thenReturn(4);
+        when(ritmoAtendimento.estimarEsperaSegundos(fila.getId(), 5)).thenReturn(1200L);
+
+        EntradaFilaResponseDTO result = service.adicionarClienteAFila(new EntradaFilaCreateDTO(clienteId, fila.getId(), false, false));
+
+        assertEquals(5, result.posicaoNaFila());
+        assertEquals(1200L, result.esperaEstimadaSegundos());
+    }
+
     @Test void findEntradaFilaById_naoEncontrado() {
         UUID id = UUID.randomUUID();
         when(entradaFilaRepository.findById(id)).thenReturn(Optional.empty());
@@ -278,14 +361,14 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, true)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), true)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
     }
 
-    @Test void chamarProximo_mensagemVocalizacaoCamposNulos() throws Exception {
+    @Test void chamarProximo_mensagemVocalizacaoCamposNulos() {
         UUID filaId = UUID.randomUUID();
         UUID usuarioId = UUID.randomUUID();
         String guiche = "A1";
@@ -296,41 +379,47 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         doReturn(new EntradaFilaResponseDTO(UUID.randomUUID(), StatusFila.CHAMADO, false, false, null, null, null, null, null, null, UUID.randomUUID())).when(entradaFilaMapper).toResponseDTO(any());
-        EntradaFilaServiceImpl spyService = spy(service);
-        java.lang.reflect.Method mChamadaAtual = EntradaFilaServiceImpl.class.getDeclaredMethod("getChamadaAtual", Fila.class);
-        mChamadaAtual.setAccessible(true);
-        EntradaFilaResponseDTO result = spyService.chamarProximo(filaId, usuarioId, guiche);
+        EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
+        // Entrada sem cliente carregado: registra a chamada sem nome
+        verify(chamadasRecentes).registrar(eq(filaId), argThat(c -> c.nomePaciente() == null && guiche.equals(c.guicheOuSala())));
     }
 
-    @Test void getChamadaAtual_optionalVazio() throws Exception {
-        Fila fila = new Fila(); fila.setId(UUID.randomUUID());
-        EntradaFilaServiceImpl spyService = spy(service);
-        doReturn(Optional.empty()).when(entradaFilaRepository).findFirstByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO);
-        java.lang.reflect.Method m = EntradaFilaServiceImpl.class.getDeclaredMethod("getChamadaAtual", Fila.class);
-        m.setAccessible(true);
-        Object result = m.invoke(spyService, fila);
-        assertNull(result);
+    @Test void chamarProximo_registraNasChamadasRecentes() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Triagem");
+        Cliente cliente = new Cliente(); cliente.setNome("Maria");
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setCliente(cliente); entrada.setStatus(StatusFila.AGUARDANDO);
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(new Usuario());
+        when(entradaFilaRepository.reservarProximoAguardando(filaId, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.save(any())).thenReturn(entrada);
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        service.chamarProximo(filaId, usuarioId, "Sala 3");
+        verify(chamadasRecentes).registrar(filaId, new ChamadaDTO("Maria", "Sala 3", entrada.getDataHoraChamada()));
+        // Sem setor/unidade carregados, o histórico recebe os ids nulos e decide se grava
+        verify(chamadaPainelService).registrar(new ChamadaPainelRegistroDTO(
+                entrada.getId(), filaId, null, null, "Maria", "Sala 3", entrada.getDataHoraChamada()));
     }
 
-    @Test void getUltimasChamadas_listaVazia() throws Exception {
-        Fila fila = new Fila(); fila.setId(UUID.randomUUID());
-        EntradaFilaServiceImpl spyService = spy(service);
-        doReturn(Collections.emptyList()).when(entradaFilaRepository).findTop3ByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO);
-        java.lang.reflect.Method m = EntradaFilaServiceImpl.class.getDeclaredMethod("getUltimasChamadas", Fila.class);
-        m.setAccessible(true);
-        Object result = m.invoke(spyService, fila);
-        assertInstanceOf(List.class, result);
-        assertTrue(((List<?>) result).isEmpty());
+    @Test void getPainelPublico_semChamadas() {
+        UUID filaId = UUID.randomUUID();
+        when(chamadasRecentes.ultimas(filaId)).thenReturn(Collections.emptyList());
+        PainelPublicoDTO painel = service.getPainelPublico(filaId);
+        assertEquals(filaId, painel.filaId());
+        assertNull(painel.chamadaAtual());
+        assertTrue(painel.ultimasChamadas().isEmpty());
+        verifyNoInteractions(entradaFilaRepository, filaService);
     }
 
     @Test void getFilaAtual_listaVazia() throws Exception {
         UUID setorId = UUID.randomUUID();
         EntradaFilaServiceImpl spyService = spy(service);
-        doReturn(Collections.emptyList()).when(filaService).findBySetorId(setorId);
+        doReturn(Collections.emptyList()).when(entradaFilaRepository).findAguardandoComDetalhesBySetorId(setorId);
         java.lang.reflect.Method m = EntradaFilaServiceImpl.class.getDeclaredMethod("getFilaAtual", UUID.class);
         m.setAccessible(true);
         Object result = m.invoke(spyService, setorId);
@@ -364,8 +453,6 @@ class EntradaFilaServiceImplTest {
         Fila fila = new Fila(); fila.setId(filaId);
         com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
         EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setCliente(cliente); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
-        Painel painel = new Painel(); painel.setId(UUID.randomUUID()); painel.setFilas(List.of(fila));
-        when(painelRepository.findPaineisByFilaId(fila.getId())).thenReturn(List.of(painel));
         when(clienteService.findClienteById(clienteId)).thenReturn(cliente);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(entradaFilaRepository.existsByClienteAndFilaAndStatus(cliente, fila, StatusFila.AGUARDANDO)).thenReturn(false);
@@ -374,10 +461,8 @@ class EntradaFilaServiceImplTest {
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.adicionarClienteAFila(dto);
         assertNotNull(result);
-        // Comportamento atualizado: não envia mais atualização ao painel público ao adicionar
-        verify(filaBroadcastService, never()).broadcastPainelPublicoUpdate(any(), any());
-        // Continua atualizando o painel profissional
-        verify(filaBroadcastService, times(1)).broadcastFilaProfissionalUpdate(eq(setor.getId()), any());
+        // Evento de entrada: após o commit atualiza apenas o painel profissional
+        verify(eventPublisher, times(1)).publishEvent(new FilaAlteradaEvent(filaId, setor.getId(), TipoEventoFila.ENTRADA));
     }
 
     @Test void chamarProximo_mensagemVocalizacaoVazia() {
@@ -389,18 +474,30 @@ class EntradaFilaServiceImplTest {
         Usuario usuario = new Usuario(); usuario.setId(usuarioId);
         EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
-        Painel painel = new Painel(); painel.setId(UUID.randomUUID()); painel.setFilas(List.of(fila));
-        when(painelRepository.findPaineisByFilaId(fila.getId())).thenReturn(List.of(painel));
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
-        when(entradaFilaRepository.findFirstByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO)).thenReturn(Optional.empty());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
-        verify(filaBroadcastService, times(1)).broadcastPainelPublicoUpdate(eq(painel.getId()), any());
-        verify(filaBroadcastService, times(1)).broadcastFilaProfissionalUpdate(eq(setor.getId()), any());
+        verify(eventPublisher, times(1)).publishEvent(new FilaAlteradaEvent(filaId, setor.getId(), TipoEventoFila.CHAMADA));
+        PainelPublicoDTO painel = service.getPainelPublico(filaId);
+        assertNull(painel.chamadaAtual());
+        assertEquals("", painel.mensagemVocalizacao());
+        assertFalse(painel.sinalizacaoSonora());
+    }
+
+    @Test void getPainelPublico_montaMensagemDeVocalizacao() {
+        UUID filaId = UUID.randomUUID();
+        ChamadaDTO atual = new ChamadaDTO("Maria", "Sala 3", java.time.LocalDateTime.now());
+        ChamadaDTO anterior = new ChamadaDTO("João", "Sala 1", atual.dataHoraChamada().minusMinutes(5));
+        when(chamadasRecentes.ultimas(filaId)).thenReturn(List.of(atual, anterior));
+        PainelPublicoDTO painel = service.getPainelPublico(filaId);
+        assertEquals(atual, painel.chamadaAtual());
+        assertEquals("Maria, compareça a Sala 3!", painel.mensagemVocalizacao());
+        assertTrue(painel.sinalizacaoSonora());
+        assertEquals(List.of(atual, anterior), painel.ultimasChamadas());
     }
 
     @Test void chamarProximo_listaUltimasChamadasVazia() {
@@ -414,17 +511,16 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
-        when(entradaFilaRepository.findTop3ByFilaAndStatusOrderByDataHoraChamadaDesc(fila, StatusFila.CHAMADO)).thenReturn(Collections.emptyList());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
     }
 
     @Test void getFilaAtual_listaFilasVazia() {
         UUID setorId = UUID.randomUUID();
-        when(filaService.findBySetorId(setorId)).thenReturn(Collections.emptyList());
+        when(entradaFilaRepository.findAguardandoComDetalhesBySetorId(setorId)).thenReturn(Collections.emptyList());
         try {
             java.lang.reflect.Method m = EntradaFilaServiceImpl.class.getDeclaredMethod("getFilaAtual", UUID.class);
             m.setAccessible(true);
@@ -457,7 +553,7 @@ class EntradaFilaServiceImplTest {
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(null); // agora permitido (não lança exception na implementação atual)
         EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
@@ -483,10 +579,198 @@ class EntradaFilaServiceImplTest {
         EntradaFila chamado = new EntradaFila(); chamado.setId(entrada.getId()); chamado.setFila(fila); chamado.setStatus(StatusFila.CHAMADO);
         when(filaService.findFilaById(filaId)).thenReturn(fila);
         when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
-        when(entradaFilaRepository.findFirstByFilaAndStatusAndIsRetornoOrderByPrioridadeDescDataHoraEntradaAsc(fila, StatusFila.AGUARDANDO, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.reservarProximoAguardando(fila.getId(), false)).thenReturn(Optional.of(entrada));
         when(entradaFilaRepository.save(any())).thenReturn(chamado);
         when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
         EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, guiche);
         assertNotNull(result);
     }
+
+    @Test void chamarProximo_indiceAtivoUsaMemoria() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Triagem");
+        com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
+        Usuario usuario = new Usuario(); usuario.setId(usuarioId);
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(usuario);
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.retirarProximo(filaId, false)).thenReturn(Optional.of(entrada.getId()));
+        when(entradaFilaRepository.reservarSeAguardando(entrada.getId())).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        EntradaFilaResponseDTO result = service.chamarProximo(filaId, usuarioId, "A1");
+        assertNotNull(result);
+        assertEquals(StatusFila.CHAMADO, entrada.getStatus());
+        verify(entradaFilaRepository, never()).reservarProximoAguardando(any(), anyBoolean());
+        verify(filaPrioridadeIndex).restaurarEmCasoDeRollback(entrada);
+    }
+
+    @Test void chamarProximo_indiceDescartaEntradaObsoleta() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Atendimento Médico");
+        com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
+        EntradaFila obsoleta = new EntradaFila(); obsoleta.setId(UUID.randomUUID()); obsoleta.setFila(fila); obsoleta.setStatus(StatusFila.CANCELADO);
+        EntradaFila valida = new EntradaFila(); valida.setId(UUID.randomUUID()); valida.setFila(fila); valida.setStatus(StatusFila.AGUARDANDO);
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(new Usuario());
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.retirarProximo(filaId, true)).thenReturn(Optional.of(obsoleta.getId()), Optional.of(valida.getId()));
+        when(entradaFilaRepository.reservarSeAguardando(obsoleta.getId())).thenReturn(Optional.empty());
+        when(entradaFilaRepository.reservarSeAguardando(valida.getId())).thenReturn(Optional.of(valida));
+        when(entradaFilaRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        service.chamarProximo(filaId, usuarioId, "Sala 2");
+        assertEquals(StatusFila.CHAMADO, valida.getStatus());
+        assertEquals(StatusFila.CANCELADO, obsoleta.getStatus());
+    }
+
+    @Test void chamarProximo_indiceAtivoVazio() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Triagem");
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(new Usuario());
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.retirarProximo(filaId, false)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> service.chamarProximo(filaId, usuarioId, "A1"));
+    }
+
+    @Test void chamarProximo_indiceVazioConsultaOBanco() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Triagem");
+        com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila); entrada.setStatus(StatusFila.AGUARDANDO);
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(new Usuario());
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.retirarProximo(filaId, false)).thenReturn(Optional.empty());
+        when(entradaFilaRepository.reservarProximoAguardando(filaId, false)).thenReturn(Optional.of(entrada));
+        when(entradaFilaRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        service.chamarProximo(filaId, usuarioId, "A1");
+        assertEquals(StatusFila.CHAMADO, entrada.getStatus());
+        verify(filaPrioridadeIndex).remover(entrada);
+        verify(filaPrioridadeIndex).restaurarEmCasoDeRollback(entrada);
+    }
+
+    @Test void chamarProximo_indiceDevolveEntradaReservadaPorOutraTransacao() {
+        UUID filaId = UUID.randomUUID();
+        UUID usuarioId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(filaId); fila.setNome("Triagem");
+        com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
+        EntradaFila valida = new EntradaFila(); valida.setId(UUID.randomUUID()); valida.setFila(fila); valida.setStatus(StatusFila.AGUARDANDO);
+        com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO reservada = new com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO(
+                UUID.randomUUID(), filaId, false, false, java.time.LocalDateTime.now().minusMinutes(5));
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(usuarioService.findUsuarioById(usuarioId)).thenReturn(new Usuario());
+        when(filaPrioridadeIndex.isAtivo()).thenReturn(true);
+        when(filaPrioridadeIndex.retirarProximo(filaId, false)).thenReturn(Optional.of(reservada.id()), Optional.of(valida.getId()));
+        when(entradaFilaRepository.reservarSeAguardando(reservada.id())).thenReturn(Optional.empty());
+        when(entradaFilaRepository.findPrioridadeByIdAndStatus(reservada.id(), StatusFila.AGUARDANDO)).thenReturn(Optional.of(reservada));
+        when(entradaFilaRepository.reservarSeAguardando(valida.getId())).thenReturn(Optional.of(valida));
+        when(entradaFilaRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        service.chamarProximo(filaId, usuarioId, "A1");
+        assertEquals(StatusFila.CHAMADO, valida.getStatus());
+        verify(filaPrioridadeIndex).adicionar(reservada);
+        verify(entradaFilaRepository, never()).reservarProximoAguardando(any(), anyBoolean());
+    }
+
+    @Test void getSnapshotPainelProfissional_usaEstadoBaseDoDelta() {
+        UUID setorId = UUID.randomUUID();
+        FilaSnapshotDTO snapshot = new FilaSnapshotDTO(setorId, 7, List.of());
+        when(painelProfissionalDeltaTracker.snapshot(setorId)).thenReturn(Optional.of(snapshot));
+        assertSame(snapshot, service.getSnapshotPainelProfissional(setorId));
+        verifyNoInteractions(filaService);
+    }
+
+    @Test void getSnapshotPainelProfissional_inicializaSetorNaoAcompanhado() {
+        UUID setorId = UUID.randomUUID();
+        Fila fila = new Fila(); fila.setId(UUID.randomUUID());
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila);
+        EntradaFilaResponseDTO dto = mockResponseDTO();
+        EntradaFilaResponseDTO comEstimativa = dto.comEstimativa(1, 240L);
+        FilaSnapshotDTO snapshot = new FilaSnapshotDTO(setorId, 0, List.of(comEstimativa));
+        when(painelProfissionalDeltaTracker.snapshot(setorId)).thenReturn(Optional.empty());
+        when(entradaFilaRepository.findAguardandoComDetalhesBySetorId(setorId)).thenReturn(List.of(entrada));
+        when(entradaFilaMapper.toResponseDTO(entrada)).thenReturn(dto);
+        when(ritmoAtendimento.estimarEsperaSegundos(fila.getId(), 1)).thenReturn(240L);
+        when(painelProfissionalDeltaTracker.inicializar(setorId, List.of(comEstimativa))).thenReturn(snapshot);
+        assertSame(snapshot, service.getSnapshotPainelProfissional(setorId));
+    }
+
+    @Test void getPainelProfissional_umaConsultaParaOSetor_estimativasPorFila() {
+        UUID setorId = UUID.randomUUID();
+        Fila medico = new Fila(); medico.setId(UUID.randomUUID()); medico.setNome("Atendimento Médico");
+        Fila triagem = new Fila(); triagem.setId(UUID.randomUUID()); triagem.setNome("Triagem");
+        EntradaFila primeiraConsulta = new EntradaFila(); primeiraConsulta.setId(UUID.randomUUID()); primeiraConsulta.setFila(medico);
+        EntradaFila retorno = new EntradaFila(); retorno.setId(UUID.randomUUID()); retorno.setFila(medico); retorno.setRetorno(true);
+        EntradaFila naTriagem = new EntradaFila(); naTriagem.setId(UUID.randomUUID()); naTriagem.setFila(triagem);
+        when(entradaFilaRepository.findAguardandoComDetalhesBySetorId(setorId)).thenReturn(List.of(primeiraConsulta, retorno, naTriagem));
+        when(entradaFilaMapper.toResponseDTO(any())).thenAnswer(i -> mockResponseDTO());
+        when(ritmoAtendimento.estimarEsperaSegundos(any(), anyInt())).thenAnswer(i -> 60L * i.<Integer>getArgument(1));
+
+        List<EntradaFilaResponseDTO> filaAtual = service.getPainelProfissional(setorId).filaAtual();
+
+        // Na fila médica o retorno é chamado primeiro; a posição recomeça em cada fila
+        assertEquals(List.of(2, 1, 1), filaAtual.stream().map(EntradaFilaResponseDTO::posicaoNaFila).toList());
+        assertEquals(List.of(120L, 60L, 60L), filaAtual.stream().map(EntradaFilaResponseDTO::esperaEstimadaSegundos).toList());
+        verify(ritmoAtendimento).estimarEsperaSegundos(triagem.getId(), 1);
+        verify(entradaFilaRepository, never()).findComDetalhesByFilaIdAndStatus(any(), any());
+        verifyNoInteractions(filaService, setorService);
+    }
+
+    @Test void getPainelProfissional_setorInexistente() {
+        UUID setorId = UUID.randomUUID();
+        when(entradaFilaRepository.findAguardandoComDetalhesBySetorId(setorId)).thenReturn(Collections.emptyList());
+        when(setorService.findSetorById(setorId)).thenThrow(new ResourceNotFoundException("Setor não encontrado"));
+        assertThrows(ResourceNotFoundException.class, () -> service.getPainelProfissional(setorId));
+    }
+
+    @Test void adicionarClienteAFila_publicaEventoParaOutrasInstancias() {
+        UUID clienteId = UUID.randomUUID();
+        UUID filaId = UUID.randomUUID();
+        Cliente cliente = new Cliente(); cliente.setId(clienteId);
+        Fila fila = new Fila(); fila.setId(filaId);
+        EntradaFila entrada = new EntradaFila(); entrada.setId(UUID.randomUUID()); entrada.setFila(fila);
+        when(clienteService.findClienteById(clienteId)).thenReturn(cliente);
+        when(filaService.findFilaById(filaId)).thenReturn(fila);
+        when(entradaFilaRepository.save(any())).thenReturn(entrada);
+        when(entradaFilaRepository.findById(entrada.getId())).thenReturn(Optional.of(entrada));
+        when(entradaFilaMapper.toResponseDTO(any())).thenReturn(mockResponseDTO());
+        service.adicionarClienteAFila(new EntradaFilaCreateDTO(clienteId, filaId, false, false));
+        verify(filaEventoBus).publicar(TipoEventoFila.ENTRADA, entrada);
+        verify(dashboardAoVivo).registrarEntrada(entrada);
+    }
+
+    @Test void aoAlterarFilaEmOutraInstancia_entradaAtualizaIndiceERepassaAosClientesLocais() {
+        ReflectionTestUtils.setField(service, "modoBroker", "simples");
+        Fila fila = new Fila(); fila.setId(UUID.randomUUID());
+        com.wjbc.fila_atendimento.domain.model.Setor setor = new com.wjbc.fila_atendimento.domain.model.Setor(); setor.setId(UUID.randomUUID()); fila.setSetor(setor);
+        FilaAlteracaoEvento evento = new FilaAlteracaoEvento("outra", TipoEventoFila.ENTRADA, setor.getId(), fila.getId(),
+                UUID.randomUUID(), true, false, java.time.LocalDateTime.now());
+
+        service.aoAlterarFilaEmOutraInstancia(evento);
+
+        verify(filaPrioridadeIndex).adicionar(new com.wjbc.fila_atendimento.domain.dto.EntradaFilaPrioridadeDTO(
+                evento.entradaFilaId(), fila.getId(), true, false, evento.dataHoraEntrada()));
+        verify(eventPublisher).publishEvent(new FilaAlteradaEvent(fila.getId(), setor.getId(), TipoEventoFila.ENTRADA));
+    }
+
+    @Test void aoAlterarFilaEmOutraInstancia_comRelayApenasAtualizaIndice() {
+        ReflectionTestUtils.setField(service, "modoBroker", "relay");
+        UUID filaId = UUID.randomUUID();
+        FilaAlteracaoEvento evento = new FilaAlteracaoEvento("outra", TipoEventoFila.CHAMADA, UUID.randomUUID(), filaId,
+                UUID.randomUUID(), false, false, java.time.LocalDateTime.now());
+
+        service.aoAlterarFilaEmOutraInstancia(evento);
+
+        verify(filaPrioridadeIndex).remover(filaId, evento.entradaFilaId());
+        verify(chamadasRecentes).invalidar(filaId);
+        verifyNoInteractions(eventPublisher);
+    }
 }
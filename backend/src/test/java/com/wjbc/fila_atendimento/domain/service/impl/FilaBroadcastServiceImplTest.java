@@ -0,0 +1,144 @@
+package com.wjbc.fila_atendimento.domain.service.impl;
+
+import com.wjbc.fila_atendimento.controller.FilaWebSocketController;
+import com.wjbc.fila_atendimento.domain.dto.EntradaFilaResponseDTO;
+import com.wjbc.fila_atendimento.domain.dto.FilaDeltaDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelProfissionalDTO;
+import com.wjbc.fila_atendimento.domain.enumeration.StatusFila;
+import com.wjbc.fila_atendimento.domain.enumeration.TipoAlteracaoFila;
+import com.wjbc.fila_atendimento.support.PainelProfissionalEstadoEmMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FilaBroadcastServiceImplTest {
+    @Mock FilaWebSocketController filaWebSocketController;
+    @Mock PlatformTransactionManager transactionManager;
+
+    private FilaBroadcastServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new FilaBroadcastServiceImpl(filaWebSocketController, PainelProfissionalEstadoEmMemoria.novoTracker(), transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "coalescenciaHabilitada", true);
+        ReflectionTestUtils.setField(service, "enviarSnapshotCompleto", true);
+    }
+
+    private static EntradaFilaResponseDTO entrada(UUID id, String guiche) {
+        return new EntradaFilaResponseDTO(id, StatusFila.AGUARDANDO, false, false, LocalDateTime.of(2025, 1, 1, 8, 0),
+                null, null, guiche, null, null, null);
+    }
+
+    private static PainelProfissionalDTO painel(UUID setorId, EntradaFilaResponseDTO... entradas) {
+        return new PainelProfissionalDTO(setorId, List.of(entradas));
+    }
+
+    @Test void agendar_rajadaNoMesmoSetorGeraUmUnicoEnvio() {
+        UUID setorId = UUID.randomUUID();
+        AtomicInteger montagens = new AtomicInteger();
+        PainelProfissionalDTO ultimo = painel(setorId, entrada(UUID.randomUUID(), null));
+        for (int i = 0; i < 50; i++) {
+            PainelProfissionalDTO versao = i == 49 ? ultimo : painel(setorId);
+            service.agendarFilaProfissionalUpdate(setorId, () -> {
+                montagens.incrementAndGet();
+                return versao;
+            });
+        }
+        verifyNoInteractions(filaWebSocketController);
+
+        service.enviarPendentes();
+
+        assertEquals(1, montagens.get());
+        verify(filaWebSocketController, times(1)).sendFilaProfissionalUpdate(setorId, ultimo);
+        assertEquals(49, service.getAtualizacoesCoalescidas());
+        assertEquals(1, service.getAtualizacoesEmitidas());
+    }
+
+    @Test void agendar_setoresDistintosEnviadosSeparadamente() {
+        UUID setorA = UUID.randomUUID();
+        UUID setorB = UUID.randomUUID();
+        PainelProfissionalDTO painelA = painel(setorA);
+        PainelProfissionalDTO painelB = painel(setorB);
+        service.agendarFilaProfissionalUpdate(setorA, () -> painelA);
+        service.agendarFilaProfissionalUpdate(setorB, () -> painelB);
+
+        service.enviarPendentes();
+        service.enviarPendentes();
+
+        verify(filaWebSocketController).sendFilaProfissionalUpdate(setorA, painelA);
+        verify(filaWebSocketController).sendFilaProfissionalUpdate(setorB, painelB);
+        assertEquals(0, service.getAtualizacoesCoalescidas());
+        assertEquals(2, service.getAtualizacoesEmitidas());
+    }
+
+    @Test void agendar_falhaAoMontarNaoImpedeOutrosSetores() {
+        UUID setorComFalha = UUID.randomUUID();
+        UUID setorOk = UUID.randomUUID();
+        PainelProfissionalDTO painelOk = painel(setorOk);
+        service.agendarFilaProfissionalUpdate(setorComFalha, () -> { throw new IllegalStateException("erro"); });
+        service.agendarFilaProfissionalUpdate(setorOk, () -> painelOk);
+
+        service.enviarPendentes();
+
+        verify(filaWebSocketController).sendFilaProfissionalUpdate(setorOk, painelOk);
+        verify(filaWebSocketController, never()).sendFilaProfissionalUpdate(eq(setorComFalha), any());
+    }
+
+    @Test void agendar_coalescenciaDesabilitadaEnviaImediatamente() {
+        ReflectionTestUtils.setField(service, "coalescenciaHabilitada", false);
+        UUID setorId = UUID.randomUUID();
+        PainelProfissionalDTO imediato = painel(setorId);
+
+        service.agendarFilaProfissionalUpdate(setorId, () -> imediato);
+
+        verify(filaWebSocketController).sendFilaProfissionalUpdate(setorId, imediato);
+        assertEquals(1, service.getAtualizacoesEmitidas());
+    }
+
+    @Test void agendar_publicaDeltaSomenteComAsEntradasAlteradas() {
+        UUID setorId = UUID.randomUUID();
+        UUID mantida = UUID.randomUUID();
+        UUID removida = UUID.randomUUID();
+        UUID nova = UUID.randomUUID();
+        service.agendarFilaProfissionalUpdate(setorId, () -> painel(setorId, entrada(mantida, null), entrada(removida, null)));
+        service.enviarPendentes();
+        service.agendarFilaProfissionalUpdate(setorId, () -> painel(setorId, entrada(mantida, null), entrada(nova, null)));
+        service.enviarPendentes();
+
+        ArgumentCaptor<FilaDeltaDTO> deltas = ArgumentCaptor.forClass(FilaDeltaDTO.class);
+        verify(filaWebSocketController, times(2)).sendFilaProfissionalDelta(eq(setorId), deltas.capture());
+        FilaDeltaDTO segundo = deltas.getAllValues().get(1);
+        assertEquals(1, segundo.sequenciaAnterior());
+        assertEquals(2, segundo.sequencia());
+        assertEquals(2, segundo.alteracoes().size());
+        assertTrue(segundo.alteracoes().stream().anyMatch(a -> a.tipo() == TipoAlteracaoFila.ADICIONADA && a.entradaFilaId().equals(nova)));
+        assertTrue(segundo.alteracoes().stream().anyMatch(a -> a.tipo() == TipoAlteracaoFila.REMOVIDA && a.entradaFilaId().equals(removida)));
+    }
+
+    @Test void agendar_semSnapshotCompletoEnviaApenasDelta() {
+        ReflectionTestUtils.setField(service, "enviarSnapshotCompleto", false);
+        UUID setorId = UUID.randomUUID();
+        service.agendarFilaProfissionalUpdate(setorId, () -> painel(setorId, entrada(UUID.randomUUID(), null)));
+
+        service.enviarPendentes();
+
+        verify(filaWebSocketController).sendFilaProfissionalDelta(eq(setorId), any());
+        verify(filaWebSocketController, never()).sendFilaProfissionalUpdate(any(), any());
+    }
+}
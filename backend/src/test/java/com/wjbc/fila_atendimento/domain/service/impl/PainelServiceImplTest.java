@@ -1,14 +1,18 @@
 package com.wjbc.fila_atendimento.domain.service.impl;
 
+import com.wjbc.fila_atendimento.domain.cache.PainelRoteamentoCache;
 import com.wjbc.fila_atendimento.domain.dto.PainelCreateDTO;
+import com.wjbc.fila_atendimento.domain.dto.PainelPublicoDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelUpdateDTO;
 import com.wjbc.fila_atendimento.domain.dto.PainelResponseDTO;
 import com.wjbc.fila_atendimento.domain.exception.ResourceNotFoundException;
+import com.wjbc.fila_atendimento.domain.model.Fila;
 import com.wjbc.fila_atendimento.domain.model.Painel;
 import com.wjbc.fila_atendimento.domain.model.UnidadeAtendimento;
 import com.wjbc.fila_atendimento.domain.repository.PainelRepository;
 import com.wjbc.fila_atendimento.domain.repository.UnidadeAtendimentoRepository;
 import com.wjbc.fila_atendimento.domain.repository.FilaRepository;
+import com.wjbc.fila_atendimento.domain.service.EntradaFilaService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -29,6 +33,10 @@ class PainelServiceImplTest {
     private UnidadeAtendimentoRepository unidadeAtendimentoRepository;
     @Mock
     private FilaRepository filaRepository; // novo mock para compatibilidade com criação/atualização de filas no painel
+    @Mock
+    private PainelRoteamentoCache painelRoteamentoCache;
+    @Mock
+    private EntradaFilaService entradaFilaService;
 
     @InjectMocks
     private PainelServiceImpl painelService;
@@ -64,6 +72,7 @@ class PainelServiceImplTest {
         assertEquals(unidadeId, response.unidadeAtendimentoId());
         assertNotNull(response.filasIds());
         assertTrue(response.filasIds().isEmpty());
+        verify(painelRoteamentoCache).definirFilas(painelId, List.of());
     }
 
     @Test
@@ -148,6 +157,30 @@ class PainelServiceImplTest {
         doNothing().when(painelRepository).delete(painel);
         assertDoesNotThrow(() -> painelService.desativar(painelId));
         verify(painelRepository, times(1)).delete(painel);
+        verify(painelRoteamentoCache).removerPainel(painelId);
+    }
+
+    @Test
+    void testAdicionarFilaAtualizaRoteamento() {
+        UUID filaId = UUID.randomUUID();
+        Fila fila = new Fila();
+        fila.setId(filaId);
+        when(painelRepository.findById(painelId)).thenReturn(Optional.of(painel));
+        when(filaRepository.findById(filaId)).thenReturn(Optional.of(fila));
+        when(painelRepository.save(any(Painel.class))).thenReturn(painel);
+        painelService.adicionarFilaAoPainel(painelId, filaId);
+        verify(painelRoteamentoCache).definirFilas(painelId, List.of(filaId));
+    }
+
+    @Test
+    void testRemoverFilaAtualizaRoteamento() {
+        Fila fila = new Fila();
+        fila.setId(UUID.randomUUID());
+        painel.getFilas().add(fila);
+        when(painelRepository.findById(painelId)).thenReturn(Optional.of(painel));
+        when(painelRepository.save(any(Painel.class))).thenReturn(painel);
+        painelService.removerFilaDoPainel(painelId, fila.getId());
+        verify(painelRoteamentoCache).definirFilas(painelId, List.of());
     }
 
     @Test
@@ -155,4 +188,31 @@ class PainelServiceImplTest {
         when(painelRepository.findById(painelId)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> painelService.desativar(painelId));
     }
+
+    @Test
+    void testBuscarChamadasPublicoPeloRoteamento() {
+        UUID filaId = UUID.randomUUID();
+        PainelPublicoDTO estado = new PainelPublicoDTO(filaId, null, List.of(), "", 15, 3, 5, false);
+        when(painelRoteamentoCache.filasDoPainel(painelId)).thenReturn(Optional.of(Set.of(filaId)));
+        when(entradaFilaService.getPainelPublico(filaId)).thenReturn(estado);
+        assertEquals(List.of(estado), painelService.buscarChamadasPublico(painelId));
+        verifyNoInteractions(painelRepository);
+    }
+
+    @Test
+    void testBuscarChamadasPublicoSemRoteamentoConsultaBanco() {
+        UUID filaId = UUID.randomUUID();
+        when(painelRoteamentoCache.filasDoPainel(painelId)).thenReturn(Optional.empty());
+        when(painelRepository.existsById(painelId)).thenReturn(true);
+        when(painelRepository.findFilaIdsByPainelId(painelId)).thenReturn(List.of(filaId));
+        painelService.buscarChamadasPublico(painelId);
+        verify(entradaFilaService).getPainelPublico(filaId);
+    }
+
+    @Test
+    void testBuscarChamadasPublicoPainelNotFound() {
+        when(painelRoteamentoCache.filasDoPainel(painelId)).thenReturn(Optional.empty());
+        when(painelRepository.existsById(painelId)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> painelService.buscarChamadasPublico(painelId));
+    }
 }
@@ -0,0 +1,49 @@
+package com.wjbc.fila_atendimento.domain.transacao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AposCommitTest {
+
+    @AfterEach
+    void limpar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test void semTransacao_executaNaHora() {
+        List<String> executadas = new ArrayList<>();
+        AposCommit.executar(() -> executadas.add("acao"));
+        assertEquals(List.of("acao"), executadas);
+    }
+
+    @Test void comTransacao_soDepoisDoCommit() {
+        List<String> executadas = new ArrayList<>();
+        TransactionSynchronizationManager.initSynchronization();
+
+        AposCommit.executar(() -> executadas.add("acao"));
+        assertTrue(executadas.isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of("acao"), executadas);
+    }
+
+    @Test void transacaoRevertida_naoExecuta() {
+        List<String> executadas = new ArrayList<>();
+        TransactionSynchronizationManager.initSynchronization();
+
+        AposCommit.executar(() -> executadas.add("acao"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(executadas.isEmpty());
+    }
+}
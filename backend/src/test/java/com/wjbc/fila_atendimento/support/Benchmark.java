@@ -0,0 +1,31 @@
+package com.wjbc.fila_atendimento.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de tempo dos benchmarks. Os tempos medidos sempre vão para o log, mas só reprovam o teste
+ * com {@code -Dbenchmark.verificar-tempos=true}, numa máquina sem outras cargas: na execução normal
+ * (CI compartilhada) valem apenas as verificações determinísticas, como a contagem de consultas.
+ */
+@Slf4j
+public final class Benchmark {
+
+    private Benchmark() {}
+
+    public static boolean temposVerificados() {
+        return Boolean.getBoolean("benchmark.verificar-tempos");
+    }
+
+    /** Reprova o teste se a condição de tempo falhar e os tempos forem verificados; senão, só registra. */
+    public static void verificarTempo(boolean dentroDoLimite, Supplier<String> mensagem) {
+        if (temposVerificados()) {
+            assertTrue(dentroDoLimite, mensagem);
+        } else if (!dentroDoLimite) {
+            log.warn("{} (não verificado: use -Dbenchmark.verificar-tempos=true)", mensagem.get());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.wjbc.fila_atendimento.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjbc.fila_atendimento.domain.cache.PainelProfissionalDeltaTracker;
+import com.wjbc.fila_atendimento.domain.model.PainelProfissionalEstado;
+import com.wjbc.fila_atendimento.domain.repository.PainelProfissionalEstadoRepository;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link PainelProfissionalDeltaTracker} para testes de unidade: com o broker simples o estado já é
+ * da instância; com o externo a tabela {@code painel_profissional_estado} vira um mapa, com o mesmo
+ * JSON gravado pelo banco.
+ */
+public final class PainelProfissionalEstadoEmMemoria {
+
+    private PainelProfissionalEstadoEmMemoria() {}
+
+    public static PainelProfissionalDeltaTracker novoTracker() {
+        return new PainelProfissionalDeltaTracker(mock(PainelProfissionalEstadoRepository.class),
+                mock(PlatformTransactionManager.class), Jackson2ObjectMapperBuilder.json().build(), "simples");
+    }
+
+    // Trackers criados sobre o mesmo mapa fazem o papel de réplicas sobre o mesmo banco (broker externo)
+    public static PainelProfissionalDeltaTracker novoTrackerCompartilhado(Map<UUID, PainelProfissionalEstado> tabela) {
+        PainelProfissionalEstadoRepository repository = mock(PainelProfissionalEstadoRepository.class);
+        when(repository.existsById(any())).thenAnswer(inv -> tabela.containsKey(inv.<UUID>getArgument(0)));
+        when(repository.findById(any())).thenAnswer(inv -> Optional.ofNullable(tabela.get(inv.<UUID>getArgument(0))));
+        when(repository.bloquearPorSetor(any())).thenAnswer(inv -> Optional.ofNullable(tabela.get(inv.<UUID>getArgument(0))));
+        when(repository.saveAndFlush(any())).thenAnswer(inv -> {
+            PainelProfissionalEstado estado = inv.getArgument(0);
+            tabela.put(estado.getSetorId(), estado);
+            return estado;
+        });
+        doAnswer(inv -> {
+            PainelProfissionalEstado estado = new PainelProfissionalEstado();
+            estado.setSetorId(inv.getArgument(0));
+            estado.setEntradas(inv.getArgument(1));
+            estado.setEstimativas(inv.getArgument(2));
+            estado.setAtualizadoEm(LocalDateTime.now());
+            tabela.putIfAbsent(estado.getSetorId(), estado);
+            return null;
+        }).when(repository).inserirEstadoBase(any(), any(), any());
+        // Mesmos padrões do ObjectMapper da aplicação (ignora propriedades desconhecidas, datas ISO)
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        return new PainelProfissionalDeltaTracker(repository, mock(PlatformTransactionManager.class), objectMapper, "relay");
+    }
+}
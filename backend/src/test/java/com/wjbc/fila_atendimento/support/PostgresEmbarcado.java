@@ -0,0 +1,54 @@
+package com.wjbc.fila_atendimento.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * PostgreSQL embarcado compartilhado pelos testes que dependem de recursos que o H2 não
+ * reproduz (SKIP LOCKED, índices parciais, partições...). O schema é criado pelas migrations
+ * do Flyway. Quando o Postgres não pode ser iniciado no ambiente, os testes que o utilizam
+ * são ignorados. As classes de teste devem usar {@code @DirtiesContext}: o contexto precisa
+ * fechar antes do Postgres, que para junto com a JVM.
+ */
+public final class PostgresEmbarcado {
+
+    private static EmbeddedPostgres postgres;
+    private static Throwable falha;
+
+    private PostgresEmbarcado() {}
+
+    private static synchronized EmbeddedPostgres instancia() {
+        if (postgres == null && falha == null) {
+            try {
+                // O próprio EmbeddedPostgres encerra o servidor ao final da JVM
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (Throwable e) {
+                falha = e;
+            }
+        }
+        return postgres;
+    }
+
+    /** Ignora o teste corrente se o Postgres embarcado não estiver disponível. */
+    public static void exigirDisponivel() {
+        Assumptions.assumeTrue(instancia() != null,
+                () -> "PostgreSQL embarcado indisponível: " + falha);
+    }
+
+    /** Aponta o datasource para o Postgres embarcado e habilita o Flyway e os recursos que dependem dele. */
+    public static void registrar(DynamicPropertyRegistry registry) {
+        if (instancia() == null) {
+            return;
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("entrada-fila.particionamento.habilitado", () -> "true");
+        registry.add("dashboard.rollup.habilitado", () -> "true");
+    }
+}